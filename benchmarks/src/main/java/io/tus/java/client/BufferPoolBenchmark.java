@@ -0,0 +1,66 @@
+package io.tus.java.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures obtaining a chunk buffer for every upload, as done by every uploader created for a
+ * retry, either by allocating it or by borrowing it from a {@link TusBufferPool}. Several threads
+ * share the pool, like the workers of a {@link TusUploadManager}. Run with <code>-prof gc</code>
+ * to compare the allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class BufferPoolBenchmark {
+    @Param({"65536", "2097152"})
+    private int chunkSize;
+
+    private TusBufferPool pool;
+
+    /**
+     * Create the pool.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new TusBufferPool(64 * 1024 * 1024);
+    }
+
+    /**
+     * Allocate a new buffer.
+     * @return The buffer
+     */
+    @Benchmark
+    public byte[] allocate() {
+        return new byte[chunkSize];
+    }
+
+    /**
+     * Borrow a buffer and return it.
+     * @return The buffer's length
+     */
+    @Benchmark
+    public int borrowRelease() {
+        byte[] buffer = pool.borrow(chunkSize);
+        int length = buffer.length;
+        pool.release(buffer);
+        return length;
+    }
+}
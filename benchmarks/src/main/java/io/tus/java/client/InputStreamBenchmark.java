@@ -0,0 +1,121 @@
+package io.tus.java.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the overhead of marking a position in a {@link TusInputStream} and seeking back to it,
+ * which {@link TusUploader} does for every request payload and after failed requests. Plain streams
+ * must buffer everything read since the mark, while {@link TusFileChannelInputStream} only moves
+ * its position.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputStreamBenchmark {
+    private static final int FILE_SIZE = 16 * 1024 * 1024;
+
+    @Param({"65536", "2097152"})
+    private int readLength;
+
+    private File file;
+    private byte[] content;
+    private byte[] buffer;
+
+    /**
+     * Create the file and the in-memory content read by the benchmarks.
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+
+        file = File.createTempFile("tus-benchmark", ".bin");
+        OutputStream output = new FileOutputStream(file);
+        try {
+            output.write(content);
+        } finally {
+            output.close();
+        }
+
+        buffer = new byte[readLength];
+    }
+
+    /**
+     * Remove the file after all benchmarks ran.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+    }
+
+    /**
+     * Mark, read and seek back on a stream which supports marking natively.
+     * @param blackhole Consumes the read bytes
+     * @throws IOException
+     */
+    @Benchmark
+    public void markableStream(Blackhole blackhole) throws IOException {
+        markReadAndSeek(new TusInputStream(new ByteArrayInputStream(content)), blackhole);
+    }
+
+    /**
+     * Mark, read and seek back on a stream which is wrapped in a {@link java.io.BufferedInputStream}
+     * since it does not support marking.
+     * @param blackhole Consumes the read bytes
+     * @throws IOException
+     */
+    @Benchmark
+    public void bufferedStream(Blackhole blackhole) throws IOException {
+        markReadAndSeek(new TusInputStream(new FileInputStream(file)), blackhole);
+    }
+
+    /**
+     * Mark, read and seek back using positional reads on the file's channel.
+     * @param blackhole Consumes the read bytes
+     * @throws IOException
+     */
+    @Benchmark
+    public void channel(Blackhole blackhole) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        markReadAndSeek(new TusFileChannelInputStream(stream.getChannel()), blackhole);
+    }
+
+    private void markReadAndSeek(TusInputStream input, Blackhole blackhole) throws IOException {
+        try {
+            long position = FILE_SIZE / 2;
+            input.seekTo(position);
+            input.mark(readLength);
+            blackhole.consume(input.read(buffer, readLength));
+            input.seekTo(position);
+            blackhole.consume(input.read(buffer, readLength));
+        } finally {
+            input.close();
+        }
+    }
+}
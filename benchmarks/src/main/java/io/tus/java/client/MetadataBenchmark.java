@@ -0,0 +1,152 @@
+package io.tus.java.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures encoding the Upload-Metadata header, which is done for every upload which is created.
+ * {@link #legacyEncodedMetadata()} is the implementation used before the header was encoded in a
+ * single pass and cached, kept here for comparison. Run with <code>-prof gc</code> to compare the
+ * allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataBenchmark {
+    @Param({"1", "10"})
+    private int entries;
+
+    @Param({"16", "1024"})
+    private int valueLength;
+
+    private TusUpload upload;
+    private Map<String, String> metadata;
+    private byte[] value;
+
+    /**
+     * Create the metadata with random ASCII values.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        value = new byte[valueLength];
+        for (int i = 0; i < valueLength; i++) {
+            value[i] = (byte) ('a' + random.nextInt(26));
+        }
+
+        metadata = new LinkedHashMap<String, String>();
+        for (int i = 0; i < entries; i++) {
+            metadata.put("key" + i, new String(value));
+        }
+        upload = new TusUpload();
+        upload.setMetadata(metadata);
+    }
+
+    /**
+     * Get the header's value for an upload whose metadata has not changed, which only compares
+     * the entries with the cached ones.
+     * @return The header's value
+     */
+    @Benchmark
+    public String getEncodedMetadata() {
+        return upload.getEncodedMetadata();
+    }
+
+    /**
+     * Encode all metadata entries without using the cache.
+     * @return The header's value
+     */
+    @Benchmark
+    public String encodeMetadata() {
+        return TusUpload.encodeMetadata(metadata);
+    }
+
+    /**
+     * Encode all metadata entries using repeated string concatenation and the platform charset,
+     * as done by earlier versions.
+     * @return The header's value
+     */
+    @Benchmark
+    public String legacyEncodedMetadata() {
+        String encoded = "";
+
+        boolean firstElement = true;
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            if (!firstElement) {
+                encoded += ",";
+            }
+            encoded += entry.getKey() + " " + legacyBase64Encode(entry.getValue().getBytes());
+
+            firstElement = false;
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Encode a single value.
+     * @return The encoded value
+     */
+    @Benchmark
+    public String base64Encode() {
+        return TusUpload.base64Encode(value);
+    }
+
+    /**
+     * Encode a single value using the earlier implementation.
+     * @return The encoded value
+     */
+    @Benchmark
+    public String legacyBase64Encode() {
+        return legacyBase64Encode(value);
+    }
+
+    private static String legacyBase64Encode(byte[] in) {
+        StringBuilder out = new StringBuilder((in.length * 4) / 3);
+        String codes = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/=";
+
+        int b;
+        for (int i = 0; i < in.length; i += 3) {
+            b = (in[i] & 0xFC) >> 2;
+            out.append(codes.charAt(b));
+            b = (in[i] & 0x03) << 4;
+            if (i + 1 < in.length) {
+                b |= (in[i + 1] & 0xF0) >> 4;
+                out.append(codes.charAt(b));
+                b = (in[i + 1] & 0x0F) << 2;
+                if (i + 2 < in.length) {
+                    b |= (in[i + 2] & 0xC0) >> 6;
+                    out.append(codes.charAt(b));
+                    b = in[i + 2] & 0x3F;
+                    out.append(codes.charAt(b));
+                } else {
+                    out.append(codes.charAt(b));
+                    out.append('=');
+                }
+            } else {
+                out.append(codes.charAt(b));
+                out.append("==");
+            }
+        }
+
+        return out.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package io.tus.java.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link TusURLStore} implementations while being used by several threads at once,
+ * as they are by {@link TusUploadManager} and {@link TusClient#uploadParallel(TusUpload, int)}.
+ * Lookups are far more frequent than updates, since every resume looks up the upload's URL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class URLStoreBenchmark {
+    private static final int KEYS = 10000;
+
+    @Param({"memory", "bounded", "file"})
+    private String store;
+
+    private TusURLStore urlStore;
+    private File file;
+    private String[] fingerprints;
+    private URL url;
+
+    /**
+     * Create the store and fill it with entries.
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (store.equals("memory")) {
+            urlStore = new TusURLMemoryStore();
+        } else if (store.equals("bounded")) {
+            urlStore = new TusURLBoundedMemoryStore(KEYS * 2);
+        } else {
+            file = File.createTempFile("tus-benchmark", ".store");
+            file.delete();
+            urlStore = new TusURLFileStore(file);
+        }
+
+        url = new URL("http://localhost/files/0123456789abcdef");
+        fingerprints = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            fingerprints[i] = "/home/user/uploads/file-" + i + ".bin-" + (i * 1024L);
+            urlStore.set(fingerprints[i], url);
+        }
+    }
+
+    /**
+     * Close the store and remove its file, if any.
+     * @throws IOException
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (urlStore instanceof TusURLFileStore) {
+            ((TusURLFileStore) urlStore).close();
+            file.delete();
+        }
+    }
+
+    /**
+     * Look up a random entry.
+     * @return The entry's URL
+     */
+    @Benchmark
+    public URL get() {
+        return urlStore.get(fingerprints[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    /**
+     * Look up random entries and update one in ten of them.
+     * @return The entry's URL
+     */
+    @Benchmark
+    public URL getAndSet() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String fingerprint = fingerprints[random.nextInt(KEYS)];
+        if (random.nextInt(10) == 0) {
+            urlStore.set(fingerprint, url);
+            return url;
+        }
+        return urlStore.get(fingerprint);
+    }
+}
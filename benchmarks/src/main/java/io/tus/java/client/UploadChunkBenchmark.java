@@ -0,0 +1,93 @@
+package io.tus.java.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long {@link TusUploader#uploadChunk()} takes to transfer an entire upload to a
+ * {@link TusTestServer} for different chunk and request payload sizes. The upload is read from
+ * memory and the server discards the data, so the result is dominated by the client's overhead
+ * per chunk and per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadChunkBenchmark {
+    @Param({"67108864"})
+    private int uploadSize;
+
+    @Param({"65536", "2097152"})
+    private int chunkSize;
+
+    @Param({"1048576", "10485760"})
+    private int requestPayloadSize;
+
+    private TusTestServer server;
+    private TusClient client;
+    private byte[] content;
+
+    /**
+     * Start the server and create the upload's content.
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new TusTestServer();
+        server.setStoreData(false);
+        client = new TusClient();
+        client.setUploadCreationURL(server.getUploadCreationURL());
+
+        content = new byte[uploadSize];
+        new Random(42).nextBytes(content);
+    }
+
+    /**
+     * Stop the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Create an upload and transfer its content chunk by chunk.
+     * @return Number of uploaded bytes
+     * @throws IOException
+     * @throws ProtocolException
+     */
+    @Benchmark
+    public long uploadChunk() throws IOException, ProtocolException {
+        TusUpload upload = new TusUpload();
+        upload.setSize(uploadSize);
+        upload.setInputStream(new ByteArrayInputStream(content));
+
+        TusUploader uploader = client.createUpload(upload);
+        uploader.setChunkSize(chunkSize);
+        uploader.setRequestPayloadSize(requestPayloadSize);
+        long bytesUploaded = 0;
+        for (int bytesRead = uploader.uploadChunk(); bytesRead > -1; bytesRead = uploader.uploadChunk()) {
+            bytesUploaded += bytesRead;
+        }
+        uploader.finish();
+        return bytesUploaded;
+    }
+}
@@ -0,0 +1,138 @@
+package io.tus.java.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the upload sources by reading an entire file the same way {@link TusUploader} does:
+ * chunk by chunk into a reused buffer, marking the position at the start of every request payload.
+ * <ul>
+ *  <li>stream: {@link TusInputStream} over a {@link FileInputStream}, the path used for plain streams</li>
+ *  <li>channel: {@link TusFileChannelInputStream}, the default for {@link TusUpload#TusUpload(File)}</li>
+ *  <li>mapped: {@link TusMappedFileInputStream}, see {@link TusUpload#enableMemoryMapping(int)}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadSourceBenchmark {
+    private static final int REQUEST_PAYLOAD_SIZE = 10 * 1024 * 1024;
+
+    @Param({"268435456"})
+    private long fileSize;
+
+    @Param({"2097152"})
+    private int chunkSize;
+
+    private File file;
+    private byte[] buffer;
+
+    /**
+     * Create the file which will be read by all benchmarks.
+     * @throws IOException
+     */
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("tus-benchmark", ".bin");
+        byte[] block = new byte[1024 * 1024];
+        new Random(42).nextBytes(block);
+
+        OutputStream output = new FileOutputStream(file);
+        try {
+            for (long written = 0; written < fileSize; written += block.length) {
+                output.write(block, 0, (int) Math.min(block.length, fileSize - written));
+            }
+        } finally {
+            output.close();
+        }
+
+        buffer = new byte[chunkSize];
+    }
+
+    /**
+     * Remove the file after all benchmarks ran.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+    }
+
+    /**
+     * Read the file using a {@link TusInputStream} wrapping a {@link FileInputStream}.
+     * @param blackhole Consumes the read bytes
+     * @throws IOException
+     */
+    @Benchmark
+    public void stream(Blackhole blackhole) throws IOException {
+        readFully(new TusInputStream(new FileInputStream(file)), blackhole);
+    }
+
+    /**
+     * Read the file using positional reads on its {@link java.nio.channels.FileChannel}.
+     * @param blackhole Consumes the read bytes
+     * @throws IOException
+     */
+    @Benchmark
+    public void channel(Blackhole blackhole) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        readFully(new TusFileChannelInputStream(stream.getChannel()), blackhole);
+    }
+
+    /**
+     * Read the file by mapping it into memory using the default window size.
+     * @param blackhole Consumes the read bytes
+     * @throws IOException
+     */
+    @Benchmark
+    public void mapped(Blackhole blackhole) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        readFully(new TusMappedFileInputStream(stream.getChannel(), 0, fileSize,
+                TusMappedFileInputStream.DEFAULT_WINDOW_SIZE), blackhole);
+    }
+
+    private void readFully(TusInputStream input, Blackhole blackhole) throws IOException {
+        try {
+            long bytesRemainingForRequest = 0;
+            int bytesRead;
+            while (true) {
+                if (bytesRemainingForRequest <= 0) {
+                    input.mark(REQUEST_PAYLOAD_SIZE);
+                    bytesRemainingForRequest = REQUEST_PAYLOAD_SIZE;
+                }
+
+                bytesRead = input.read(buffer, (int) Math.min(buffer.length, bytesRemainingForRequest));
+                if (bytesRead == -1) {
+                    break;
+                }
+
+                bytesRemainingForRequest -= bytesRead;
+                blackhole.consume(buffer[bytesRead - 1]);
+            }
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * This package contains the JMH benchmarks for the TUS - Upload Client.
+ */
+package io.tus.java.client;
@@ -0,0 +1,149 @@
+package io.tus.java.client.httpclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * TusBodyPipe connects the {@link OutputStream} to which {@link io.tus.java.client.TusUploader}
+ * writes a request body with the {@link InputStream} from which {@link java.net.http.HttpClient}
+ * reads it. Unlike {@link java.io.PipedInputStream}, it does not track the threads using either
+ * side, so chunks may be written by different threads, e.g. when uploading asynchronously.
+ */
+final class TusBodyPipe {
+    private final byte[] buffer;
+    private int readPosition;
+    private int count;
+    private boolean sinkClosed;
+    private boolean sourceClosed;
+
+    private final InputStream source = new InputStream() {
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            return TusBodyPipe.this.read(bytes, off, len);
+        }
+
+        @Override
+        public void close() {
+            closeSource();
+        }
+    };
+
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            TusBodyPipe.this.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() {
+            closeSink();
+        }
+    };
+
+    /**
+     * Create a new pipe which buffers up to <code>capacity</code> bytes between both sides.
+     *
+     * @param capacity Size of the buffer in bytes
+     */
+    TusBodyPipe(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    /**
+     * Returns the side from which the request body is read.
+     *
+     * @return The reading side
+     */
+    InputStream getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the side to which the request body is written.
+     *
+     * @return The writing side
+     */
+    OutputStream getSink() {
+        return sink;
+    }
+
+    /**
+     * Signal that no more bytes will be read, e.g. because the response has already been received.
+     * Pending and future writes will fail.
+     */
+    synchronized void closeSource() {
+        sourceClosed = true;
+        notifyAll();
+    }
+
+    private synchronized void closeSink() {
+        sinkClosed = true;
+        notifyAll();
+    }
+
+    private synchronized int read(byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (count == 0) {
+            if (sinkClosed || sourceClosed) {
+                return -1;
+            }
+            await();
+        }
+
+        int bytesRead = Math.min(len, Math.min(count, buffer.length - readPosition));
+        System.arraycopy(buffer, readPosition, bytes, off, bytesRead);
+        readPosition = (readPosition + bytesRead) % buffer.length;
+        count -= bytesRead;
+        notifyAll();
+
+        return bytesRead;
+    }
+
+    private synchronized void write(byte[] bytes, int off, int len) throws IOException {
+        while (len > 0) {
+            if (sinkClosed) {
+                throw new IOException("request body has already been closed");
+            }
+            if (sourceClosed) {
+                throw new IOException("request body is no longer read since the request has completed");
+            }
+            if (count == buffer.length) {
+                await();
+                continue;
+            }
+
+            int writePosition = (readPosition + count) % buffer.length;
+            int bytesWritten = Math.min(len, Math.min(buffer.length - count, buffer.length - writePosition));
+            System.arraycopy(bytes, off, buffer, writePosition, bytesWritten);
+            count += bytesWritten;
+            off += bytesWritten;
+            len -= bytesWritten;
+            notifyAll();
+        }
+    }
+
+    private void await() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while transferring the request body");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.tus.java.client.httpclient;
+
+import io.tus.java.client.TusExchange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A {@link TusExchange} which sends its request using a {@link HttpClient}. Streamed request
+ * bodies are passed to the client through a {@link TusBodyPipe}, so the request is sent while
+ * the uploader is still writing chunks to it.
+ */
+final class TusHttpClientExchange implements TusExchange {
+    /**
+     * Headers which are managed by {@link HttpClient} itself and cannot be set on a request.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "host", "upgrade");
+
+    private static final int PIPE_CAPACITY = 64 * 1024;
+
+    private final HttpClient httpClient;
+    private final String method;
+    private final URL url;
+    private final HttpRequest.Builder builder;
+
+    private TusBodyPipe pipe;
+    private CompletableFuture<HttpResponse<Void>> responseFuture;
+    private HttpResponse<Void> response;
+
+    /**
+     * Create a new exchange for a single request.
+     *
+     * @param httpClient The client used for sending the request
+     * @param method The HTTP method
+     * @param url The URL to send the request to
+     * @throws IOException Thrown if the URL cannot be converted to a URI.
+     */
+    TusHttpClientExchange(HttpClient httpClient, String method, URL url) throws IOException {
+        this.httpClient = httpClient;
+        this.method = method;
+        this.url = url;
+
+        try {
+            builder = HttpRequest.newBuilder(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("invalid upload URL: " + url, e);
+        }
+    }
+
+    @NotNull
+    @Override
+    public URL getURL() {
+        if (response != null) {
+            try {
+                return response.uri().toURL();
+            } catch (MalformedURLException ignored) {
+                // Fall back to the requested URL.
+            }
+        }
+        return url;
+    }
+
+    @Override
+    public void setRequestHeader(@NotNull String name, @NotNull String value) {
+        if (isManagedHeader(name, value)) {
+            return;
+        }
+        builder.setHeader(name, value);
+    }
+
+    @Override
+    public void addRequestHeader(@NotNull String name, @NotNull String value) {
+        if (isManagedHeader(name, value)) {
+            return;
+        }
+        builder.header(name, value);
+    }
+
+    @Override
+    public void setConnectTimeout(int timeout) {
+        // The connect timeout can only be configured on the HttpClient.
+    }
+
+    @Override
+    public void setFollowRedirects(boolean followRedirects) {
+        // The redirect policy can only be configured on the HttpClient.
+    }
+
+    @NotNull
+    @Override
+    public OutputStream openBody(long contentLength) throws IOException {
+        if (responseFuture != null) {
+            throw new IllegalStateException("request has already been sent");
+        }
+
+        final TusBodyPipe bodyPipe = new TusBodyPipe(PIPE_CAPACITY);
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(bodyPipe::getSource);
+        if (contentLength >= 0) {
+            publisher = HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength);
+        }
+
+        pipe = bodyPipe;
+        send(publisher);
+        // Once the response has been received (e.g. because the server rejected the request early),
+        // the body is not read anymore and writing to it must fail instead of blocking forever.
+        responseFuture.whenComplete((result, error) -> bodyPipe.closeSource());
+
+        return bodyPipe.getSink();
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        if (response == null) {
+            if (responseFuture == null) {
+                send(HttpRequest.BodyPublishers.noBody());
+            }
+
+            try {
+                response = responseFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for the response");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("request failed", cause);
+            } catch (CancellationException e) {
+                // The exchange has been closed before the response was received.
+                throw new IOException("request has been cancelled", e);
+            }
+        }
+
+        return response.statusCode();
+    }
+
+    @Nullable
+    @Override
+    public String getResponseHeader(@NotNull String name) {
+        if (response == null) {
+            return null;
+        }
+        return response.headers().firstValue(name).orElse(null);
+    }
+
+    @Override
+    public void close() {
+        if (pipe != null) {
+            pipe.closeSource();
+        }
+        if (responseFuture != null && response == null) {
+            responseFuture.cancel(true);
+        }
+    }
+
+    private void send(HttpRequest.BodyPublisher publisher) {
+        HttpRequest request = builder.method(method, publisher).build();
+        responseFuture = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Handle headers which {@link HttpClient} does not allow to be set directly.
+     *
+     * @param name Name of the header
+     * @param value Value of the header
+     * @return True if the header has been handled and must not be added to the request
+     */
+    private boolean isManagedHeader(String name, String value) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        if (lowerName.equals("expect")) {
+            builder.expectContinue(value.equalsIgnoreCase("100-continue"));
+            return true;
+        }
+        return RESTRICTED_HEADERS.contains(lowerName);
+    }
+}
@@ -0,0 +1,84 @@
+package io.tus.java.client.httpclient;
+
+import io.tus.java.client.TusExchange;
+import io.tus.java.client.TusTransport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * A {@link TusTransport} based on {@link HttpClient}. In contrast to the default transport, which
+ * opens a separate connection for every concurrent request, requests of many concurrent uploads
+ * to the same host are multiplexed over a few HTTP/2 connections if the server supports HTTP/2.
+ * <br>
+ * All settings which {@link HttpClient} only supports for the client as a whole, such as the
+ * proxy, the connect timeout, redirects and TLS, must be configured on the {@link HttpClient}
+ * passed to {@link #TusHttpClientTransport(HttpClient)}. Proxies configured using
+ * {@link io.tus.java.client.TusClient#setProxy(Proxy)} are therefore rejected. A single instance
+ * can, and should, be shared by all uploads and clients.
+ * <pre>
+ * {@code
+ *  TusClient client = new TusClient();
+ *  client.setTransport(new TusHttpClientTransport());
+ * }
+ * </pre>
+ */
+public class TusHttpClientTransport implements TusTransport {
+    private final HttpClient httpClient;
+
+    /**
+     * Create a new transport using a {@link HttpClient} which prefers HTTP/2 and does not follow
+     * redirects.
+     */
+    public TusHttpClientTransport() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build());
+    }
+
+    /**
+     * Create a new transport using the supplied {@link HttpClient}.
+     *
+     * @param httpClient The client used for sending all requests
+     */
+    public TusHttpClientTransport(@NotNull HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Returns the {@link HttpClient} used for sending all requests.
+     *
+     * @return The underlying client
+     */
+    @NotNull
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Create a new exchange which sends its request using the underlying {@link HttpClient}.
+     *
+     * @param method The HTTP method, e.g. POST, HEAD or PATCH
+     * @param url The URL to send the request to
+     * @param proxy Must be null since proxies are configured on the {@link HttpClient}
+     * @return A new exchange
+     * @throws IOException Thrown if the URL cannot be converted to a URI.
+     */
+    @NotNull
+    @Override
+    public TusExchange open(@NotNull String method, @NotNull URL url, @Nullable Proxy proxy) throws IOException {
+        if (proxy != null && proxy.type() != Proxy.Type.DIRECT) {
+            throw new IllegalArgumentException("per-request proxies are not supported by TusHttpClientTransport, "
+                    + "configure a ProxySelector on the HttpClient instead");
+        }
+
+        return new TusHttpClientExchange(httpClient, method, url);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * This package provides a {@link io.tus.java.client.TusTransport} based on the
+ * {@link java.net.http.HttpClient} introduced in Java 11.
+ */
+package io.tus.java.client.httpclient;
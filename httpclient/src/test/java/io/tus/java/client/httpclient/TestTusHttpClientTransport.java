@@ -0,0 +1,158 @@
+package io.tus.java.client.httpclient;
+
+import io.tus.java.client.ProtocolException;
+import io.tus.java.client.TusClient;
+import io.tus.java.client.TusExchange;
+import io.tus.java.client.TusUpload;
+import io.tus.java.client.TusUploader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.socket.PortFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+
+/**
+ * Test class for {@link TusHttpClientTransport}.
+ */
+public class TestTusHttpClientTransport {
+    private ClientAndServer mockServer;
+    private URL mockServerURL;
+
+    /**
+     * Start the MockServer before running a test.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        int port = PortFactory.findFreePort();
+        mockServerURL = new URL("http://localhost:" + port + "/files");
+        mockServer = startClientAndServer(port);
+    }
+
+    /**
+     * Stop the MockServer after running a test.
+     */
+    @After
+    public void tearDown() {
+        mockServer.stop();
+    }
+
+    /**
+     * Tests if an upload can be created and uploaded using the HttpClient based transport.
+     * @throws IOException
+     * @throws ProtocolException
+     */
+    @Test
+    public void testCreateAndUpload() throws IOException, ProtocolException {
+        byte[] content = "hello world".getBytes();
+
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Length", "11"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/foo"));
+
+        mockServer.when(new HttpRequest()
+                .withMethod("PATCH")
+                .withPath("/files/foo")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Offset", "0")
+                .withHeader("Content-Type", "application/offset+octet-stream")
+                .withBody(content))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        client.setTransport(new TusHttpClientTransport());
+        client.setUploadCreationURL(mockServerURL);
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(content.length);
+        upload.setInputStream(new ByteArrayInputStream(content));
+
+        TusUploader uploader = client.createUpload(upload);
+        assertEquals(new URL(mockServerURL + "/foo"), uploader.getUploadURL());
+
+        uploader.setChunkSize(4);
+        while (uploader.uploadChunk() > -1) {
+            assertTrue(uploader.getOffset() > 0);
+        }
+        uploader.finish();
+        assertEquals(11, uploader.getOffset());
+    }
+
+    /**
+     * Tests if the status code of a failed request is reported through a {@link ProtocolException}.
+     * @throws IOException
+     */
+    @Test
+    public void testResumeNotFound() throws IOException {
+        mockServer.when(new HttpRequest()
+                .withMethod("HEAD")
+                .withPath("/files/missing"))
+                .respond(new HttpResponse()
+                        .withStatusCode(404));
+
+        TusClient client = new TusClient();
+        client.setTransport(new TusHttpClientTransport());
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(10);
+        upload.setInputStream(new ByteArrayInputStream(new byte[10]));
+
+        try {
+            client.beginOrResumeUploadFromURL(upload, new URL(mockServerURL + "/missing"));
+            fail("expected ProtocolException");
+        } catch (ProtocolException e) {
+            assertEquals(404, e.getCausingExchange().getResponseCode());
+            assertTrue(e.getMessage().contains("404"));
+        }
+    }
+
+    /**
+     * Tests if asking for the response of a closed exchange fails with an IOException.
+     * @throws IOException
+     */
+    @Test
+    public void testResponseAfterClose() throws IOException {
+        TusExchange exchange = new TusHttpClientTransport().open("PATCH", new URL(mockServerURL + "/closed"), null);
+        exchange.openBody(10);
+        exchange.close();
+
+        try {
+            exchange.getResponseCode();
+            fail("expected IOException");
+        } catch (IOException e) {
+            // The request has been cancelled before its body was sent.
+        }
+    }
+
+    /**
+     * Tests if per-request proxies are rejected since they must be configured on the HttpClient.
+     * @throws IOException
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsProxy() throws IOException {
+        new TusHttpClientTransport().open("HEAD", mockServerURL,
+                new Proxy(Proxy.Type.HTTP, new InetSocketAddress("localhost", 8080)));
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * This package contains the tests for the HttpClient based transport.
+ */
+package io.tus.java.client.httpclient;
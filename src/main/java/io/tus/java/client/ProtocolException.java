@@ -8,7 +8,7 @@ import java.net.HttpURLConnection;
  * missing/invalid headers.
  */
 public class ProtocolException extends Exception {
-    private HttpURLConnection connection;
+    private TusExchange exchange;
 
     /**
      * Instantiates a new Object of type {@link ProtocolException}.
@@ -24,16 +24,39 @@ public class ProtocolException extends Exception {
      * @param connection {@link HttpURLConnection}, where the error occurred.
      */
     public ProtocolException(String message, HttpURLConnection connection) {
+        this(message, connection != null ? new TusURLConnectionExchange(connection) : null);
+    }
+
+    /**
+     * Instantiates a new Object of type {@link ProtocolException}. This constructor is not public,
+     * so {@code new ProtocolException(message, null)} keeps resolving to the constructor taking a
+     * {@link HttpURLConnection}.
+     * @param message Message to be thrown with the exception.
+     * @param exchange {@link TusExchange}, where the error occurred.
+     */
+    ProtocolException(String message, TusExchange exchange) {
         super(message);
-        this.connection = connection;
+        this.exchange = exchange;
     }
 
     /**
      * Returns the {@link HttpURLConnection} instances, which caused the error.
-     * @return {@link HttpURLConnection}
+     * @return {@link HttpURLConnection} or null if the error was not caused by a request sent using
+     * {@link TusURLConnectionTransport}. Use {@link #getCausingExchange()} for other transports.
      */
     public HttpURLConnection getCausingConnection() {
-        return connection;
+        if (exchange instanceof TusURLConnectionExchange) {
+            return ((TusURLConnectionExchange) exchange).getConnection();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@link TusExchange} instance, which caused the error.
+     * @return {@link TusExchange}
+     */
+    public TusExchange getCausingExchange() {
+        return exchange;
     }
 
     /**
@@ -41,12 +64,12 @@ public class ProtocolException extends Exception {
      * @return {@code true} if there should be a retry attempt.
      */
     public boolean shouldRetry() {
-        if (connection == null) {
+        if (exchange == null) {
             return false;
         }
 
         try {
-            int responseCode = connection.getResponseCode();
+            int responseCode = exchange.getResponseCode();
 
             // 5XX and 423 Resource Locked status codes should be retried.
             return (responseCode >= 500 && responseCode < 600) || responseCode == 423;
@@ -0,0 +1,205 @@
+package io.tus.java.client;
+
+/**
+ * TusAdaptiveSizing adjusts the chunk size and the request payload size of {@link TusUploader}s
+ * to the measured network conditions. It follows the additive-increase/multiplicative-decrease
+ * (AIMD) scheme known from congestion control:
+ * <ul>
+ *  <li>After each successful request which took less than the target request duration, the
+ *  payload size is increased by a fixed step. Fast links thereby quickly reach large requests
+ *  with little per-request overhead.</li>
+ *  <li>After each failed request, the payload size is halved. On unreliable links less data
+ *  must therefore be sent again after a failure.</li>
+ * </ul>
+ * The chunk size follows the payload size (one fifth of it, as for the default values of 2 MiB
+ * and 10 MiB) and both values are kept between the configured bounds.
+ * <br>
+ * An instance can be shared by all uploaders of a {@link TusClient} using
+ * {@link TusClient#setAdaptiveSizing(TusAdaptiveSizing)}, or used for a single uploader using
+ * {@link TusUploader#setAdaptiveSizing(TusAdaptiveSizing)}. This class is thread-safe.
+ */
+public final class TusAdaptiveSizing {
+    private static final int CHUNKS_PER_REQUEST = 5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final int minRequestPayloadSize;
+    private final int maxRequestPayloadSize;
+
+    private int increaseStep = 2 * 1024 * 1024;
+    private long targetRequestDuration = 10000;
+
+    private int requestPayloadSize = 10 * 1024 * 1024;
+    private double throughput;
+    private double failureRate;
+    private long succeededRequests;
+    private long failedRequests;
+
+    /**
+     * Create a new instance with chunk sizes between 64 KiB and 16 MiB and request payload sizes
+     * between 1 MiB and 512 MiB. It starts with the uploader's default values of 2 MiB and 10 MiB.
+     */
+    public TusAdaptiveSizing() {
+        this(64 * 1024, 16 * 1024 * 1024, 1024 * 1024, 512 * 1024 * 1024);
+    }
+
+    /**
+     * Create a new instance with custom bounds. It starts with a request payload size of 10 MiB,
+     * or the nearest bound if this value is out of bounds.
+     *
+     * @param minChunkSize Smallest chunk size in bytes
+     * @param maxChunkSize Largest chunk size in bytes
+     * @param minRequestPayloadSize Smallest request payload size in bytes
+     * @param maxRequestPayloadSize Largest request payload size in bytes
+     */
+    public TusAdaptiveSizing(int minChunkSize, int maxChunkSize, int minRequestPayloadSize,
+                             int maxRequestPayloadSize) {
+        if (minChunkSize < 1 || maxChunkSize < minChunkSize) {
+            throw new IllegalArgumentException("invalid chunk size bounds");
+        }
+        if (minRequestPayloadSize < 1 || maxRequestPayloadSize < minRequestPayloadSize) {
+            throw new IllegalArgumentException("invalid request payload size bounds");
+        }
+
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.minRequestPayloadSize = minRequestPayloadSize;
+        this.maxRequestPayloadSize = maxRequestPayloadSize;
+        requestPayloadSize = clamp(requestPayloadSize, minRequestPayloadSize, maxRequestPayloadSize);
+    }
+
+    /**
+     * Set the number of bytes by which the request payload size is increased after a fast and
+     * successful request. The default is 2 MiB.
+     *
+     * @param increaseStep Number of bytes to add
+     */
+    public synchronized void setIncreaseStep(int increaseStep) {
+        if (increaseStep < 1) {
+            throw new IllegalArgumentException("increase step must be positive");
+        }
+        this.increaseStep = increaseStep;
+    }
+
+    /**
+     * Get the number of bytes by which the request payload size is increased.
+     *
+     * @return Number of bytes to add
+     */
+    public synchronized int getIncreaseStep() {
+        return increaseStep;
+    }
+
+    /**
+     * Set the duration which requests should not exceed. The payload size is only increased after
+     * requests which took less time. The default is 10 seconds.
+     *
+     * @param milliseconds Target duration of a request
+     */
+    public synchronized void setTargetRequestDuration(long milliseconds) {
+        if (milliseconds < 1) {
+            throw new IllegalArgumentException("target request duration must be positive");
+        }
+        targetRequestDuration = milliseconds;
+    }
+
+    /**
+     * Get the duration which requests should not exceed.
+     *
+     * @return Target duration of a request in milliseconds
+     */
+    public synchronized long getTargetRequestDuration() {
+        return targetRequestDuration;
+    }
+
+    /**
+     * Returns the current request payload size, which is used for the next request.
+     *
+     * @return Number of bytes for a single payload
+     */
+    public synchronized int getRequestPayloadSize() {
+        return requestPayloadSize;
+    }
+
+    /**
+     * Returns the current chunk size, which is used for the next request.
+     *
+     * @return Number of bytes per chunk
+     */
+    public synchronized int getChunkSize() {
+        return clamp(requestPayloadSize / CHUNKS_PER_REQUEST, minChunkSize, maxChunkSize);
+    }
+
+    /**
+     * Returns the exponentially smoothed throughput of the successful requests.
+     *
+     * @return Bytes per second or 0 if no request has succeeded yet
+     */
+    public synchronized double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * Returns the exponentially smoothed share of failed requests.
+     *
+     * @return A value between 0 (no failures) and 1 (only failures)
+     */
+    public synchronized double getFailureRate() {
+        return failureRate;
+    }
+
+    /**
+     * Returns the number of successful requests reported to this instance.
+     *
+     * @return Number of successful requests
+     */
+    public synchronized long getSucceededRequests() {
+        return succeededRequests;
+    }
+
+    /**
+     * Returns the number of failed requests reported to this instance.
+     *
+     * @return Number of failed requests
+     */
+    public synchronized long getFailedRequests() {
+        return failedRequests;
+    }
+
+    /**
+     * Record a successful request and grow the payload size if the request was fast enough.
+     *
+     * @param bytes Number of bytes sent in the request
+     * @param nanos Duration of the request in nanoseconds
+     */
+    synchronized void requestSucceeded(long bytes, long nanos) {
+        succeededRequests++;
+        failureRate = (1 - SMOOTHING) * failureRate;
+
+        if (bytes > 0 && nanos > 0) {
+            double current = bytes * 1e9 / nanos;
+            throughput = throughput == 0 ? current : (1 - SMOOTHING) * throughput + SMOOTHING * current;
+        }
+
+        // Only grow if the request actually used the full payload size. Requests at the end of an
+        // upload are smaller and do not tell whether a larger payload would still be fast enough.
+        if (bytes >= requestPayloadSize && nanos < targetRequestDuration * 1000000L) {
+            requestPayloadSize = clamp((long) requestPayloadSize + increaseStep,
+                    minRequestPayloadSize, maxRequestPayloadSize);
+        }
+    }
+
+    /**
+     * Record a failed request and halve the payload size.
+     */
+    synchronized void requestFailed() {
+        failedRequests++;
+        failureRate = (1 - SMOOTHING) * failureRate + SMOOTHING;
+        requestPayloadSize = clamp(requestPayloadSize / 2, minRequestPayloadSize, maxRequestPayloadSize);
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
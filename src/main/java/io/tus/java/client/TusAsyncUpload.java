@@ -0,0 +1,166 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a single upload for {@link TusClient#uploadAsync(TusUpload, Executor)}. Instead of
+ * occupying a thread for the entire upload, every request is uploaded by a separate task which is
+ * submitted to the executor once the previous request has been finished. Waiting for retries
+ * does not block any thread of the executor either, since the next attempt is scheduled using a
+ * shared timer thread.
+ * <br>
+ * Failures are handled in the same way as by {@link TusExecutor}: exceptions which the
+ * {@link TusRetryPolicy} allows to be retried cause the upload to be resumed after the delay
+ * chosen by the policy.
+ */
+final class TusAsyncUpload implements Runnable {
+    private static ScheduledExecutorService retryScheduler;
+
+    private final TusClient client;
+    private final TusUpload upload;
+    private final Executor executor;
+    private final TusRetryPolicy retryPolicy;
+    private final String retryHost;
+    private final CompletableFuture<URL> future = new CompletableFuture<URL>();
+
+    private TusUploader uploader;
+    private int attempt;
+    private long startTime;
+
+    /**
+     * Create a new asynchronous upload. It is not started until {@link #start()} is called.
+     *
+     * @param client The client used for resuming or creating the upload
+     * @param upload The upload to transfer
+     * @param executor The executor running the requests
+     * @param retryPolicy The policy deciding whether and when failed requests are retried
+     */
+    TusAsyncUpload(@NotNull TusClient client, @NotNull TusUpload upload, @NotNull Executor executor,
+                   @NotNull TusRetryPolicy retryPolicy) {
+        this.client = client;
+        this.upload = upload;
+        this.executor = executor;
+        this.retryPolicy = retryPolicy;
+        this.retryHost = client.getRetryHost();
+    }
+
+    /**
+     * Submit the first task to the executor.
+     *
+     * @return A future which is completed with the upload URL once the upload has been finished
+     */
+    @NotNull
+    CompletableFuture<URL> start() {
+        startTime = System.nanoTime();
+        submit();
+        return future;
+    }
+
+    /**
+     * Upload the next request, or resume the upload first if necessary.
+     */
+    @Override
+    public void run() {
+        if (future.isDone()) {
+            // The future has been cancelled by the user.
+            abort();
+            return;
+        }
+
+        try {
+            if (uploader == null) {
+                uploader = client.resumeOrCreateUpload(upload);
+            }
+
+            do {
+                if (uploader.uploadChunk() == -1) {
+                    uploader.finish();
+                    future.complete(uploader.getUploadURL());
+                    return;
+                }
+            } while (uploader.hasOpenRequest() && !future.isDone());
+            retryPolicy.attemptSucceeded(retryHost);
+
+            // Give other uploads the chance to use this thread before the next request.
+            submit();
+        } catch (ProtocolException e) {
+            retryOrFail(e);
+        } catch (IOException e) {
+            retryOrFail(e);
+        } catch (RuntimeException e) {
+            abort();
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            abort();
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Schedule the next attempt, or fail the upload if the retry policy does not allow a retry.
+     *
+     * @param e The exception thrown by the last request
+     */
+    private void retryOrFail(@NotNull Exception e) {
+        abort();
+        uploader = null;
+
+        long delay = -1;
+        if (retryPolicy.shouldRetry(e)) {
+            attempt++;
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            delay = retryPolicy.getDelay(TusRetryPolicy.hostOf(e, retryHost), attempt, elapsedMillis, e);
+        }
+        if (delay < 0) {
+            future.completeExceptionally(e);
+            return;
+        }
+
+        TusEventListener listener = client.getEventListener();
+        if (listener != null) {
+            listener.retryScheduled(attempt, delay, e);
+        }
+        getRetryScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                submit();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void abort() {
+        if (uploader != null) {
+            uploader.abort();
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getRetryScheduler() {
+        if (retryScheduler == null) {
+            retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NotNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "tus-retry-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return retryScheduler;
+    }
+}
@@ -0,0 +1,161 @@
+package io.tus.java.client;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which upload data is sent using a token bucket. A limiter can be attached to
+ * a {@link TusClient} ({@link TusClient#setBandwidthLimiter(TusBandwidthLimiter)}) to limit all of
+ * its uploads together, and the same instance can be attached to several clients to limit all of
+ * them. In addition, a limiter can be attached to a single {@link TusUploader}
+ * ({@link TusUploader#setBandwidthLimiter(TusBandwidthLimiter)}), in which case both limits apply.
+ * <br>
+ * Before a chunk is written, the uploader takes as many tokens as the chunk has bytes. If the bucket
+ * does not contain enough tokens, the missing ones are reserved in advance and the uploader sleeps
+ * exactly once until they have been refilled, instead of waking up repeatedly to check. The bucket
+ * holds at most {@link #getBurstSize()} tokens, which is the amount of data that can be sent at
+ * once after the limiter has been idle.
+ * <br>
+ * The rate can be changed at any time using {@link #setRate(long)}. All methods are thread-safe.
+ */
+public final class TusBandwidthLimiter {
+    private static final long MIN_BURST_SIZE = 64 * 1024;
+
+    private long rate;
+    private long burstSize;
+    private boolean defaultBurstSize;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * Create a new limiter whose burst size is the amount of data sent in 100 milliseconds at the
+     * supplied rate, but at least 64 KiB.
+     *
+     * @param bytesPerSecond The maximum rate in bytes per second or 0 for no limit
+     */
+    public TusBandwidthLimiter(long bytesPerSecond) {
+        this(bytesPerSecond, 0);
+    }
+
+    /**
+     * Create a new limiter with the supplied burst size.
+     *
+     * @param bytesPerSecond The maximum rate in bytes per second or 0 for no limit
+     * @param burstSize Maximum number of bytes which can be sent at once after the limiter has
+     *                  been idle, or 0 to use the default
+     */
+    public TusBandwidthLimiter(long bytesPerSecond, long burstSize) {
+        if (burstSize < 0) {
+            throw new IllegalArgumentException("burst size must not be negative");
+        }
+        this.burstSize = burstSize;
+        defaultBurstSize = burstSize == 0;
+        setRate(bytesPerSecond);
+        tokens = this.burstSize;
+    }
+
+    /**
+     * Change the maximum rate. Tokens which have been reserved before are not affected, so waiting
+     * uploaders may take until the next chunk to notice the new rate.
+     *
+     * @param bytesPerSecond The maximum rate in bytes per second or 0 for no limit
+     */
+    public synchronized void setRate(long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("rate must not be negative");
+        }
+
+        refill(System.nanoTime());
+        rate = bytesPerSecond;
+        if (defaultBurstSize) {
+            burstSize = Math.max(MIN_BURST_SIZE, rate / 10);
+        }
+        tokens = Math.min(tokens, burstSize);
+    }
+
+    /**
+     * Get the maximum rate.
+     *
+     * @return The maximum rate in bytes per second or 0 if there is no limit
+     */
+    public synchronized long getRate() {
+        return rate;
+    }
+
+    /**
+     * Get the maximum number of bytes which can be sent at once after the limiter has been idle.
+     *
+     * @return The burst size in bytes
+     */
+    public synchronized long getBurstSize() {
+        return burstSize;
+    }
+
+    /**
+     * Take tokens for the supplied number of bytes, waiting until they are available.
+     *
+     * @param bytes Number of bytes which will be sent
+     * @throws InterruptedIOException Thrown if the thread is interrupted while waiting
+     */
+    public void acquire(int bytes) throws InterruptedIOException {
+        sleep(reserve(bytes));
+    }
+
+    /**
+     * Take tokens from up to two limiters, which may be null, and wait until both allow sending
+     * the bytes.
+     *
+     * @param first The first limiter or null
+     * @param second The second limiter or null
+     * @param bytes Number of bytes which will be sent
+     * @throws InterruptedIOException Thrown if the thread is interrupted while waiting
+     */
+    static void acquire(TusBandwidthLimiter first, TusBandwidthLimiter second, int bytes)
+            throws InterruptedIOException {
+        long wait = first != null ? first.reserve(bytes) : 0;
+        if (second != null) {
+            wait = Math.max(wait, second.reserve(bytes));
+        }
+        sleep(wait);
+    }
+
+    /**
+     * Take tokens for the supplied number of bytes without waiting. If not enough tokens are
+     * available, the bucket goes into debt, which later callers have to wait for as well.
+     *
+     * @param bytes Number of bytes which will be sent
+     * @return Nanoseconds to wait until the bytes may be sent
+     */
+    synchronized long reserve(int bytes) {
+        if (rate == 0) {
+            return 0;
+        }
+
+        refill(System.nanoTime());
+        tokens -= bytes;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+
+    private void refill(long now) {
+        if (rate > 0) {
+            tokens = Math.min(burstSize, tokens + (double) (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        }
+        lastRefill = now;
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for bandwidth");
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A pool of buffers which are borrowed for reading chunks and returned afterwards, so uploads
+ * running one after another, or retried by a {@link TusExecutor}, do not allocate a new buffer
+ * every time. {@link TusUploader}s borrow their chunk buffer from the pool of their client
+ * ({@link TusClient#setBufferPool(TusBufferPool)}) once the first chunk is uploaded and return it
+ * in {@link TusUploader#finish()}. Heap arrays and direct {@link ByteBuffer}s are pooled separately.
+ * <br>
+ * Buffers are pooled in size classes, which are the powers of two from 4 KiB to 64 MiB. A borrowed
+ * buffer may therefore be larger than requested, and buffers larger than 64 MiB are not pooled at
+ * all. Every thread keeps the last buffer it has returned for each size class, so a thread running
+ * upload after upload usually gets its own buffer back without contention. These buffers still
+ * belong to the pool: they are taken by other threads if the shared part of the pool is empty and
+ * are dropped once their thread has terminated. The pool does not keep terminated threads reachable
+ * and forgets about them whenever new threads start using it, so short-lived threads, e.g. virtual
+ * threads, do not make it grow.
+ * <br>
+ * The memory held by the pool, including the buffers kept by threads, is limited by
+ * {@link #getMaxPooledBytes()}. Buffers returned while the pool is full are left to the garbage
+ * collector. The number of buffers which have been borrowed but not returned yet is available using
+ * {@link #getOutstandingBuffers()} and, with {@link #setLeakDetection(boolean)} enabled, the places
+ * where they have been borrowed are recorded, which is useful to find missing calls to
+ * {@link TusUploader#finish()} in tests.
+ * <br>
+ * A pool is meant to be long-lived and shared. All methods are thread-safe.
+ */
+public final class TusBufferPool {
+    private static final int MIN_SIZE_CLASS_SHIFT = 12;
+    private static final int MAX_SIZE_CLASS_SHIFT = 26;
+    private static final int SIZE_CLASSES = MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1;
+    private static final int MIN_PRUNE_THRESHOLD = 16;
+
+    private static final TusBufferPool DEFAULT = new TusBufferPool(32 * 1024 * 1024);
+
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicInteger outstandingBuffers = new AtomicInteger();
+    private final Arena<byte[]> heap = new Arena<byte[]>() {
+        @Override
+        byte[] allocate(int capacity) {
+            return new byte[capacity];
+        }
+
+        @Override
+        int capacity(byte[] buffer) {
+            return buffer.length;
+        }
+    };
+    private final Arena<ByteBuffer> direct = new Arena<ByteBuffer>() {
+        @Override
+        ByteBuffer allocate(int capacity) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        int capacity(ByteBuffer buffer) {
+            return buffer.capacity();
+        }
+    };
+
+    private volatile boolean leakDetection;
+    private final Map<Object, Throwable> borrowSites = new IdentityHashMap<Object, Throwable>();
+
+    /**
+     * Create a new pool.
+     *
+     * @param maxPooledBytes Maximum number of bytes held by buffers which are not borrowed
+     */
+    public TusBufferPool(long maxPooledBytes) {
+        if (maxPooledBytes < 0) {
+            throw new IllegalArgumentException("maximum pooled bytes must not be negative");
+        }
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    /**
+     * Returns the pool used by clients unless another one is set, which holds at most 32 MiB.
+     *
+     * @return The default pool
+     */
+    @NotNull
+    public static TusBufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Borrow a heap buffer. It must be returned using {@link #release(byte[])} once it is not used
+     * anymore and must not be accessed afterwards.
+     *
+     * @param size The minimum size of the buffer
+     * @return A buffer with at least the requested size and undefined content
+     */
+    @NotNull
+    public byte[] borrow(int size) {
+        return heap.borrow(size);
+    }
+
+    /**
+     * Return a heap buffer which has been borrowed from this pool.
+     *
+     * @param buffer The buffer
+     * @throws IllegalArgumentException Thrown if leak detection is enabled and the buffer has not
+     *                                  been borrowed from this pool or has already been returned.
+     */
+    public void release(@NotNull byte[] buffer) {
+        heap.release(buffer);
+    }
+
+    /**
+     * Borrow a direct buffer. It must be returned using {@link #release(ByteBuffer)} once it is not
+     * used anymore and must not be accessed afterwards.
+     *
+     * @param size The minimum capacity of the buffer
+     * @return A cleared buffer with at least the requested capacity and undefined content
+     */
+    @NotNull
+    public ByteBuffer borrowDirect(int size) {
+        ByteBuffer buffer = direct.borrow(size);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a direct buffer which has been borrowed from this pool.
+     *
+     * @param buffer The buffer
+     * @throws IllegalArgumentException Thrown if leak detection is enabled and the buffer has not
+     *                                  been borrowed from this pool or has already been returned.
+     */
+    public void release(@NotNull ByteBuffer buffer) {
+        direct.release(buffer);
+    }
+
+    /**
+     * Get the maximum number of bytes held by buffers which are not borrowed.
+     *
+     * @return The limit in bytes
+     */
+    public long getMaxPooledBytes() {
+        return maxPooledBytes;
+    }
+
+    /**
+     * Get the number of bytes currently held by buffers which are not borrowed.
+     *
+     * @return Number of bytes
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Get the number of buffers which have been borrowed and not returned yet.
+     *
+     * @return Number of buffers
+     */
+    public int getOutstandingBuffers() {
+        return outstandingBuffers.get();
+    }
+
+    /**
+     * Enable or disable recording where buffers are borrowed. This is expensive and meant for
+     * tests, where {@link #checkLeaks()} reports buffers which have not been returned. While
+     * enabled, returning a buffer twice is reported, too. Therefore, it can only be enabled while
+     * no buffers are borrowed.
+     *
+     * @param enabled True to record where buffers are borrowed
+     * @throws IllegalStateException Thrown if it is enabled while buffers are borrowed.
+     */
+    public void setLeakDetection(boolean enabled) {
+        synchronized (borrowSites) {
+            if (enabled && !leakDetection && outstandingBuffers.get() > 0) {
+                throw new IllegalStateException("leak detection cannot be enabled while buffers are borrowed");
+            }
+            leakDetection = enabled;
+            if (!enabled) {
+                borrowSites.clear();
+            }
+        }
+    }
+
+    /**
+     * Make sure that all borrowed buffers have been returned.
+     *
+     * @throws IllegalStateException Thrown if buffers are outstanding. If leak detection is
+     *                               enabled, the exception's cause tells where one of them has
+     *                               been borrowed.
+     */
+    public void checkLeaks() {
+        int outstanding = outstandingBuffers.get();
+        if (outstanding == 0) {
+            return;
+        }
+
+        Throwable site = null;
+        synchronized (borrowSites) {
+            if (!borrowSites.isEmpty()) {
+                site = borrowSites.values().iterator().next();
+            }
+        }
+        throw new IllegalStateException(outstanding + " buffer(s) have not been returned to the pool", site);
+    }
+
+    /**
+     * Drop all buffers which are not borrowed, including those kept by threads.
+     */
+    public void clear() {
+        heap.clear();
+        direct.clear();
+    }
+
+    /**
+     * Get the number of threads whose buffers are kept by this pool, including terminated threads
+     * which have not been pruned yet.
+     *
+     * @return Number of threads
+     */
+    int getThreadCacheCount() {
+        return heap.getThreadCacheCount() + direct.getThreadCacheCount();
+    }
+
+    /**
+     * Get the index of the smallest size class which can hold the requested size.
+     *
+     * @param size The requested size
+     * @return The index or -1 if the size is too large to be pooled
+     */
+    static int sizeClass(int size) {
+        if (size > 1 << MAX_SIZE_CLASS_SHIFT) {
+            return -1;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1);
+        return Math.max(shift, MIN_SIZE_CLASS_SHIFT) - MIN_SIZE_CLASS_SHIFT;
+    }
+
+    /**
+     * Take room for a returned buffer from the memory limit.
+     *
+     * @param bytes The buffer's size
+     * @return False if the pool is full
+     */
+    private boolean reserve(long bytes) {
+        while (true) {
+            long current = pooledBytes.get();
+            if (current + bytes > maxPooledBytes) {
+                return false;
+            }
+            if (pooledBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void recordBorrow(@NotNull Object buffer) {
+        outstandingBuffers.incrementAndGet();
+        if (leakDetection) {
+            synchronized (borrowSites) {
+                if (leakDetection) {
+                    borrowSites.put(buffer, new Throwable("buffer borrowed here"));
+                }
+            }
+        }
+    }
+
+    private void recordRelease(@NotNull Object buffer) {
+        if (leakDetection) {
+            synchronized (borrowSites) {
+                if (leakDetection && borrowSites.remove(buffer) == null) {
+                    throw new IllegalArgumentException("buffer has not been borrowed from this pool or "
+                            + "has already been returned");
+                }
+            }
+        }
+        outstandingBuffers.decrementAndGet();
+    }
+
+    /**
+     * The pooled buffers of one kind. Each size class has a shared stack and every thread has a
+     * slot per size class, which other threads may empty at any time.
+     *
+     * @param <T> The type of the buffers
+     */
+    private abstract class Arena<T> {
+        private final ArrayDeque<T>[] shelves;
+        private final List<ThreadCache<T>> threadCaches = new ArrayList<ThreadCache<T>>();
+        private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+        private final ThreadLocal<AtomicReferenceArray<T>> threadCache = new ThreadLocal<AtomicReferenceArray<T>>() {
+            @Override
+            protected AtomicReferenceArray<T> initialValue() {
+                AtomicReferenceArray<T> cache = new AtomicReferenceArray<T>(SIZE_CLASSES);
+                synchronized (Arena.this) {
+                    // Pruning whenever the number of caches has doubled keeps their number
+                    // proportional to the number of live threads at a constant cost per thread.
+                    if (threadCaches.size() >= pruneThreshold) {
+                        reclaim();
+                        pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, 2 * threadCaches.size());
+                    }
+                    threadCaches.add(new ThreadCache<T>(Thread.currentThread(), cache));
+                }
+                return cache;
+            }
+        };
+
+        Arena() {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ArrayDeque<T>[] newShelves = new ArrayDeque[SIZE_CLASSES];
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                newShelves[i] = new ArrayDeque<T>();
+            }
+            shelves = newShelves;
+        }
+
+        abstract T allocate(int capacity);
+
+        abstract int capacity(T buffer);
+
+        T borrow(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("buffer size must not be negative");
+            }
+
+            int sizeClass = sizeClass(size);
+            T buffer = null;
+            if (sizeClass >= 0) {
+                buffer = threadCache.get().getAndSet(sizeClass, null);
+                if (buffer == null) {
+                    buffer = take(sizeClass);
+                }
+            }
+
+            if (buffer != null) {
+                pooledBytes.addAndGet(-capacity(buffer));
+            } else {
+                buffer = allocate(sizeClass >= 0 ? 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT) : size);
+            }
+            recordBorrow(buffer);
+            return buffer;
+        }
+
+        void release(T buffer) {
+            recordRelease(buffer);
+
+            int capacity = capacity(buffer);
+            int sizeClass = sizeClass(capacity);
+            if (sizeClass < 0 || 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT) != capacity) {
+                // Not allocated by a pool, e.g. larger than the largest size class.
+                return;
+            }
+
+            if (!reserve(capacity)) {
+                // The buffers of terminated threads may be holding the room.
+                reclaim();
+                if (!reserve(capacity)) {
+                    return;
+                }
+            }
+
+            if (!threadCache.get().compareAndSet(sizeClass, null, buffer)) {
+                synchronized (this) {
+                    shelves[sizeClass].push(buffer);
+                }
+            }
+        }
+
+        /**
+         * Take a buffer from the shared stack or from another thread.
+         *
+         * @param sizeClass The index of the size class
+         * @return The buffer or null if none is pooled
+         */
+        private synchronized T take(int sizeClass) {
+            T buffer = shelves[sizeClass].poll();
+            if (buffer != null) {
+                return buffer;
+            }
+
+            reclaim();
+            for (ThreadCache<T> cache : threadCaches) {
+                buffer = cache.buffers.getAndSet(sizeClass, null);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Drop the buffers kept by terminated threads.
+         */
+        private synchronized void reclaim() {
+            Iterator<ThreadCache<T>> iterator = threadCaches.iterator();
+            while (iterator.hasNext()) {
+                ThreadCache<T> cache = iterator.next();
+                Thread thread = cache.get();
+                if (thread == null || !thread.isAlive()) {
+                    drop(cache.buffers);
+                    iterator.remove();
+                }
+            }
+        }
+
+        synchronized int getThreadCacheCount() {
+            return threadCaches.size();
+        }
+
+        synchronized void clear() {
+            for (ArrayDeque<T> shelf : shelves) {
+                T buffer;
+                while ((buffer = shelf.poll()) != null) {
+                    pooledBytes.addAndGet(-capacity(buffer));
+                }
+            }
+            for (ThreadCache<T> cache : threadCaches) {
+                drop(cache.buffers);
+            }
+        }
+
+        private void drop(AtomicReferenceArray<T> cache) {
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                T buffer = cache.getAndSet(i, null);
+                if (buffer != null) {
+                    pooledBytes.addAndGet(-capacity(buffer));
+                }
+            }
+        }
+    }
+
+    /**
+     * The buffers kept by a thread. The thread is only referenced weakly, so terminated threads
+     * can be collected before their cache is pruned.
+     *
+     * @param <T> The type of the buffers
+     */
+    private static final class ThreadCache<T> extends WeakReference<Thread> {
+        private final AtomicReferenceArray<T> buffers;
+
+        ThreadCache(Thread thread, AtomicReferenceArray<T> buffers) {
+            super(thread);
+            this.buffers = buffers;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.tus.java.client;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Computes the value of the Upload-Checksum header used by the Checksum extension. Checksums
+ * are updated incrementally while the payload is read, so the data only has to be passed once.
+ */
+final class TusChecksum {
+    /**
+     * Supported algorithms in the order of preference. The CRC algorithms come first since they
+     * are backed by intrinsics on most JVMs and therefore considerably faster than the digests.
+     */
+    static final String[] ALGORITHMS = {"crc32c", "crc32", "sha1", "md5", "sha256", "sha512"};
+
+    // CRC32C is only available on Java 9 and later, so it must not be referenced directly.
+    private static final Class<?> CRC32C = loadClass("java.util.zip.CRC32C");
+
+    private final String algorithm;
+    private final Checksum checksum;
+    private final MessageDigest digest;
+
+    private TusChecksum(String algorithm, Checksum checksum, MessageDigest digest) {
+        this.algorithm = algorithm;
+        this.checksum = checksum;
+        this.digest = digest;
+    }
+
+    /**
+     * Create a new checksum for the supplied algorithm.
+     *
+     * @param algorithm The algorithm's name as used in the Upload-Checksum header
+     * @return The checksum
+     * @throws IllegalArgumentException Thrown if the algorithm is not supported
+     */
+    static TusChecksum create(String algorithm) {
+        String name = algorithm.toLowerCase(Locale.US);
+        if (name.equals("crc32")) {
+            return new TusChecksum(name, new CRC32(), null);
+        }
+        if (name.equals("crc32c") && CRC32C != null) {
+            try {
+                return new TusChecksum(name, (Checksum) CRC32C.getConstructor().newInstance(), null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        String digestName = digestName(name);
+        if (digestName != null) {
+            try {
+                return new TusChecksum(name, null, MessageDigest.getInstance(digestName));
+            } catch (NoSuchAlgorithmException e) {
+                // Handled below.
+            }
+        }
+
+        throw new IllegalArgumentException("unsupported checksum algorithm: " + algorithm);
+    }
+
+    /**
+     * Returns whether the algorithm is supported on this platform.
+     *
+     * @param algorithm The algorithm's name as used in the Upload-Checksum header
+     * @return True if {@link #create(String)} accepts the algorithm
+     */
+    static boolean isSupported(String algorithm) {
+        try {
+            create(algorithm);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Choose the most preferred algorithm which is supported by both, this platform and the
+     * remote server.
+     *
+     * @param serverAlgorithms Value of the Tus-Checksum-Algorithm header
+     * @return The algorithm's name or null if there is no common algorithm
+     */
+    static String negotiate(String serverAlgorithms) {
+        if (serverAlgorithms == null) {
+            return null;
+        }
+
+        String[] offered = serverAlgorithms.toLowerCase(Locale.US).split(",");
+        for (String algorithm : ALGORITHMS) {
+            for (String candidate : offered) {
+                if (candidate.trim().equals(algorithm) && isSupported(algorithm)) {
+                    return algorithm;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Update the checksum with the supplied bytes.
+     *
+     * @param buffer Array containing the bytes
+     * @param offset Offset of the first byte
+     * @param length Number of bytes
+     */
+    void update(byte[] buffer, int offset, int length) {
+        if (checksum != null) {
+            checksum.update(buffer, offset, length);
+        } else {
+            digest.update(buffer, offset, length);
+        }
+    }
+
+    /**
+     * Finish the checksum and reset it, so it can be used for the next payload.
+     *
+     * @return The value for the Upload-Checksum header, e.g. {@code crc32 Cx5HDw==}
+     */
+    String finish() {
+        byte[] value;
+        if (checksum != null) {
+            long crc = checksum.getValue();
+            value = new byte[] {(byte) (crc >>> 24), (byte) (crc >>> 16), (byte) (crc >>> 8), (byte) crc};
+            checksum.reset();
+        } else {
+            value = digest.digest();
+        }
+        return algorithm + " " + TusUpload.base64Encode(value);
+    }
+
+    private static String digestName(String algorithm) {
+        if (algorithm.equals("sha1")) {
+            return "SHA-1";
+        }
+        if (algorithm.equals("md5")) {
+            return "MD5";
+        }
+        if (algorithm.equals("sha256")) {
+            return "SHA-256";
+        }
+        if (algorithm.equals("sha512")) {
+            return "SHA-512";
+        }
+        return null;
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
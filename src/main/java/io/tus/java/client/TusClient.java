@@ -5,9 +5,29 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used for creating or resuming uploads.
@@ -23,9 +43,25 @@ public class TusClient {
     private Proxy proxy;
     private boolean resumingEnabled;
     private boolean removeFingerprintOnSuccessEnabled;
+    private boolean optimisticResumeEnabled;
+    private long checkpointMaxAge;
+    private boolean creationWithUploadEnabled;
+    private int creationWithUploadPayloadSize = 10 * 1024 * 1024;
+    private boolean checksumsEnabled;
+    private String checksumAlgorithm;
+    private boolean capabilityDiscoveryEnabled;
+    private long capabilitiesTTL = TimeUnit.MINUTES.toMillis(10);
+    private final Map<String, FutureTask<TusServerCapabilities>> capabilities =
+            new HashMap<String, FutureTask<TusServerCapabilities>>();
+    private TusEventListener eventListener;
+    private TusBandwidthLimiter bandwidthLimiter;
+    private TusBufferPool bufferPool = TusBufferPool.getDefault();
+    private TusRetryPolicy retryPolicy;
     private TusURLStore urlStore;
     private Map<String, String> headers;
     private int connectTimeout = 5000;
+    private TusTransport transport = new TusURLConnectionTransport();
+    private TusAdaptiveSizing adaptiveSizing;
 
     /**
      * Create a new tus client.
@@ -135,6 +171,417 @@ public class TusClient {
         return removeFingerprintOnSuccessEnabled;
     }
 
+    /**
+     * Enable resuming uploads from the offset last confirmed by the server, as recorded by a
+     * {@link TusURLCheckpointStore}, instead of asking the server for it using a HEAD request. This
+     * saves a round trip for every resumed upload. If the server's offset differs from the
+     * checkpoint, it rejects the first request with 409 Conflict and the uploader falls back to a
+     * HEAD request and continues from there. If the first request fails in any other way, the
+     * checkpoint is discarded, so the next attempt to resume uses a HEAD request.
+     * <br>
+     * Note that errors which a HEAD request would have reported are only noticed with the first
+     * request sent by the uploader, e.g. if the upload has expired on the server. In this case,
+     * {@link #resumeOrCreateUpload(TusUpload)} cannot create a new upload, but the next call will.
+     * This method requires resuming to be enabled using a store implementing
+     * {@link TusURLCheckpointStore}; otherwise, it has no effect.
+     *
+     * @see #disableOptimisticResume()
+     */
+    public void enableOptimisticResume() {
+        enableOptimisticResume(0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enable resuming uploads from the offset last confirmed by the server, unless the checkpoint
+     * is older than the supplied age. Older checkpoints are more likely to be outdated, e.g.
+     * because the upload has been continued by another client or has expired.
+     *
+     * @see #enableOptimisticResume()
+     *
+     * @param maxCheckpointAge Maximum age of a checkpoint or 0 for no limit
+     * @param unit Unit of the maximum age
+     */
+    public void enableOptimisticResume(long maxCheckpointAge, @NotNull TimeUnit unit) {
+        if (maxCheckpointAge < 0) {
+            throw new IllegalArgumentException("maximum checkpoint age must not be negative");
+        }
+        optimisticResumeEnabled = true;
+        checkpointMaxAge = unit.toMillis(maxCheckpointAge);
+    }
+
+    /**
+     * Disable resuming uploads from the offset last confirmed by the server. Checkpoints are still
+     * recorded.
+     *
+     * @see #enableOptimisticResume()
+     */
+    public void disableOptimisticResume() {
+        optimisticResumeEnabled = false;
+    }
+
+    /**
+     * Get the current status of resuming uploads from the offset last confirmed by the server.
+     *
+     * @see #enableOptimisticResume()
+     * @see #disableOptimisticResume()
+     *
+     * @return True if it has been enabled using {@link #enableOptimisticResume()}
+     */
+    public boolean optimisticResumeEnabled() {
+        return optimisticResumeEnabled;
+    }
+
+    /**
+     * Enable sending the first part of an upload in the body of the POST request which creates
+     * it, using the Creation With Upload extension. This saves a round trip for each upload and,
+     * for uploads which fit into a single request, halves the number of requests. The remote
+     * server must support this extension.
+     *
+     * @see #setCreationWithUploadPayloadSize(int)
+     * @see #disableCreationWithUpload()
+     */
+    public void enableCreationWithUpload() {
+        creationWithUploadEnabled = true;
+    }
+
+    /**
+     * Disable sending data in the request which creates an upload.
+     *
+     * @see #enableCreationWithUpload()
+     */
+    public void disableCreationWithUpload() {
+        creationWithUploadEnabled = false;
+    }
+
+    /**
+     * Get the current status of the Creation With Upload extension.
+     *
+     * @see #enableCreationWithUpload()
+     * @see #disableCreationWithUpload()
+     *
+     * @return True if uploading data while creating uploads has been enabled using
+     * {@link #enableCreationWithUpload()}
+     */
+    public boolean creationWithUploadEnabled() {
+        return creationWithUploadEnabled;
+    }
+
+    /**
+     * Set the maximum number of bytes which are sent in the request creating an upload if
+     * {@link #enableCreationWithUpload()} has been called. The remaining bytes are uploaded
+     * using the returned {@link TusUploader}. The default value is 10 * 1024 * 1024 bytes
+     * (10 MiB), which is the same as {@link TusUploader#getRequestPayloadSize()}.
+     *
+     * @param size Number of bytes for the creation request's payload
+     */
+    public void setCreationWithUploadPayloadSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("payload size must not be negative");
+        }
+        creationWithUploadPayloadSize = size;
+    }
+
+    /**
+     * Get the maximum number of bytes which are sent in the request creating an upload.
+     *
+     * @see #setCreationWithUploadPayloadSize(int)
+     *
+     * @return Number of bytes for the creation request's payload
+     */
+    public int getCreationWithUploadPayloadSize() {
+        return creationWithUploadPayloadSize;
+    }
+
+    /**
+     * Enable the Checksum extension for all uploaders returned by this client. The algorithms
+     * supported by the remote server are taken from its capabilities (see
+     * {@link #getServerCapabilities()}), and the fastest one which is also available locally is
+     * used. If the server does not support the extension, no checksums are sent.
+     *
+     * @see TusUploader#setChecksumAlgorithm(String)
+     * @see #enableChecksums(String)
+     */
+    public synchronized void enableChecksums() {
+        checksumsEnabled = true;
+        checksumAlgorithm = null;
+    }
+
+    /**
+     * Enable the Checksum extension using the supplied algorithm without asking the remote server
+     * which algorithms it supports.
+     *
+     * @see TusUploader#setChecksumAlgorithm(String)
+     *
+     * @param algorithm The checksum algorithm, e.g. crc32
+     * @throws IllegalArgumentException Thrown if the algorithm is not supported
+     */
+    public synchronized void enableChecksums(@NotNull String algorithm) {
+        if (!TusChecksum.isSupported(algorithm)) {
+            throw new IllegalArgumentException("unsupported checksum algorithm: " + algorithm);
+        }
+        checksumsEnabled = true;
+        checksumAlgorithm = algorithm;
+    }
+
+    /**
+     * Disable sending checksums.
+     *
+     * @see #enableChecksums()
+     */
+    public synchronized void disableChecksums() {
+        checksumsEnabled = false;
+    }
+
+    /**
+     * Get the current status of the Checksum extension.
+     *
+     * @return True if checksums have been enabled using {@link #enableChecksums()} or
+     * {@link #enableChecksums(String)}
+     */
+    public synchronized boolean checksumsEnabled() {
+        return checksumsEnabled;
+    }
+
+    /**
+     * Returns the algorithm used by the uploaders returned by this client, asking the remote
+     * server for the supported algorithms if they are not known yet. If capability discovery is
+     * enabled, checksums are used whenever the server supports them.
+     *
+     * @param uploadURL URL to send the OPTIONS request to if no upload creation URL is set
+     * @return The checksum algorithm or null if no checksums are sent
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request
+     */
+    @Nullable
+    private String resolveChecksumAlgorithm(@NotNull URL uploadURL) throws ProtocolException, IOException {
+        synchronized (this) {
+            if (checksumsEnabled && checksumAlgorithm != null) {
+                return checksumAlgorithm;
+            }
+            if (!checksumsEnabled && !capabilityDiscoveryEnabled) {
+                return null;
+            }
+        }
+
+        URL endpoint = uploadCreationURL != null ? uploadCreationURL : uploadURL;
+        return getServerCapabilities(endpoint).negotiateChecksumAlgorithm();
+    }
+
+    /**
+     * Enable discovering the capabilities of the remote server before creating or resuming
+     * uploads, using an OPTIONS request to the upload creation URL whose response is cached (see
+     * {@link #setCapabilitiesTTL(long, TimeUnit)}). Uploads which exceed the server's maximum size
+     * or require an unsupported protocol version are rejected before they are created, and the
+     * following features are used whenever the server supports them, in addition to the ones
+     * enabled explicitly:
+     * <ul>
+     *     <li>Creation With Upload, see {@link #enableCreationWithUpload()}</li>
+     *     <li>Checksums, see {@link #enableChecksums()}</li>
+     * </ul>
+     * Without the Concatenation extension, {@link #uploadParallel(TusUpload, int)} uploads the
+     * file using a single upload instead of failing.
+     *
+     * @see #getServerCapabilities()
+     * @see #disableCapabilityDiscovery()
+     */
+    public void enableCapabilityDiscovery() {
+        capabilityDiscoveryEnabled = true;
+    }
+
+    /**
+     * Disable discovering the capabilities of the remote server. Only the features enabled
+     * explicitly are used.
+     *
+     * @see #enableCapabilityDiscovery()
+     */
+    public void disableCapabilityDiscovery() {
+        capabilityDiscoveryEnabled = false;
+    }
+
+    /**
+     * Get the current status of discovering the capabilities of the remote server.
+     *
+     * @see #enableCapabilityDiscovery()
+     * @see #disableCapabilityDiscovery()
+     *
+     * @return True if it has been enabled using {@link #enableCapabilityDiscovery()}
+     */
+    public boolean capabilityDiscoveryEnabled() {
+        return capabilityDiscoveryEnabled;
+    }
+
+    /**
+     * Set how long the capabilities of a server are cached before they are requested again. The
+     * default value is 10 minutes.
+     *
+     * @param ttl Time to keep the capabilities or 0 to request them every time
+     * @param unit Unit of the time
+     */
+    public void setCapabilitiesTTL(long ttl, @NotNull TimeUnit unit) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("capabilities TTL must not be negative");
+        }
+        capabilitiesTTL = unit.toMillis(ttl);
+    }
+
+    /**
+     * Get how long the capabilities of a server are cached.
+     *
+     * @see #setCapabilitiesTTL(long, TimeUnit)
+     *
+     * @return Time in milliseconds
+     */
+    public long getCapabilitiesTTL() {
+        return capabilitiesTTL;
+    }
+
+    /**
+     * Returns the capabilities of the server at the upload creation URL. See
+     * {@link #getServerCapabilities(URL)} for details.
+     *
+     * @return The capabilities
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request
+     */
+    @NotNull
+    public TusServerCapabilities getServerCapabilities() throws ProtocolException, IOException {
+        if (uploadCreationURL == null) {
+            throw new IllegalStateException("no upload creation URL has been set");
+        }
+        return getServerCapabilities(uploadCreationURL);
+    }
+
+    /**
+     * Returns the capabilities of the server at the supplied URL. They are requested using an
+     * OPTIONS request once and cached for the time set using
+     * {@link #setCapabilitiesTTL(long, TimeUnit)}. Concurrent callers wait for the same request,
+     * while lookups for other endpoints are not blocked by it. Failed requests are not cached.
+     *
+     * @param endpoint The URL to send the OPTIONS request to, usually the upload creation URL
+     * @return The capabilities
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request
+     */
+    @NotNull
+    public TusServerCapabilities getServerCapabilities(@NotNull final URL endpoint)
+            throws ProtocolException, IOException {
+        String key = endpoint.toString();
+        FutureTask<TusServerCapabilities> discovery;
+        boolean discovering = false;
+        synchronized (capabilities) {
+            long now = System.currentTimeMillis();
+            discovery = capabilities.get(key);
+            if (discovery != null && discovery.isDone() && !isFresh(discovery, now)) {
+                discovery = null;
+            }
+
+            if (discovery == null) {
+                // Drop expired entries, so the cache does not grow with every upload URL which has
+                // been used as an endpoint.
+                Iterator<FutureTask<TusServerCapabilities>> iterator = capabilities.values().iterator();
+                while (iterator.hasNext()) {
+                    FutureTask<TusServerCapabilities> entry = iterator.next();
+                    if (entry.isDone() && !isFresh(entry, now)) {
+                        iterator.remove();
+                    }
+                }
+
+                discovery = new FutureTask<TusServerCapabilities>(new Callable<TusServerCapabilities>() {
+                    @Override
+                    public TusServerCapabilities call() throws Exception {
+                        return discoverCapabilities(endpoint);
+                    }
+                });
+                capabilities.put(key, discovery);
+                discovering = true;
+            }
+        }
+
+        // The request is sent without holding the lock, so a slow server only delays the callers
+        // waiting for its own capabilities.
+        if (discovering) {
+            discovery.run();
+        }
+
+        try {
+            return discovery.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while discovering server capabilities");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ProtocolException) {
+                throw (ProtocolException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw (Error) cause;
+            }
+        }
+    }
+
+    /**
+     * Check whether a finished discovery can be used from the cache.
+     *
+     * @param discovery The finished discovery
+     * @param now The current time in milliseconds since the epoch
+     * @return False if the discovery failed or its capabilities have expired
+     */
+    private boolean isFresh(@NotNull FutureTask<TusServerCapabilities> discovery, long now) {
+        try {
+            return now - discovery.get().getDiscoveredAt() < capabilitiesTTL;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Drop all cached server capabilities, so they are requested again before they are used
+     * next, e.g. after the server has been reconfigured.
+     */
+    public void invalidateServerCapabilities() {
+        synchronized (capabilities) {
+            capabilities.clear();
+        }
+    }
+
+    /**
+     * Send an OPTIONS request to find the capabilities of a server.
+     *
+     * @param endpoint The URL to send the request to
+     * @return The capabilities
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request
+     */
+    @NotNull
+    private TusServerCapabilities discoverCapabilities(@NotNull URL endpoint) throws ProtocolException, IOException {
+        long startTime = System.nanoTime();
+        TusExchange exchange = openExchange("OPTIONS", endpoint);
+        int responseCode = -1;
+        try {
+            responseCode = exchange.getResponseCode();
+            if (!(responseCode >= 200 && responseCode < 300)) {
+                throw new ProtocolException(
+                        "unexpected status code (" + responseCode + ") while discovering server capabilities",
+                        exchange);
+            }
+
+            return new TusServerCapabilities(endpoint,
+                    exchange.getResponseHeader("Tus-Version"),
+                    exchange.getResponseHeader("Tus-Extension"),
+                    exchange.getResponseHeader("Tus-Max-Size"),
+                    exchange.getResponseHeader("Tus-Checksum-Algorithm"),
+                    System.currentTimeMillis());
+        } finally {
+            exchange.close();
+            reportRequest("OPTIONS", endpoint, responseCode, 0, startTime);
+        }
+    }
 
     /**
      * Set headers which will be added to every HTTP requestes made by this TusClient instance.
@@ -142,7 +589,7 @@ public class TusClient {
      * prefix, and can cause unexpected behavior.
      *
      * @see #getHeaders()
-     * @see #prepareConnection(HttpURLConnection)
+     * @see #prepareExchange(TusExchange)
      *
      * @param headers The map of HTTP headers
      */
@@ -155,7 +602,7 @@ public class TusClient {
      * {@link #setHeaders(Map)}.
      *
      * @see #setHeaders(Map)
-     * @see #prepareConnection(HttpURLConnection)
+     * @see #prepareExchange(TusExchange)
      *
      * @return The map of configured HTTP headers
      */
@@ -180,12 +627,195 @@ public class TusClient {
         return connectTimeout;
     }
 
+    /**
+     * Set the transport used for sending all HTTP requests of this client and the uploaders
+     * returned by it. By default, a {@link TusURLConnectionTransport} is used.
+     *
+     * @param transport The transport to use
+     */
+    public void setTransport(@NotNull TusTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Get the transport used for sending all HTTP requests.
+     *
+     * @see #setTransport(TusTransport)
+     *
+     * @return The current transport
+     */
+    @NotNull
+    public TusTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Adjust the chunk size and request payload size of all uploaders returned by this client to
+     * the measured network conditions. Since the instance is shared, later uploads start with the
+     * sizes learned from earlier ones. Pass null to disable the adaptive mode, which is the default.
+     *
+     * @see TusUploader#setAdaptiveSizing(TusAdaptiveSizing)
+     *
+     * @param adaptiveSizing The instance providing the sizes or null
+     */
+    public void setAdaptiveSizing(@Nullable TusAdaptiveSizing adaptiveSizing) {
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
+    /**
+     * Get the instance adjusting the sizes of all uploaders returned by this client.
+     *
+     * @return The instance providing the sizes or null if the adaptive mode is disabled
+     */
+    @Nullable
+    public TusAdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    /**
+     * Set the listener which is notified about the requests sent by this client and the uploaders
+     * returned by it, as well as the retries of uploads run by {@link #uploadAsync(TusUpload, Executor)},
+     * {@link #uploadParallel(TusUpload, int)} and {@link TusUploadManager}. Pass null to remove
+     * the listener, which is the default.
+     *
+     * @param eventListener The listener or null
+     */
+    public void setEventListener(@Nullable TusEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Get the listener which is notified about requests.
+     *
+     * @see #setEventListener(TusEventListener)
+     *
+     * @return The listener or null if none is set
+     */
+    @Nullable
+    public TusEventListener getEventListener() {
+        return eventListener;
+    }
+
+    /**
+     * Set the limiter for the rate at which data is uploaded by this client, including the data
+     * sent while creating uploads. The limit applies to all uploads together and the same limiter
+     * may be shared between multiple clients to limit them together. In addition, a limit for a
+     * single upload can be set using {@link TusUploader#setBandwidthLimiter(TusBandwidthLimiter)}.
+     * Pass null to remove the limit, which is the default.
+     *
+     * @param bandwidthLimiter The limiter or null
+     */
+    public void setBandwidthLimiter(@Nullable TusBandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    /**
+     * Get the limiter for the rate at which data is uploaded by this client.
+     *
+     * @see #setBandwidthLimiter(TusBandwidthLimiter)
+     *
+     * @return The limiter or null if none is set
+     */
+    @Nullable
+    public TusBandwidthLimiter getBandwidthLimiter() {
+        return bandwidthLimiter;
+    }
+
+    /**
+     * Set the pool from which uploaders borrow their buffers for reading chunks. By default,
+     * {@link TusBufferPool#getDefault()} is used, which is shared by all clients. Pass null to
+     * allocate a new buffer for every uploader instead.
+     *
+     * @param bufferPool The pool or null
+     */
+    public void setBufferPool(@Nullable TusBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Get the pool from which uploaders borrow their buffers for reading chunks.
+     *
+     * @see #setBufferPool(TusBufferPool)
+     *
+     * @return The pool or null if none is used
+     */
+    @Nullable
+    public TusBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Set the policy which decides whether and when failed attempts are retried by the uploads
+     * run by {@link #uploadAsync(TusUpload, Executor)}, {@link #uploadParallel(TusUpload, int)}
+     * and {@link TusUploadManager}. If none is set, which is the default, these retry after
+     * 500ms, 1s, 2s and 3s. Policies such as {@link TusExponentialBackoff} keep state per host,
+     * so the same instance should be used for all uploads.
+     *
+     * @param retryPolicy The policy or null
+     */
+    public void setRetryPolicy(@Nullable TusRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Get the policy which decides whether and when failed attempts are retried.
+     *
+     * @see #setRetryPolicy(TusRetryPolicy)
+     *
+     * @return The policy or null if none is set
+     */
+    @Nullable
+    public TusRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Get the policy to use for an upload run by this client, falling back to the default delays.
+     *
+     * @return The retry policy
+     */
+    @NotNull
+    TusRetryPolicy getEffectiveRetryPolicy() {
+        TusRetryPolicy policy = retryPolicy;
+        return policy != null ? policy : TusRetryPolicy.fixed(new int[]{500, 1000, 2000, 3000});
+    }
+
+    /**
+     * Get the host used for keeping retry state of requests whose URL is unknown.
+     *
+     * @return The host of the upload creation URL or null if none is set
+     */
+    @Nullable
+    String getRetryHost() {
+        return uploadCreationURL != null ? uploadCreationURL.getHost() : null;
+    }
+
+    /**
+     * Notify the event listener, if one is set, about a finished request.
+     *
+     * @param method The request's method
+     * @param url The request's URL
+     * @param statusCode The response's status code or -1 if no response has been received
+     * @param bytesSent Number of upload bytes sent in the request's body
+     * @param startTime Value of {@link System#nanoTime()} when the request was opened
+     */
+    void reportRequest(@NotNull String method, @NotNull URL url, int statusCode, long bytesSent, long startTime) {
+        TusEventListener listener = eventListener;
+        if (listener != null) {
+            listener.requestFinished(method, url, statusCode, bytesSent, System.nanoTime() - startTime);
+        }
+    }
+
     /**
      * Create a new upload using the Creation extension. Before calling this function, an "upload
      * creation URL" must be defined using {@link #setUploadCreationURL(URL)} or else this
      * function will fail.
      * In order to create the upload a POST request will be issued. The file's chunks must be
      * uploaded manually using the returned {@link TusUploader} object.
+     * If {@link #enableCreationWithUpload()} has been called, the POST request also contains the
+     * first part of the upload and the returned uploader continues at the offset which the
+     * remote server has accepted. If {@link #enableCapabilityDiscovery()} has been called, uploads
+     * exceeding the server's maximum size are rejected without sending the POST request.
      *
      * @param upload The file for which a new upload will be created
      * @return Use {@link TusUploader} to upload the file's chunks.
@@ -194,54 +824,193 @@ public class TusClient {
      * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
      */
     public TusUploader createUpload(@NotNull TusUpload upload) throws ProtocolException, IOException {
-        HttpURLConnection connection = openConnection(uploadCreationURL);
-        connection.setRequestMethod("POST");
-        prepareConnection(connection);
+        boolean withUpload = creationWithUploadEnabled;
+        if (capabilityDiscoveryEnabled) {
+            TusServerCapabilities server = getServerCapabilities(uploadCreationURL);
+            if (!server.supportsVersion(TUS_VERSION)) {
+                throw new ProtocolException("server does not support protocol version " + TUS_VERSION
+                        + " but only " + server.getVersions());
+            }
+            if (server.getMaxSize() >= 0 && upload.getSize() > server.getMaxSize()) {
+                throw new ProtocolException(String.format("upload size (%d) exceeds the server's maximum (%d)",
+                        upload.getSize(), server.getMaxSize()));
+            }
+            withUpload |= server.supportsExtension(TusServerCapabilities.CREATION_WITH_UPLOAD);
+        }
+
+        long startTime = System.nanoTime();
+        TusExchange exchange = openExchange("POST", uploadCreationURL);
 
         String encodedMetadata = upload.getEncodedMetadata();
         if (encodedMetadata.length() > 0) {
-            connection.setRequestProperty("Upload-Metadata", encodedMetadata);
+            exchange.setRequestHeader("Upload-Metadata", encodedMetadata);
         }
 
-        connection.addRequestProperty("Upload-Length", Long.toString(upload.getSize()));
-        connection.connect();
-
-        int responseCode = connection.getResponseCode();
-        if (!(responseCode >= 200 && responseCode < 300)) {
-            throw new ProtocolException(
-                    "unexpected status code (" + responseCode + ") while creating upload", connection);
+        if (upload.isPartial()) {
+            exchange.addRequestHeader("Upload-Concat", "partial");
         }
 
-        String urlStr = connection.getHeaderField("Location");
-        if (urlStr == null || urlStr.length() == 0) {
-            throw new ProtocolException("missing upload URL in response for creating upload", connection);
+        exchange.addRequestHeader("Upload-Length", Long.toString(upload.getSize()));
+
+        int payloadSize = 0;
+        TusInputStream input = upload.getTusInputStream();
+        if (withUpload && input != null) {
+            payloadSize = (int) Math.min(upload.getSize(), creationWithUploadPayloadSize);
         }
 
-        // The upload URL must be relative to the URL of the request by which is was returned,
-        // not the upload creation URL. In most cases, there is no difference between those two
-        // but there may be cases in which the POST request is redirected.
-        URL uploadURL = new URL(connection.getURL(), urlStr);
+        URL uploadURL;
+        String expires;
+        long offset = 0;
+        int responseCode = -1;
+        long bytesSent = 0;
+        try {
+            if (payloadSize > 0) {
+                // Mark the start, so the uploader can seek back to the offset accepted by the
+                // server, even if the input does not support seeking.
+                input.seekTo(0);
+                input.mark(payloadSize);
+                exchange.setRequestHeader("Content-Type", "application/offset+octet-stream");
+                writeCreationPayload(exchange, input, payloadSize);
+                bytesSent = payloadSize;
+            }
+
+            responseCode = exchange.getResponseCode();
+            if (!(responseCode >= 200 && responseCode < 300)) {
+                throw new ProtocolException(
+                        "unexpected status code (" + responseCode + ") while creating upload", exchange);
+            }
+
+            String urlStr = exchange.getResponseHeader("Location");
+            if (urlStr == null || urlStr.length() == 0) {
+                throw new ProtocolException("missing upload URL in response for creating upload", exchange);
+            }
+
+            // The upload URL must be relative to the URL of the request by which is was returned,
+            // not the upload creation URL. In most cases, there is no difference between those two
+            // but there may be cases in which the POST request is redirected.
+            uploadURL = new URL(exchange.getURL(), urlStr);
+            expires = exchange.getResponseHeader("Upload-Expires");
+
+            // If the server did not accept any data, it may omit the Upload-Offset header.
+            String offsetStr = exchange.getResponseHeader("Upload-Offset");
+            if (payloadSize > 0 && offsetStr != null && offsetStr.length() > 0) {
+                try {
+                    offset = Long.parseLong(offsetStr);
+                } catch (NumberFormatException e) {
+                    offset = -1;
+                }
+                if (offset < 0 || offset > payloadSize) {
+                    throw new ProtocolException("invalid upload offset in response for creating upload", exchange);
+                }
+            }
+        } finally {
+            exchange.close();
+            reportRequest("POST", uploadCreationURL, responseCode, bytesSent, startTime);
+        }
 
         if (resumingEnabled) {
-            urlStore.set(upload.getFingerprint(), uploadURL);
+            storeUploadURL(upload.getFingerprint(), uploadURL, expires);
+            recordCheckpoint(upload, uploadURL, offset);
+        }
+        if (eventListener != null) {
+            eventListener.uploadCreated(upload, uploadURL, offset);
         }
 
-        return createUploader(upload, uploadURL, 0L);
+        return createUploader(upload, uploadURL, offset);
     }
 
-    @NotNull
-    private HttpURLConnection openConnection(@NotNull URL uploadURL) throws IOException {
-        if (proxy != null) {
-            return (HttpURLConnection) uploadURL.openConnection(proxy);
+    /**
+     * Store an upload URL for resuming. If the store supports it, the expiration announced by the
+     * server is passed along.
+     *
+     * @param fingerprint The upload's fingerprint
+     * @param uploadURL The URL of the upload
+     * @param expires Value of the Upload-Expires header or null if the server did not send it
+     */
+    private void storeUploadURL(@NotNull String fingerprint, @NotNull URL uploadURL, @Nullable String expires) {
+        long expiresAt = parseExpires(expires);
+        if (expiresAt >= 0 && urlStore instanceof TusURLExpiringStore) {
+            ((TusURLExpiringStore) urlStore).set(fingerprint, uploadURL, expiresAt);
+        } else {
+            urlStore.set(fingerprint, uploadURL);
+        }
+    }
+
+    /**
+     * Parse the value of an Upload-Expires header, which uses the date format of RFC 7231.
+     *
+     * @param expires The header's value or null
+     * @return Milliseconds since the epoch or -1 if the value is missing or invalid
+     */
+    static long parseExpires(@Nullable String expires) {
+        if (expires == null || expires.length() == 0) {
+            return -1;
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return format.parse(expires).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Write the first bytes of an upload into the body of the request creating it.
+     *
+     * @param exchange The creation request
+     * @param input The upload's input, positioned at its start
+     * @param length Number of bytes to send
+     */
+    private void writeCreationPayload(@NotNull TusExchange exchange, @NotNull TusInputStream input, int length)
+            throws IOException {
+        OutputStream output = exchange.openBody(length);
+        TusBufferPool pool = bufferPool;
+        int size = Math.min(length, 64 * 1024);
+        byte[] buffer = pool != null ? pool.borrow(size) : new byte[size];
+        try {
+            int remaining = length;
+            while (remaining > 0) {
+                int bytesRead = input.read(buffer, Math.min(size, remaining));
+                if (bytesRead == -1) {
+                    throw new IOException("input ended before reaching the upload's size");
+                }
+                TusBandwidthLimiter.acquire(bandwidthLimiter, null, bytesRead);
+                output.write(buffer, 0, bytesRead);
+                remaining -= bytesRead;
+            }
+        } finally {
+            if (pool != null) {
+                pool.release(buffer);
+            }
         }
-        return (HttpURLConnection) uploadURL.openConnection();
+        output.close();
+    }
+
+    /**
+     * Open a new exchange using the configured transport and proxy and prepare it using
+     * {@link #prepareExchange(TusExchange)}.
+     *
+     * @param method The HTTP method
+     * @param url The URL to send the request to
+     * @return The prepared exchange
+     * @throws IOException Thrown if the exchange cannot be opened.
+     */
+    @NotNull
+    TusExchange openExchange(@NotNull String method, @NotNull URL url) throws IOException {
+        TusExchange exchange = transport.open(method, url, proxy);
+        prepareExchange(exchange);
+        return exchange;
     }
 
     @NotNull
     private TusUploader createUploader(@NotNull TusUpload upload, @NotNull URL uploadURL, long offset)
-        throws IOException {
+        throws ProtocolException, IOException {
         TusUploader uploader = new TusUploader(this, upload, uploadURL, upload.getTusInputStream(), offset);
         uploader.setProxy(proxy);
+        uploader.setAdaptiveSizing(adaptiveSizing);
+        uploader.setChecksumAlgorithm(resolveChecksumAlgorithm(uploadURL));
         return uploader;
     }
 
@@ -250,7 +1019,8 @@ public class TusClient {
      * enabled using {@link #enableResuming(TusURLStore)}. This method will look up the URL for this
      * upload in the {@link TusURLStore} using the upload's fingerprint (see
      * {@link TusUpload#getFingerprint()}). After a successful lookup a HEAD request will be issued
-     * to find the current offset without uploading the file, yet.
+     * to find the current offset without uploading the file, yet, unless the offset is taken from a
+     * checkpoint (see {@link #enableOptimisticResume()}).
      *
      * @param upload The file for which an upload will be resumed
      * @return Use {@link TusUploader} to upload the remaining file's chunks.
@@ -268,9 +1038,26 @@ public class TusClient {
             throw new ResumingNotEnabledException();
         }
 
-        URL uploadURL = urlStore.get(upload.getFingerprint());
+        String fingerprint = upload.getFingerprint();
+        if (optimisticResumeEnabled && urlStore instanceof TusURLCheckpointStore) {
+            TusOffsetCheckpoint checkpoint = ((TusURLCheckpointStore) urlStore).getCheckpoint(fingerprint);
+            if (checkpoint != null && (checkpointMaxAge == 0
+                    || System.currentTimeMillis() - checkpoint.getConfirmedAt() <= checkpointMaxAge)) {
+                URL uploadURL = checkpoint.getUploadURL();
+                long offset = checkpoint.getOffset();
+                if (eventListener != null) {
+                    eventListener.uploadResumed(upload, uploadURL, offset);
+                }
+
+                TusUploader uploader = createUploader(upload, uploadURL, offset);
+                uploader.setOffsetUnconfirmed(true);
+                return uploader;
+            }
+        }
+
+        URL uploadURL = urlStore.get(fingerprint);
         if (uploadURL == null) {
-            throw new FingerprintNotFoundException(upload.getFingerprint());
+            throw new FingerprintNotFoundException(fingerprint);
         }
 
         return beginOrResumeUploadFromURL(upload, uploadURL);
@@ -295,25 +1082,76 @@ public class TusClient {
      */
     public TusUploader beginOrResumeUploadFromURL(@NotNull TusUpload upload, @NotNull URL uploadURL) throws
             ProtocolException, IOException {
-        HttpURLConnection connection = openConnection(uploadURL);
-        connection.setRequestMethod("HEAD");
-        prepareConnection(connection);
+        long offset = fetchOffset(uploadURL);
+        recordCheckpoint(upload, uploadURL, offset);
+
+        if (eventListener != null) {
+            eventListener.uploadResumed(upload, uploadURL, offset);
+        }
+
+        return createUploader(upload, uploadURL, offset);
+    }
 
-        connection.connect();
+    /**
+     * Ask the server for the offset of an upload using a HEAD request.
+     *
+     * @param uploadURL The URL of the upload
+     * @return The offset
+     * @throws ProtocolException Thrown if the server responds with an unexpected status code or
+     * without an offset.
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    long fetchOffset(@NotNull URL uploadURL) throws ProtocolException, IOException {
+        long startTime = System.nanoTime();
+        TusExchange exchange = openExchange("HEAD", uploadURL);
 
-        int responseCode = connection.getResponseCode();
-        if (!(responseCode >= 200 && responseCode < 300)) {
-            throw new ProtocolException(
-                    "unexpected status code (" + responseCode + ") while resuming upload", connection);
+        int responseCode = -1;
+        try {
+            responseCode = exchange.getResponseCode();
+            if (!(responseCode >= 200 && responseCode < 300)) {
+                throw new ProtocolException(
+                        "unexpected status code (" + responseCode + ") while resuming upload", exchange);
+            }
+
+            String offsetStr = exchange.getResponseHeader("Upload-Offset");
+            if (offsetStr == null || offsetStr.length() == 0) {
+                throw new ProtocolException("missing upload offset in response for resuming upload", exchange);
+            }
+            return Long.parseLong(offsetStr);
+        } finally {
+            exchange.close();
+            reportRequest("HEAD", uploadURL, responseCode, 0, startTime);
         }
+    }
 
-        String offsetStr = connection.getHeaderField("Upload-Offset");
-        if (offsetStr == null || offsetStr.length() == 0) {
-            throw new ProtocolException("missing upload offset in response for resuming upload", connection);
+    /**
+     * Record the offset confirmed by the server, if resuming is enabled and the store supports
+     * checkpoints.
+     *
+     * @param upload The upload
+     * @param uploadURL The URL of the upload
+     * @param offset The offset confirmed by the server
+     */
+    void recordCheckpoint(@NotNull TusUpload upload, @NotNull URL uploadURL, long offset) {
+        TusURLStore store = urlStore;
+        String fingerprint = upload.getFingerprint();
+        if (resumingEnabled && store instanceof TusURLCheckpointStore && fingerprint != null) {
+            ((TusURLCheckpointStore) store).setCheckpoint(fingerprint,
+                    new TusOffsetCheckpoint(uploadURL, offset, System.currentTimeMillis()));
         }
-        long offset = Long.parseLong(offsetStr);
+    }
 
-        return createUploader(upload, uploadURL, offset);
+    /**
+     * Remove the checkpoint of an upload, so it is resumed using a HEAD request the next time.
+     *
+     * @param upload The upload
+     */
+    void removeCheckpoint(@NotNull TusUpload upload) {
+        TusURLStore store = urlStore;
+        String fingerprint = upload.getFingerprint();
+        if (resumingEnabled && store instanceof TusURLCheckpointStore && fingerprint != null) {
+            ((TusURLCheckpointStore) store).removeCheckpoint(fingerprint);
+        }
     }
 
     /**
@@ -337,8 +1175,8 @@ public class TusClient {
         } catch (ProtocolException e) {
             // If the attempt to resume returned a 404 Not Found, we immediately try to create a new
             // one since TusExectuor would not retry this operation.
-            HttpURLConnection connection = e.getCausingConnection();
-            if (connection != null && connection.getResponseCode() == 404) {
+            TusExchange exchange = e.getCausingExchange();
+            if (exchange != null && exchange.getResponseCode() == 404) {
                 return createUpload(upload);
             }
 
@@ -346,6 +1184,457 @@ public class TusClient {
         }
     }
 
+    /**
+     * Probe many stored uploads at once, e.g. after a restart, by sending the HEAD requests for
+     * their stored URLs concurrently instead of one after another. For every upload, a
+     * {@link TusProbeResult} is returned in the order of the supplied collection:
+     * <ul>
+     *     <li>{@link TusProbeResult.Status#READY}: the result contains an uploader continuing at
+     *     the server's offset, as returned by {@link #resumeUpload(TusUpload)}.</li>
+     *     <li>{@link TusProbeResult.Status#GONE}: no URL is stored for the upload or the server
+     *     responded with 404 Not Found or 410 Gone. In the latter case, the URL is removed from the
+     *     store. The upload has to be created again.</li>
+     *     <li>{@link TusProbeResult.Status#COMPLETE}: the server has received all data. The upload
+     *     is treated as finished, see {@link #enableRemoveFingerprintOnSuccess()}.</li>
+     *     <li>{@link TusProbeResult.Status#FAILED}: the request failed otherwise, e.g. due to a
+     *     network error.</li>
+     * </ul>
+     * This method creates a thread pool with up to <code>parallelism</code> threads and shuts it
+     * down before returning. Use {@link #probeUploads(Collection, ExecutorService)} to supply
+     * your own.
+     *
+     * @param uploads The uploads to probe
+     * @param parallelism Maximum number of concurrent requests
+     * @return The results in the order of the uploads
+     * @throws ResumingNotEnabledException Thrown if resuming has not been enabled
+     * @throws InterruptedIOException Thrown if the thread has been interrupted while waiting for
+     * the results
+     */
+    @NotNull
+    public List<TusProbeResult> probeUploads(@NotNull Collection<TusUpload> uploads, int parallelism)
+            throws ResumingNotEnabledException, InterruptedIOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, uploads.size())));
+        try {
+            return probeUploads(uploads, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Probe many stored uploads at once using the supplied executor, which limits the number of
+     * concurrent requests. See {@link #probeUploads(Collection, int)} for details.
+     *
+     * @param uploads The uploads to probe
+     * @param executor Executor on which the requests are sent
+     * @return The results in the order of the uploads
+     * @throws ResumingNotEnabledException Thrown if resuming has not been enabled
+     * @throws InterruptedIOException Thrown if the thread has been interrupted while waiting for
+     * the results
+     */
+    @NotNull
+    public List<TusProbeResult> probeUploads(@NotNull Collection<TusUpload> uploads,
+                                             @NotNull ExecutorService executor)
+            throws ResumingNotEnabledException, InterruptedIOException {
+        if (!resumingEnabled) {
+            throw new ResumingNotEnabledException();
+        }
+
+        List<Future<TusProbeResult>> futures = new ArrayList<Future<TusProbeResult>>(uploads.size());
+        try {
+            for (final TusUpload upload : uploads) {
+                futures.add(executor.submit(new Callable<TusProbeResult>() {
+                    @Override
+                    public TusProbeResult call() {
+                        return probeUpload(upload);
+                    }
+                }));
+            }
+
+            List<TusProbeResult> results = new ArrayList<TusProbeResult>(futures.size());
+            for (Future<TusProbeResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while probing uploads");
+        } catch (ExecutionException e) {
+            // probeUpload() reports exceptions in its result, so only unchecked ones end up here.
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        } finally {
+            for (Future<TusProbeResult> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Find the state of a single stored upload using a HEAD request.
+     *
+     * @param upload The upload to probe
+     * @return The result
+     */
+    @NotNull
+    private TusProbeResult probeUpload(@NotNull TusUpload upload) {
+        String fingerprint = upload.getFingerprint();
+        URL uploadURL = fingerprint != null ? urlStore.get(fingerprint) : null;
+        if (uploadURL == null) {
+            return new TusProbeResult(upload, TusProbeResult.Status.GONE, null, -1, null, null);
+        }
+
+        try {
+            long offset = fetchOffset(uploadURL);
+            if (offset >= upload.getSize()) {
+                uploadFinished(upload);
+                return new TusProbeResult(upload, TusProbeResult.Status.COMPLETE, uploadURL, offset, null, null);
+            }
+
+            recordCheckpoint(upload, uploadURL, offset);
+            if (eventListener != null) {
+                eventListener.uploadResumed(upload, uploadURL, offset);
+            }
+            TusUploader uploader = createUploader(upload, uploadURL, offset);
+            return new TusProbeResult(upload, TusProbeResult.Status.READY, uploadURL, offset, uploader, null);
+        } catch (ProtocolException e) {
+            TusExchange exchange = e.getCausingExchange();
+            int responseCode;
+            try {
+                responseCode = exchange != null ? exchange.getResponseCode() : -1;
+            } catch (IOException ignored) {
+                responseCode = -1;
+            }
+            if (responseCode == 404 || responseCode == 410) {
+                urlStore.remove(fingerprint);
+                return new TusProbeResult(upload, TusProbeResult.Status.GONE, uploadURL, -1, null, null);
+            }
+            return new TusProbeResult(upload, TusProbeResult.Status.FAILED, uploadURL, -1, null, e);
+        } catch (IOException e) {
+            return new TusProbeResult(upload, TusProbeResult.Status.FAILED, uploadURL, -1, null, e);
+        }
+    }
+
+    /**
+     * Upload a file asynchronously. The upload is resumed or created using
+     * {@link #resumeOrCreateUpload(TusUpload)} and its data is transferred in tasks run by the
+     * supplied executor. Each task sends a single request (see
+     * {@link TusUploader#setRequestPayloadSize(int)}) and then submits the next one, so a small
+     * thread pool can serve many uploads at the same time.
+     * Failed requests are retried in the same way as by {@link TusExecutor}, using the policy set
+     * using {@link #setRetryPolicy(TusRetryPolicy)} or the default delays of 500ms, 1s, 2s and 3s.
+     * Waiting for a retry does not block any of the executor's threads.
+     * Cancelling the returned future stops the upload before its next request. If resuming is
+     * enabled, it can be continued later.
+     *
+     * @param upload The file which will be uploaded
+     * @param executor The executor running the upload's requests
+     * @return A future which is completed with the upload URL once the upload has been finished
+     * or exceptionally if it failed
+     */
+    @NotNull
+    public CompletableFuture<URL> uploadAsync(@NotNull TusUpload upload, @NotNull Executor executor) {
+        return new TusAsyncUpload(this, upload, executor, getEffectiveRetryPolicy()).start();
+    }
+
+    /**
+     * Upload a file asynchronously using custom delays between retries. See
+     * {@link #uploadAsync(TusUpload, Executor)} for details.
+     *
+     * @param upload The file which will be uploaded
+     * @param executor The executor running the upload's requests
+     * @param delays The delays in milliseconds between retries, see {@link TusExecutor#setDelays(int[])}
+     * @return A future which is completed with the upload URL once the upload has been finished
+     * or exceptionally if it failed
+     */
+    @NotNull
+    public CompletableFuture<URL> uploadAsync(@NotNull TusUpload upload, @NotNull Executor executor,
+                                              @NotNull int[] delays) {
+        return uploadAsync(upload, executor, TusRetryPolicy.fixed(delays));
+    }
+
+    /**
+     * Upload a file asynchronously using a custom retry policy. See
+     * {@link #uploadAsync(TusUpload, Executor)} for details.
+     *
+     * @param upload The file which will be uploaded
+     * @param executor The executor running the upload's requests
+     * @param retryPolicy The policy deciding whether and when failed requests are retried
+     * @return A future which is completed with the upload URL once the upload has been finished
+     * or exceptionally if it failed
+     */
+    @NotNull
+    public CompletableFuture<URL> uploadAsync(@NotNull TusUpload upload, @NotNull Executor executor,
+                                              @NotNull TusRetryPolicy retryPolicy) {
+        return new TusAsyncUpload(this, upload, executor, retryPolicy).start();
+    }
+
+    /**
+     * Upload a file in parallel using the Concatenation extension. The file is split into
+     * <code>parallelism</code> byte ranges of roughly equal size. For every range a partial upload is
+     * created (or resumed, if resuming has been enabled) and uploaded on its own thread. Once all
+     * ranges have been transferred, the partial uploads are combined into the final upload using
+     * {@link #concatenateUploads(TusUpload, List)}.
+     * This method creates a thread pool with one thread per range and shuts it down before
+     * returning. Use {@link #uploadParallel(TusUpload, int, ExecutorService)} to supply your own.
+     * If capability discovery is enabled and the server does not support concatenation, the file
+     * is uploaded as a single upload on the calling thread instead.
+     *
+     * @param upload The file-backed upload, created using {@link TusUpload#TusUpload(java.io.File)}
+     * @param parallelism Number of ranges the file is split into
+     * @return The URL of the final, concatenated upload
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response, e.g.
+     * wrong status codes or missing/invalid headers.
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    public URL uploadParallel(@NotNull TusUpload upload, int parallelism) throws ProtocolException, IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            return uploadParallel(upload, parallelism, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Upload a file in parallel using the Concatenation extension and the supplied executor. See
+     * {@link #uploadParallel(TusUpload, int)} for details.
+     * Every range is uploaded using a {@link TusExecutor} with the retry policy set using
+     * {@link #setRetryPolicy(TusRetryPolicy)} or its default delays, so a failing
+     * request only causes its own range to be retried. If a range cannot be uploaded at all, the
+     * remaining ranges are cancelled and the exception is thrown. When resuming is enabled, calling
+     * this method again for the same upload will resume the ranges which have not been finished.
+     *
+     * @param upload The file-backed upload, created using {@link TusUpload#TusUpload(java.io.File)}
+     * @param parallelism Number of ranges the file is split into
+     * @param executor Executor on which the ranges will be uploaded
+     * @return The URL of the final, concatenated upload
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response, e.g.
+     * wrong status codes or missing/invalid headers.
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    public URL uploadParallel(@NotNull TusUpload upload, int parallelism, @NotNull ExecutorService executor)
+            throws ProtocolException, IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (upload.getFile() == null) {
+            throw new IllegalArgumentException("parallel uploads require an upload created from a file");
+        }
+
+        if (capabilityDiscoveryEnabled
+                && !getServerCapabilities(uploadCreationURL).supportsExtension(TusServerCapabilities.CONCATENATION)) {
+            return uploadWithRetries(upload);
+        }
+
+        long size = upload.getSize();
+        int parts = (int) Math.max(1, Math.min(parallelism, size));
+        long partSize = (size + parts - 1) / parts;
+
+        List<Future<URL>> futures = new ArrayList<Future<URL>>(parts);
+        try {
+            for (long start = 0; start < size || futures.isEmpty(); start += partSize) {
+                final TusUpload partialUpload = upload.createPartialUpload(start, Math.min(partSize, size - start));
+                futures.add(executor.submit(new Callable<URL>() {
+                    @Override
+                    public URL call() throws Exception {
+                        return uploadWithRetries(partialUpload);
+                    }
+                }));
+            }
+
+            List<URL> partialURLs = new ArrayList<URL>(futures.size());
+            for (Future<URL> future : futures) {
+                partialURLs.add(future.get());
+            }
+
+            return concatenateUploads(upload, partialURLs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for partial uploads");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ProtocolException) {
+                throw (ProtocolException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("partial upload failed", cause);
+        } finally {
+            for (Future<URL> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    @NotNull
+    private URL uploadWithRetries(@NotNull final TusUpload upload) throws ProtocolException, IOException {
+        final URL[] uploadURL = new URL[1];
+        TusExecutor executor = new TusExecutor() {
+            @Override
+            protected void makeAttempt() throws ProtocolException, IOException {
+                TusUploader uploader = resumeOrCreateUpload(upload);
+                while (uploader.uploadChunk() > -1) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        uploader.finish();
+                        throw new InterruptedIOException("upload has been cancelled");
+                    }
+                }
+                uploader.finish();
+                uploadURL[0] = uploader.getUploadURL();
+            }
+        };
+        executor.setEventListener(eventListener);
+        executor.setRetryPolicy(retryPolicy);
+        executor.setRetryHost(getRetryHost());
+
+        if (!executor.makeAttempts()) {
+            throw new InterruptedIOException("upload has been cancelled");
+        }
+
+        return uploadURL[0];
+    }
+
+    /**
+     * Combine multiple partial uploads into a single upload using the Concatenation extension. A
+     * POST request with the <code>Upload-Concat: final;...</code> header will be issued to the
+     * upload creation URL. The upload's metadata will be attached to the final upload and, if
+     * resuming is enabled, the final upload URL will be stored using the upload's fingerprint.
+     *
+     * @param upload The upload whose metadata and fingerprint will be used for the final upload
+     * @param partialURLs URLs of the partial uploads in the order in which they will be combined
+     * @return The URL of the final upload
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response, e.g.
+     * wrong status codes or missing/invalid headers.
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    public URL concatenateUploads(@NotNull TusUpload upload, @NotNull List<URL> partialURLs)
+            throws ProtocolException, IOException {
+        long startTime = System.nanoTime();
+        TusExchange exchange = openExchange("POST", uploadCreationURL);
+
+        String encodedMetadata = upload.getEncodedMetadata();
+        if (encodedMetadata.length() > 0) {
+            exchange.setRequestHeader("Upload-Metadata", encodedMetadata);
+        }
+
+        StringBuilder concat = new StringBuilder("final;");
+        for (int i = 0; i < partialURLs.size(); i++) {
+            if (i > 0) {
+                concat.append(' ');
+            }
+            concat.append(partialURLs.get(i).toString());
+        }
+        exchange.addRequestHeader("Upload-Concat", concat.toString());
+
+        URL uploadURL;
+        String expires;
+        int responseCode = -1;
+        try {
+            responseCode = exchange.getResponseCode();
+            if (!(responseCode >= 200 && responseCode < 300)) {
+                throw new ProtocolException(
+                        "unexpected status code (" + responseCode + ") while concatenating uploads", exchange);
+            }
+
+            String urlStr = exchange.getResponseHeader("Location");
+            if (urlStr == null || urlStr.length() == 0) {
+                throw new ProtocolException("missing upload URL in response for concatenating uploads", exchange);
+            }
+
+            uploadURL = new URL(exchange.getURL(), urlStr);
+            expires = exchange.getResponseHeader("Upload-Expires");
+        } finally {
+            exchange.close();
+            reportRequest("POST", uploadCreationURL, responseCode, 0, startTime);
+        }
+
+        if (resumingEnabled) {
+            storeUploadURL(upload.getFingerprint(), uploadURL, expires);
+        }
+        uploadFinished(upload);
+
+        return uploadURL;
+    }
+
+    /**
+     * Terminate an upload using the Termination extension. A DELETE request is sent to the upload
+     * URL, after which the server frees the upload's resources and rejects further requests for
+     * it. If capability discovery is enabled (see {@link #enableCapabilityDiscovery()}), the request
+     * is only sent if the server supports the extension.
+     *
+     * @param uploadURL The URL of the upload
+     * @return True if the upload has been terminated or false if the server did not know it
+     * anymore (404 Not Found or 410 Gone)
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response or does
+     * not support the extension.
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    public boolean terminateUpload(@NotNull URL uploadURL) throws ProtocolException, IOException {
+        if (capabilityDiscoveryEnabled) {
+            URL endpoint = uploadCreationURL != null ? uploadCreationURL : uploadURL;
+            if (!getServerCapabilities(endpoint).supportsExtension(TusServerCapabilities.TERMINATION)) {
+                throw new ProtocolException("server does not support the termination extension");
+            }
+        }
+
+        long startTime = System.nanoTime();
+        TusExchange exchange = openExchange("DELETE", uploadURL);
+        int responseCode = -1;
+        try {
+            responseCode = exchange.getResponseCode();
+            if (responseCode == 404 || responseCode == 410) {
+                return false;
+            }
+            if (!(responseCode >= 200 && responseCode < 300)) {
+                throw new ProtocolException(
+                        "unexpected status code (" + responseCode + ") while terminating upload", exchange);
+            }
+            return true;
+        } finally {
+            exchange.close();
+            reportRequest("DELETE", uploadURL, responseCode, 0, startTime);
+        }
+    }
+
+    /**
+     * Terminate an upload whose URL has been stored for its fingerprint, see
+     * {@link #terminateUpload(URL)}. Afterwards, the fingerprint is removed from the store, so the
+     * upload is created again the next time.
+     *
+     * @param upload The upload to terminate
+     * @return True if the upload has been terminated or false if no URL has been stored or the
+     * server did not know the upload anymore
+     * @throws ResumingNotEnabledException Thrown if resuming has not been enabled
+     * @throws ProtocolException Thrown if the remote server sent an unexpected response or does
+     * not support the extension.
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    public boolean terminateUpload(@NotNull TusUpload upload)
+            throws ResumingNotEnabledException, ProtocolException, IOException {
+        if (!resumingEnabled) {
+            throw new ResumingNotEnabledException();
+        }
+
+        String fingerprint = upload.getFingerprint();
+        URL uploadURL = urlStore.get(fingerprint);
+        if (uploadURL == null) {
+            return false;
+        }
+
+        boolean terminated = terminateUpload(uploadURL);
+        urlStore.remove(fingerprint);
+        return terminated;
+    }
+
     /**
      * Set headers used for every HTTP request. Currently, this will add the Tus-Resumable header
      * and any custom header which can be configured using {@link #setHeaders(Map)},
@@ -353,6 +1642,27 @@ public class TusClient {
      * @param connection The connection whose headers will be modified.
      */
     public void prepareConnection(@NotNull HttpURLConnection connection) {
+        applyDefaults(new TusURLConnectionExchange(connection));
+    }
+
+    /**
+     * Prepare an exchange before it is sent. This is called for every HTTP request made by this
+     * client and the uploaders returned by it. For exchanges of the {@link TusURLConnectionTransport}
+     * this method delegates to {@link #prepareConnection(HttpURLConnection)}, so subclasses
+     * overriding that method keep working. For other exchanges, the Tus-Resumable header, the
+     * configured headers and the connect timeout are applied directly.
+     *
+     * @param exchange The exchange which will be modified.
+     */
+    public void prepareExchange(@NotNull TusExchange exchange) {
+        if (exchange instanceof TusURLConnectionExchange) {
+            prepareConnection(((TusURLConnectionExchange) exchange).getConnection());
+        } else {
+            applyDefaults(exchange);
+        }
+    }
+
+    private void applyDefaults(@NotNull TusExchange exchange) {
         // Only follow redirects, if the POST methods is preserved. If http.strictPostRedirect is
         // disabled, a POST request will be transformed into a GET request which is not wanted by us.
 
@@ -360,14 +1670,14 @@ public class TusClient {
         // LineLength - Necessary because of length of the link
         // See:https://github.com/openjdk/jdk/blob/jdk7-b43/jdk/src/share/classes/sun/net/www/protocol/http/HttpURLConnection.java#L2020-L2035
         // CHECKSTYLE:ON
-        connection.setInstanceFollowRedirects(Boolean.getBoolean("http.strictPostRedirect"));
+        exchange.setFollowRedirects(Boolean.getBoolean("http.strictPostRedirect"));
 
-        connection.setConnectTimeout(connectTimeout);
-        connection.addRequestProperty("Tus-Resumable", TUS_VERSION);
+        exchange.setConnectTimeout(connectTimeout);
+        exchange.addRequestHeader("Tus-Resumable", TUS_VERSION);
 
         if (headers != null) {
             for (Map.Entry<String, String> entry : headers.entrySet()) {
-                connection.addRequestProperty(entry.getKey(), entry.getValue());
+                exchange.addRequestHeader(entry.getKey(), entry.getValue());
             }
         }
     }
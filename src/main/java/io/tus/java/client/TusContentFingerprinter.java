@@ -0,0 +1,325 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes fingerprints from a file's content, so an upload can be resumed after the file has been
+ * moved and an upload is not resumed after the file has been rewritten with different content.
+ * <p>
+ * By default the whole file is hashed using SHA-256. Large files are split into segments of
+ * {@value #SEGMENT_SIZE} bytes which are hashed in parallel, and the fingerprint is the hash of
+ * the segments' hashes. Alternatively, {@link #TusContentFingerprinter(int, int)} only hashes a
+ * few evenly spaced blocks of the file, which is much cheaper for large files but will not notice
+ * changes outside of these blocks.
+ * <p>
+ * Fingerprints are cached using the file's identity (its {@code fileKey} or, if that is not
+ * available, its canonical path), modification time and size, so unchanged files are not hashed
+ * again every time their upload is resumed. Instances can be shared between threads.
+ */
+public final class TusContentFingerprinter implements TusFingerprinter {
+    static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CACHE_SIZE = 1024;
+
+    private final int sampleCount;
+    private final int sampleSize;
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private long cacheHitCount;
+    private long cacheMissCount;
+    private volatile Executor executor;
+
+    /**
+     * Create a new fingerprinter which hashes the whole content of files.
+     */
+    public TusContentFingerprinter() {
+        sampleCount = 0;
+        sampleSize = 0;
+    }
+
+    /**
+     * Create a new fingerprinter which only hashes {@code sampleCount} evenly spaced blocks of
+     * {@code sampleSize} bytes, including the first and last one. Files which are not larger than
+     * all blocks together are hashed completely.
+     *
+     * @param sampleCount The number of blocks to hash
+     * @param sampleSize The size of each block in bytes
+     */
+    public TusContentFingerprinter(int sampleCount, int sampleSize) {
+        if (sampleCount < 1 || sampleSize < 1) {
+            throw new IllegalArgumentException("sample count and sample size must be positive");
+        }
+        this.sampleCount = sampleCount;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Set the executor used for hashing the segments of large files in parallel. The calling
+     * thread always takes part in hashing, so an executor whose threads are all busy (or one
+     * which rejects tasks) only reduces the parallelism. Defaults to
+     * {@link ForkJoinPool#commonPool()}.
+     *
+     * @param executor The executor to use or {@code null} to use the default one
+     */
+    public void setExecutor(@Nullable Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the number of fingerprints which have been served from the cache.
+     *
+     * @return Number of cache hits
+     */
+    public synchronized long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * Returns the number of fingerprints which had to be computed by reading the file.
+     *
+     * @return Number of cache misses
+     */
+    public synchronized long getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    /**
+     * Compute the fingerprint of a file from its content or return the cached one if the file
+     * has not been modified since it was last computed.
+     *
+     * @param file The file to compute the fingerprint for
+     * @return The fingerprint
+     * @throws IOException Thrown if the file cannot be read
+     */
+    @NotNull
+    @Override
+    public String fingerprint(@NotNull File file) throws IOException {
+        String key = cacheKey(file);
+        synchronized (this) {
+            String cached = cache.get(key);
+            if (cached != null) {
+                cacheHitCount++;
+                return cached;
+            }
+            cacheMissCount++;
+        }
+
+        String fingerprint;
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            long size = channel.size();
+            fingerprint = sampleCount > 0 ? hashSamples(channel, size) : hashSegments(channel, size);
+        } finally {
+            stream.close();
+        }
+
+        // Do not cache the fingerprint if the file has been modified while it was hashed.
+        if (key.equals(cacheKey(file))) {
+            synchronized (this) {
+                cache.put(key, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Hash evenly spaced blocks of the file.
+     *
+     * @param channel The file's channel
+     * @param size The file's size
+     * @return The fingerprint
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private String hashSamples(FileChannel channel, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        if (size <= (long) sampleCount * sampleSize) {
+            digest.update(hashRange(channel, 0, size));
+        } else {
+            for (int i = 0; i < sampleCount; i++) {
+                long position = sampleCount == 1 ? 0 : (size - sampleSize) / (sampleCount - 1) * i;
+                digest.update(hashRange(channel, position, sampleSize));
+            }
+        }
+
+        return String.format("sha256-%dx%d-%s-%d", sampleCount, sampleSize, hex(digest.digest()), size);
+    }
+
+    /**
+     * Hash the whole file by hashing its segments in parallel.
+     *
+     * @param channel The file's channel
+     * @param size The file's size
+     * @return The fingerprint
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private String hashSegments(final FileChannel channel, final long size) throws IOException {
+        final int count = (int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        final byte[][] digests = new byte[count][];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<IOException> failure = new AtomicReference<IOException>();
+        final CountDownLatch done = new CountDownLatch(count);
+
+        // Segments are claimed from a shared counter instead of being bound to tasks, so hashing
+        // finishes even if none of the submitted tasks ever gets to run.
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                for (int index = next.getAndIncrement(); index < count; index = next.getAndIncrement()) {
+                    try {
+                        if (failure.get() == null) {
+                            long position = (long) index * SEGMENT_SIZE;
+                            digests[index] = hashRange(channel, position, Math.min(SEGMENT_SIZE, size - position));
+                        }
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, new IOException("unable to hash file segment", e));
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }
+        };
+
+        Executor pool = executor != null ? executor : ForkJoinPool.commonPool();
+        int workers = Math.min(count, Runtime.getRuntime().availableProcessors());
+        try {
+            for (int i = 1; i < workers; i++) {
+                pool.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            // The calling thread will hash the remaining segments itself.
+        }
+        worker.run();
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, new InterruptedIOException());
+            Thread.currentThread().interrupt();
+        }
+
+        IOException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+
+        MessageDigest digest = newDigest();
+        for (byte[] segment : digests) {
+            digest.update(segment);
+        }
+        return String.format("sha256-%s-%d", hex(digest.digest()), size);
+    }
+
+    /**
+     * Hash a range of the file using positional reads, so ranges can be hashed concurrently.
+     *
+     * @param channel The file's channel
+     * @param position The offset of the range's first byte
+     * @param length The range's length in bytes
+     * @return The range's SHA-256 hash
+     * @throws IOException Thrown if the file cannot be read or is shorter than expected
+     */
+    private static byte[] hashRange(FileChannel channel, long position, long length) throws IOException {
+        MessageDigest digest = newDigest();
+        // A direct buffer saves the channel from copying through a temporary one on every read.
+        TusBufferPool pool = TusBufferPool.getDefault();
+        ByteBuffer buffer = pool.borrowDirect((int) Math.min(BUFFER_SIZE, length));
+        try {
+            long end = position + length;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("file has been truncated while computing its fingerprint");
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+        } finally {
+            pool.release(buffer);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Build the key under which a file's fingerprint is cached.
+     *
+     * @param file The file
+     * @return The cache key
+     * @throws IOException Thrown if the file's attributes cannot be read
+     */
+    private static String cacheKey(File file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            Object fileKey = attributes.fileKey();
+            return String.format("%s|%d|%d",
+                    fileKey != null ? fileKey : file.getCanonicalPath(),
+                    attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    attributes.size());
+        } catch (LinkageError e) {
+            // java.nio.file is not available on older Android versions.
+            if (!file.isFile()) {
+                throw new IOException("file not found: " + file);
+            }
+            return String.format("%s|%d|%d", file.getCanonicalPath(), file.lastModified(), file.length());
+        }
+    }
+
+    /**
+     * Create a new SHA-256 digest.
+     *
+     * @return The digest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encode bytes as lower-case hexadecimal string.
+     *
+     * @param bytes The bytes to encode
+     * @return The encoded string
+     */
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+            builder.append(Character.forDigit(b & 0xf, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * Receives notifications about the requests sent by a {@link TusClient} and its
+ * {@link TusUploader}s, and about the retries issued by a {@link TusExecutor}. This can be used to
+ * feed an application's own metrics or logging without this library depending on any of them.
+ * All methods do nothing by default, so only the relevant ones need to be overridden.
+ * <br>
+ * The methods are called synchronously from the threads doing the uploads, possibly at the same
+ * time, so implementations must be thread-safe and should return quickly. Durations are passed as
+ * primitive values measured using {@link System#nanoTime()}, so no objects are allocated for
+ * reporting a request.
+ *
+ * @see TusClient#setEventListener(TusEventListener)
+ * @see TusExecutor#setEventListener(TusEventListener)
+ */
+public abstract class TusEventListener {
+    /**
+     * Called after a request has been finished, whether it was successful or not. This includes
+     * the POST requests creating uploads, the HEAD requests resuming them, the PATCH requests
+     * uploading data and the OPTIONS requests discovering the server's capabilities.
+     *
+     * @param method The request's method, e.g. PATCH
+     * @param url The request's URL
+     * @param statusCode The response's status code or -1 if no response has been received
+     * @param bytesSent Number of upload bytes sent in the request's body
+     * @param durationNanos Time from opening the request until its response has been received
+     */
+    public void requestFinished(@NotNull String method, @NotNull URL url, int statusCode, long bytesSent,
+                                long durationNanos) {
+    }
+
+    /**
+     * Called after an upload has been created using the Creation extension.
+     *
+     * @param upload The created upload
+     * @param uploadURL The upload's URL
+     * @param offset Number of bytes which have been uploaded while creating the upload
+     */
+    public void uploadCreated(@NotNull TusUpload upload, @NotNull URL uploadURL, long offset) {
+    }
+
+    /**
+     * Called after the offset of an existing upload has been retrieved for resuming it.
+     *
+     * @param upload The resumed upload
+     * @param uploadURL The upload's URL
+     * @param offset The offset at which the upload is continued
+     */
+    public void uploadResumed(@NotNull TusUpload upload, @NotNull URL uploadURL, long offset) {
+    }
+
+    /**
+     * Called if the server reported a different offset than expected after a PATCH request.
+     *
+     * @param uploadURL The upload's URL
+     * @param expectedOffset The offset expected by the uploader
+     * @param serverOffset The offset reported by the server
+     */
+    public void offsetMismatch(@NotNull URL uploadURL, long expectedOffset, long serverOffset) {
+    }
+
+    /**
+     * Called before waiting for a retry after an attempt has failed.
+     *
+     * @param attempt Number of the upcoming retry, starting at 1
+     * @param delayMillis Delay before the retry in milliseconds
+     * @param cause The exception thrown by the failed attempt
+     */
+    public void retryScheduled(int attempt, long delayMillis, @NotNull Exception cause) {
+    }
+}
@@ -0,0 +1,102 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+
+/**
+ * A TusExchange represents a single HTTP request and its response. Instances are created by a
+ * {@link TusTransport} and are used for exactly one request.
+ * <br>
+ * The lifecycle of an exchange is as follows:
+ * <ol>
+ *  <li>Add the request headers</li>
+ *  <li>Optionally open the request body using {@link #openBody(long)}, write to it and close it</li>
+ *  <li>Obtain the response using {@link #getResponseCode()} and {@link #getResponseHeader(String)}</li>
+ *  <li>Release the exchange using {@link #close()}</li>
+ * </ol>
+ */
+public interface TusExchange {
+    /**
+     * Returns the URL of this exchange. Once the response is available, this is the URL of the
+     * request which produced the response, which may differ from the requested URL if redirects
+     * have been followed.
+     *
+     * @return The URL of this exchange
+     */
+    @NotNull
+    URL getURL();
+
+    /**
+     * Set a request header, replacing any previous value with the same name.
+     *
+     * @param name Name of the header
+     * @param value Value of the header
+     */
+    void setRequestHeader(@NotNull String name, @NotNull String value);
+
+    /**
+     * Add a request header without replacing previous values with the same name.
+     *
+     * @param name Name of the header
+     * @param value Value of the header
+     */
+    void addRequestHeader(@NotNull String name, @NotNull String value);
+
+    /**
+     * Set the timeout for establishing the connection. Implementations which configure this
+     * timeout for all requests at once may ignore it.
+     *
+     * @param timeout Timeout in milliseconds
+     */
+    void setConnectTimeout(int timeout);
+
+    /**
+     * Set whether redirects should be followed. Implementations which configure this for all
+     * requests at once may ignore it.
+     *
+     * @param followRedirects True if redirects should be followed
+     */
+    void setFollowRedirects(boolean followRedirects);
+
+    /**
+     * Send the request and open its body. The returned stream must be closed before the response
+     * can be obtained.
+     *
+     * @param contentLength Length of the body in bytes or -1 if the length is unknown and the body
+     *                      should be streamed
+     * @return The stream to write the request body to
+     * @throws IOException Thrown if the request cannot be sent. A {@link java.net.ProtocolException}
+     * indicates that the server already responded, e.g. because of a failed expectation.
+     */
+    @NotNull
+    OutputStream openBody(long contentLength) throws IOException;
+
+    /**
+     * Returns the status code of the response. If the request has not been sent yet, it will be
+     * sent without a body and this method blocks until the response is available.
+     *
+     * @return The status code or -1 if the response is not a valid HTTP response
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    int getResponseCode() throws IOException;
+
+    /**
+     * Returns the value of a response header. This method must only be called after the response
+     * is available, e.g. after {@link #getResponseCode()} returned.
+     *
+     * @param name Name of the header
+     * @return The value of the header or null if the response does not contain it
+     */
+    @Nullable
+    String getResponseHeader(@NotNull String name);
+
+    /**
+     * Release all resources held by this exchange. The status code and headers of the response
+     * remain available after closing.
+     */
+    void close();
+}
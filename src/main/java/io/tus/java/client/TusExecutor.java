@@ -1,6 +1,7 @@
 package io.tus.java.client;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TusExecutor is a wrapper class which you can build around your uploading mechanism and any
@@ -29,9 +30,16 @@ import java.io.IOException;
  *
  * The current attempt can be interrupted using {@link Thread#interrupt()} which will cause the
  * {@link #makeAttempts()} method to return <code>false</code> immediately.
+ *
+ * By default, retries are made after the delays set using {@link #setDelays(int[])}. A
+ * {@link TusRetryPolicy}, e.g. {@link TusExponentialBackoff}, can be set using
+ * {@link #setRetryPolicy(TusRetryPolicy)} instead.
  */
 public abstract class TusExecutor {
     private int[] delays = new int[]{500, 1000, 2000, 3000};
+    private TusEventListener eventListener;
+    private TusRetryPolicy retryPolicy;
+    private String retryHost;
 
     /**
      * Set the delays at which TusExecutor will issue a retry if {@link #makeAttempt()} throws an
@@ -41,6 +49,7 @@ public abstract class TusExecutor {
      * It total <code>delays.length</code> retries may be issued, resulting in up to
      * <code>delays.length + 1</code> calls to {@link #makeAttempt()}.
      * The default delays are set to 500ms, 1s, 2s and 3s.
+     * Setting delays replaces a policy set using {@link #setRetryPolicy(TusRetryPolicy)}.
      *
      * @see #getDelays()
      *
@@ -48,6 +57,7 @@ public abstract class TusExecutor {
      */
     public void setDelays(int[] delays) {
         this.delays = delays;
+        this.retryPolicy = null;
     }
 
     /**
@@ -61,6 +71,61 @@ public abstract class TusExecutor {
         return delays;
     }
 
+    /**
+     * Set the policy which decides whether and when a failed attempt is retried, replacing the
+     * delays set using {@link #setDelays(int[])}. Pass null to use the delays again.
+     *
+     * @param retryPolicy The policy or null
+     */
+    public void setRetryPolicy(TusRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Get the policy which decides whether and when a failed attempt is retried.
+     *
+     * @see #setRetryPolicy(TusRetryPolicy)
+     *
+     * @return The policy or null if the delays are used
+     */
+    public TusRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Set the host which the attempts are sent to. The retry policy uses it for keeping state per
+     * host, e.g. a retry budget, if the exception thrown by an attempt does not identify the host
+     * itself. The executors created by {@link TusClient} use the host of its upload creation URL.
+     *
+     * @param retryHost The host or null if it is unknown, which is the default
+     */
+    public void setRetryHost(String retryHost) {
+        this.retryHost = retryHost;
+    }
+
+    /**
+     * Set the listener which is notified before waiting for a retry. Pass null to remove the
+     * listener, which is the default.
+     *
+     * @see TusEventListener#retryScheduled(int, long, Exception)
+     *
+     * @param eventListener The listener or null
+     */
+    public void setEventListener(TusEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Get the listener which is notified before waiting for a retry.
+     *
+     * @see #setEventListener(TusEventListener)
+     *
+     * @return The listener or null if none is set
+     */
+    public TusEventListener getEventListener() {
+        return eventListener;
+    }
+
     /**
      * This method is basically just calling the {@link #makeAttempt()} method which should then
      * retrieve an {@link TusUploader} using {@link TusClient#resumeOrCreateUpload(TusUpload)} and then
@@ -77,37 +142,39 @@ public abstract class TusExecutor {
      * @throws IOException
      */
     public boolean makeAttempts() throws ProtocolException, IOException {
-        int attempt = -1;
+        TusRetryPolicy policy = retryPolicy != null ? retryPolicy : TusRetryPolicy.fixed(delays);
+        long startTime = System.nanoTime();
+        String host = retryHost;
+        int attempt = 0;
         while (true) {
             attempt++;
 
+            long delay;
             try {
                 makeAttempt();
+                policy.attemptSucceeded(host);
                 // Returning true is the signal that the makeAttempt() function exited without
                 // throwing an error.
                 return true;
             } catch (ProtocolException e) {
-                // Do not attempt a retry, if the Exception suggests so.
-                if (!e.shouldRetry()) {
-                    throw e;
-                }
-
-                if (attempt >= delays.length) {
-                    // We exceeds the number of maximum retries. In this case the latest exception
-                    // is thrown.
+                // If the policy does not allow a retry, e.g. since the maximum number of retries
+                // has been exceeded, the latest exception is thrown.
+                host = TusRetryPolicy.hostOf(e, host);
+                delay = getDelay(policy, host, attempt, startTime, e);
+                if (delay < 0) {
                     throw e;
                 }
             }  catch (IOException e) {
-                if (attempt >= delays.length) {
-                    // We exceeds the number of maximum retries. In this case the latest exception
-                    // is thrown.
+                host = TusRetryPolicy.hostOf(e, host);
+                delay = getDelay(policy, host, attempt, startTime, e);
+                if (delay < 0) {
                     throw e;
                 }
             }
 
             try {
                 // Sleep for the specified delay before attempting the next retry.
-                Thread.sleep(delays[attempt]);
+                Thread.sleep(delay);
             } catch (InterruptedException e) {
                 // If we get interrupted while waiting for the next retry, the user has cancelled
                 // the upload willingly and we return false as a signal.
@@ -116,6 +183,29 @@ public abstract class TusExecutor {
         }
     }
 
+    /**
+     * Ask the policy for the delay before the next retry and notify the listener if there is one.
+     *
+     * @param policy The retry policy
+     * @param host The host the failed attempt was sent to or null
+     * @param attempt Number of the upcoming retry, starting at 1
+     * @param startTime Value of {@link System#nanoTime()} when the first attempt was started
+     * @param e The exception thrown by the failed attempt
+     * @return The delay in milliseconds or -1 if no retry should be made
+     */
+    private long getDelay(TusRetryPolicy policy, String host, int attempt, long startTime, Exception e) {
+        if (!policy.shouldRetry(e)) {
+            return -1;
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long delay = policy.getDelay(host, attempt, elapsedMillis, e);
+        if (delay >= 0 && eventListener != null) {
+            eventListener.retryScheduled(attempt, delay, e);
+        }
+        return delay;
+    }
+
     /**
      * This method must be implemented by the specific caller. It will be invoked once or multiple
      * times by the {@link #makeAttempts()} method.
@@ -0,0 +1,343 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TusRetryPolicy} which waits exponentially longer after every failure. Every delay is
+ * chosen randomly between 0 and the exponential bound ("full jitter"), so clients which failed at
+ * the same time, e.g. during a server outage, do not retry in lockstep:
+ * <pre>
+ * {@code
+ *  TusExponentialBackoff policy = new TusExponentialBackoff();
+ *  policy.setMaxElapsedTime(10 * 60 * 1000);
+ *  policy.setRetryBudget(20, 0.1);
+ *  policy.setCircuitBreaker(5, 30 * 1000);
+ *  client.setRetryPolicy(policy);
+ * }
+ * </pre>
+ *
+ * If the server responds with a Retry-After header, the delay is at least as long as requested.
+ * Responses with status 429 Too Many Requests are retried if they carry this header, in addition
+ * to the responses for which {@link ProtocolException#shouldRetry()} returns true.
+ * <br>
+ * Optionally, the policy keeps state per host, shared by all uploads using the same policy:
+ * <ul>
+ *     <li>A retry budget limits retries to a fraction of the successful attempts. Every failure
+ *     takes a token and every success returns <code>tokenRatio</code> tokens; retries are only
+ *     made as long as more than half of the tokens are left.</li>
+ *     <li>A circuit breaker opens after a number of consecutive failures. While it is open, retries
+ *     are deferred until it closes again, so an unavailable server is not kept busy.</li>
+ * </ul>
+ * The state of a host is dropped once an attempt succeeds and the host is back to normal, or once
+ * its breaker is closed and it has not failed for longer than the maximum delay and the time the
+ * breaker stays open, so the policy does not grow with every host it has seen.
+ */
+public final class TusExponentialBackoff extends TusRetryPolicy {
+    private static final int MIN_PRUNE_THRESHOLD = 16;
+
+    private volatile long initialDelay = 500;
+    private volatile long maxDelay = 30 * 1000;
+    private volatile double multiplier = 2;
+    private volatile int maxRetries = 10;
+    private volatile long maxElapsedTime = 5 * 60 * 1000;
+    private volatile int budgetTokens;
+    private volatile double budgetTokenRatio;
+    private volatile int breakerThreshold;
+    private volatile long breakerOpenTime;
+
+    private final Map<String, HostState> hosts = new HashMap<String, HostState>();
+    private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+    /**
+     * Set the upper bound of the first delay. The default is 500 milliseconds.
+     *
+     * @param initialDelay The bound in milliseconds
+     */
+    public void setInitialDelay(long initialDelay) {
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException("initial delay must not be negative");
+        }
+        this.initialDelay = initialDelay;
+    }
+
+    /**
+     * Set the largest upper bound for a single delay, unless the server requests a longer one
+     * using Retry-After. The default is 30 seconds.
+     *
+     * @param maxDelay The bound in milliseconds
+     */
+    public void setMaxDelay(long maxDelay) {
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maximum delay must not be negative");
+        }
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Set the factor by which the upper bound grows with every retry. The default is 2.
+     *
+     * @param multiplier The factor, at least 1
+     */
+    public void setMultiplier(double multiplier) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be at least 1");
+        }
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Set the maximum number of retries. The default is 10.
+     *
+     * @param maxRetries The number of retries
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Set the time after which no more retries are made, measured from the first attempt. A
+     * retry is not made if its delay would end after this time. The default is 5 minutes.
+     *
+     * @param maxElapsedTime The time in milliseconds or 0 for no limit
+     */
+    public void setMaxElapsedTime(long maxElapsedTime) {
+        this.maxElapsedTime = maxElapsedTime;
+    }
+
+    /**
+     * Enable a retry budget per host. Retries are only made as long as more than half of the
+     * host's tokens are left.
+     *
+     * @param maxTokens The number of tokens per host, or 0 to disable the budget (the default)
+     * @param tokenRatio The number of tokens returned for every successful attempt
+     */
+    public synchronized void setRetryBudget(int maxTokens, double tokenRatio) {
+        if (maxTokens < 0 || tokenRatio < 0) {
+            throw new IllegalArgumentException("retry budget must not be negative");
+        }
+        budgetTokens = maxTokens;
+        budgetTokenRatio = tokenRatio;
+        hosts.clear();
+    }
+
+    /**
+     * Enable a circuit breaker per host.
+     *
+     * @param failureThreshold Number of consecutive failures after which the breaker opens, or 0
+     *                         to disable the breaker (the default)
+     * @param openMillis Time for which the breaker stays open
+     */
+    public synchronized void setCircuitBreaker(int failureThreshold, long openMillis) {
+        if (failureThreshold < 0 || openMillis < 0) {
+            throw new IllegalArgumentException("circuit breaker settings must not be negative");
+        }
+        breakerThreshold = failureThreshold;
+        breakerOpenTime = openMillis;
+        hosts.clear();
+    }
+
+    /**
+     * Returns whether the circuit breaker for the host is currently open.
+     *
+     * @param host The host
+     * @return True if retries to the host are currently deferred
+     */
+    public synchronized boolean isCircuitOpen(@Nullable String host) {
+        HostState state = hosts.get(host);
+        return state != null && state.isOpen(System.nanoTime());
+    }
+
+    @Override
+    public boolean shouldRetry(@NotNull Exception cause) {
+        if (super.shouldRetry(cause)) {
+            return true;
+        }
+        return getResponseCode(cause) == 429 && getRetryAfter(cause) >= 0;
+    }
+
+    @Override
+    public long getDelay(@Nullable String host, int attempt, long elapsedMillis, @NotNull Exception cause) {
+        if (attempt > maxRetries) {
+            return -1;
+        }
+
+        double bound = Math.min(maxDelay, initialDelay * Math.pow(multiplier, attempt - 1));
+        long delay = (long) (ThreadLocalRandom.current().nextDouble() * bound);
+        delay = Math.max(delay, getRetryAfter(cause));
+
+        long circuitDelay = recordFailure(host);
+        if (circuitDelay < 0) {
+            return -1;
+        }
+        if (circuitDelay > delay) {
+            // Spread the retries of all waiting uploads over the first interval after closing.
+            delay = circuitDelay + (long) (ThreadLocalRandom.current().nextDouble() * initialDelay);
+        }
+
+        long limit = maxElapsedTime;
+        if (limit > 0 && elapsedMillis + delay > limit) {
+            return -1;
+        }
+        return delay;
+    }
+
+    @Override
+    public synchronized void attemptSucceeded(@Nullable String host) {
+        HostState state = hosts.get(host);
+        if (state != null) {
+            state.failures = 0;
+            state.open = false;
+            state.tokens = Math.min(budgetTokens, state.tokens + budgetTokenRatio);
+            if (state.tokens >= budgetTokens) {
+                // A new state would be the same.
+                hosts.remove(host);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of hosts whose state is kept.
+     *
+     * @return Number of hosts
+     */
+    synchronized int getHostCount() {
+        return hosts.size();
+    }
+
+    /**
+     * Update the host's budget and circuit breaker after a failure.
+     *
+     * @param host The host or null
+     * @return -1 if the budget has been used up, otherwise the time in milliseconds until the
+     * circuit breaker closes again, which is 0 if it is closed
+     */
+    private synchronized long recordFailure(@Nullable String host) {
+        if (budgetTokens == 0 && breakerThreshold == 0) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        HostState state = hosts.get(host);
+        if (state == null) {
+            if (hosts.size() >= pruneThreshold) {
+                prune(now);
+                pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, 2 * hosts.size());
+            }
+            state = new HostState(budgetTokens);
+            hosts.put(host, state);
+        }
+        state.lastFailure = now;
+
+        if (budgetTokens > 0) {
+            state.tokens = Math.max(0, state.tokens - 1);
+            if (state.tokens <= budgetTokens / 2.0) {
+                return -1;
+            }
+        }
+
+        if (breakerThreshold > 0) {
+            state.failures++;
+            if (state.failures >= breakerThreshold && !state.isOpen(now)) {
+                // Also reopens the breaker if the first attempt after closing has failed.
+                state.open = true;
+                state.openUntil = now + TimeUnit.MILLISECONDS.toNanos(breakerOpenTime);
+            }
+            if (state.isOpen(now)) {
+                return TimeUnit.NANOSECONDS.toMillis(state.openUntil - now);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Drop the state of hosts whose breaker is closed and which have not failed for longer than
+     * any delay this policy would wait.
+     *
+     * @param now The current time as returned by {@link System#nanoTime()}
+     */
+    private void prune(long now) {
+        long retention = TimeUnit.MILLISECONDS.toNanos(Math.max(maxDelay, breakerOpenTime));
+        Iterator<HostState> iterator = hosts.values().iterator();
+        while (iterator.hasNext()) {
+            HostState state = iterator.next();
+            if (!state.isOpen(now) && now - state.lastFailure > retention) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Parse the Retry-After header of the failed response, in either of its two formats.
+     *
+     * @param cause The exception thrown by the failed attempt
+     * @return The requested delay in milliseconds or -1 if there is none
+     */
+    static long getRetryAfter(@NotNull Exception cause) {
+        if (!(cause instanceof ProtocolException)) {
+            return -1;
+        }
+        TusExchange exchange = ((ProtocolException) cause).getCausingExchange();
+        String value = exchange != null ? exchange.getResponseHeader("Retry-After") : null;
+        if (value == null) {
+            return -1;
+        }
+
+        value = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, so it must be a date.
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return Math.max(0, format.parse(value).getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    private static int getResponseCode(@NotNull Exception cause) {
+        if (!(cause instanceof ProtocolException)) {
+            return -1;
+        }
+        TusExchange exchange = ((ProtocolException) cause).getCausingExchange();
+        try {
+            return exchange != null ? exchange.getResponseCode() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Retry budget and circuit breaker of a single host.
+     */
+    private static final class HostState {
+        private double tokens;
+        private int failures;
+        private boolean open;
+        private long openUntil;
+        private long lastFailure;
+
+        HostState(int tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean isOpen(long now) {
+            return open && openUntil - now > 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.tus.java.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * TusFileChannelInputStream is a {@link TusInputStream} which reads from a {@link FileChannel}
+ * using positional reads. Since every read specifies its absolute position, seeking is just a
+ * matter of updating the position and no bytes have to be buffered in order to go back to an
+ * earlier position, e.g. after a failed request. The stream may be limited to a byte range of the
+ * file, which is used for partial uploads.
+ * <br>
+ * Reads from a {@link FileChannel} are interruptible: if the reading thread is interrupted, e.g.
+ * because the upload has been cancelled, the channel is closed for good. If the stream has been
+ * created for a file, it opens the file again on the next read, so the upload can be resumed.
+ */
+final class TusFileChannelInputStream extends TusInputStream {
+    private FileChannel channel;
+    private File file;
+    private boolean closed;
+    private long start;
+    private long end;
+    private long position;
+
+    /**
+     * Create a new stream which reads the entire content of the supplied channel.
+     *
+     * @param channel The channel to read from
+     * @throws IOException Thrown if the size of the channel cannot be determined.
+     */
+    TusFileChannelInputStream(FileChannel channel) throws IOException {
+        this(channel, 0, channel.size());
+    }
+
+    /**
+     * Create a new stream which reads <code>length</code> bytes starting at <code>start</code> from
+     * the supplied channel. Position 0 of this stream corresponds to position <code>start</code> of
+     * the channel.
+     *
+     * @param channel The channel to read from
+     * @param start Position of the first byte inside the channel
+     * @param length Number of bytes which can be read
+     */
+    TusFileChannelInputStream(FileChannel channel, long start, long length) {
+        this(channel, null, start, length);
+    }
+
+    /**
+     * Create a new stream like {@link #TusFileChannelInputStream(FileChannel, long, long)}, which
+     * opens the supplied file again if the channel has been closed by an interrupt.
+     *
+     * @param channel The channel to read from
+     * @param file The file the channel has been opened for or null if it cannot be reopened
+     * @param start Position of the first byte inside the channel
+     * @param length Number of bytes which can be read
+     */
+    TusFileChannelInputStream(FileChannel channel, File file, long start, long length) {
+        this.channel = channel;
+        this.file = file;
+        this.start = start;
+        this.end = start + length;
+        this.position = start;
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) throws IOException {
+        long remaining = end - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        if (!channel.isOpen() && file != null && !closed) {
+            channel = new FileInputStream(file).getChannel();
+        }
+
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, (int) Math.min(length, remaining));
+        int bytesReadNow = channel.read(target, position);
+        if (bytesReadNow > 0) {
+            position += bytesReadNow;
+        }
+        return bytesReadNow;
+    }
+
+    @Override
+    public void seekTo(long newPosition) {
+        position = start + newPosition;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        // Nothing to do since we can seek to any position at any time.
+    }
+
+    @Override
+    public boolean isSeekable() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
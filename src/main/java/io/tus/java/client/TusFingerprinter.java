@@ -0,0 +1,26 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Implementations of this interface compute the fingerprint of a file, which is used by
+ * {@link TusURLStore}s to find the upload URL when resuming an upload. Pass an instance to
+ * {@link TusUpload#TusUpload(File, TusFingerprinter)} to use it.
+ *
+ * @see TusPathFingerprinter
+ * @see TusContentFingerprinter
+ */
+public interface TusFingerprinter {
+    /**
+     * Compute the fingerprint of a file.
+     *
+     * @param file The file to compute the fingerprint for
+     * @return The fingerprint
+     * @throws IOException Thrown if the file cannot be read
+     */
+    @NotNull
+    String fingerprint(@NotNull File file) throws IOException;
+}
@@ -8,6 +8,10 @@ import java.io.InputStream;
  * TusInputStream is an internal abstraction above an InputStream which allows seeking to a
  * position relative to the beginning of the stream. In comparision {@link InputStream#skip(long)}
  * only supports skipping bytes relative to the current position.
+ * <br>
+ * Plain streams can only seek backwards to the last position marked using {@link #mark(int)},
+ * which requires buffering all bytes read since then. Subclasses backed by a seekable source,
+ * such as {@link TusFileChannelInputStream}, can seek to any position without buffering.
  */
 class TusInputStream {
     private InputStream stream;
@@ -27,6 +31,23 @@ class TusInputStream {
         this.stream = stream;
     }
 
+    /**
+     * Create a new TusInputStream which is not backed by an {@link InputStream}. Subclasses using
+     * this constructor must override all reading and seeking methods.
+     */
+    TusInputStream() {
+    }
+
+    /**
+     * Returns whether this stream can seek to any position, including positions before the last
+     * mark, without buffering the bytes in between.
+     *
+     * @return True if {@link #seekTo(long)} supports arbitrary positions
+     */
+    public boolean isSeekable() {
+        return false;
+    }
+
     /**
      * Read a specific amount of bytes from the stream and write them to the start of the supplied
      * buffer.
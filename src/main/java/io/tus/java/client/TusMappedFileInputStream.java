@@ -0,0 +1,185 @@
+package io.tus.java.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * TusMappedFileInputStream is a {@link TusInputStream} which reads from a file by mapping it into
+ * memory. Only a window of the file is mapped at a time and a window is unmapped as soon as reading
+ * moves past it, so the address space used by an upload stays bounded even for very large files.
+ * Reading from a mapped window copies the bytes straight from the page cache without issuing a
+ * read system call for every chunk. Like {@link TusFileChannelInputStream} this stream can seek to
+ * any position without buffering. If mapping a window is interrupted, the channel is opened again
+ * for the next window, so the upload can be resumed.
+ */
+final class TusMappedFileInputStream extends TusInputStream {
+    /**
+     * Default size of a mapped window in bytes (64 MiB).
+     */
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private FileChannel channel;
+    private File file;
+    private boolean closed;
+    private long start;
+    private long end;
+    private long position;
+    private int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * Create a new stream which maps <code>length</code> bytes starting at <code>start</code> from
+     * the supplied channel in windows of <code>windowSize</code> bytes.
+     *
+     * @param channel The channel to map, opened for reading
+     * @param start Position of the first byte inside the channel
+     * @param length Number of bytes which can be read
+     * @param windowSize Maximum number of bytes mapped at once
+     */
+    TusMappedFileInputStream(FileChannel channel, long start, long length, int windowSize) {
+        this(channel, null, start, length, windowSize);
+    }
+
+    /**
+     * Create a new stream like {@link #TusMappedFileInputStream(FileChannel, long, long, int)},
+     * which opens the supplied file again if the channel has been closed by an interrupt.
+     *
+     * @param channel The channel to map, opened for reading
+     * @param file The file the channel has been opened for or null if it cannot be reopened
+     * @param start Position of the first byte inside the channel
+     * @param length Number of bytes which can be read
+     * @param windowSize Maximum number of bytes mapped at once
+     */
+    TusMappedFileInputStream(FileChannel channel, File file, long start, long length, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window size must be positive");
+        }
+
+        this.channel = channel;
+        this.file = file;
+        this.start = start;
+        this.end = start + length;
+        this.position = start;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+
+        if (window == null || position < windowStart || position >= windowStart + window.capacity()) {
+            mapWindow();
+        }
+
+        window.position((int) (position - windowStart));
+        int bytesReadNow = Math.min(length, window.remaining());
+        window.get(buffer, 0, bytesReadNow);
+        position += bytesReadNow;
+
+        return bytesReadNow;
+    }
+
+    @Override
+    public void seekTo(long newPosition) {
+        // The current window is kept in case we seek inside of it, e.g. when going back to the
+        // server's offset after a failed request. read() maps a new window if necessary.
+        position = start + newPosition;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        // Nothing to do since we can seek to any position at any time.
+    }
+
+    @Override
+    public boolean isSeekable() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        unmapWindow();
+        channel.close();
+    }
+
+    private void mapWindow() throws IOException {
+        unmapWindow();
+        if (!channel.isOpen() && file != null && !closed) {
+            channel = new FileInputStream(file).getChannel();
+        }
+
+        long size = Math.min(windowSize, end - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+
+    private void unmapWindow() {
+        if (window == null) {
+            return;
+        }
+
+        MappedByteBuffer oldWindow = window;
+        window = null;
+        CLEANER.clean(oldWindow);
+    }
+
+    /**
+     * Cleaner releases a mapped buffer immediately instead of waiting for the garbage collector.
+     * There is no public API for this before Java 19, so the JDK internals are accessed using
+     * reflection. If they are not available (e.g. on Android), the buffer is left to the garbage
+     * collector.
+     */
+    private static final class Cleaner {
+        private Object unsafe;
+        private Method invokeCleaner;
+
+        private Cleaner(Object unsafe, Method invokeCleaner) {
+            this.unsafe = unsafe;
+            this.invokeCleaner = invokeCleaner;
+        }
+
+        static Cleaner create() {
+            try {
+                // Java 9 and later: sun.misc.Unsafe#invokeCleaner(ByteBuffer)
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                return new Cleaner(field.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (Exception e) {
+                // Java 8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean(), see clean() below.
+                return new Cleaner(null, null);
+            }
+        }
+
+        void clean(ByteBuffer buffer) {
+            try {
+                if (invokeCleaner != null) {
+                    invokeCleaner.invoke(unsafe, buffer);
+                    return;
+                }
+
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (Exception ignored) {
+                // The buffer will be unmapped once it is garbage collected.
+            }
+        }
+    }
+}
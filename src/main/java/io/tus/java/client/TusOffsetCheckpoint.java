@@ -0,0 +1,65 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * The offset of an upload as last confirmed by the server, stored in a {@link TusURLCheckpointStore}.
+ * Instances are immutable.
+ */
+public final class TusOffsetCheckpoint {
+    private final URL uploadURL;
+    private final long offset;
+    private final long confirmedAt;
+
+    /**
+     * Create a new checkpoint.
+     *
+     * @param uploadURL The URL of the upload
+     * @param offset The offset confirmed by the server
+     * @param confirmedAt Time at which the server confirmed the offset, in milliseconds since the
+     *                    epoch
+     */
+    public TusOffsetCheckpoint(@NotNull URL uploadURL, long offset, long confirmedAt) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        this.uploadURL = uploadURL;
+        this.offset = offset;
+        this.confirmedAt = confirmedAt;
+    }
+
+    /**
+     * Returns the URL of the upload.
+     *
+     * @return The upload URL
+     */
+    @NotNull
+    public URL getUploadURL() {
+        return uploadURL;
+    }
+
+    /**
+     * Returns the offset confirmed by the server.
+     *
+     * @return The offset in bytes
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the time at which the server confirmed the offset.
+     *
+     * @return Milliseconds since the epoch
+     */
+    public long getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s@%d", uploadURL, offset);
+    }
+}
@@ -0,0 +1,25 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * Computes fingerprints from a file's absolute path and size, which is what
+ * {@link TusUpload#TusUpload(File)} uses. This is cheap, but an upload cannot be resumed after
+ * the file has been moved, and a file which has been rewritten with the same size is considered
+ * to be the same. Use {@link TusContentFingerprinter} if this is a problem.
+ */
+public final class TusPathFingerprinter implements TusFingerprinter {
+    /**
+     * Compute the fingerprint of a file from its path and size.
+     *
+     * @param file The file to compute the fingerprint for
+     * @return The fingerprint
+     */
+    @NotNull
+    @Override
+    public String fingerprint(@NotNull File file) {
+        return String.format("%s-%d", file.getAbsolutePath(), file.length());
+    }
+}
@@ -0,0 +1,132 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URL;
+
+/**
+ * The state of a stored upload as found by {@link TusClient#probeUploads(java.util.Collection, int)}.
+ * Depending on its {@link Status}, the upload can be continued using {@link #getUploader()}, has to
+ * be created again, is already complete or could not be probed.
+ */
+public final class TusProbeResult {
+    /**
+     * The outcome of probing an upload.
+     */
+    public enum Status {
+        /**
+         * The upload exists and can be continued using {@link TusProbeResult#getUploader()}.
+         */
+        READY,
+
+        /**
+         * No upload URL is stored for the upload's fingerprint, or the server does not know the
+         * upload anymore. It has to be created again, e.g. using
+         * {@link TusClient#createUpload(TusUpload)}.
+         */
+        GONE,
+
+        /**
+         * The server has received all of the upload's data.
+         */
+        COMPLETE,
+
+        /**
+         * The upload could not be probed, see {@link TusProbeResult#getException()}. Resuming it
+         * may succeed later.
+         */
+        FAILED
+    }
+
+    private final TusUpload upload;
+    private final Status status;
+    private final URL uploadURL;
+    private final long offset;
+    private final TusUploader uploader;
+    private final Exception exception;
+
+    /**
+     * Create a new result.
+     *
+     * @param upload The probed upload
+     * @param status The outcome
+     * @param uploadURL The stored upload URL or null if none is stored
+     * @param offset The offset returned by the server or -1 if unknown
+     * @param uploader The uploader for continuing the upload, if it is ready
+     * @param exception The exception which occurred while probing the upload, if it failed
+     */
+    TusProbeResult(@NotNull TusUpload upload, @NotNull Status status, @Nullable URL uploadURL, long offset,
+                   @Nullable TusUploader uploader, @Nullable Exception exception) {
+        this.upload = upload;
+        this.status = status;
+        this.uploadURL = uploadURL;
+        this.offset = offset;
+        this.uploader = uploader;
+        this.exception = exception;
+    }
+
+    /**
+     * Returns the probed upload.
+     *
+     * @return The upload
+     */
+    @NotNull
+    public TusUpload getUpload() {
+        return upload;
+    }
+
+    /**
+     * Returns the outcome of probing the upload.
+     *
+     * @return The status
+     */
+    @NotNull
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the upload URL which has been probed.
+     *
+     * @return The URL or null if no URL has been stored for the upload
+     */
+    @Nullable
+    public URL getUploadURL() {
+        return uploadURL;
+    }
+
+    /**
+     * Returns the offset returned by the server.
+     *
+     * @return The offset or -1 if the upload is gone or could not be probed
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the uploader for continuing the upload at the offset returned by the server.
+     *
+     * @return The uploader or null if the status is not {@link Status#READY}
+     */
+    @Nullable
+    public TusUploader getUploader() {
+        return uploader;
+    }
+
+    /**
+     * Returns the exception which occurred while probing the upload.
+     *
+     * @return The exception or null if the status is not {@link Status#FAILED}
+     */
+    @Nullable
+    public Exception getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s@%d", status, uploadURL, offset);
+    }
+}
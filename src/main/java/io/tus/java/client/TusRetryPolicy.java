@@ -0,0 +1,89 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides whether and when a failed attempt is retried by a {@link TusExecutor}, by
+ * {@link TusClient#uploadAsync(TusUpload, java.util.concurrent.Executor)} and by a
+ * {@link TusUploadManager}. The fixed delays known from {@link TusExecutor#setDelays(int[])} are
+ * provided by {@link #fixed(int[])}, while {@link TusExponentialBackoff} adds jitter, support for
+ * the Retry-After header, time limits, retry budgets and circuit breaking.
+ * <br>
+ * A single policy can be shared by all uploads, which is required for the state kept per host
+ * to be useful. Implementations must therefore be thread-safe.
+ *
+ * @see TusClient#setRetryPolicy(TusRetryPolicy)
+ * @see TusExecutor#setRetryPolicy(TusRetryPolicy)
+ */
+public abstract class TusRetryPolicy {
+    /**
+     * Create a policy which waits for the supplied delays. In total <code>delays.length</code>
+     * retries are made, after which the last exception is thrown.
+     *
+     * @param delays The delays in milliseconds before the first, second, ... retry
+     * @return A new policy
+     */
+    @NotNull
+    public static TusRetryPolicy fixed(@NotNull int[] delays) {
+        final int[] copy = delays.clone();
+        return new TusRetryPolicy() {
+            @Override
+            public long getDelay(@Nullable String host, int attempt, long elapsedMillis, @NotNull Exception cause) {
+                return attempt <= copy.length ? copy[attempt - 1] : -1;
+            }
+        };
+    }
+
+    /**
+     * Returns whether the exception allows a retry at all. By default, all {@link java.io.IOException}s
+     * are retried, while {@link ProtocolException}s are only retried if
+     * {@link ProtocolException#shouldRetry()} returns true.
+     *
+     * @param cause The exception thrown by the failed attempt
+     * @return True if the attempt may be retried
+     */
+    public boolean shouldRetry(@NotNull Exception cause) {
+        if (cause instanceof ProtocolException) {
+            return ((ProtocolException) cause).shouldRetry();
+        }
+        return true;
+    }
+
+    /**
+     * Compute the delay before the next retry. This method is only called if
+     * {@link #shouldRetry(Exception)} returned true for the exception.
+     *
+     * @param host The host the failed attempt was sent to, or null if it is unknown
+     * @param attempt Number of the upcoming retry, starting at 1
+     * @param elapsedMillis Time since the first attempt has been started
+     * @param cause The exception thrown by the failed attempt
+     * @return The delay in milliseconds or -1 to give up and throw the exception
+     */
+    public abstract long getDelay(@Nullable String host, int attempt, long elapsedMillis, @NotNull Exception cause);
+
+    /**
+     * Called after an attempt has succeeded. Does nothing by default.
+     *
+     * @param host The host the attempt was sent to, or null if it is unknown
+     */
+    public void attemptSucceeded(@Nullable String host) {
+    }
+
+    /**
+     * Get the host a failed attempt has been sent to, if the exception tells.
+     *
+     * @param cause The exception thrown by the failed attempt
+     * @param fallback The host to use if the exception does not identify one
+     * @return The host or the fallback
+     */
+    static String hostOf(@NotNull Exception cause, @Nullable String fallback) {
+        if (cause instanceof ProtocolException) {
+            TusExchange exchange = ((ProtocolException) cause).getCausingExchange();
+            if (exchange != null && exchange.getURL() != null) {
+                return exchange.getURL().getHost();
+            }
+        }
+        return fallback;
+    }
+}
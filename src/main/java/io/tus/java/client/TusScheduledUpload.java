@@ -0,0 +1,111 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An upload submitted to a {@link TusUploadManager}, as seen by its {@link TusSchedulingPolicy}.
+ * Besides the upload itself, it carries the priority passed to
+ * {@link TusUploadManager#submit(TusUpload, int)} and, once the upload has been started, the
+ * uploader whose offset is used for computing the remaining bytes.
+ */
+public final class TusScheduledUpload {
+    private final TusUpload upload;
+    private final int priority;
+    private final long sequence;
+    private volatile TusUploader uploader;
+
+    /**
+     * Create a new scheduled upload.
+     *
+     * @param upload The submitted upload
+     * @param priority The upload's priority, higher values are more urgent
+     * @param sequence Number increasing with every submission, used for keeping the order of
+     *                 uploads which are otherwise equal
+     */
+    TusScheduledUpload(@NotNull TusUpload upload, int priority, long sequence) {
+        this.upload = upload;
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Get the submitted upload.
+     *
+     * @return The upload
+     */
+    @NotNull
+    public TusUpload getUpload() {
+        return upload;
+    }
+
+    /**
+     * Get the priority passed when submitting the upload. Higher values are more urgent, the
+     * default is 0.
+     *
+     * @return The priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get the position of this upload in the order of submission. Uploads which have been
+     * preempted keep their original position.
+     *
+     * @return Number increasing with every submission
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the number of bytes which have been uploaded so far, according to
+     * {@link TusUploader#getOffset()}. Uploads which have not been started yet report 0, even if
+     * they will be resumed from a later offset.
+     *
+     * @return The upload's offset
+     */
+    public long getOffset() {
+        TusUploader current = uploader;
+        return current != null ? current.getOffset() : 0;
+    }
+
+    /**
+     * Get the number of bytes which still have to be uploaded, computed from
+     * {@link TusUpload#getSize()} and {@link #getOffset()}.
+     *
+     * @return Number of remaining bytes
+     */
+    public long getRemainingBytes() {
+        return Math.max(0, upload.getSize() - getOffset());
+    }
+
+    /**
+     * Returns whether the upload has been started, i.e. whether it is running or waiting to be
+     * continued after having been preempted.
+     *
+     * @return True if the upload has been started
+     */
+    public boolean isStarted() {
+        return uploader != null;
+    }
+
+    /**
+     * Get the uploader of a started upload, which is reused when continuing a preempted upload.
+     *
+     * @return The uploader or null if the upload has not been started
+     */
+    TusUploader getUploader() {
+        return uploader;
+    }
+
+    /**
+     * Set the uploader once the upload has been started, or null if it has to be resumed from
+     * scratch.
+     *
+     * @param uploader The uploader or null
+     */
+    void setUploader(TusUploader uploader) {
+        this.uploader = uploader;
+    }
+}
@@ -0,0 +1,221 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides in which order a {@link TusUploadManager} runs its uploads. Whenever a worker becomes
+ * free, it takes the waiting upload which {@link #compare(TusScheduledUpload, TusScheduledUpload)}
+ * ranks first. In addition, after every request of a running upload the worker checks whether a
+ * waiting upload is ranked before the running one. In that case, the running upload is preempted:
+ * it is put back into the queue, keeping its uploader so it can be continued later without
+ * resuming it from the server, and the worker continues with the waiting upload.
+ * <br>
+ * The policies provided by the static methods cover the common cases. Custom policies can be
+ * implemented by subclassing this class. All methods are called while holding the manager's
+ * queue lock, so they do not need to be thread-safe, but they must return quickly and must not
+ * call back into the manager.
+ *
+ * @see TusUploadManager#setSchedulingPolicy(TusSchedulingPolicy)
+ */
+public abstract class TusSchedulingPolicy {
+    /**
+     * Runs uploads in the order in which they have been submitted and never preempts them. This
+     * is the default policy.
+     *
+     * @return A new policy
+     */
+    @NotNull
+    public static TusSchedulingPolicy fifo() {
+        return new TusSchedulingPolicy() {
+            @Override
+            public int compare(@NotNull TusScheduledUpload a, @NotNull TusScheduledUpload b) {
+                return compareSequence(a, b);
+            }
+        };
+    }
+
+    /**
+     * Runs uploads with a higher priority (see {@link TusUploadManager#submit(TusUpload, int)})
+     * first and uploads with the same priority in the order of submission. A running upload is
+     * preempted if an upload with a higher priority is waiting.
+     *
+     * @return A new policy
+     */
+    @NotNull
+    public static TusSchedulingPolicy priority() {
+        return new TusSchedulingPolicy() {
+            @Override
+            public int compare(@NotNull TusScheduledUpload a, @NotNull TusScheduledUpload b) {
+                int result = comparePriority(a, b);
+                return result != 0 ? result : compareSequence(a, b);
+            }
+        };
+    }
+
+    /**
+     * Runs uploads with a higher priority first and, among uploads with the same priority, the
+     * one with the fewest remaining bytes. A running upload is preempted if a waiting upload has
+     * a higher priority or fewer remaining bytes, so small uploads are not stuck behind large
+     * ones. Since large uploads can be starved as long as smaller ones keep arriving, this
+     * policy suits interactive workloads better than bulk transfers.
+     *
+     * @return A new policy
+     */
+    @NotNull
+    public static TusSchedulingPolicy shortestRemainingFirst() {
+        return new TusSchedulingPolicy() {
+            @Override
+            public int compare(@NotNull TusScheduledUpload a, @NotNull TusScheduledUpload b) {
+                int result = comparePriority(a, b);
+                if (result == 0) {
+                    result = Long.compare(a.getRemainingBytes(), b.getRemainingBytes());
+                }
+                return result != 0 ? result : compareSequence(a, b);
+            }
+        };
+    }
+
+    /**
+     * Shares the bandwidth between priority classes according to their weights. The next
+     * upload is taken from the class which has uploaded the fewest bytes relative to its weight,
+     * so a class with weight 3 gets three times the bandwidth of a class with weight 1 as long as
+     * both have uploads waiting. Uploads within a class run in the order of submission. A class
+     * which becomes active again is not credited for the time it was idle.
+     *
+     * @param weights The weight of each priority; priorities without an entry have weight 1
+     * @return A new policy
+     */
+    @NotNull
+    public static TusSchedulingPolicy weightedFairShare(@NotNull Map<Integer, Integer> weights) {
+        return new WeightedFairShare(weights);
+    }
+
+    /**
+     * Compare two uploads.
+     *
+     * @param a The first upload
+     * @param b The second upload
+     * @return A negative number if a should run before b, a positive number if b should run
+     * before a, and 0 if neither is preferred
+     */
+    public abstract int compare(@NotNull TusScheduledUpload a, @NotNull TusScheduledUpload b);
+
+    /**
+     * Called when an upload has been submitted. Does nothing by default.
+     *
+     * @param upload The submitted upload
+     */
+    public void uploadAdded(@NotNull TusScheduledUpload upload) {
+    }
+
+    /**
+     * Called after a chunk of a running upload has been sent. Does nothing by default.
+     *
+     * @param upload The running upload
+     * @param bytes Number of bytes sent in the chunk
+     */
+    public void uploadProgressed(@NotNull TusScheduledUpload upload, long bytes) {
+    }
+
+    /**
+     * Called once an upload has been finished, has failed or has been removed from the queue.
+     * Does nothing by default.
+     *
+     * @param upload The removed upload
+     */
+    public void uploadRemoved(@NotNull TusScheduledUpload upload) {
+    }
+
+    private static int comparePriority(TusScheduledUpload a, TusScheduledUpload b) {
+        return Integer.compare(b.getPriority(), a.getPriority());
+    }
+
+    private static int compareSequence(TusScheduledUpload a, TusScheduledUpload b) {
+        return Long.compare(a.getSequence(), b.getSequence());
+    }
+
+    /**
+     * Weighted fair queueing between priority classes, tracking the bytes uploaded per class
+     * divided by the class's weight.
+     */
+    private static final class WeightedFairShare extends TusSchedulingPolicy {
+        private final Map<Integer, Integer> weights;
+        private final Map<Integer, PriorityClass> classes = new HashMap<Integer, PriorityClass>();
+
+        WeightedFairShare(Map<Integer, Integer> weights) {
+            for (Integer weight : weights.values()) {
+                if (weight == null || weight < 1) {
+                    throw new IllegalArgumentException("weights must be at least 1");
+                }
+            }
+            this.weights = new HashMap<Integer, Integer>(weights);
+        }
+
+        @Override
+        public int compare(@NotNull TusScheduledUpload a, @NotNull TusScheduledUpload b) {
+            if (a.getPriority() != b.getPriority()) {
+                int result = Double.compare(classOf(a).service, classOf(b).service);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return compareSequence(a, b);
+        }
+
+        @Override
+        public void uploadAdded(@NotNull TusScheduledUpload upload) {
+            PriorityClass priorityClass = classOf(upload);
+            if (priorityClass.uploads == 0) {
+                // Start from the least served active class instead of where this class left off,
+                // otherwise it would get the entire bandwidth until it caught up.
+                double minimum = Double.MAX_VALUE;
+                for (PriorityClass other : classes.values()) {
+                    if (other.uploads > 0) {
+                        minimum = Math.min(minimum, other.service);
+                    }
+                }
+                if (minimum != Double.MAX_VALUE) {
+                    priorityClass.service = Math.max(priorityClass.service, minimum);
+                }
+            }
+            priorityClass.uploads++;
+        }
+
+        @Override
+        public void uploadProgressed(@NotNull TusScheduledUpload upload, long bytes) {
+            PriorityClass priorityClass = classOf(upload);
+            priorityClass.service += (double) bytes / priorityClass.weight;
+        }
+
+        @Override
+        public void uploadRemoved(@NotNull TusScheduledUpload upload) {
+            classOf(upload).uploads--;
+        }
+
+        private PriorityClass classOf(TusScheduledUpload upload) {
+            PriorityClass priorityClass = classes.get(upload.getPriority());
+            if (priorityClass == null) {
+                Integer weight = weights.get(upload.getPriority());
+                priorityClass = new PriorityClass(weight != null ? weight : 1);
+                classes.put(upload.getPriority(), priorityClass);
+            }
+            return priorityClass;
+        }
+    }
+
+    /**
+     * State of a priority class for {@link WeightedFairShare}.
+     */
+    private static final class PriorityClass {
+        private final int weight;
+        private double service;
+        private int uploads;
+
+        PriorityClass(int weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The protocol versions, extensions and limits announced by a server in response to an OPTIONS
+ * request. Use {@link TusClient#getServerCapabilities()} to obtain them. Instances are immutable.
+ */
+public final class TusServerCapabilities {
+    /**
+     * Name of the Creation extension.
+     */
+    public static final String CREATION = "creation";
+
+    /**
+     * Name of the Creation With Upload extension.
+     */
+    public static final String CREATION_WITH_UPLOAD = "creation-with-upload";
+
+    /**
+     * Name of the Expiration extension.
+     */
+    public static final String EXPIRATION = "expiration";
+
+    /**
+     * Name of the Checksum extension.
+     */
+    public static final String CHECKSUM = "checksum";
+
+    /**
+     * Name of the Termination extension.
+     */
+    public static final String TERMINATION = "termination";
+
+    /**
+     * Name of the Concatenation extension.
+     */
+    public static final String CONCATENATION = "concatenation";
+
+    private final URL endpoint;
+    private final List<String> versions;
+    private final Set<String> extensions;
+    private final long maxSize;
+    private final List<String> checksumAlgorithms;
+    private final long discoveredAt;
+
+    /**
+     * Create the capabilities from the headers of the server's response.
+     *
+     * @param endpoint The URL the OPTIONS request has been sent to
+     * @param versions Value of the Tus-Version header or null
+     * @param extensions Value of the Tus-Extension header or null
+     * @param maxSize Value of the Tus-Max-Size header or null
+     * @param checksumAlgorithms Value of the Tus-Checksum-Algorithm header or null
+     * @param discoveredAt Time of the response, in milliseconds since the epoch
+     */
+    TusServerCapabilities(@NotNull URL endpoint, @Nullable String versions, @Nullable String extensions,
+                          @Nullable String maxSize, @Nullable String checksumAlgorithms, long discoveredAt) {
+        this.endpoint = endpoint;
+        this.versions = Collections.unmodifiableList(new ArrayList<String>(split(versions)));
+        this.extensions = Collections.unmodifiableSet(split(extensions));
+        this.checksumAlgorithms = Collections.unmodifiableList(new ArrayList<String>(split(checksumAlgorithms)));
+        this.discoveredAt = discoveredAt;
+
+        long size = -1;
+        if (maxSize != null) {
+            try {
+                size = Long.parseLong(maxSize.trim());
+            } catch (NumberFormatException e) {
+                size = -1;
+            }
+        }
+        this.maxSize = size;
+    }
+
+    /**
+     * Split a comma-separated header value, dropping empty elements and duplicates.
+     *
+     * @param value The header value or null
+     * @return The elements in their original order
+     */
+    private static Set<String> split(@Nullable String value) {
+        Set<String> elements = new LinkedHashSet<String>();
+        if (value != null) {
+            for (String element : value.split(",")) {
+                String trimmed = element.trim();
+                if (trimmed.length() > 0) {
+                    elements.add(trimmed);
+                }
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the URL the capabilities have been discovered for.
+     *
+     * @return The URL of the OPTIONS request
+     */
+    @NotNull
+    public URL getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Returns the protocol versions supported by the server, in the order of its preference.
+     *
+     * @return The versions or an empty list if the server did not announce any
+     */
+    @NotNull
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    /**
+     * Returns whether the server supports the supplied protocol version. Servers which do not
+     * announce any version are assumed to support every version.
+     *
+     * @param version The protocol version, e.g. {@link TusClient#TUS_VERSION}
+     * @return True if the version is supported
+     */
+    public boolean supportsVersion(@NotNull String version) {
+        return versions.isEmpty() || versions.contains(version);
+    }
+
+    /**
+     * Returns the extensions supported by the server.
+     *
+     * @return The names of the extensions
+     */
+    @NotNull
+    public Set<String> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * Returns whether the server supports the supplied extension.
+     *
+     * @param extension The name of the extension, e.g. {@link #CREATION_WITH_UPLOAD}
+     * @return True if the extension is supported
+     */
+    public boolean supportsExtension(@NotNull String extension) {
+        return extensions.contains(extension);
+    }
+
+    /**
+     * Returns the maximum size of an upload accepted by the server.
+     *
+     * @return The size in bytes or -1 if the server did not announce a limit
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the checksum algorithms supported by the server. These are only used if the server
+     * supports the {@link #CHECKSUM} extension as well.
+     *
+     * @return The names of the algorithms
+     */
+    @NotNull
+    public List<String> getChecksumAlgorithms() {
+        return checksumAlgorithms;
+    }
+
+    /**
+     * Choose the fastest checksum algorithm which is supported by both, this platform and the
+     * server.
+     *
+     * @return The algorithm or null if the server does not support checksums
+     */
+    @Nullable
+    String negotiateChecksumAlgorithm() {
+        if (!supportsExtension(CHECKSUM) || checksumAlgorithms.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder offered = new StringBuilder();
+        for (String algorithm : checksumAlgorithms) {
+            offered.append(algorithm).append(',');
+        }
+        return TusChecksum.negotiate(offered.toString());
+    }
+
+    /**
+     * Returns the time at which the capabilities have been discovered.
+     *
+     * @return Milliseconds since the epoch
+     */
+    public long getDiscoveredAt() {
+        return discoveredAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s versions=%s extensions=%s maxSize=%d", endpoint, versions, extensions, maxSize);
+    }
+}
@@ -0,0 +1,34 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.Proxy;
+import java.net.URL;
+
+/**
+ * Implementations of this interface are used by {@link TusClient} and {@link TusUploader} to send
+ * the HTTP requests required by the tus protocol, i.e. the POST requests for creating uploads, the
+ * HEAD requests for resuming uploads and the PATCH requests for uploading data.
+ * <br>
+ * By default, {@link TusURLConnectionTransport} is used which is based on
+ * {@link java.net.HttpURLConnection}. A different implementation can be configured using
+ * {@link TusClient#setTransport(TusTransport)}. A single transport may be shared by multiple
+ * clients and must therefore be safe for use by multiple threads.
+ */
+public interface TusTransport {
+    /**
+     * Open a new exchange for a single HTTP request. The request will not be sent before the body is
+     * opened using {@link TusExchange#openBody(long)} or the response is requested using
+     * {@link TusExchange#getResponseCode()}, so headers can be added to the returned exchange.
+     *
+     * @param method The HTTP method, e.g. POST, HEAD or PATCH
+     * @param url The URL to send the request to
+     * @param proxy The proxy to use for this request or null if no proxy has been configured
+     * @return A new exchange
+     * @throws IOException Thrown if the exchange cannot be opened.
+     */
+    @NotNull
+    TusExchange open(@NotNull String method, @NotNull URL url, @Nullable Proxy proxy) throws IOException;
+}
@@ -0,0 +1,343 @@
+package io.tus.java.client;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is used to map an upload's fingerprint with the corresponding upload URL in memory,
+ * like {@link TusURLMemoryStore}, but limits the number of entries and how long they are kept.
+ * <br>
+ * The entries are distributed over independently locked segments, so concurrent calls for
+ * different fingerprints rarely block each other. Once a segment is full, its least recently used
+ * entry is evicted. Since every segment holds an equal share of the maximum size, the eviction
+ * order is only approximately least recently used across the whole store.
+ * <br>
+ * An entry expires after the time to live passed to the constructor, or earlier if the server
+ * announced an earlier expiration using the <code>Upload-Expires</code> header (see
+ * {@link TusURLExpiringStore}). Expired entries are removed when they are accessed or when
+ * their segment is full. In the latter case, all expired entries of the segment are removed
+ * before a live entry is evicted.
+ * <br>
+ * The offsets confirmed by the server are kept with the entries (see {@link TusURLCheckpointStore})
+ * and share their expiration. Entries which have not expired can be listed (see
+ * {@link TusURLEnumerableStore}). The number of hits, misses and evictions can be monitored using
+ * {@link #getHitCount()}, {@link #getMissCount()} and {@link #getEvictionCount()}.
+ */
+public final class TusURLBoundedMemoryStore
+        implements TusURLExpiringStore, TusURLCheckpointStore, TusURLEnumerableStore {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long timeToLive;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a new store whose entries do not expire unless the server announces it.
+     *
+     * @param maximumSize Maximum number of entries
+     */
+    public TusURLBoundedMemoryStore(int maximumSize) {
+        this(maximumSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a new store whose entries expire after the supplied time.
+     *
+     * @param maximumSize Maximum number of entries
+     * @param timeToLive Time after which an entry expires or 0 if entries only expire when the
+     *                   server announces it
+     * @param unit Unit of the time to live
+     */
+    public TusURLBoundedMemoryStore(int maximumSize, long timeToLive, TimeUnit unit) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximum size must be at least 1");
+        }
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("time to live must not be negative");
+        }
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maximumSize) {
+            segmentCount *= 2;
+        }
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Distribute the remainder, so the capacities add up to the maximum size.
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+        this.timeToLive = unit.toMillis(timeToLive);
+    }
+
+    /**
+     * Stores the upload's fingerprint and url.
+     * @param fingerprint An upload's fingerprint.
+     * @param url The corresponding upload URL.
+     */
+    @Override
+    public void set(String fingerprint, URL url) {
+        set(fingerprint, url, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores the upload's fingerprint and url until the supplied time or the end of the time to
+     * live, whichever comes first.
+     * @param fingerprint An upload's fingerprint.
+     * @param url The corresponding upload URL.
+     * @param expiresAt Time at which the upload expires, in milliseconds since the epoch.
+     */
+    @Override
+    public void set(String fingerprint, URL url, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (timeToLive > 0) {
+            expiresAt = Math.min(expiresAt, now + timeToLive);
+        }
+
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            if (expiresAt <= now) {
+                segment.remove(fingerprint);
+            } else {
+                segment.put(fingerprint, new CachedURL(url, expiresAt, null, now));
+            }
+        }
+    }
+
+    /**
+     * Returns the corresponding Upload URL to a given fingerprint if it has not expired yet.
+     * @param fingerprint An upload's fingerprint.
+     * @return The corresponding upload URL.
+     */
+    @Override
+    public URL get(String fingerprint) {
+        CachedURL entry = getCachedURL(fingerprint);
+        return entry != null ? entry.url : null;
+    }
+
+    /**
+     * Removes the corresponding entry to a fingerprint from the store.
+     * @param fingerprint An upload's fingerprint.
+     */
+    @Override
+    public void remove(String fingerprint) {
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            segment.remove(fingerprint);
+        }
+    }
+
+    /**
+     * Stores the offset confirmed for the upload, if the fingerprint still maps to its URL. The
+     * entry's expiration does not change.
+     * @param fingerprint An upload's fingerprint.
+     * @param checkpoint The offset confirmed by the server.
+     */
+    @Override
+    public void setCheckpoint(String fingerprint, TusOffsetCheckpoint checkpoint) {
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            CachedURL entry = segment.get(fingerprint);
+            if (entry != null && entry.url.toString().equals(checkpoint.getUploadURL().toString())) {
+                segment.put(fingerprint, new CachedURL(entry.url, entry.expiresAt, checkpoint, checkpoint.getConfirmedAt()));
+            }
+        }
+    }
+
+    /**
+     * Returns the latest offset confirmed for the upload if its entry has not expired yet. Like
+     * {@link #get(String)}, this counts as a hit or miss.
+     * @param fingerprint An upload's fingerprint.
+     * @return The checkpoint or null if there is none.
+     */
+    @Override
+    public TusOffsetCheckpoint getCheckpoint(String fingerprint) {
+        CachedURL entry = getCachedURL(fingerprint);
+        return entry != null ? entry.checkpoint : null;
+    }
+
+    /**
+     * Removes the offset confirmed for the upload but keeps its URL.
+     * @param fingerprint An upload's fingerprint.
+     */
+    @Override
+    public void removeCheckpoint(String fingerprint) {
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            CachedURL entry = segment.get(fingerprint);
+            if (entry != null && entry.checkpoint != null) {
+                segment.put(fingerprint, new CachedURL(entry.url, entry.expiresAt, null, entry.updatedAt));
+            }
+        }
+    }
+
+    /**
+     * Returns the entries which have last been updated before the supplied time and have not
+     * expired yet. Listing the entries does not change the order in which they are evicted and
+     * does not count as hits.
+     * @param updatedBefore Time in milliseconds since the epoch.
+     * @return The matching entries.
+     */
+    @Override
+    public List<TusURLStoreEntry> getEntries(long updatedBefore) {
+        long now = System.currentTimeMillis();
+        List<TusURLStoreEntry> entries = new ArrayList<TusURLStoreEntry>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (Map.Entry<String, CachedURL> entry : segment.entrySet()) {
+                    CachedURL value = entry.getValue();
+                    if (value.expiresAt > now && value.updatedAt < updatedBefore) {
+                        entries.add(new TusURLStoreEntry(entry.getKey(), value.url, value.updatedAt));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of entries in the store, including expired ones which have not been
+     * removed yet.
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(String)} which returned an upload URL.
+     *
+     * @return Number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of calls to {@link #get(String)} which returned null.
+     *
+     * @return Number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of entries which have been removed because the store was full or they
+     * had expired.
+     *
+     * @return Number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private CachedURL getCachedURL(String fingerprint) {
+        Segment segment = segmentFor(fingerprint);
+        synchronized (segment) {
+            CachedURL entry = segment.get(fingerprint);
+            if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+                segment.remove(fingerprint);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry;
+        }
+    }
+
+    /**
+     * Returns the segment holding the entry for a fingerprint. Package-private for tests.
+     *
+     * @param fingerprint An upload's fingerprint
+     * @return The segment, which must be synchronized on for accessing it
+     */
+    Object segmentOf(String fingerprint) {
+        return segmentFor(fingerprint);
+    }
+
+    private Segment segmentFor(String fingerprint) {
+        int hash = fingerprint.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * An upload URL, the time at which it expires, the offset last confirmed by the server and the
+     * time at which the URL or the offset has been stored.
+     */
+    private static final class CachedURL {
+        private final URL url;
+        private final long expiresAt;
+        private final TusOffsetCheckpoint checkpoint;
+        private final long updatedAt;
+
+        CachedURL(URL url, long expiresAt, TusOffsetCheckpoint checkpoint, long updatedAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+            this.checkpoint = checkpoint;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /**
+     * A part of the store, ordered by the last access to its entries. All accesses must be
+     * synchronized on the segment.
+     */
+    private final class Segment extends LinkedHashMap<String, CachedURL> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedURL> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+
+            // Make room by dropping expired entries first, so a live entry is only evicted if
+            // there are none. The map may be modified here as long as false is returned.
+            long now = System.currentTimeMillis();
+            boolean removed = false;
+            Iterator<CachedURL> iterator = values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt <= now) {
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                    removed = true;
+                }
+            }
+            if (removed) {
+                return false;
+            }
+
+            evictions.incrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.tus.java.client;
+
+/**
+ * A {@link TusURLStore} which also records the last offset the server has confirmed for an upload.
+ * If the configured store implements this interface, {@link TusClient} stores a checkpoint after
+ * every request which the server has answered with an <code>Upload-Offset</code>. With
+ * {@link TusClient#enableOptimisticResume()}, uploads are then resumed from the checkpoint without
+ * asking the server for the offset using a HEAD request first.
+ * <br>
+ * A checkpoint belongs to the upload URL stored for the fingerprint. Storing a new URL using
+ * {@link #set(String, java.net.URL)} or removing the fingerprint also removes its checkpoint.
+ */
+public interface TusURLCheckpointStore extends TusURLStore {
+    /**
+     * Store a checkpoint for a fingerprint. It is ignored unless the fingerprint is currently
+     * mapped to the checkpoint's upload URL, so an entry which has been removed in the meantime is
+     * not brought back.
+     *
+     * @param fingerprint An upload's fingerprint.
+     * @param checkpoint The offset confirmed by the server.
+     */
+    void setCheckpoint(String fingerprint, TusOffsetCheckpoint checkpoint);
+
+    /**
+     * Retrieve the checkpoint for a fingerprint. If no upload URL or no checkpoint has been stored
+     * for it, this method will return <code>null</code>.
+     *
+     * @param fingerprint An upload's fingerprint.
+     * @return The latest checkpoint.
+     */
+    TusOffsetCheckpoint getCheckpoint(String fingerprint);
+
+    /**
+     * Remove the checkpoint for a fingerprint but keep its upload URL, so the upload is resumed
+     * using a HEAD request the next time. If no checkpoint exists, no exception should be thrown.
+     *
+     * @param fingerprint An upload's fingerprint.
+     */
+    void removeCheckpoint(String fingerprint);
+}
@@ -0,0 +1,217 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * A {@link TusExchange} backed by a {@link HttpURLConnection}, as created by
+ * {@link TusURLConnectionTransport}. The underlying connection can be accessed using
+ * {@link #getConnection()}, e.g. in order to configure it in
+ * {@link TusClient#prepareConnection(HttpURLConnection)}.
+ * <br>
+ * Closing the exchange drains the response body, so the connection can be reused for the next
+ * request to the same host. Only if the response has not been received yet, or if its body is
+ * larger than {@link #MAX_DRAIN_SIZE}, the connection is disconnected.
+ */
+public class TusURLConnectionExchange implements TusExchange {
+    /**
+     * Maximum number of bytes which are read from a response body in order to be able to reuse
+     * the connection. Reading larger bodies would take longer than opening a new connection.
+     */
+    public static final int MAX_DRAIN_SIZE = 64 * 1024;
+
+    private HttpURLConnection connection;
+    @Nullable
+    private TusURLConnectionTransport transport;
+    @Nullable
+    private String host;
+    private boolean responseReceived;
+    private boolean closed;
+
+    /**
+     * Create a new exchange for a connection whose request method has already been set.
+     *
+     * @param connection The connection to use for this exchange
+     */
+    public TusURLConnectionExchange(@NotNull HttpURLConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Create a new exchange which reports back to the transport once it has been closed.
+     *
+     * @param connection The connection to use for this exchange
+     * @param transport The transport which opened the exchange
+     * @param host The key identifying the host in the transport
+     */
+    TusURLConnectionExchange(@NotNull HttpURLConnection connection, @NotNull TusURLConnectionTransport transport,
+                             @NotNull String host) {
+        this(connection);
+        this.transport = transport;
+        this.host = host;
+    }
+
+    /**
+     * Returns the underlying connection of this exchange.
+     *
+     * @return The {@link HttpURLConnection} used for this exchange
+     */
+    @NotNull
+    public HttpURLConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Returns the URL of the underlying connection.
+     * @return {@link HttpURLConnection#getURL()}
+     */
+    @NotNull
+    @Override
+    public URL getURL() {
+        return connection.getURL();
+    }
+
+    /**
+     * Sets a request property on the underlying connection.
+     * @param name Name of the header
+     * @param value Value of the header
+     */
+    @Override
+    public void setRequestHeader(@NotNull String name, @NotNull String value) {
+        connection.setRequestProperty(name, value);
+    }
+
+    /**
+     * Adds a request property to the underlying connection.
+     * @param name Name of the header
+     * @param value Value of the header
+     */
+    @Override
+    public void addRequestHeader(@NotNull String name, @NotNull String value) {
+        connection.addRequestProperty(name, value);
+    }
+
+    /**
+     * Sets the connect timeout of the underlying connection.
+     * @param timeout Timeout in milliseconds
+     */
+    @Override
+    public void setConnectTimeout(int timeout) {
+        connection.setConnectTimeout(timeout);
+    }
+
+    /**
+     * Sets whether the underlying connection follows redirects.
+     * @param followRedirects True if redirects should be followed
+     */
+    @Override
+    public void setFollowRedirects(boolean followRedirects) {
+        connection.setInstanceFollowRedirects(followRedirects);
+    }
+
+    /**
+     * Enables output on the underlying connection using chunked or fixed-length streaming mode.
+     * @param contentLength Length of the body in bytes or -1 for chunked streaming
+     * @return The connection's output stream
+     * @throws IOException Thrown if the request cannot be sent.
+     */
+    @NotNull
+    @Override
+    public OutputStream openBody(long contentLength) throws IOException {
+        connection.setDoOutput(true);
+        if (contentLength < 0) {
+            connection.setChunkedStreamingMode(0);
+        } else {
+            connection.setFixedLengthStreamingMode(contentLength);
+        }
+        return connection.getOutputStream();
+    }
+
+    /**
+     * Returns the status code of the underlying connection.
+     * @return {@link HttpURLConnection#getResponseCode()}
+     * @throws IOException Thrown if an exception occurs while issuing the HTTP request.
+     */
+    @Override
+    public int getResponseCode() throws IOException {
+        int responseCode = connection.getResponseCode();
+        responseReceived = true;
+        return responseCode;
+    }
+
+    /**
+     * Returns a header field of the underlying connection.
+     * @param name Name of the header
+     * @return {@link HttpURLConnection#getHeaderField(String)}
+     */
+    @Nullable
+    @Override
+    public String getResponseHeader(@NotNull String name) {
+        return connection.getHeaderField(name);
+    }
+
+    /**
+     * Drains the response body so the underlying connection can be reused, or disconnects it if
+     * that is not possible. Calling this method more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        boolean reusable = responseReceived && drainResponse();
+        if (!reusable) {
+            connection.disconnect();
+        }
+
+        if (transport != null && host != null) {
+            transport.release(host, reusable);
+        }
+    }
+
+    /**
+     * Reads the remaining response body, so {@link HttpURLConnection} hands the connection back to
+     * its keep-alive cache.
+     *
+     * @return True if the body has been read completely
+     */
+    private boolean drainResponse() {
+        try {
+            InputStream body;
+            if (connection.getResponseCode() >= 400) {
+                body = connection.getErrorStream();
+            } else {
+                body = connection.getInputStream();
+            }
+
+            if (body == null) {
+                return true;
+            }
+
+            try {
+                byte[] buffer = new byte[1024];
+                long drained = 0;
+                int bytesRead;
+                while ((bytesRead = body.read(buffer)) != -1) {
+                    drained += bytesRead;
+                    if (drained > MAX_DRAIN_SIZE) {
+                        return false;
+                    }
+                }
+            } finally {
+                body.close();
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
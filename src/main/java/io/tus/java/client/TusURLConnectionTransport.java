@@ -0,0 +1,207 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the default {@link TusTransport} which is based on {@link HttpURLConnection} and is
+ * available on all platforms, including Android.
+ * <br>
+ * Since {@link HttpURLConnection} does not support the PATCH method on all JREs, PATCH requests
+ * fall back to POST requests carrying the <code>X-HTTP-Method-Override: PATCH</code> header if
+ * necessary.
+ * <br>
+ * Connections are reused across requests: when an exchange is closed, the remaining response body
+ * is drained and the socket is handed back to the JRE's keep-alive cache instead of being
+ * disconnected. The JRE keeps up to <code>http.maxConnections</code> (default 5) idle connections
+ * per host and evicts them once they have been idle for longer than the server's keep-alive
+ * timeout. Since connections which do not fit into the cache are closed, the number of concurrent
+ * connections per host can be bounded using {@link #setMaxConnectionsPerHost(int)}, so every
+ * connection can be reused. Whether this works as expected can be checked using
+ * {@link #getOpenedExchanges()}, {@link #getReleasedConnections()} and
+ * {@link #getDiscardedConnections()}.
+ */
+public class TusURLConnectionTransport implements TusTransport {
+    private final AtomicLong openedExchanges = new AtomicLong();
+    private final AtomicLong releasedConnections = new AtomicLong();
+    private final AtomicLong discardedConnections = new AtomicLong();
+
+    private final Map<String, HostSlots> hostSlots = new HashMap<String, HostSlots>();
+    private int maxConnectionsPerHost;
+
+    /**
+     * Limit the number of exchanges which may be open to the same host at the same time. Opening
+     * another exchange blocks until one of the open exchanges is closed. A value of 0, which is the
+     * default, disables the limit.
+     *
+     * @param maxConnectionsPerHost Maximum number of concurrent connections per host or 0
+     */
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost < 0) {
+            throw new IllegalArgumentException("maximum number of connections must not be negative");
+        }
+        synchronized (hostSlots) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            hostSlots.notifyAll();
+        }
+    }
+
+    /**
+     * Get the maximum number of concurrent connections per host.
+     *
+     * @see #setMaxConnectionsPerHost(int)
+     *
+     * @return Maximum number of concurrent connections per host or 0 if unlimited
+     */
+    public int getMaxConnectionsPerHost() {
+        synchronized (hostSlots) {
+            return maxConnectionsPerHost;
+        }
+    }
+
+    /**
+     * Returns the number of exchanges opened by this transport.
+     *
+     * @return Number of opened exchanges
+     */
+    public long getOpenedExchanges() {
+        return openedExchanges.get();
+    }
+
+    /**
+     * Returns the number of connections whose response has been fully read when closing the
+     * exchange, so the connection was handed back to the keep-alive cache for reuse.
+     *
+     * @return Number of connections released for reuse
+     */
+    public long getReleasedConnections() {
+        return releasedConnections.get();
+    }
+
+    /**
+     * Returns the number of connections which had to be disconnected when closing the exchange,
+     * e.g. because the request failed or the response body was too large to be drained.
+     *
+     * @return Number of disconnected connections
+     */
+    public long getDiscardedConnections() {
+        return discardedConnections.get();
+    }
+
+    /**
+     * Open a new {@link HttpURLConnection} and wrap it into a {@link TusURLConnectionExchange}.
+     *
+     * @param method The HTTP method, e.g. POST, HEAD or PATCH
+     * @param url The URL to send the request to
+     * @param proxy The proxy to use for this request or null if no proxy has been configured
+     * @return A new exchange
+     * @throws IOException Thrown if the connection cannot be opened.
+     */
+    @NotNull
+    @Override
+    public TusExchange open(@NotNull String method, @NotNull URL url, @Nullable Proxy proxy) throws IOException {
+        String host = url.getProtocol() + "://" + url.getHost() + ":" + url.getPort()
+                + (proxy != null ? " via " + proxy : "");
+        acquire(host);
+
+        HttpURLConnection connection;
+        try {
+            if (proxy != null) {
+                connection = (HttpURLConnection) url.openConnection(proxy);
+            } else {
+                connection = (HttpURLConnection) url.openConnection();
+            }
+
+            try {
+                connection.setRequestMethod(method);
+                // Check whether we are running on a buggy JRE
+            } catch (java.net.ProtocolException pe) {
+                if (!method.equals("PATCH")) {
+                    throw pe;
+                }
+                connection.setRequestMethod("POST");
+                connection.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+            }
+        } catch (IOException e) {
+            release(host, false);
+            throw e;
+        }
+
+        openedExchanges.incrementAndGet();
+        return new TusURLConnectionExchange(connection, this, host);
+    }
+
+    /**
+     * Called by {@link TusURLConnectionExchange#close()} once an exchange has been closed.
+     *
+     * @param host The host key passed to the exchange
+     * @param reusable Whether the connection has been handed back to the keep-alive cache
+     */
+    void release(@NotNull String host, boolean reusable) {
+        if (reusable) {
+            releasedConnections.incrementAndGet();
+        } else {
+            discardedConnections.incrementAndGet();
+        }
+
+        synchronized (hostSlots) {
+            HostSlots slots = hostSlots.get(host);
+            if (slots == null) {
+                return;
+            }
+
+            slots.inUse--;
+            if (slots.inUse <= 0) {
+                // Do not keep entries for hosts without open exchanges around, so the map only
+                // grows with the number of hosts which are currently used.
+                hostSlots.remove(host);
+            }
+            hostSlots.notifyAll();
+        }
+    }
+
+    private void acquire(@NotNull String host) throws IOException {
+        synchronized (hostSlots) {
+            HostSlots slots = hostSlots.get(host);
+            if (slots == null) {
+                slots = new HostSlots();
+                hostSlots.put(host, slots);
+            }
+
+            while (maxConnectionsPerHost > 0 && slots.inUse >= maxConnectionsPerHost) {
+                try {
+                    hostSlots.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for a connection to " + host);
+                }
+
+                // The entry may have been removed while we were waiting.
+                HostSlots current = hostSlots.get(host);
+                if (current == null) {
+                    hostSlots.put(host, slots);
+                } else {
+                    slots = current;
+                }
+            }
+
+            slots.inUse++;
+        }
+    }
+
+    /**
+     * Number of open exchanges for a single host.
+     */
+    private static final class HostSlots {
+        private int inUse;
+    }
+}
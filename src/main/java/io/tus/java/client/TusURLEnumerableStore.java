@@ -0,0 +1,21 @@
+package io.tus.java.client;
+
+import java.util.List;
+
+/**
+ * A {@link TusURLStore} whose entries can be listed together with the time they have last been
+ * updated, e.g. for terminating abandoned uploads using {@link TusUploadReaper}. An entry is
+ * updated when its URL is stored using {@link #set(String, java.net.URL)} and, if the store
+ * implements {@link TusURLCheckpointStore} as well, whenever a checkpoint is stored for it.
+ */
+public interface TusURLEnumerableStore extends TusURLStore {
+    /**
+     * Retrieve the entries which have last been updated before the supplied time. The returned
+     * list is a snapshot which does not reflect later changes.
+     *
+     * @param updatedBefore Time in milliseconds since the epoch, or {@link Long#MAX_VALUE} for all
+     *                      entries.
+     * @return The matching entries in no particular order.
+     */
+    List<TusURLStoreEntry> getEntries(long updatedBefore);
+}
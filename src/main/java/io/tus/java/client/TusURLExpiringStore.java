@@ -0,0 +1,21 @@
+package io.tus.java.client;
+
+import java.net.URL;
+
+/**
+ * A {@link TusURLStore} which can drop entries once the corresponding upload has expired on the
+ * server. If the configured store implements this interface, {@link TusClient} passes the time
+ * from the server's <code>Upload-Expires</code> header, as defined by the Expiration extension,
+ * when storing an upload URL.
+ */
+public interface TusURLExpiringStore extends TusURLStore {
+    /**
+     * Store a new fingerprint and its upload URL, which will not be returned by
+     * {@link #get(String)} anymore after the supplied time.
+     *
+     * @param fingerprint An upload's fingerprint.
+     * @param url The corresponding upload URL.
+     * @param expiresAt Time at which the upload expires, in milliseconds since the epoch.
+     */
+    void set(String fingerprint, URL url, long expiresAt);
+}
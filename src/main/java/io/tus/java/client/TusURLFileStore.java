@@ -0,0 +1,1115 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * This class is used to map an upload's fingerprint with the corresponding upload URL by storing
+ * the entries in a file, so uploads can be resumed after the application has been restarted or
+ * has crashed. The offsets confirmed by the server are stored as well (see
+ * {@link TusURLCheckpointStore}), and the entries can be listed together with the time they have
+ * last been updated (see {@link TusURLEnumerableStore}).
+ * <br>
+ * The file is an append-only log: {@link #set(String, URL)} and {@link #remove(String)} append a
+ * small record, protected by a CRC32 checksum, to the end of the file. Only a compact index from
+ * a 64-bit hash of each fingerprint to the position of its latest record is kept in memory, so
+ * millions of fingerprints can be stored using a few dozen bytes of heap each. The URLs are read
+ * from the file when {@link #get(String)} is called.
+ * <br>
+ * Records are written to the file immediately but only forced to the storage device by a
+ * background thread in the configured interval, so many changes share a single fsync. Use
+ * {@link #sync()} to force all changes at a specific point, or pass an interval of 0 to the
+ * constructor to sync after every change. Checkpoints are never synced on their own, since losing
+ * one only means that the upload is resumed from an older offset, which the server rejects before
+ * the client falls back to asking for the current one. When opening the store, the log is read
+ * once to build the index. A record which has only partially been written before a crash is
+ * discarded.
+ * <br>
+ * Overwritten and removed entries leave obsolete records behind. Once there are more obsolete
+ * records than live ones (and at least {@link #setCompactionThreshold(int)} of them), the
+ * background thread rewrites the live records into a new file and replaces the log with it.
+ * This does not block other calls except for copying the records appended in the meantime.
+ * <br>
+ * All methods are thread-safe. Since the fingerprints are identified by their hash, two
+ * fingerprints sharing the same 64-bit hash cannot be stored at the same time. In this case,
+ * {@link #get(String)} returns null for the older one and a new upload is created for it.
+ * Errors while accessing the file are thrown as {@link IllegalStateException}s, since
+ * {@link TusURLStore} does not allow checked exceptions.
+ */
+public final class TusURLFileStore implements TusURLCheckpointStore, TusURLEnumerableStore, Closeable {
+    private static final int MAGIC = 0x74757331;
+    private static final int HEADER_SIZE = 4;
+    private static final int RECORD_OVERHEAD = 8;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Record storing the URL for a fingerprint. Its payload consists of the fingerprint's length,
+     * the fingerprint, the time the URL has been stored as 64-bit integer and the URL. The
+     * fingerprint and the URL are encoded using UTF-8. Further record types can be added using
+     * other values; readers skip record types they do not know.
+     */
+    private static final byte RECORD_SET = 1;
+    private static final int TIME_SIZE = 8;
+    /**
+     * Record removing a fingerprint. Its payload consists of the fingerprint's length and the
+     * fingerprint.
+     */
+    private static final byte RECORD_REMOVE = 2;
+    /**
+     * Record storing the URL for a fingerprint together with a checkpoint. Its payload consists of
+     * the fingerprint's length, the fingerprint, the offset and the time of the checkpoint as 64-bit
+     * integers and the URL. It replaces the previous record for the fingerprint like
+     * {@link #RECORD_SET}, so stores which do not know this type still find the URL in the
+     * previous record.
+     */
+    private static final byte RECORD_CHECKPOINT = 3;
+    private static final int CHECKPOINT_SIZE = 16;
+
+    private final File file;
+    private final File compactionFile;
+    private final long syncInterval;
+    private final ScheduledExecutorService scheduler;
+    private final Object compactionLock = new Object();
+    private final Object syncLock = new Object();
+
+    private RandomAccessFile log;
+    private long size;
+    private Index index = new Index(16);
+    private long recordCount;
+    private boolean dirty;
+    private boolean closed;
+    private int compactionThreshold = 10000;
+    private IOException backgroundError;
+    private byte[] readBuffer = new byte[256];
+
+    /**
+     * Open the store in the supplied file, or create it if the file does not exist. Changes are
+     * forced to the storage device once per second.
+     *
+     * @param file The file containing the log
+     * @throws IOException Thrown if the file cannot be opened or is not a valid log
+     */
+    public TusURLFileStore(@NotNull File file) throws IOException {
+        this(file, 1000);
+    }
+
+    /**
+     * Open the store in the supplied file, or create it if the file does not exist.
+     *
+     * @param file The file containing the log
+     * @param syncIntervalMillis Interval in which changes are forced to the storage device or 0 to
+     *                           force them before {@link #set(String, URL)} and
+     *                           {@link #remove(String)} return
+     * @throws IOException Thrown if the file cannot be opened or is not a valid log
+     */
+    public TusURLFileStore(@NotNull File file, long syncIntervalMillis) throws IOException {
+        if (syncIntervalMillis < 0) {
+            throw new IllegalArgumentException("sync interval must not be negative");
+        }
+
+        this.file = file;
+        this.compactionFile = new File(file.getPath() + ".compact");
+        this.syncInterval = syncIntervalMillis;
+
+        open();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NotNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "tus-url-file-store");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long period = syncIntervalMillis > 0 ? syncIntervalMillis : 1000;
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                maintain();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Set the minimum number of obsolete records before the log is compacted automatically. The
+     * default is 10000.
+     *
+     * @param threshold Minimum number of obsolete records
+     */
+    public synchronized void setCompactionThreshold(int threshold) {
+        compactionThreshold = threshold;
+    }
+
+    /**
+     * Stores the upload's fingerprint and url.
+     * @param fingerprint An upload's fingerprint.
+     * @param url The corresponding upload URL.
+     */
+    @Override
+    public void set(String fingerprint, URL url) {
+        byte[] key = fingerprint.getBytes(UTF8);
+        byte[] value = timedURL(System.currentTimeMillis(), url.toString().getBytes(UTF8));
+        synchronized (this) {
+            try {
+                long position = append(RECORD_SET, key, value);
+                index.put(hash(key, 0, key.length), position);
+            } catch (IOException e) {
+                throw new IllegalStateException("unable to write to " + file, e);
+            }
+        }
+        syncIfRequired();
+    }
+
+    /**
+     * Returns the corresponding Upload URL to a given fingerprint.
+     * @param fingerprint An upload's fingerprint.
+     * @return The corresponding upload URL.
+     */
+    @Override
+    public synchronized URL get(String fingerprint) {
+        byte[] key = fingerprint.getBytes(UTF8);
+        long position = index.get(hash(key, 0, key.length));
+        if (position < 0) {
+            return null;
+        }
+
+        try {
+            ensureOpen();
+            int length = readRecord(position);
+            int urlOffset = urlOffset(length, key);
+            if (urlOffset < 0) {
+                return null;
+            }
+            return new URL(new String(readBuffer, urlOffset, length - urlOffset, UTF8));
+        } catch (MalformedURLException e) {
+            return null;
+        } catch (IOException e) {
+            throw new IllegalStateException("unable to read from " + file, e);
+        }
+    }
+
+    /**
+     * Stores the offset confirmed for the upload, if the fingerprint still maps to its URL.
+     * @param fingerprint An upload's fingerprint.
+     * @param checkpoint The offset confirmed by the server.
+     */
+    @Override
+    public void setCheckpoint(String fingerprint, TusOffsetCheckpoint checkpoint) {
+        byte[] key = fingerprint.getBytes(UTF8);
+        byte[] url = checkpoint.getUploadURL().toString().getBytes(UTF8);
+        byte[] value = new byte[CHECKPOINT_SIZE + url.length];
+        writeLong(value, 0, checkpoint.getOffset());
+        writeLong(value, 8, checkpoint.getConfirmedAt());
+        System.arraycopy(url, 0, value, CHECKPOINT_SIZE, url.length);
+
+        long hash = hash(key, 0, key.length);
+        synchronized (this) {
+            long position = index.get(hash);
+            if (position < 0) {
+                return;
+            }
+            try {
+                ensureOpen();
+                int length = readRecord(position);
+                int urlOffset = urlOffset(length, key);
+                if (urlOffset < 0 || !rangeEquals(readBuffer, urlOffset, length - urlOffset, url)) {
+                    return;
+                }
+                index.put(hash, append(RECORD_CHECKPOINT, key, value));
+            } catch (IOException e) {
+                throw new IllegalStateException("unable to write to " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the latest offset confirmed for the upload.
+     * @param fingerprint An upload's fingerprint.
+     * @return The checkpoint or null if there is none.
+     */
+    @Override
+    public synchronized TusOffsetCheckpoint getCheckpoint(String fingerprint) {
+        byte[] key = fingerprint.getBytes(UTF8);
+        long position = index.get(hash(key, 0, key.length));
+        if (position < 0) {
+            return null;
+        }
+
+        try {
+            ensureOpen();
+            int length = readRecord(position);
+            int urlOffset = urlOffset(length, key);
+            if (urlOffset < 0 || readBuffer[0] != RECORD_CHECKPOINT) {
+                return null;
+            }
+            URL url = new URL(new String(readBuffer, urlOffset, length - urlOffset, UTF8));
+            int checkpointOffset = urlOffset - CHECKPOINT_SIZE;
+            return new TusOffsetCheckpoint(url, readLong(readBuffer, checkpointOffset),
+                    readLong(readBuffer, checkpointOffset + 8));
+        } catch (MalformedURLException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            // The record contains a negative offset.
+            return null;
+        } catch (IOException e) {
+            throw new IllegalStateException("unable to read from " + file, e);
+        }
+    }
+
+    /**
+     * Removes the offset confirmed for the upload but keeps its URL.
+     * @param fingerprint An upload's fingerprint.
+     */
+    @Override
+    public void removeCheckpoint(String fingerprint) {
+        byte[] key = fingerprint.getBytes(UTF8);
+        long hash = hash(key, 0, key.length);
+        synchronized (this) {
+            long position = index.get(hash);
+            if (position < 0) {
+                return;
+            }
+            try {
+                ensureOpen();
+                int length = readRecord(position);
+                int urlOffset = urlOffset(length, key);
+                if (urlOffset < 0 || readBuffer[0] != RECORD_CHECKPOINT) {
+                    return;
+                }
+                byte[] url = new byte[length - urlOffset];
+                System.arraycopy(readBuffer, urlOffset, url, 0, url.length);
+                long confirmedAt = readLong(readBuffer, urlOffset - CHECKPOINT_SIZE + 8);
+                index.put(hash, append(RECORD_SET, key, timedURL(confirmedAt, url)));
+            } catch (IOException e) {
+                throw new IllegalStateException("unable to write to " + file, e);
+            }
+        }
+        syncIfRequired();
+    }
+
+    /**
+     * Removes the corresponding entry to a fingerprint from the store.
+     * @param fingerprint An upload's fingerprint.
+     */
+    @Override
+    public void remove(String fingerprint) {
+        byte[] key = fingerprint.getBytes(UTF8);
+        long hash = hash(key, 0, key.length);
+        synchronized (this) {
+            if (index.get(hash) < 0) {
+                return;
+            }
+            try {
+                append(RECORD_REMOVE, key, null);
+                index.remove(hash);
+            } catch (IOException e) {
+                throw new IllegalStateException("unable to write to " + file, e);
+            }
+        }
+        syncIfRequired();
+    }
+
+    /**
+     * Returns the entries which have last been updated before the supplied time. The records are
+     * read from the file, so this is meant for occasional maintenance.
+     * @param updatedBefore Time in milliseconds since the epoch.
+     * @return The matching entries.
+     */
+    @Override
+    public synchronized List<TusURLStoreEntry> getEntries(long updatedBefore) {
+        List<TusURLStoreEntry> entries = new ArrayList<TusURLStoreEntry>();
+        try {
+            ensureOpen();
+            for (long position : index.positions()) {
+                int length = readRecord(position);
+                if (length < 5) {
+                    continue;
+                }
+                int keyLength = readInt(readBuffer, 1);
+                if (keyLength < 0 || keyLength > length - 5) {
+                    continue;
+                }
+                byte[] key = new byte[keyLength];
+                System.arraycopy(readBuffer, 5, key, 0, keyLength);
+                int urlOffset = urlOffset(length, key);
+                if (urlOffset < 0) {
+                    continue;
+                }
+
+                long updatedAt;
+                if (readBuffer[0] == RECORD_CHECKPOINT) {
+                    updatedAt = readLong(readBuffer, urlOffset - CHECKPOINT_SIZE + 8);
+                } else {
+                    updatedAt = readLong(readBuffer, urlOffset - TIME_SIZE);
+                }
+                if (updatedAt >= updatedBefore) {
+                    continue;
+                }
+
+                try {
+                    URL url = new URL(new String(readBuffer, urlOffset, length - urlOffset, UTF8));
+                    entries.add(new TusURLStoreEntry(new String(key, UTF8), url, updatedAt));
+                } catch (MalformedURLException e) {
+                    // Like get(), skip entries whose URL cannot be parsed.
+                    continue;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("unable to read from " + file, e);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of fingerprints in the store.
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Force all changes made so far to the storage device.
+     *
+     * @throws IOException Thrown if the changes cannot be written, or if a previous attempt by the
+     * background thread failed.
+     */
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            RandomAccessFile current;
+            synchronized (this) {
+                if (backgroundError != null) {
+                    IOException e = backgroundError;
+                    backgroundError = null;
+                    throw e;
+                }
+                if (!dirty || closed) {
+                    return;
+                }
+                dirty = false;
+                current = log;
+            }
+
+            // Syncing happens outside of the store's lock, so other threads can keep appending
+            // while the storage device is busy.
+            try {
+                current.getFD().sync();
+            } catch (IOException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Rewrite the log so it only contains the live records. This is done automatically by the
+     * background thread, but can also be triggered manually.
+     *
+     * @throws IOException Thrown if the new log cannot be written. The old log stays in use in
+     * this case.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            Index snapshot;
+            long snapshotSize;
+            synchronized (this) {
+                ensureOpen();
+                snapshot = index.copy();
+                snapshotSize = size;
+            }
+
+            RandomAccessFile target = new RandomAccessFile(compactionFile, "rw");
+            boolean replaced = false;
+            try {
+                target.setLength(0);
+                target.writeInt(MAGIC);
+                Index compacted = new Index(snapshot.size());
+                LogWriter writer = new LogWriter(target, HEADER_SIZE);
+
+                // Copy the records which were live when the compaction started, without holding
+                // the lock. The log is append-only, so this part of the file does not change.
+                RecordReader reader = new RecordReader(file, HEADER_SIZE, snapshotSize);
+                try {
+                    while (reader.next()) {
+                        copyRecord(reader, writer, snapshot, compacted, false);
+                    }
+                } finally {
+                    reader.close();
+                }
+
+                // Holding the sync lock prevents syncing the old log while it is being replaced.
+                synchronized (syncLock) {
+                    finishCompaction(target, writer, snapshotSize, compacted);
+                }
+                replaced = true;
+            } finally {
+                if (!replaced) {
+                    target.close();
+                    if (!compactionFile.delete()) {
+                        compactionFile.deleteOnExit();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the records appended since the compaction started and replace the log with the
+     * compacted one. Appending is blocked while this method runs.
+     *
+     * @param target The compacted log
+     * @param writer The writer for the compacted log
+     * @param snapshotSize Size of the log when the compaction started
+     * @param compacted The index of the compacted log
+     */
+    private synchronized void finishCompaction(@NotNull RandomAccessFile target, @NotNull LogWriter writer,
+                                               long snapshotSize, @NotNull Index compacted) throws IOException {
+        ensureOpen();
+
+        RecordReader reader = new RecordReader(file, snapshotSize, size);
+        try {
+            while (reader.next()) {
+                copyRecord(reader, writer, null, compacted, true);
+            }
+        } finally {
+            reader.close();
+        }
+
+        writer.flush();
+        target.getFD().sync();
+        target.close();
+
+        log.close();
+        replace();
+
+        log = new RandomAccessFile(file, "rw");
+        size = writer.getPosition();
+        recordCount = writer.getRecordCount();
+        index = compacted;
+        dirty = false;
+    }
+
+    /**
+     * Stop the background thread, force all changes to the storage device and close the file.
+     *
+     * @throws IOException Thrown if the changes cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            // Do not interrupt a running compaction, but let it finish.
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            sync();
+        } finally {
+            synchronized (this) {
+                if (!closed) {
+                    closed = true;
+                    log.close();
+                }
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        if (compactionFile.exists()) {
+            if (file.exists()) {
+                // A compaction has been interrupted before it was finished, so the old log is
+                // still complete.
+                if (!compactionFile.delete()) {
+                    throw new IOException("unable to delete " + compactionFile);
+                }
+            } else if (!compactionFile.renameTo(file)) {
+                // The old log has already been deleted, so the new one is complete.
+                throw new IOException("unable to rename " + compactionFile + " to " + file);
+            }
+        }
+
+        log = new RandomAccessFile(file, "rw");
+        if (log.length() < HEADER_SIZE) {
+            // The file is new or its header has not been written completely before a crash.
+            log.setLength(0);
+            log.writeInt(MAGIC);
+            log.getFD().sync();
+            size = HEADER_SIZE;
+            return;
+        }
+
+        if (log.readInt() != MAGIC) {
+            log.close();
+            throw new IOException(file + " is not a tus URL store");
+        }
+
+        RecordReader reader = new RecordReader(file, HEADER_SIZE, log.length());
+        try {
+            while (reader.next()) {
+                applyRecord(reader);
+                recordCount++;
+            }
+            size = reader.getPosition();
+        } finally {
+            reader.close();
+        }
+
+        if (log.length() > size) {
+            // Discard the partially written record at the end.
+            log.setLength(size);
+        }
+    }
+
+    private void applyRecord(@NotNull RecordReader reader) {
+        byte[] data = reader.getData();
+        int offset = reader.getDataOffset();
+        if (reader.getLength() < 5) {
+            return;
+        }
+
+        int keyLength = readInt(data, offset + 1);
+        if (keyLength < 0 || keyLength > reader.getLength() - 5) {
+            return;
+        }
+
+        long hash = hash(data, offset + 5, keyLength);
+        byte type = data[offset];
+        if (type == RECORD_SET || type == RECORD_CHECKPOINT) {
+            index.put(hash, reader.getRecordPosition());
+        } else if (type == RECORD_REMOVE) {
+            index.remove(hash);
+        }
+    }
+
+    /**
+     * Copy a record to the compacted log if it is still live.
+     *
+     * @param reader The reader positioned at the record
+     * @param writer The writer for the compacted log
+     * @param snapshot The index at the start of the compaction or null if all records are copied
+     * @param compacted The index of the compacted log
+     * @param all Whether records are copied regardless of the snapshot
+     */
+    private void copyRecord(@NotNull RecordReader reader, @NotNull LogWriter writer, Index snapshot,
+                            @NotNull Index compacted, boolean all) throws IOException {
+        byte[] data = reader.getData();
+        int offset = reader.getDataOffset();
+        int length = reader.getLength();
+        byte type = data[offset];
+
+        long hash = 0;
+        if (length >= 5) {
+            int keyLength = readInt(data, offset + 1);
+            if (keyLength >= 0 && keyLength <= length - 5) {
+                hash = hash(data, offset + 5, keyLength);
+            }
+        }
+
+        if (type == RECORD_SET || type == RECORD_CHECKPOINT) {
+            if (!all && snapshot.get(hash) != reader.getRecordPosition()) {
+                return;
+            }
+            compacted.put(hash, writer.getPosition());
+        } else if (type == RECORD_REMOVE) {
+            // Removals only need to be kept if the removed record has been copied before.
+            if (!all || compacted.get(hash) < 0) {
+                return;
+            }
+            compacted.remove(hash);
+        }
+
+        writer.write(data, offset, length, reader.getChecksum());
+    }
+
+    private long append(byte type, @NotNull byte[] key, byte[] value) throws IOException {
+        ensureOpen();
+
+        int length = 5 + key.length + (value != null ? value.length : 0);
+        if (length > MAX_RECORD_SIZE) {
+            throw new IOException("record too large");
+        }
+
+        byte[] record = new byte[RECORD_OVERHEAD + length];
+        writeInt(record, 0, length);
+        record[4] = type;
+        writeInt(record, 5, key.length);
+        System.arraycopy(key, 0, record, 9, key.length);
+        if (value != null) {
+            System.arraycopy(value, 0, record, 9 + key.length, value.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, 4, length);
+        writeInt(record, 4 + length, (int) crc.getValue());
+
+        long position = size;
+        log.seek(position);
+        log.write(record);
+        size += record.length;
+        recordCount++;
+        dirty = true;
+        return position;
+    }
+
+    /**
+     * Read the record at the supplied position into {@link #readBuffer}.
+     *
+     * @param position Position of the record in the log
+     * @return Length of the record's type and payload or -1 if the record is invalid
+     */
+    private int readRecord(long position) throws IOException {
+        log.seek(position);
+        int length = log.readInt();
+        if (length < 1 || length > MAX_RECORD_SIZE) {
+            return -1;
+        }
+        if (readBuffer.length < length) {
+            readBuffer = new byte[length];
+        }
+        log.readFully(readBuffer, 0, length);
+        int checksum = log.readInt();
+
+        CRC32 crc = new CRC32();
+        crc.update(readBuffer, 0, length);
+        return (int) crc.getValue() == checksum ? length : -1;
+    }
+
+    /**
+     * Find the URL in a record read into {@link #readBuffer}.
+     *
+     * @param length Length of the record as returned by {@link #readRecord(long)}
+     * @param key The fingerprint the record must belong to
+     * @return Offset of the URL in the buffer or -1 if the record does not store a URL for the key
+     */
+    private int urlOffset(int length, @NotNull byte[] key) {
+        if (length < 0 || !keyEquals(readBuffer, length, key)) {
+            return -1;
+        }
+        if (readBuffer[0] == RECORD_SET && length >= 5 + key.length + TIME_SIZE) {
+            return 5 + key.length + TIME_SIZE;
+        }
+        if (readBuffer[0] == RECORD_CHECKPOINT && length >= 5 + key.length + CHECKPOINT_SIZE) {
+            return 5 + key.length + CHECKPOINT_SIZE;
+        }
+        return -1;
+    }
+
+    /**
+     * Build the payload of a {@link #RECORD_SET} record following the fingerprint.
+     *
+     * @param time The time the URL has been stored
+     * @param url The encoded URL
+     * @return The time followed by the URL
+     */
+    private static byte[] timedURL(long time, @NotNull byte[] url) {
+        byte[] value = new byte[TIME_SIZE + url.length];
+        writeLong(value, 0, time);
+        System.arraycopy(url, 0, value, TIME_SIZE, url.length);
+        return value;
+    }
+
+    private static boolean keyEquals(@NotNull byte[] data, int length, @NotNull byte[] key) {
+        if (length < 5 + key.length || readInt(data, 1) != key.length) {
+            return false;
+        }
+        return rangeEquals(data, 5, key.length, key);
+    }
+
+    private static boolean rangeEquals(@NotNull byte[] data, int offset, int length, @NotNull byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (data[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void syncIfRequired() {
+        if (syncInterval == 0) {
+            try {
+                sync();
+            } catch (IOException e) {
+                throw new IllegalStateException("unable to sync " + file, e);
+            }
+        }
+    }
+
+    private void maintain() {
+        try {
+            if (syncInterval > 0) {
+                sync();
+            }
+
+            boolean compactionRequired;
+            synchronized (this) {
+                long obsolete = recordCount - index.size();
+                compactionRequired = !closed && obsolete >= compactionThreshold && obsolete > index.size();
+            }
+            if (compactionRequired) {
+                compact();
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                backgroundError = e;
+            }
+        }
+    }
+
+    private void replace() throws IOException {
+        if (compactionFile.renameTo(file)) {
+            return;
+        }
+
+        // Some platforms do not allow renaming onto an existing file. If we crash after deleting
+        // the old log, the new one will be picked up when opening the store again.
+        if (!file.delete() || !compactionFile.renameTo(file)) {
+            throw new IOException("unable to replace " + file + " with " + compactionFile);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("store has been closed");
+        }
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of a fingerprint. The result is never 0, since this value
+     * marks free slots in the index.
+     *
+     * @param data Array containing the UTF-8 encoded fingerprint
+     * @param offset Start of the fingerprint in the array
+     * @param length Length of the fingerprint in bytes
+     * @return The hash
+     */
+    private static long hash(@NotNull byte[] data, int offset, int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= data[i] & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    private static int readInt(@NotNull byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 24) | ((data[offset + 1] & 0xff) << 16)
+                | ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+    }
+
+    private static long readLong(@NotNull byte[] data, int offset) {
+        return ((long) readInt(data, offset) << 32) | (readInt(data, offset + 4) & 0xffffffffL);
+    }
+
+    private static void writeLong(@NotNull byte[] data, int offset, long value) {
+        writeInt(data, offset, (int) (value >>> 32));
+        writeInt(data, offset + 4, (int) value);
+    }
+
+    private static void writeInt(@NotNull byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Reads valid records from a part of the log sequentially, using a separate file handle and
+     * a large buffer. Reading stops at the first incomplete or corrupted record.
+     */
+    private static final class RecordReader {
+        private final RandomAccessFile input;
+        private final long limit;
+        private final CRC32 crc = new CRC32();
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private long bufferStart;
+        private int bufferLength;
+        private long position;
+        private long recordPosition;
+        private int length;
+        private int checksum;
+
+        RecordReader(@NotNull File file, long start, long limit) throws IOException {
+            this.input = new RandomAccessFile(file, "r");
+            this.limit = limit;
+            this.position = start;
+            this.bufferStart = start;
+        }
+
+        boolean next() throws IOException {
+            if (!fill(4)) {
+                return false;
+            }
+            int recordLength = readInt(buffer, (int) (position - bufferStart));
+            if (recordLength < 1 || recordLength > MAX_RECORD_SIZE || !fill(RECORD_OVERHEAD + recordLength)) {
+                return false;
+            }
+
+            int offset = (int) (position - bufferStart);
+            int storedChecksum = readInt(buffer, offset + 4 + recordLength);
+            crc.reset();
+            crc.update(buffer, offset + 4, recordLength);
+            if ((int) crc.getValue() != storedChecksum) {
+                return false;
+            }
+
+            recordPosition = position;
+            length = recordLength;
+            checksum = storedChecksum;
+            position += RECORD_OVERHEAD + recordLength;
+            return true;
+        }
+
+        /**
+         * Make sure the buffer contains the supplied number of bytes starting at the current position.
+         *
+         * @param needed Number of bytes required
+         * @return False if the log ends before
+         */
+        private boolean fill(int needed) throws IOException {
+            if (position + needed > limit) {
+                return false;
+            }
+            if (position - bufferStart + needed <= bufferLength) {
+                return true;
+            }
+
+            if (buffer.length < needed) {
+                buffer = new byte[needed];
+            }
+            bufferStart = position;
+            bufferLength = 0;
+            int toRead = (int) Math.min(buffer.length, limit - position);
+            input.seek(position);
+            while (bufferLength < toRead) {
+                int bytesRead = input.read(buffer, bufferLength, toRead - bufferLength);
+                if (bytesRead == -1) {
+                    break;
+                }
+                bufferLength += bytesRead;
+            }
+            return needed <= bufferLength;
+        }
+
+        byte[] getData() {
+            return buffer;
+        }
+
+        int getDataOffset() {
+            return (int) (recordPosition - bufferStart) + 4;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        int getChecksum() {
+            return checksum;
+        }
+
+        long getRecordPosition() {
+            return recordPosition;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        void close() throws IOException {
+            input.close();
+        }
+    }
+
+    /**
+     * Appends records to a log using a buffer.
+     */
+    private static final class LogWriter {
+        private final RandomAccessFile output;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int bufferLength;
+        private long position;
+        private long recordCount;
+
+        LogWriter(@NotNull RandomAccessFile output, long position) {
+            this.output = output;
+            this.position = position;
+        }
+
+        void write(@NotNull byte[] data, int offset, int length, int checksum) throws IOException {
+            if (bufferLength + RECORD_OVERHEAD + length > buffer.length) {
+                flush();
+            }
+            if (RECORD_OVERHEAD + length > buffer.length) {
+                byte[] record = new byte[RECORD_OVERHEAD + length];
+                writeInt(record, 0, length);
+                System.arraycopy(data, offset, record, 4, length);
+                writeInt(record, 4 + length, checksum);
+                output.seek(position - bufferLength);
+                output.write(record);
+            } else {
+                writeInt(buffer, bufferLength, length);
+                System.arraycopy(data, offset, buffer, bufferLength + 4, length);
+                writeInt(buffer, bufferLength + 4 + length, checksum);
+                bufferLength += RECORD_OVERHEAD + length;
+            }
+            position += RECORD_OVERHEAD + length;
+            recordCount++;
+        }
+
+        void flush() throws IOException {
+            if (bufferLength > 0) {
+                output.seek(position - bufferLength);
+                output.write(buffer, 0, bufferLength);
+                bufferLength = 0;
+            }
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        long getRecordCount() {
+            return recordCount;
+        }
+    }
+
+    /**
+     * Maps the hash of a fingerprint to the position of its record using open addressing with
+     * linear probing, which needs 16 bytes per slot instead of the objects used by a HashMap.
+     */
+    private static final class Index {
+        private long[] keys;
+        private long[] values;
+        private int size;
+
+        Index(int expectedSize) {
+            int capacity = 16;
+            while (capacity < expectedSize * 2) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            values = new long[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, long value) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+
+            // Move following entries of the same cluster into the gap, so lookups do not stop early.
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (keys[j] == 0) {
+                    break;
+                }
+                int home = slot(keys[j], mask);
+                boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!between) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = 0;
+            values[i] = 0;
+            size--;
+        }
+
+        long[] positions() {
+            long[] positions = new long[size];
+            int count = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    positions[count++] = values[i];
+                }
+            }
+            return positions;
+        }
+
+        Index copy() {
+            Index copy = new Index(0);
+            copy.keys = keys.clone();
+            copy.values = values.clone();
+            copy.size = size;
+            return copy;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+}
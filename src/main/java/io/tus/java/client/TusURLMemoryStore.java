@@ -1,7 +1,9 @@
 package io.tus.java.client;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -11,9 +13,17 @@ import java.util.Map;
  * <br>
  * The values will only be stored as long as the application is running. This store will not
  * keep the values after your application crashes or restarts.
+ * <br>
+ * The offsets confirmed by the server are kept as well (see {@link TusURLCheckpointStore}), and
+ * the entries can be listed (see {@link TusURLEnumerableStore}).
+ * <br>
+ * All methods are synchronized, so a single instance can be shared by uploads running on
+ * multiple threads, e.g. when using {@link TusClient#uploadParallel(TusUpload, int)}.
  */
-public class TusURLMemoryStore implements TusURLStore {
+public class TusURLMemoryStore implements TusURLCheckpointStore, TusURLEnumerableStore {
     private Map<String, URL> store = new HashMap<String, URL>();
+    private Map<String, TusOffsetCheckpoint> checkpoints = new HashMap<String, TusOffsetCheckpoint>();
+    private Map<String, Long> updates = new HashMap<String, Long>();
 
     /**
      * Stores the upload's fingerprint and url.
@@ -21,8 +31,10 @@ public class TusURLMemoryStore implements TusURLStore {
      * @param url The corresponding upload URL.
      */
     @Override
-    public void set(String fingerprint, URL url) {
+    public synchronized void set(String fingerprint, URL url) {
         store.put(fingerprint, url);
+        checkpoints.remove(fingerprint);
+        updates.put(fingerprint, System.currentTimeMillis());
     }
 
     /**
@@ -31,7 +43,7 @@ public class TusURLMemoryStore implements TusURLStore {
      * @return The corresponding upload URL.
      */
     @Override
-    public URL get(String fingerprint) {
+    public synchronized URL get(String fingerprint) {
         return store.get(fingerprint);
     }
 
@@ -40,7 +52,59 @@ public class TusURLMemoryStore implements TusURLStore {
      * @param fingerprint An upload's fingerprint.
      */
     @Override
-    public void remove(String fingerprint) {
+    public synchronized void remove(String fingerprint) {
         store.remove(fingerprint);
+        checkpoints.remove(fingerprint);
+        updates.remove(fingerprint);
+    }
+
+    /**
+     * Stores the offset confirmed for the upload, if the fingerprint still maps to its URL.
+     * @param fingerprint An upload's fingerprint.
+     * @param checkpoint The offset confirmed by the server.
+     */
+    @Override
+    public synchronized void setCheckpoint(String fingerprint, TusOffsetCheckpoint checkpoint) {
+        URL url = store.get(fingerprint);
+        if (url != null && url.toString().equals(checkpoint.getUploadURL().toString())) {
+            checkpoints.put(fingerprint, checkpoint);
+            updates.put(fingerprint, checkpoint.getConfirmedAt());
+        }
+    }
+
+    /**
+     * Returns the latest offset confirmed for the upload.
+     * @param fingerprint An upload's fingerprint.
+     * @return The checkpoint or null if there is none.
+     */
+    @Override
+    public synchronized TusOffsetCheckpoint getCheckpoint(String fingerprint) {
+        return checkpoints.get(fingerprint);
+    }
+
+    /**
+     * Removes the offset confirmed for the upload but keeps its URL.
+     * @param fingerprint An upload's fingerprint.
+     */
+    @Override
+    public synchronized void removeCheckpoint(String fingerprint) {
+        checkpoints.remove(fingerprint);
+    }
+
+    /**
+     * Returns the entries which have last been updated before the supplied time.
+     * @param updatedBefore Time in milliseconds since the epoch.
+     * @return The matching entries.
+     */
+    @Override
+    public synchronized List<TusURLStoreEntry> getEntries(long updatedBefore) {
+        List<TusURLStoreEntry> entries = new ArrayList<TusURLStoreEntry>();
+        for (Map.Entry<String, URL> entry : store.entrySet()) {
+            long updatedAt = updates.get(entry.getKey());
+            if (updatedAt < updatedBefore) {
+                entries.add(new TusURLStoreEntry(entry.getKey(), entry.getValue(), updatedAt));
+            }
+        }
+        return entries;
     }
 }
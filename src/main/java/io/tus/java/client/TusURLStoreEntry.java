@@ -0,0 +1,62 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * An entry listed by a {@link TusURLEnumerableStore}. Instances are immutable.
+ */
+public final class TusURLStoreEntry {
+    private final String fingerprint;
+    private final URL uploadURL;
+    private final long updatedAt;
+
+    /**
+     * Create a new entry.
+     *
+     * @param fingerprint The upload's fingerprint
+     * @param uploadURL The URL stored for the fingerprint
+     * @param updatedAt Time at which the entry has last been updated, in milliseconds since the
+     *                  epoch
+     */
+    public TusURLStoreEntry(@NotNull String fingerprint, @NotNull URL uploadURL, long updatedAt) {
+        this.fingerprint = fingerprint;
+        this.uploadURL = uploadURL;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Returns the upload's fingerprint.
+     *
+     * @return The fingerprint
+     */
+    @NotNull
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the URL stored for the fingerprint.
+     *
+     * @return The upload URL
+     */
+    @NotNull
+    public URL getUploadURL() {
+        return uploadURL;
+    }
+
+    /**
+     * Returns the time at which the URL or a checkpoint has last been stored.
+     *
+     * @return Milliseconds since the epoch
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s=%s", fingerprint, uploadURL);
+    }
+}
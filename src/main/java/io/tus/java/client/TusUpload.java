@@ -5,6 +5,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,11 +17,19 @@ import java.util.Map;
  * {@link TusClient#resumeOrCreateUpload(TusUpload)}.
  */
 public class TusUpload {
+    private static final TusPathFingerprinter PATH_FINGERPRINTER = new TusPathFingerprinter();
+    private static final char[] BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
     private long size;
     private InputStream input;
     private TusInputStream tusInputStream;
     private String fingerprint;
     private Map<String, String> metadata;
+    private EncodedMetadata encodedMetadata;
+    private File file;
+    private boolean partial;
+    private int mappingWindowSize;
 
     /**
      * Create a new TusUpload object.
@@ -31,20 +40,48 @@ public class TusUpload {
     /**
      * Create a new TusUpload object using the supplied file object. The corresponding {@link
      * InputStream}, size and fingerprint will be automatically set.
+     * The file's content is uploaded using positional reads on its {@link java.nio.channels.FileChannel},
+     * so the upload can seek to any offset without buffering the transferred data in memory. If the
+     * upload is interrupted while reading, the file is opened again once the upload is resumed.
      *
      * @param file The file whose content should be later uploaded.
      * @throws FileNotFoundException Thrown if the file cannot be found.
      */
     public TusUpload(@NotNull File file) throws FileNotFoundException {
+        this.file = file;
         size = file.length();
-        setInputStream(new FileInputStream(file));
 
-        fingerprint = String.format("%s-%d", file.getAbsolutePath(), size);
+        FileInputStream stream = new FileInputStream(file);
+        input = stream;
+        tusInputStream = new TusFileChannelInputStream(stream.getChannel(), file, 0, size);
+
+        fingerprint = PATH_FINGERPRINTER.fingerprint(file);
 
         metadata = new HashMap<String, String>();
         metadata.put("filename", file.getName());
     }
 
+    /**
+     * Create a new TusUpload object using the supplied file object, like {@link #TusUpload(File)},
+     * but compute the fingerprint using the supplied {@link TusFingerprinter}. Use a
+     * {@link TusContentFingerprinter} to resume uploads of files which have been moved and to not
+     * resume uploads of files which have been rewritten.
+     *
+     * @param file The file whose content should be later uploaded.
+     * @param fingerprinter The fingerprinter used for computing the upload's fingerprint.
+     * @throws IOException Thrown if the file cannot be found or its fingerprint cannot be computed.
+     */
+    public TusUpload(@NotNull File file, @NotNull TusFingerprinter fingerprinter) throws IOException {
+        this(file);
+
+        try {
+            fingerprint = fingerprinter.fingerprint(file);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
     /**
      * Returns the file size of the upload.
      * @return File size in bytes
@@ -105,6 +142,104 @@ public class TusUpload {
         tusInputStream = new TusInputStream(inputStream);
     }
 
+    /**
+     * Returns the file whose content will be uploaded, if this upload has been created using
+     * {@link #TusUpload(File)}.
+     *
+     * @return The source file or null if the upload reads from an arbitrary {@link InputStream}.
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Read the file using memory mapping with the default window size of 64 MiB.
+     *
+     * @see #enableMemoryMapping(int)
+     *
+     * @throws IOException Thrown if the file cannot be opened.
+     */
+    public void enableMemoryMapping() throws IOException {
+        enableMemoryMapping(TusMappedFileInputStream.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Read the file by mapping it into memory instead of using positional reads. Only a window of
+     * <code>windowSize</code> bytes is mapped at a time and each window is unmapped as soon as the
+     * upload moves past it, which keeps the used address space bounded. This avoids a read system
+     * call for every chunk and is most useful for very large files on fast local storage.
+     * This method is only available for uploads created using {@link #TusUpload(File)} and must be
+     * called before the upload is started.
+     *
+     * @param windowSize Maximum number of bytes mapped at once
+     * @throws IOException Thrown if the file cannot be opened.
+     * @throws IllegalStateException Thrown if this upload has not been created from a file.
+     */
+    public void enableMemoryMapping(int windowSize) throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("memory mapping is only available for uploads created from a file");
+        }
+
+        FileInputStream stream = new FileInputStream(file);
+        tusInputStream.close();
+        mappingWindowSize = windowSize;
+        input = stream;
+        tusInputStream = new TusMappedFileInputStream(stream.getChannel(), file, 0, size, windowSize);
+    }
+
+    /**
+     * Returns whether this upload is a partial upload as defined by the Concatenation extension.
+     *
+     * @return True if the upload will be created with the <code>Upload-Concat: partial</code> header
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Mark this upload as a partial upload as defined by the Concatenation extension. Partial uploads
+     * are created with the <code>Upload-Concat: partial</code> header and can later be combined into a
+     * single upload using {@link TusClient#concatenateUploads(TusUpload, java.util.List)}.
+     *
+     * @param partial True if the upload should be created as a partial upload
+     */
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    /**
+     * Create a new partial upload which covers the specified byte range of this upload's file. The
+     * returned upload reads its content independently of this upload and its fingerprint is derived
+     * from this upload's fingerprint and the range, so every range can be resumed on its own.
+     *
+     * @param start Offset of the first byte of the range inside the file
+     * @param length Number of bytes in the range
+     * @return A new partial upload
+     * @throws IOException Thrown if the file cannot be opened.
+     */
+    TusUpload createPartialUpload(long start, long length) throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("partial uploads can only be derived from a file-backed upload");
+        }
+
+        FileInputStream stream = new FileInputStream(file);
+        TusUpload partialUpload = new TusUpload();
+        partialUpload.setSize(length);
+        partialUpload.input = stream;
+        if (mappingWindowSize > 0) {
+            partialUpload.tusInputStream = new TusMappedFileInputStream(stream.getChannel(), file, start, length,
+                    mappingWindowSize);
+        } else {
+            partialUpload.tusInputStream = new TusFileChannelInputStream(stream.getChannel(), file, start, length);
+        }
+        partialUpload.setPartial(true);
+        if (fingerprint != null) {
+            partialUpload.setFingerprint(String.format("%s-partial-%d-%d", fingerprint, start, length));
+        }
+
+        return partialUpload;
+    }
+
     /**
      * This methods allows it to send Metadata alongside with the upload. The Metadata must be provided as
      * a Map with Key - Value pairs of Type String.
@@ -112,6 +247,7 @@ public class TusUpload {
      */
     public void setMetadata(Map<String, String> metadata) {
         this.metadata = metadata;
+        this.encodedMetadata = null;
     }
 
     /**
@@ -124,65 +260,191 @@ public class TusUpload {
 
     /**
      * Encode the metadata into a string according to the specification, so it can be
-     * used as the value for the Upload-Metadata header.
+     * used as the value for the Upload-Metadata header. The values are encoded as UTF-8.
+     * <br>
+     * The result is cached until the metadata changes, either by calling
+     * {@link #setMetadata(Map)} or by modifying the map returned by {@link #getMetadata()}.
      *
      * @return Encoded metadata
      */
     public String getEncodedMetadata() {
-        if (metadata == null || metadata.size() == 0) {
+        Map<String, String> current = metadata;
+        if (current == null || current.isEmpty()) {
             return "";
         }
 
-        String encoded = "";
+        // Comparing the entries is much cheaper than encoding them again, and also notices changes
+        // made to the map after it has been passed to setMetadata().
+        EncodedMetadata cached = encodedMetadata;
+        if (cached != null && current.equals(cached.source)) {
+            return cached.value;
+        }
 
-        boolean firstElement = true;
-        for (Map.Entry<String, String> entry : metadata.entrySet()) {
-            if (!firstElement) {
-                encoded += ",";
-            }
-            encoded += entry.getKey() + " " + base64Encode(entry.getValue().getBytes());
+        String value = encodeMetadata(current);
+        encodedMetadata = new EncodedMetadata(new HashMap<String, String>(current), value);
+        return value;
+    }
 
-            firstElement = false;
+    /**
+     * Encode metadata for the Upload-Metadata header. The header's length is computed first, so
+     * the values can be encoded to UTF-8 and Base64 directly into a single array without any
+     * intermediate strings or byte arrays.
+     *
+     * @param metadata The non-empty metadata
+     * @return Encoded metadata
+     */
+    static String encodeMetadata(Map<String, String> metadata) {
+        int length = -1;
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            length += entry.getKey().length() + 2 + base64Length(utf8Length(entry.getValue()));
         }
 
-        return encoded;
+        char[] out = new char[length];
+        int position = 0;
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            if (position > 0) {
+                out[position++] = ',';
+            }
+            String key = entry.getKey();
+            key.getChars(0, key.length(), out, position);
+            position += key.length();
+            out[position++] = ' ';
+            position = base64EncodeUtf8(entry.getValue(), out, position);
+        }
+        return new String(out);
     }
 
     /**
-     * Encode a byte-array using Base64. This is a sligtly modified version from an implementation
-     * published on Wikipedia (https://en.wikipedia.org/wiki/Base64#Sample_Implementation_in_Java)
-     * under the Creative Commons Attribution-ShareAlike License.
+     * Encode a byte-array using Base64.
      * @param in input Byte array for Base64 encoding.
      * @return Base64 encoded String derived from input Bytes.
      */
     static String base64Encode(byte[] in) {
-        StringBuilder out = new StringBuilder((in.length * 4) / 3);
-        String codes = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/=";
-
-        int b;
-        for (int i = 0; i < in.length; i += 3)  {
-            b = (in[i] & 0xFC) >> 2;
-            out.append(codes.charAt(b));
-            b = (in[i] & 0x03) << 4;
-            if (i + 1 < in.length)      {
-                b |= (in[i + 1] & 0xF0) >> 4;
-                out.append(codes.charAt(b));
-                b = (in[i + 1] & 0x0F) << 2;
-                if (i + 2 < in.length)  {
-                    b |= (in[i + 2] & 0xC0) >> 6;
-                    out.append(codes.charAt(b));
-                    b = in[i + 2] & 0x3F;
-                    out.append(codes.charAt(b));
-                } else  {
-                    out.append(codes.charAt(b));
-                    out.append('=');
+        char[] out = new char[base64Length(in.length)];
+        int position = 0;
+        int i = 0;
+        for (; i + 2 < in.length; i += 3) {
+            position = appendBase64Group(out, position, (in[i] & 0xFF) << 16 | (in[i + 1] & 0xFF) << 8 | (in[i + 2] & 0xFF));
+        }
+        if (i + 1 == in.length) {
+            appendBase64Tail(out, position, in[i] & 0xFF, 1);
+        } else if (i + 2 == in.length) {
+            appendBase64Tail(out, position, (in[i] & 0xFF) << 8 | (in[i + 1] & 0xFF), 2);
+        }
+        return new String(out);
+    }
+
+    /**
+     * Encode a string to UTF-8 and the result to Base64, writing into the supplied array. Unpaired
+     * surrogates are encoded as '?', in the same way as {@link String#getBytes(java.nio.charset.Charset)}.
+     *
+     * @param value The string to encode
+     * @param out The array to write to, with room for the encoded value
+     * @param position Index in the array at which to start writing
+     * @return Index after the last written character
+     */
+    private static int base64EncodeUtf8(String value, char[] out, int position) {
+        int group = 0;
+        int groupLength = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            int c = value.charAt(i);
+            int bytes;
+            int byteCount;
+            if (c < 0x80) {
+                bytes = c;
+                byteCount = 1;
+            } else if (c < 0x800) {
+                bytes = (0xC0 | c >> 6) << 8 | (0x80 | c & 0x3F);
+                byteCount = 2;
+            } else if (Character.isHighSurrogate((char) c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+                int codePoint = Character.toCodePoint((char) c, value.charAt(i));
+                bytes = (0xF0 | codePoint >> 18) << 24 | (0x80 | codePoint >> 12 & 0x3F) << 16
+                        | (0x80 | codePoint >> 6 & 0x3F) << 8 | (0x80 | codePoint & 0x3F);
+                byteCount = 4;
+            } else if (Character.isSurrogate((char) c)) {
+                bytes = '?';
+                byteCount = 1;
+            } else {
+                bytes = (0xE0 | c >> 12) << 16 | (0x80 | c >> 6 & 0x3F) << 8 | (0x80 | c & 0x3F);
+                byteCount = 3;
+            }
+
+            for (int shift = (byteCount - 1) * 8; shift >= 0; shift -= 8) {
+                group = group << 8 | (bytes >>> shift & 0xFF);
+                groupLength++;
+                if (groupLength == 3) {
+                    position = appendBase64Group(out, position, group);
+                    group = 0;
+                    groupLength = 0;
+                }
+            }
+        }
+
+        if (groupLength > 0) {
+            position = appendBase64Tail(out, position, group, groupLength);
+        }
+        return position;
+    }
+
+    private static int appendBase64Group(char[] out, int position, int group) {
+        out[position] = BASE64_ALPHABET[group >> 18 & 0x3F];
+        out[position + 1] = BASE64_ALPHABET[group >> 12 & 0x3F];
+        out[position + 2] = BASE64_ALPHABET[group >> 6 & 0x3F];
+        out[position + 3] = BASE64_ALPHABET[group & 0x3F];
+        return position + 4;
+    }
+
+    private static int appendBase64Tail(char[] out, int position, int group, int groupLength) {
+        if (groupLength == 1) {
+            out[position] = BASE64_ALPHABET[group >> 2 & 0x3F];
+            out[position + 1] = BASE64_ALPHABET[group << 4 & 0x3F];
+            out[position + 2] = '=';
+        } else {
+            out[position] = BASE64_ALPHABET[group >> 10 & 0x3F];
+            out[position + 1] = BASE64_ALPHABET[group >> 4 & 0x3F];
+            out[position + 2] = BASE64_ALPHABET[group << 2 & 0x3F];
+        }
+        out[position + 3] = '=';
+        return position + 4;
+    }
+
+    private static int base64Length(int byteCount) {
+        return (byteCount + 2) / 3 * 4;
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int byteCount = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // Four bytes for two chars.
+                    byteCount += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    byteCount += 2;
                 }
-            } else      {
-                out.append(codes.charAt(b));
-                out.append("==");
+            } else if (c >= 0x80) {
+                byteCount++;
             }
         }
+        return byteCount;
+    }
 
-        return out.toString();
+    /**
+     * The encoded metadata together with a copy of the entries it has been computed from.
+     */
+    private static final class EncodedMetadata {
+        private final Map<String, String> source;
+        private final String value;
+
+        EncodedMetadata(Map<String, String> source, String value) {
+            this.source = source;
+            this.value = value;
+        }
     }
 }
@@ -0,0 +1,423 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TusUploadManager runs a large number of uploads using a fixed number of worker threads. Uploads
+ * are submitted to a bounded queue, so {@link #submit(TusUpload)} blocks if the workers cannot
+ * keep up. This allows feeding uploads from a lazily evaluated source, e.g. using
+ * {@link #submitAll(Iterator)}, without opening all files at once:
+ * <pre>
+ * {@code
+ *  TusUploadManager manager = new TusUploadManager(client, 8, 64);
+ *  manager.setListener(new TusUploadManagerListener() { ... });
+ *  manager.submitAll(uploads);
+ *  manager.shutdown();
+ *  manager.awaitTermination(1, TimeUnit.HOURS);
+ * }
+ * </pre>
+ *
+ * Every upload is resumed or created using {@link TusClient#resumeOrCreateUpload(TusUpload)} and
+ * retried in the same way as by {@link TusExecutor}. Each worker reuses a single chunk buffer for
+ * all of its uploads, and since all workers share the same {@link TusClient}, connections are
+ * reused across uploads. When using the default {@link TusURLConnectionTransport}, the JRE keeps
+ * at most <code>http.maxConnections</code> (default 5) idle connections per host, so consider
+ * limiting {@link TusURLConnectionTransport#setMaxConnectionsPerHost(int)} to the parallelism.
+ * <br>
+ * By default, uploads run in the order of submission. A {@link TusSchedulingPolicy} can be set
+ * using {@link #setSchedulingPolicy(TusSchedulingPolicy)} to run uploads by priority, by their
+ * remaining bytes or by a weighted share of the bandwidth per priority. Such policies may preempt
+ * a running upload once its current request has been finished, in order to run a more urgent
+ * one first.
+ */
+public final class TusUploadManager {
+    private final TusClient client;
+    private final TusUploadQueue queue;
+    private final AtomicInteger runningWorkers;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final List<Thread> workers = new ArrayList<Thread>();
+
+    private final AtomicLong bytesUploaded = new AtomicLong();
+    private final AtomicLong finishedUploads = new AtomicLong();
+    private final AtomicLong failedUploads = new AtomicLong();
+    private final AtomicLong startTime = new AtomicLong();
+
+    private volatile boolean shutdown;
+    private volatile TusUploadManagerListener listener = new TusUploadManagerListener() { };
+    private volatile int chunkSize = 2 * 1024 * 1024;
+    private volatile int requestPayloadSize = 10 * 1024 * 1024;
+    private volatile TusRetryPolicy retryPolicy;
+
+    /**
+     * Create a new manager and start its worker threads.
+     *
+     * @param client The client used for all uploads
+     * @param parallelism Number of uploads which run at the same time
+     * @param queueCapacity Number of uploads which can be submitted before {@link #submit(TusUpload)}
+     *                      blocks
+     */
+    public TusUploadManager(@NotNull TusClient client, int parallelism, int queueCapacity) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queue capacity must be at least 1");
+        }
+
+        this.client = client;
+        this.queue = new TusUploadQueue(queueCapacity);
+        this.runningWorkers = new AtomicInteger(parallelism);
+
+        for (int i = 0; i < parallelism; i++) {
+            Thread thread = new Thread(new Worker(), "tus-upload-manager-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Set the listener which is notified about progress and completion of all uploads.
+     *
+     * @param listener The listener to notify
+     */
+    public void setListener(@NotNull TusUploadManagerListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set the chunk size used by all uploads, see {@link TusUploader#setChunkSize(int)}. The
+     * default is 2 MiB.
+     *
+     * @param chunkSize The new chunk size
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set the request payload size used by all uploads, see
+     * {@link TusUploader#setRequestPayloadSize(int)}. Since uploads are only preempted between
+     * requests, this also determines how quickly a more urgent upload gets a worker. The default
+     * is 10 MiB.
+     *
+     * @param requestPayloadSize The new request payload size
+     */
+    public void setRequestPayloadSize(int requestPayloadSize) {
+        this.requestPayloadSize = requestPayloadSize;
+    }
+
+    /**
+     * Set the delays between retries used by all uploads, see {@link TusExecutor#setDelays(int[])}.
+     *
+     * @param delays The delays in milliseconds
+     */
+    public void setDelays(@NotNull int[] delays) {
+        this.retryPolicy = TusRetryPolicy.fixed(delays);
+    }
+
+    /**
+     * Set the policy which decides whether and when failed attempts are retried, replacing the
+     * delays set using {@link #setDelays(int[])}. By default, the client's policy (see
+     * {@link TusClient#setRetryPolicy(TusRetryPolicy)}) is used, or delays of 500ms, 1s, 2s and 3s
+     * if the client has none either.
+     *
+     * @param retryPolicy The policy
+     */
+    public void setRetryPolicy(@NotNull TusRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Set the policy which decides in which order the uploads are run and whether running
+     * uploads are preempted. The default is {@link TusSchedulingPolicy#fifo()}.
+     *
+     * @param policy The policy to use for all waiting and future uploads
+     */
+    public void setSchedulingPolicy(@NotNull TusSchedulingPolicy policy) {
+        queue.setPolicy(policy);
+    }
+
+    /**
+     * Add an upload to the queue with the default priority of 0. If the queue is full, this
+     * method blocks until a worker has taken one of the queued uploads.
+     *
+     * @param upload The upload to run
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     * @throws IllegalStateException Thrown if the manager has already been shut down
+     */
+    public void submit(@NotNull TusUpload upload) throws InterruptedException {
+        submit(upload, 0);
+    }
+
+    /**
+     * Add an upload to the queue. If the queue is full, this method blocks until a worker has
+     * taken one of the queued uploads. The priority is only taken into account by scheduling
+     * policies which support it, see {@link #setSchedulingPolicy(TusSchedulingPolicy)}.
+     *
+     * @param upload The upload to run
+     * @param priority The upload's priority, higher values are more urgent
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     * @throws IllegalStateException Thrown if the manager has already been shut down
+     */
+    public void submit(@NotNull TusUpload upload, int priority) throws InterruptedException {
+        if (shutdown) {
+            throw new IllegalStateException("upload manager has been shut down");
+        }
+
+        startTime.compareAndSet(0, System.nanoTime());
+        TusScheduledUpload scheduled = queue.put(upload, priority);
+
+        // The workers may have stopped in the meantime, in which case nobody takes this upload.
+        if (shutdown && queue.remove(scheduled)) {
+            throw new IllegalStateException("upload manager has been shut down");
+        }
+    }
+
+    /**
+     * Submit all uploads returned by the iterator using {@link #submit(TusUpload)}. The next
+     * upload is only requested from the iterator once there is room in the queue.
+     *
+     * @param uploads The uploads to run
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     */
+    public void submitAll(@NotNull Iterator<TusUpload> uploads) throws InterruptedException {
+        while (uploads.hasNext()) {
+            submit(uploads.next());
+        }
+    }
+
+    /**
+     * Stop accepting new uploads. The already submitted uploads are still run, after which the
+     * worker threads exit and {@link TusUploadManagerListener#allUploadsFinished()} is called.
+     */
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * Stop accepting new uploads and interrupt the running ones. If resuming is enabled on the
+     * client, the interrupted uploads can be resumed later.
+     *
+     * @return The uploads which have been submitted but not finished yet, except for the running
+     * ones, including uploads which have been preempted
+     */
+    @NotNull
+    public List<TusUpload> shutdownNow() {
+        shutdown = true;
+        List<TusUpload> remaining = new ArrayList<TusUpload>();
+        for (TusScheduledUpload scheduled : queue.drain()) {
+            TusUploader uploader = scheduled.getUploader();
+            if (uploader != null) {
+                uploader.abort();
+            }
+            remaining.add(scheduled.getUpload());
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        return remaining;
+    }
+
+    /**
+     * Wait until all worker threads have exited after {@link #shutdown()} has been called.
+     *
+     * @param timeout Maximum time to wait
+     * @param unit Unit of the timeout
+     * @return True if all workers have exited and false if the timeout elapsed before
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Returns the number of bytes sent by all uploads. Data sent again after a failed request is
+     * counted again.
+     *
+     * @return Number of bytes sent
+     */
+    public long getBytesUploaded() {
+        return bytesUploaded.get();
+    }
+
+    /**
+     * Returns the average throughput since the first upload was submitted.
+     *
+     * @return Bytes uploaded per second
+     */
+    public double getBytesPerSecond() {
+        long start = startTime.get();
+        if (start == 0) {
+            return 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        return elapsed > 0 ? bytesUploaded.get() * 1e9 / elapsed : 0;
+    }
+
+    /**
+     * Returns the number of uploads which have been finished successfully.
+     *
+     * @return Number of finished uploads
+     */
+    public long getFinishedUploads() {
+        return finishedUploads.get();
+    }
+
+    /**
+     * Returns the number of uploads which failed after all retries have been used up.
+     *
+     * @return Number of failed uploads
+     */
+    public long getFailedUploads() {
+        return failedUploads.get();
+    }
+
+    /**
+     * A worker takes uploads from the queue and runs them one after another, reusing its buffer.
+     */
+    private final class Worker implements Runnable {
+        private byte[] buffer;
+        private TusBufferPool bufferPool;
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    TusScheduledUpload scheduled;
+                    try {
+                        scheduled = queue.poll(100, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    if (scheduled == null) {
+                        if (shutdown) {
+                            return;
+                        }
+                        continue;
+                    }
+
+                    runUpload(scheduled);
+                }
+            } finally {
+                releaseBuffer();
+                if (runningWorkers.decrementAndGet() == 0) {
+                    listener.allUploadsFinished();
+                    terminated.countDown();
+                }
+            }
+        }
+
+        private void runUpload(@NotNull TusScheduledUpload scheduled) {
+            TusUpload upload = scheduled.getUpload();
+            try {
+                URL uploadURL = transfer(scheduled);
+                if (uploadURL == null) {
+                    // The upload has been preempted and put back into the queue.
+                    return;
+                }
+                queue.finished(scheduled);
+                finishedUploads.incrementAndGet();
+                listener.uploadFinished(upload, uploadURL);
+            } catch (Exception e) {
+                queue.finished(scheduled);
+                scheduled.setUploader(null);
+                failedUploads.incrementAndGet();
+                try {
+                    // Release the file handle, since the manager will not touch this upload again.
+                    upload.getTusInputStream().close();
+                } catch (IOException ignored) {
+                    // The upload has failed anyway.
+                }
+                listener.uploadFailed(upload, e);
+            }
+        }
+
+        /**
+         * Return the worker's buffer to the pool it has been borrowed from, if any.
+         */
+        private void releaseBuffer() {
+            if (bufferPool != null) {
+                bufferPool.release(buffer);
+                bufferPool = null;
+                buffer = null;
+            }
+        }
+
+        /**
+         * Run the upload until it is finished or preempted.
+         *
+         * @param scheduled The upload to run
+         * @return The upload URL or null if the upload has been preempted
+         */
+        private URL transfer(@NotNull final TusScheduledUpload scheduled) throws ProtocolException, IOException {
+            final TusUpload upload = scheduled.getUpload();
+            final URL[] uploadURL = new URL[1];
+            final boolean[] preempted = new boolean[1];
+            TusExecutor executor = new TusExecutor() {
+                private boolean retrying;
+
+                @Override
+                protected void makeAttempt() throws ProtocolException, IOException {
+                    // A preempted upload is continued using its uploader, but a retry has to
+                    // resume the upload from the server's offset.
+                    TusUploader uploader = retrying ? null : scheduled.getUploader();
+                    retrying = true;
+                    scheduled.setUploader(null);
+                    if (uploader == null) {
+                        uploader = client.resumeOrCreateUpload(upload);
+                    }
+                    scheduled.setUploader(uploader);
+
+                    int size = chunkSize;
+                    if (buffer == null || buffer.length < size) {
+                        releaseBuffer();
+                        bufferPool = client.getBufferPool();
+                        buffer = bufferPool != null ? bufferPool.borrow(size) : new byte[size];
+                    }
+                    uploader.setChunkSize(size);
+                    uploader.setBuffer(buffer);
+                    uploader.setRequestPayloadSize(requestPayloadSize);
+
+                    int bytesRead;
+                    while ((bytesRead = uploader.uploadChunk()) > -1) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            uploader.abort();
+                            throw new InterruptedIOException("upload has been interrupted");
+                        }
+                        queue.progressed(scheduled, bytesRead);
+                        listener.progress(bytesUploaded.addAndGet(bytesRead), getBytesPerSecond());
+                        // Uploads can only be preempted between requests, so no data is lost.
+                        if (!uploader.hasOpenRequest() && uploader.getOffset() < upload.getSize()
+                                && queue.preempt(scheduled)) {
+                            preempted[0] = true;
+                            return;
+                        }
+                    }
+                    uploader.finish();
+                    uploadURL[0] = uploader.getUploadURL();
+                }
+            };
+            TusRetryPolicy policy = retryPolicy;
+            executor.setRetryPolicy(policy != null ? policy : client.getEffectiveRetryPolicy());
+            executor.setRetryHost(client.getRetryHost());
+            executor.setEventListener(client.getEventListener());
+
+            if (!executor.makeAttempts()) {
+                throw new InterruptedIOException("upload has been interrupted");
+            }
+            return preempted[0] ? null : uploadURL[0];
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+
+/**
+ * Receives notifications about the uploads run by a {@link TusUploadManager}. All methods do
+ * nothing by default, so only the relevant ones need to be overridden.
+ * <br>
+ * The methods are called from the manager's worker threads, possibly at the same time, so
+ * implementations must be thread-safe and should return quickly.
+ */
+public abstract class TusUploadManagerListener {
+    /**
+     * Called after a chunk has been uploaded by any of the manager's workers.
+     *
+     * @param bytesUploaded Total number of bytes uploaded by the manager so far
+     * @param bytesPerSecond Average throughput of the manager since the first upload was started
+     */
+    public void progress(long bytesUploaded, double bytesPerSecond) {
+    }
+
+    /**
+     * Called once an upload has been finished.
+     *
+     * @param upload The finished upload
+     * @param uploadURL The URL of the finished upload
+     */
+    public void uploadFinished(@NotNull TusUpload upload, @NotNull URL uploadURL) {
+    }
+
+    /**
+     * Called if an upload failed after all retries have been used up.
+     *
+     * @param upload The failed upload
+     * @param exception The exception thrown by the last attempt
+     */
+    public void uploadFailed(@NotNull TusUpload upload, @NotNull Exception exception) {
+    }
+
+    /**
+     * Called once after {@link TusUploadManager#shutdown()} if all submitted uploads have either
+     * been finished or failed.
+     */
+    public void allUploadsFinished() {
+    }
+}
@@ -0,0 +1,170 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The queue of a {@link TusUploadManager}, ordered by a {@link TusSchedulingPolicy}. The policy
+ * may depend on state which changes while the uploads are waiting, e.g. their remaining bytes or
+ * the bytes uploaded per priority class, so the next upload is selected by a linear scan at the
+ * time it is taken instead of keeping the uploads sorted. Since the queue is bounded, this is
+ * cheaper than the upload's first request anyway.
+ */
+final class TusUploadQueue {
+    private final int capacity;
+    private final List<TusScheduledUpload> waiting = new ArrayList<TusScheduledUpload>();
+    private final List<TusScheduledUpload> active = new ArrayList<TusScheduledUpload>();
+    private TusSchedulingPolicy policy = TusSchedulingPolicy.fifo();
+    private long nextSequence;
+
+    /**
+     * Create a new queue.
+     *
+     * @param capacity Number of submitted uploads which can wait before {@link #put(TusUpload, int)}
+     *                 blocks
+     */
+    TusUploadQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Replace the policy. The uploads which are currently waiting or running are announced to
+     * the new policy using {@link TusSchedulingPolicy#uploadAdded(TusScheduledUpload)}.
+     *
+     * @param policy The new policy
+     */
+    synchronized void setPolicy(@NotNull TusSchedulingPolicy policy) {
+        this.policy = policy;
+        for (TusScheduledUpload upload : active) {
+            policy.uploadAdded(upload);
+        }
+    }
+
+    /**
+     * Add a new upload, waiting until there is room in the queue.
+     *
+     * @param upload The submitted upload
+     * @param priority The upload's priority
+     * @return The queued upload
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     */
+    synchronized TusScheduledUpload put(@NotNull TusUpload upload, int priority) throws InterruptedException {
+        while (waiting.size() >= capacity) {
+            wait();
+        }
+
+        TusScheduledUpload scheduled = new TusScheduledUpload(upload, priority, nextSequence++);
+        waiting.add(scheduled);
+        active.add(scheduled);
+        policy.uploadAdded(scheduled);
+        notifyAll();
+        return scheduled;
+    }
+
+    /**
+     * Take the upload which the policy ranks first, waiting until one is available.
+     *
+     * @param timeout Maximum time to wait
+     * @param unit Unit of the timeout
+     * @return The upload or null if none has become available in time
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     */
+    synchronized TusScheduledUpload poll(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (waiting.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        TusScheduledUpload next = waiting.get(0);
+        for (TusScheduledUpload candidate : waiting) {
+            if (policy.compare(candidate, next) < 0) {
+                next = candidate;
+            }
+        }
+        waiting.remove(next);
+        notifyAll();
+        return next;
+    }
+
+    /**
+     * Put a running upload back into the queue if the policy ranks a waiting upload before it.
+     * The capacity does not apply here, since the upload has already been admitted before.
+     *
+     * @param running The running upload, at a request boundary
+     * @return True if the upload has been put back and the caller should take the next one
+     */
+    synchronized boolean preempt(@NotNull TusScheduledUpload running) {
+        for (TusScheduledUpload candidate : waiting) {
+            if (policy.compare(candidate, running) < 0) {
+                waiting.add(running);
+                notifyAll();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Report that a chunk of a running upload has been sent.
+     *
+     * @param running The running upload
+     * @param bytes Number of bytes sent
+     */
+    synchronized void progressed(@NotNull TusScheduledUpload running, long bytes) {
+        policy.uploadProgressed(running, bytes);
+    }
+
+    /**
+     * Report that a running upload has been finished or has failed.
+     *
+     * @param running The running upload
+     */
+    synchronized void finished(@NotNull TusScheduledUpload running) {
+        if (active.remove(running)) {
+            policy.uploadRemoved(running);
+        }
+    }
+
+    /**
+     * Remove a waiting upload.
+     *
+     * @param upload The upload to remove
+     * @return True if the upload was waiting and has been removed
+     */
+    synchronized boolean remove(@NotNull TusScheduledUpload upload) {
+        if (!waiting.remove(upload)) {
+            return false;
+        }
+        finished(upload);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Remove all waiting uploads.
+     *
+     * @return The removed uploads in the order of their submission
+     */
+    synchronized List<TusScheduledUpload> drain() {
+        List<TusScheduledUpload> drained = new ArrayList<TusScheduledUpload>();
+        Iterator<TusScheduledUpload> iterator = active.iterator();
+        while (iterator.hasNext()) {
+            TusScheduledUpload upload = iterator.next();
+            if (waiting.remove(upload)) {
+                iterator.remove();
+                policy.uploadRemoved(upload);
+                drained.add(upload);
+            }
+        }
+        notifyAll();
+        return drained;
+    }
+}
@@ -0,0 +1,220 @@
+package io.tus.java.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terminates abandoned uploads and removes them from a {@link TusURLEnumerableStore}, so partial
+ * uploads which will never be finished do not pile up on the server. An upload counts as abandoned
+ * if its entry has not been updated for longer than the maximum age passed to
+ * {@link #reap(long, TimeUnit)}, i.e. neither its URL nor a checkpoint has been stored since.
+ * <br>
+ * The uploads are terminated using {@link TusClient#terminateUpload(URL)}. The DELETE requests are
+ * sent concurrently by up to {@link #getParallelism()} threads and, if a rate has been set using
+ * {@link #setRequestRate(long)}, no faster than that, so the cleanup does not compete with live
+ * uploads for connections and server capacity. Uploads which the server does not know anymore
+ * are removed from the store as well. If terminating an upload fails, its entry is kept, so the
+ * next run tries again.
+ * <br>
+ * The client must not be used for the abandoned uploads while they are reaped, since an upload
+ * which is resumed after it has been listed is terminated nevertheless.
+ */
+public final class TusUploadReaper {
+    private final TusClient client;
+    private final TusURLEnumerableStore store;
+    private final TusBandwidthLimiter limiter = new TusBandwidthLimiter(0, 1);
+    private volatile int parallelism = 4;
+
+    /**
+     * Create a new reaper.
+     *
+     * @param client The client used for terminating the uploads
+     * @param store The store listing the uploads, usually the one passed to
+     *              {@link TusClient#enableResuming(TusURLStore)}
+     */
+    public TusUploadReaper(@NotNull TusClient client, @NotNull TusURLEnumerableStore store) {
+        this.client = client;
+        this.store = store;
+    }
+
+    /**
+     * Set the maximum number of concurrent DELETE requests. The default value is 4.
+     *
+     * @param parallelism Maximum number of concurrent requests
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the maximum number of concurrent DELETE requests.
+     *
+     * @return Maximum number of concurrent requests
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Limit the rate at which DELETE requests are sent, across all threads. This can be changed
+     * while uploads are reaped. By default, the rate is not limited.
+     *
+     * @param requestsPerSecond The maximum number of requests per second or 0 for no limit
+     */
+    public void setRequestRate(long requestsPerSecond) {
+        limiter.setRate(requestsPerSecond);
+    }
+
+    /**
+     * Get the maximum rate at which DELETE requests are sent.
+     *
+     * @return The maximum number of requests per second or 0 if the rate is not limited
+     */
+    public long getRequestRate() {
+        return limiter.getRate();
+    }
+
+    /**
+     * Terminate all uploads whose entries have not been updated for longer than the supplied age
+     * and remove them from the store. This method blocks until all requests have been finished.
+     *
+     * @param maxAge Age after which an upload counts as abandoned
+     * @param unit Unit of the age
+     * @return The outcome for every abandoned upload
+     * @throws InterruptedIOException Thrown if the thread has been interrupted while waiting for
+     * the requests. Uploads which have been terminated so far are removed from the store.
+     */
+    @NotNull
+    public Result reap(long maxAge, @NotNull TimeUnit unit) throws InterruptedIOException {
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("maximum age must not be negative");
+        }
+
+        List<TusURLStoreEntry> entries = store.getEntries(System.currentTimeMillis() - unit.toMillis(maxAge));
+        Result result = new Result();
+        if (entries.isEmpty()) {
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, entries.size()));
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(entries.size());
+        try {
+            for (final TusURLStoreEntry entry : entries) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        limiter.acquire(1);
+                        boolean terminated = client.terminateUpload(entry.getUploadURL());
+                        remove(entry);
+                        return terminated;
+                    }
+                }));
+            }
+
+            for (int i = 0; i < entries.size(); i++) {
+                TusURLStoreEntry entry = entries.get(i);
+                try {
+                    if (futures.get(i).get()) {
+                        result.terminated.add(entry);
+                    } else {
+                        result.gone.add(entry);
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ProtocolException || cause instanceof IOException) {
+                        result.failures.put(entry, (Exception) cause);
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else {
+                        throw (Error) cause;
+                    }
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while reaping uploads");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Remove an entry from the store, unless a new upload URL has been stored for its fingerprint
+     * in the meantime.
+     *
+     * @param entry The entry of the terminated upload
+     */
+    private void remove(@NotNull TusURLStoreEntry entry) {
+        URL current = store.get(entry.getFingerprint());
+        if (current != null && current.toString().equals(entry.getUploadURL().toString())) {
+            store.remove(entry.getFingerprint());
+        }
+    }
+
+    /**
+     * The outcome of {@link #reap(long, TimeUnit)}.
+     */
+    public static final class Result {
+        private final List<TusURLStoreEntry> terminated = new ArrayList<TusURLStoreEntry>();
+        private final List<TusURLStoreEntry> gone = new ArrayList<TusURLStoreEntry>();
+        private final Map<TusURLStoreEntry, Exception> failures = new LinkedHashMap<TusURLStoreEntry, Exception>();
+
+        private Result() {
+        }
+
+        /**
+         * Returns the uploads which have been terminated and removed from the store.
+         *
+         * @return The entries of the uploads
+         */
+        @NotNull
+        public List<TusURLStoreEntry> getTerminated() {
+            return Collections.unmodifiableList(terminated);
+        }
+
+        /**
+         * Returns the uploads which the server did not know anymore and which have been removed
+         * from the store.
+         *
+         * @return The entries of the uploads
+         */
+        @NotNull
+        public List<TusURLStoreEntry> getGone() {
+            return Collections.unmodifiableList(gone);
+        }
+
+        /**
+         * Returns the uploads which could not be terminated and have been kept in the store,
+         * together with the exception which occurred.
+         *
+         * @return The entries of the uploads and the exceptions
+         */
+        @NotNull
+        public Map<TusURLStoreEntry, Exception> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("terminated=%d gone=%d failed=%d", terminated.size(), gone.size(), failures.size());
+        }
+    }
+}
@@ -2,10 +2,9 @@ package io.tus.java.client;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
-import java.net.URLConnection;
+import java.util.Arrays;
 
 /**
  * This class is used for doing the actual upload of the files. Instances are returned by
@@ -21,6 +20,10 @@ import java.net.URLConnection;
  * </ol>
  */
 public class TusUploader {
+    private static final int MAX_CHECKSUM_PAYLOAD_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_CHECKSUM_MISMATCHES = 3;
+    private static final int MAX_ADAPTIVE_STREAM_PAYLOAD_SIZE = 10 * 1024 * 1024;
+
     private URL uploadURL;
     private Proxy proxy;
     private TusInputStream input;
@@ -28,17 +31,33 @@ public class TusUploader {
     private TusClient client;
     private TusUpload upload;
     private byte[] buffer;
+    private TusBufferPool bufferPool;
+    private int chunkSize;
     private int requestPayloadSize = 10 * 1024 * 1024;
     private int bytesRemainingForRequest;
-
-    private HttpURLConnection connection;
+    private TusAdaptiveSizing adaptiveSizing;
+    private long requestStartOffset;
+    private long requestStartTime;
+    private String checksumAlgorithm;
+    private TusChecksum checksum;
+    private byte[] payload;
+    private int payloadLength;
+    private int payloadPosition;
+    private long payloadOffset;
+    private String payloadChecksum;
+    private int checksumMismatches;
+    private TusBandwidthLimiter bandwidthLimiter;
+    private boolean offsetUnconfirmed;
+
+    private TusExchange exchange;
     private OutputStream output;
 
     /**
      * Begin a new upload request by opening a PATCH request to specified upload URL. After this
      * method returns a connection will be ready and you can upload chunks of the file.
      *
-     * @param client Used for preparing a request ({@link TusClient#prepareConnection(HttpURLConnection)}
+     * @param client Used for sending requests ({@link TusClient#getTransport()}) and preparing them
+     *               ({@link TusClient#prepareExchange(TusExchange)})
      * @param upload {@link TusUpload} to be uploaded.
      * @param uploadURL URL to send the request to
      * @param input Stream to read (and seek) from and upload to the remote server
@@ -60,43 +79,64 @@ public class TusUploader {
 
     private void openConnection() throws IOException, ProtocolException {
         // Only open a connection, if we have none open.
-        if (connection != null) {
+        if (exchange != null) {
             return;
         }
 
-        bytesRemainingForRequest = requestPayloadSize;
-        input.mark(requestPayloadSize);
+        beginRequest();
+        openExchange(-1, null);
+    }
 
-        if (proxy != null) {
-            connection = (HttpURLConnection) uploadURL.openConnection(proxy);
-        } else {
-            connection = (HttpURLConnection) uploadURL.openConnection();
+    /**
+     * Mark the current position as the start of the next request's payload, so we can seek back
+     * to it if the request fails.
+     */
+    private void beginRequest() {
+        if (adaptiveSizing != null) {
+            requestPayloadSize = adaptiveSizing.getRequestPayloadSize();
+            setChunkSize(adaptiveSizing.getChunkSize());
+
+            // A stream which cannot seek buffers the whole payload in memory for a retry, so do
+            // not let it grow beyond the default payload size.
+            if (!input.isSeekable() && requestPayloadSize > MAX_ADAPTIVE_STREAM_PAYLOAD_SIZE) {
+                requestPayloadSize = MAX_ADAPTIVE_STREAM_PAYLOAD_SIZE;
+                setChunkSize(Math.min(getChunkSize(), requestPayloadSize));
+            }
         }
-        client.prepareConnection(connection);
-        connection.setRequestProperty("Upload-Offset", Long.toString(offset));
-        connection.setRequestProperty("Content-Type", "application/offset+octet-stream");
-        connection.setRequestProperty("Expect", "100-continue");
 
-        try {
-            connection.setRequestMethod("PATCH");
-            // Check whether we are running on a buggy JRE
-        } catch (java.net.ProtocolException pe) {
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+        bytesRemainingForRequest = requestPayloadSize;
+        input.mark(requestPayloadSize);
+    }
+
+    private void openExchange(long length, String uploadChecksum) throws IOException, ProtocolException {
+        requestStartOffset = offset;
+        requestStartTime = System.nanoTime();
+
+        exchange = client.getTransport().open("PATCH", uploadURL, proxy);
+        client.prepareExchange(exchange);
+        exchange.setRequestHeader("Upload-Offset", Long.toString(offset));
+        exchange.setRequestHeader("Content-Type", "application/offset+octet-stream");
+        exchange.setRequestHeader("Expect", "100-continue");
+        if (uploadChecksum != null) {
+            exchange.setRequestHeader("Upload-Checksum", uploadChecksum);
         }
 
-        connection.setDoOutput(true);
-        connection.setChunkedStreamingMode(0);
         try {
-            output = connection.getOutputStream();
+            output = exchange.openBody(length);
         } catch (java.net.ProtocolException pe) {
             // If we already have a response code available, our expectation using the "Expect: 100-
             // continue" header failed and we should handle this response.
-            if (connection.getResponseCode() != -1) {
+            if (exchange.getResponseCode() != -1) {
                 finish();
             }
 
             throw pe;
+        } finally {
+            // The exchange holds one of the transport's connection slots, which is only returned
+            // once it is closed, e.g. if the connection could not be established.
+            if (output == null) {
+                abortRequest();
+            }
         }
     }
 
@@ -105,12 +145,67 @@ public class TusUploader {
      * much data is uploaded in a single take. When choosing a value for this parameter you need to
      * consider that uploadChunk() will only return once the specified number of bytes has been
      * sent. For slow internet connections this may take a long time. In addition, a buffer with
-     * the chunk size is allocated and kept in memory.
+     * the chunk size is borrowed from the client's {@link TusBufferPool} once the first chunk is
+     * uploaded and kept until {@link #finish()} is called.
      *
      * @param size The new chunk size
      */
     public void setChunkSize(int size) {
-        buffer = new byte[size];
+        chunkSize = size;
+        if (buffer != null && buffer.length < size) {
+            releaseBuffer();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Mark the offset as taken from a checkpoint instead of the server. If the server rejects the
+     * first request because the offset is outdated, the uploader asks the server for the current
+     * offset and continues from there.
+     *
+     * @param unconfirmed True if the offset has not been confirmed by the server
+     */
+    void setOffsetUnconfirmed(boolean unconfirmed) {
+        offsetUnconfirmed = unconfirmed;
+    }
+
+    /**
+     * Use the supplied array for reading chunks instead of allocating a new one. This allows
+     * uploaders which are used one after another, e.g. by a {@link TusUploadManager} worker, to
+     * share a single buffer. The array is ignored if it is smaller than the chunk size.
+     *
+     * @param buffer The array to read chunks into
+     */
+    void setBuffer(byte[] buffer) {
+        releaseBuffer();
+        this.buffer = buffer;
+    }
+
+    /**
+     * Get the buffer for reading chunks, borrowing one from the client's pool if there is none
+     * with the chunk size yet.
+     *
+     * @return The buffer
+     */
+    private byte[] getBuffer() {
+        if (buffer == null || buffer.length < chunkSize) {
+            releaseBuffer();
+            bufferPool = client.getBufferPool();
+            buffer = bufferPool != null ? bufferPool.borrow(chunkSize) : new byte[chunkSize];
+        }
+        return buffer;
+    }
+
+    /**
+     * Return the buffer to the pool it has been borrowed from, if any. A new one is borrowed if
+     * more chunks are uploaded afterwards.
+     */
+    private void releaseBuffer() {
+        if (bufferPool != null) {
+            bufferPool.release(buffer);
+            bufferPool = null;
+            buffer = null;
+        }
     }
 
     /**
@@ -119,7 +214,7 @@ public class TusUploader {
      * @return Current chunk size
      */
     public int getChunkSize() {
-        return buffer.length;
+        return chunkSize;
     }
 
     /**
@@ -135,7 +230,9 @@ public class TusUploader {
      *
      * Be aware that setting a high maximum payload size may result in a high memory usage since
      * tus-java-client usually allocates a buffer with the maximum payload size (this buffer is used
-     * to allow retransmission of lost data if necessary). If the client is running on a memory-
+     * to allow retransmission of lost data if necessary). Uploads created using
+     * {@link TusUpload#TusUpload(java.io.File)} do not need this buffer since they can seek to any
+     * position in the file. If the client is running on a memory-
      * constrained device (e.g. mobile app) and the maximum payload size is too high, it might
      * result in an {@link OutOfMemoryError}.
      *
@@ -149,7 +246,7 @@ public class TusUploader {
      * @throws IllegalStateException Thrown if the uploader currently has a connection open
      */
     public void setRequestPayloadSize(int size) throws IllegalStateException {
-        if (connection != null) {
+        if (exchange != null) {
             throw new IllegalStateException("payload size for a single request must not be "
                     + "modified as long as a request is in progress");
         }
@@ -168,6 +265,93 @@ public class TusUploader {
         return requestPayloadSize;
     }
 
+    /**
+     * Let the chunk size and the request payload size be adjusted to the measured throughput and
+     * failure rate. Before each request, the values are taken from the supplied instance,
+     * overriding the ones set using {@link #setChunkSize(int)} and
+     * {@link #setRequestPayloadSize(int)}. Pass null to keep the current values fixed. If the
+     * input stream cannot seek, the request payload size is capped at 10 MiB, since the payload
+     * of each request is buffered in memory.
+     *
+     * @param adaptiveSizing The instance providing the sizes or null
+     */
+    public void setAdaptiveSizing(TusAdaptiveSizing adaptiveSizing) {
+        this.adaptiveSizing = adaptiveSizing;
+    }
+
+    /**
+     * Get the instance adjusting the chunk size and request payload size.
+     *
+     * @see #setAdaptiveSizing(TusAdaptiveSizing)
+     *
+     * @return The instance providing the sizes or null if they are fixed
+     */
+    public TusAdaptiveSizing getAdaptiveSizing() {
+        return adaptiveSizing;
+    }
+
+    /**
+     * Send an Upload-Checksum header with each request, so the remote server can detect corrupted
+     * data using the Checksum extension. Since the header must be sent before the body, the payload
+     * of each request is read into memory and checksummed in the same pass, which limits the
+     * payload size to 16 MiB. If the server responds with 460 Checksum Mismatch, only this payload
+     * is sent again. Supported algorithms are crc32c (on Java 9 and later), crc32, sha1, md5, sha256
+     * and sha512. Pass null to disable checksums, which is the default.
+     *
+     * This method must not be called when the uploader has currently an open connection to the
+     * remote server.
+     *
+     * @see TusClient#enableChecksums()
+     *
+     * @param algorithm The checksum algorithm, e.g. crc32, or null
+     * @throws IllegalArgumentException Thrown if the algorithm is not supported
+     * @throws IllegalStateException Thrown if the uploader currently has a connection open
+     */
+    public void setChecksumAlgorithm(String algorithm) throws IllegalStateException {
+        if (exchange != null) {
+            throw new IllegalStateException("checksum algorithm must not be modified as long as a request is "
+                    + "in progress");
+        }
+
+        checksum = algorithm != null ? TusChecksum.create(algorithm) : null;
+        checksumAlgorithm = algorithm;
+        payloadLength = 0;
+    }
+
+    /**
+     * Get the algorithm used for the Upload-Checksum header.
+     *
+     * @see #setChecksumAlgorithm(String)
+     *
+     * @return The checksum algorithm or null if checksums are disabled
+     */
+    public String getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    /**
+     * Set the limiter for the rate at which data is uploaded by this uploader. It applies in
+     * addition to the limiter set using {@link TusClient#setBandwidthLimiter(TusBandwidthLimiter)},
+     * so a chunk is only sent once both allow it. Tokens are taken once per chunk, so the chunk
+     * size ({@link #setChunkSize(int)}) determines how smoothly the data is sent.
+     *
+     * @param bandwidthLimiter The limiter or null to remove the limit, which is the default
+     */
+    public void setBandwidthLimiter(TusBandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    /**
+     * Get the limiter for the rate at which data is uploaded by this uploader.
+     *
+     * @see #setBandwidthLimiter(TusBandwidthLimiter)
+     *
+     * @return The limiter or null if none is set
+     */
+    public TusBandwidthLimiter getBandwidthLimiter() {
+        return bandwidthLimiter;
+    }
+
     /**
      * Upload a part of the file by reading a chunk from the InputStream and writing
      * it to the HTTP request's body. If the number of available bytes is lower than the chunk's
@@ -183,32 +367,161 @@ public class TusUploader {
      *                      to the HTTP request.
      */
     public int uploadChunk() throws IOException, ProtocolException {
-        openConnection();
+        // The buffer is returned as soon as the input is exhausted or a request fails, since
+        // callers do not always finish an uploader in these cases, e.g. before retrying.
+        int bytesWritten;
+        try {
+            try {
+                bytesWritten = uploadNextChunk();
+            } catch (IOException e) {
+                if (!offsetUnconfirmed) {
+                    throw e;
+                }
+                // Servers may reject the offset taken from a checkpoint before reading the body,
+                // which aborts the request instead of returning 409. Ask for the current offset
+                // and try again from there.
+                abortRequest();
+                continueFromServerOffset();
+                bytesWritten = uploadNextChunk();
+            }
+            if (bytesWritten == -1 && offsetUnconfirmed && exchange != null) {
+                // A rejected checkpoint would otherwise only be noticed by finish(), which cannot
+                // send the missing data anymore.
+                finishConnection(true);
+                bytesWritten = uploadNextChunk();
+            }
+        } catch (IOException e) {
+            releaseBuffer();
+            abortRequest();
+            discardCheckpoint();
+            throw e;
+        } catch (ProtocolException e) {
+            releaseBuffer();
+            abortRequest();
+            discardCheckpoint();
+            throw e;
+        }
+        if (bytesWritten == -1) {
+            releaseBuffer();
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * Upload the next chunk, using the buffered payload if checksums are enabled.
+     *
+     * @return Number of bytes written or -1 if the input is exhausted
+     */
+    private int uploadNextChunk() throws IOException, ProtocolException {
+        return checksum != null ? uploadChecksummedChunk() : uploadPlainChunk();
+    }
+
+    /**
+     * Read the next chunk from the input and write it to the current request.
+     *
+     * @return Number of bytes written or -1 if the input is exhausted
+     */
+    private int uploadPlainChunk() throws IOException, ProtocolException {
+        if (exchange == null) {
+            beginRequest();
+        }
 
         int bytesToRead = Math.min(getChunkSize(), bytesRemainingForRequest);
+        byte[] chunk = getBuffer();
 
-        int bytesRead = input.read(buffer, bytesToRead);
+        int bytesRead = input.read(chunk, bytesToRead);
         if (bytesRead == -1) {
             // No bytes were read since the input stream is empty
             return -1;
         }
 
+        // The request is only opened once there is data to send. This avoids an empty PATCH
+        // request if everything has already been uploaded, e.g. while creating the upload.
+        if (exchange == null) {
+            openExchange(-1, null);
+        }
+
         // Do not write the entire buffer to the stream since the array will
         // be filled up with 0x00s if the number of read bytes is lower then
         // the chunk's size.
-        output.write(buffer, 0, bytesRead);
-        output.flush();
+        writeToConnection(chunk, 0, bytesRead);
 
         offset += bytesRead;
         bytesRemainingForRequest -= bytesRead;
 
         if (bytesRemainingForRequest <= 0) {
-            finishConnection();
+            finishConnection(true);
         }
 
         return bytesRead;
     }
 
+    /**
+     * Upload the next chunk of the buffered payload. If no request is open, the buffered payload
+     * is sent again (after a checksum mismatch or a failed write) or the next one is read.
+     *
+     * @return Number of bytes written or -1 if the input is exhausted
+     */
+    private int uploadChecksummedChunk() throws IOException, ProtocolException {
+        if (exchange == null) {
+            if (payloadLength == 0) {
+                beginRequest();
+                if (!readPayload()) {
+                    return -1;
+                }
+            }
+
+            offset = payloadOffset;
+            payloadPosition = 0;
+            openExchange(payloadLength, payloadChecksum);
+        }
+
+        int length = Math.min(chunkSize, payloadLength - payloadPosition);
+        writeToConnection(payload, payloadPosition, length);
+
+        offset += length;
+        payloadPosition += length;
+
+        if (payloadPosition == payloadLength) {
+            finishConnection(true);
+        }
+
+        return length;
+    }
+
+    /**
+     * Read the next request's payload into memory and compute its checksum in the same pass.
+     *
+     * @return False if the input is exhausted
+     */
+    private boolean readPayload() throws IOException {
+        int size = Math.min(bytesRemainingForRequest, MAX_CHECKSUM_PAYLOAD_SIZE);
+        byte[] chunk = getBuffer();
+
+        payloadOffset = offset;
+        payloadLength = 0;
+        while (payloadLength < size) {
+            int bytesRead = input.read(chunk, Math.min(chunkSize, size - payloadLength));
+            if (bytesRead == -1) {
+                break;
+            }
+
+            // The payload array grows with the data, so small uploads do not allocate the
+            // maximum payload size.
+            if (payload == null || payload.length < payloadLength + bytesRead) {
+                int capacity = Math.min(size, Math.max(payloadLength + bytesRead, 2 * payloadLength));
+                payload = payload == null ? new byte[capacity] : Arrays.copyOf(payload, capacity);
+            }
+
+            checksum.update(chunk, 0, bytesRead);
+            System.arraycopy(chunk, 0, payload, payloadLength, bytesRead);
+            payloadLength += bytesRead;
+        }
+
+        payloadChecksum = checksum.finish();
+        return payloadLength > 0;
+    }
+
     /**
      * Upload a part of the file by read a chunks specified size from the InputStream and writing
      * it to the HTTP request's body. If the number of available bytes is lower than the chunk's
@@ -247,8 +560,7 @@ public class TusUploader {
         // Do not write the entire buffer to the stream since the array will
         // be filled up with 0x00s if the number of read bytes is lower then
         // the chunk's size.
-        output.write(buf, 0, bytesRead);
-        output.flush();
+        writeToConnection(buf, 0, bytesRead);
 
         offset += bytesRead;
 
@@ -318,7 +630,20 @@ public class TusUploader {
      * @throws IOException  Thrown if an exception occurs while cleaning up.
      */
     public void finish(boolean closeInputStream) throws ProtocolException, IOException {
-        finishConnection();
+        releaseBuffer();
+        if (checksum != null && exchange != null && payloadPosition < payloadLength) {
+            // An incomplete payload would not match its checksum, so the request is discarded.
+            // The payload stays buffered and is sent again if the upload is continued.
+            abort();
+            offset = payloadOffset;
+        }
+
+        try {
+            finishConnection(false);
+        } catch (IOException e) {
+            discardCheckpoint();
+            throw e;
+        }
         if (upload.getSize() == offset) {
             client.uploadFinished(upload);
         }
@@ -330,40 +655,209 @@ public class TusUploader {
         }
     }
 
-    private void finishConnection() throws ProtocolException, IOException {
-        if (output != null) {
-            output.close();
+    /**
+     * Close the current request and verify the server's response.
+     *
+     * @param seekOnOffsetMismatch Whether to continue from the server's offset if it is lower than
+     *                             ours and the input allows seeking to it. This is only useful if
+     *                             more chunks will be uploaded afterwards.
+     */
+    private void finishConnection(boolean seekOnOffsetMismatch) throws ProtocolException, IOException {
+        boolean requestOpen = exchange != null;
+        try {
+            closeRequest(seekOnOffsetMismatch);
+        } catch (ProtocolException e) {
+            requestFinished(requestOpen, false);
+            throw e;
+        } catch (IOException e) {
+            requestFinished(requestOpen, false);
+            throw e;
+        }
+        requestFinished(requestOpen, true);
+    }
+
+    /**
+     * Report the outcome of a request to the adaptive sizing, if enabled.
+     *
+     * @param requestOpen Whether a request has actually been finished
+     * @param succeeded Whether the request was successful
+     */
+    private void requestFinished(boolean requestOpen, boolean succeeded) {
+        if (!requestOpen || adaptiveSizing == null) {
+            return;
+        }
+
+        if (succeeded) {
+            adaptiveSizing.requestSucceeded(offset - requestStartOffset, System.nanoTime() - requestStartTime);
+        } else {
+            adaptiveSizing.requestFailed();
         }
+    }
+
+    private void closeRequest(boolean seekOnOffsetMismatch) throws ProtocolException, IOException {
+        if (exchange != null) {
+            int responseCode = -1;
+            try {
+                if (output != null) {
+                    output.close();
+                }
+                responseCode = exchange.getResponseCode();
+            } finally {
+                // Closing the exchange allows the connection to be reused for the next request,
+                // or releases it if the request failed.
+                output = null;
+                exchange.close();
+                client.reportRequest("PATCH", uploadURL, responseCode, offset - requestStartOffset, requestStartTime);
+            }
 
-        if (connection != null) {
-            int responseCode = connection.getResponseCode();
-            connection.disconnect();
+            if (responseCode == 460 && payloadLength > 0 && checksumMismatches < MAX_CHECKSUM_MISMATCHES) {
+                // The server discarded the payload because its checksum did not match. It is
+                // still buffered, so the next call to uploadChunk() sends it again.
+                checksumMismatches++;
+                offset = payloadOffset;
+                exchange = null;
+                return;
+            }
+
+            if (responseCode == 409 && offsetUnconfirmed && seekOnOffsetMismatch) {
+                // The server rejected the offset taken from the checkpoint, so we have to ask for
+                // the current one like we would have done without the checkpoint.
+                exchange = null;
+                continueFromServerOffset();
+                return;
+            }
 
             if (!(responseCode >= 200 && responseCode < 300)) {
+                discardCheckpoint();
                 throw new ProtocolException("unexpected status code (" + responseCode + ") while uploading chunk",
-                        connection);
+                        exchange);
             }
 
-            // TODO detect changes and seek accordingly
-            long serverOffset = getHeaderFieldLong(connection, "Upload-Offset");
+            long serverOffset = getHeaderFieldLong(exchange, "Upload-Offset");
             if (serverOffset == -1) {
                 throw new ProtocolException("response to PATCH request contains no or invalid Upload-Offset header",
-                        connection);
+                        exchange);
             }
-            if (offset != serverOffset) {
+            if (serverOffset != offset && client.getEventListener() != null) {
+                client.getEventListener().offsetMismatch(uploadURL, offset, serverOffset);
+            }
+            if (seekOnOffsetMismatch && serverOffset < offset && input.isSeekable()) {
+                // The server did not store all bytes we sent. Since our source allows seeking to any
+                // position, we can simply continue from the server's offset in the next request.
+                input.seekTo(serverOffset);
+                offset = serverOffset;
+            } else if (offset != serverOffset) {
                 throw new ProtocolException(
                         String.format("response contains different Upload-Offset value (%d) than expected (%d)",
                                 serverOffset,
                                 offset),
-                        connection);
+                        exchange);
             }
 
-            connection = null;
+            payloadLength = 0;
+            checksumMismatches = 0;
+            exchange = null;
+            offsetUnconfirmed = false;
+            client.recordCheckpoint(upload, uploadURL, offset);
+        }
+    }
+
+    /**
+     * Fetch the server's offset using a HEAD request after it has rejected the offset taken from
+     * a checkpoint, and seek the input to it.
+     */
+    private void continueFromServerOffset() throws ProtocolException, IOException {
+        // If this fails, the checkpoint stays unconfirmed and is discarded by uploadChunk().
+        long serverOffset = client.fetchOffset(uploadURL);
+        if (client.getEventListener() != null) {
+            client.getEventListener().offsetMismatch(uploadURL, requestStartOffset, serverOffset);
+        }
+
+        // Plain streams can only seek back to the start of the rejected request.
+        if (serverOffset < requestStartOffset && !input.isSeekable()) {
+            throw new ProtocolException(String.format(
+                    "server's offset (%d) is lower than the checkpoint (%d) and the input cannot seek back",
+                    serverOffset, requestStartOffset));
+        }
+
+        offsetUnconfirmed = false;
+        input.seekTo(serverOffset);
+        offset = serverOffset;
+        requestStartOffset = serverOffset;
+        payloadLength = 0;
+        checksumMismatches = 0;
+        client.recordCheckpoint(upload, uploadURL, serverOffset);
+    }
+
+    /**
+     * Remove the checkpoint the offset has been taken from if the first request has failed, so
+     * the upload is resumed using a HEAD request the next time.
+     */
+    private void discardCheckpoint() {
+        if (offsetUnconfirmed) {
+            offsetUnconfirmed = false;
+            client.removeCheckpoint(upload);
+        }
+    }
+
+    /**
+     * Returns whether a request has been opened by {@link #uploadChunk()} which has not been
+     * finished yet.
+     *
+     * @return True if the current request accepts more chunks
+     */
+    boolean hasOpenRequest() {
+        return exchange != null;
+    }
+
+    /**
+     * Release the current request without waiting for its response, e.g. after the upload has
+     * been cancelled. The data sent in this request is not taken into account by {@link #getOffset()}
+     * afterwards, so the upload must be resumed using a HEAD request.
+     */
+    void abort() {
+        releaseBuffer();
+        abortRequest();
+    }
+
+    /**
+     * Close the current request, if any, without reading its response.
+     */
+    private void abortRequest() {
+        output = null;
+        if (exchange != null) {
+            exchange.close();
+            exchange = null;
+        }
+    }
+
+    /**
+     * Write to the body of the current request. If that fails, the connection is released since
+     * it cannot be used for any further requests.
+     *
+     * @param buf Buffer containing the data
+     * @param off Offset of the first byte to write
+     * @param length Number of bytes to write
+     */
+    private void writeToConnection(byte[] buf, int off, int length) throws IOException {
+        TusBandwidthLimiter.acquire(client.getBandwidthLimiter(), bandwidthLimiter, length);
+        try {
+            output.write(buf, off, length);
+            output.flush();
+        } catch (IOException e) {
+            output = null;
+            exchange.close();
+            exchange = null;
+            client.reportRequest("PATCH", uploadURL, -1, offset - requestStartOffset, requestStartTime);
+            if (adaptiveSizing != null) {
+                adaptiveSizing.requestFailed();
+            }
+            throw e;
         }
     }
 
-    private long getHeaderFieldLong(URLConnection connection, String field) {
-        String value = connection.getHeaderField(field);
+    private long getHeaderFieldLong(TusExchange exchange, String field) {
+        String value = exchange.getResponseHeader(field);
         if (value == null) {
             return -1;
         }
@@ -0,0 +1,130 @@
+package io.tus.java.client;
+
+import org.junit.Test;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TusAdaptiveSizing}.
+ */
+public class TestTusAdaptiveSizing extends MockServerProvider {
+
+    /**
+     * Tests if the payload size grows additively after fast requests and shrinks multiplicatively after failures.
+     */
+    @Test
+    public void testIncreaseAndDecrease() {
+        TusAdaptiveSizing sizing = new TusAdaptiveSizing(10, 1000, 100, 1000);
+        sizing.setIncreaseStep(50);
+        assertEquals(1000, sizing.getRequestPayloadSize());
+        assertEquals(200, sizing.getChunkSize());
+
+        sizing.requestFailed();
+        assertEquals(500, sizing.getRequestPayloadSize());
+        assertEquals(100, sizing.getChunkSize());
+        assertTrue(sizing.getFailureRate() > 0);
+
+        sizing.requestSucceeded(500, 1000000);
+        assertEquals(550, sizing.getRequestPayloadSize());
+        assertEquals(500 * 1e9 / 1000000, sizing.getThroughput(), 0.001);
+
+        // Requests which did not use the full payload size or were too slow do not grow it.
+        sizing.requestSucceeded(100, 1000000);
+        assertEquals(550, sizing.getRequestPayloadSize());
+        sizing.setTargetRequestDuration(1);
+        sizing.requestSucceeded(550, 2000000);
+        assertEquals(550, sizing.getRequestPayloadSize());
+
+        for (int i = 0; i < 10; i++) {
+            sizing.requestFailed();
+        }
+        assertEquals(100, sizing.getRequestPayloadSize());
+        assertEquals(20, sizing.getChunkSize());
+        assertEquals(11, sizing.getFailedRequests());
+        assertEquals(3, sizing.getSucceededRequests());
+    }
+
+    /**
+     * Tests if the uploader takes the sizes for each request from the adaptive sizing.
+     * @throws Exception
+     */
+    @Test
+    public void testUploaderUsesAdaptiveSizes() throws Exception {
+        byte[] content = "hello world".getBytes();
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/adaptive")
+                .withHeader("Upload-Offset", "0")
+                .withBody("hello wo".getBytes()))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "8"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/adaptive")
+                .withHeader("Upload-Offset", "8")
+                .withBody("rld".getBytes()))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusAdaptiveSizing sizing = new TusAdaptiveSizing(2, 100, 4, 8);
+        TusClient client = new TusClient();
+        TusUpload upload = new TusUpload();
+        upload.setSize(content.length);
+        TusUploader uploader = new TusUploader(client, upload, new URL(mockServerURL + "/adaptive"),
+                new TusInputStream(new ByteArrayInputStream(content)), 0);
+        uploader.setAdaptiveSizing(sizing);
+
+        while (uploader.uploadChunk() > -1) {
+            assertEquals(2, uploader.getChunkSize());
+            assertEquals(8, uploader.getRequestPayloadSize());
+        }
+        uploader.finish();
+
+        assertEquals(11, uploader.getOffset());
+        assertEquals(2, sizing.getSucceededRequests());
+        assertEquals(0, sizing.getFailedRequests());
+    }
+
+    /**
+     * Tests if the payload size of a stream-backed upload does not grow beyond 10 MiB, since the
+     * payload is buffered in memory until the request has succeeded.
+     * @throws Exception
+     */
+    @Test
+    public void testStreamPayloadSizeIsCapped() throws Exception {
+        int maxStreamPayloadSize = 10 * 1024 * 1024;
+        byte[] content = new byte[maxStreamPayloadSize + 1024];
+
+        TusTestServer server = new TusTestServer();
+        try {
+            TusClient client = new TusClient();
+            client.setUploadCreationURL(server.getUploadCreationURL());
+            TusAdaptiveSizing sizing = new TusAdaptiveSizing(1024, 16 * 1024 * 1024,
+                    32 * 1024 * 1024, 64 * 1024 * 1024);
+            TusUploader uploader = client.createUpload(TusTestServer.createUpload(content, null));
+            uploader.setAdaptiveSizing(sizing);
+
+            while (uploader.uploadChunk() > -1) {
+                assertEquals(maxStreamPayloadSize, uploader.getRequestPayloadSize());
+                assertTrue(uploader.getChunkSize() <= maxStreamPayloadSize);
+            }
+            uploader.finish();
+
+            assertEquals(content.length, server.getOffset(uploader.getUploadURL()));
+            assertEquals(2, server.getRequestCount("PATCH"));
+            assertEquals(32 * 1024 * 1024, sizing.getRequestPayloadSize());
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusBandwidthLimiter}.
+ */
+public class TestTusBandwidthLimiter {
+
+    /**
+     * Tests if the burst is available immediately and further bytes have to be waited for.
+     */
+    @Test
+    public void testReserve() {
+        TusBandwidthLimiter limiter = new TusBandwidthLimiter(1024 * 1024, 100 * 1024);
+        assertEquals(100 * 1024, limiter.getBurstSize());
+
+        assertEquals(0, limiter.reserve(100 * 1024));
+
+        // 512 KiB at 1 MiB/s take half a second, minus what has been refilled in the meantime.
+        long wait = limiter.reserve(512 * 1024);
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(400));
+        assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(500));
+
+        // The debt has to be paid by the next caller as well.
+        assertTrue(limiter.reserve(1) >= wait - TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    /**
+     * Tests if the rate can be changed and removed at runtime.
+     */
+    @Test
+    public void testSetRate() {
+        TusBandwidthLimiter limiter = new TusBandwidthLimiter(1024 * 1024);
+        assertEquals(1024 * 1024, limiter.getRate());
+        assertEquals(1024 * 1024 / 10, limiter.getBurstSize());
+
+        limiter.setRate(1024);
+        assertEquals(1024, limiter.getRate());
+        assertEquals(64 * 1024, limiter.getBurstSize());
+
+        assertEquals(0, limiter.reserve(64 * 1024));
+        assertTrue(limiter.reserve(1024) > TimeUnit.MILLISECONDS.toNanos(900));
+
+        limiter.setRate(0);
+        assertEquals(0, limiter.reserve(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Tests if an uploader is limited by its own limiter as well as the client's one, which can be
+     * shared between clients.
+     * @throws Exception
+     */
+    @Test
+    public void testUpload() throws Exception {
+        byte[] content = new byte[256 * 1024];
+        new Random(0).nextBytes(content);
+
+        TusBandwidthLimiter shared = new TusBandwidthLimiter(0);
+        TusTestServer server = new TusTestServer();
+        try {
+            TusClient client = new TusClient();
+            client.setUploadCreationURL(server.getUploadCreationURL());
+            client.setBandwidthLimiter(shared);
+            assertEquals(shared, client.getBandwidthLimiter());
+
+            // The global limit is lifted, so only the upload's own limit applies: 256 KiB at
+            // 512 KiB/s with a burst of 64 KiB take at least 375 ms.
+            TusUploader uploader = createUploader(client, content);
+            uploader.setBandwidthLimiter(new TusBandwidthLimiter(512 * 1024, 64 * 1024));
+            long duration = upload(uploader);
+            assertTrue(duration >= TimeUnit.MILLISECONDS.toNanos(350));
+            assertArrayEquals(content, server.getContent(uploader.getUploadURL()));
+
+            // Now the shared limit is lower and takes precedence.
+            TusClient other = new TusClient();
+            other.setUploadCreationURL(server.getUploadCreationURL());
+            other.setBandwidthLimiter(shared);
+            shared.setRate(256 * 1024);
+            uploader = createUploader(other, content);
+            uploader.setBandwidthLimiter(new TusBandwidthLimiter(10 * 1024 * 1024));
+            duration = upload(uploader);
+            assertTrue(duration >= TimeUnit.MILLISECONDS.toNanos(700));
+            assertArrayEquals(content, server.getContent(uploader.getUploadURL()));
+        } finally {
+            server.close();
+        }
+    }
+
+    private TusUploader createUploader(TusClient client, byte[] content) throws Exception {
+        TusUpload upload = new TusUpload();
+        upload.setSize(content.length);
+        upload.setInputStream(new ByteArrayInputStream(content));
+        TusUploader uploader = client.createUpload(upload);
+        uploader.setChunkSize(16 * 1024);
+        return uploader;
+    }
+
+    private long upload(TusUploader uploader) throws Exception {
+        long start = System.nanoTime();
+        while (uploader.uploadChunk() > -1) {
+            assertTrue(uploader.getOffset() > 0);
+        }
+        uploader.finish();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Tests if an interrupted thread stops waiting.
+     * @throws Exception
+     */
+    @Test(expected = InterruptedIOException.class)
+    public void testInterrupt() throws Exception {
+        TusBandwidthLimiter limiter = new TusBandwidthLimiter(1024, 1024);
+        limiter.acquire(1024);
+        Thread.currentThread().interrupt();
+        try {
+            limiter.acquire(1024 * 1024);
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    /**
+     * Tests if the uploader accepts a limiter before a connection has been opened.
+     * @throws Exception
+     */
+    @Test
+    public void testUploaderLimiter() throws Exception {
+        TusUploader uploader = new TusUploader(new TusClient(), new TusUpload(), new URL("http://localhost/foo"),
+                new TusInputStream(new ByteArrayInputStream(new byte[0])), 0);
+        TusBandwidthLimiter limiter = new TusBandwidthLimiter(1024);
+        uploader.setBandwidthLimiter(limiter);
+        assertEquals(limiter, uploader.getBandwidthLimiter());
+    }
+}
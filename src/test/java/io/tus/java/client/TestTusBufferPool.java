@@ -0,0 +1,245 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusBufferPool}.
+ */
+public class TestTusBufferPool {
+
+    /**
+     * Tests if buffers are rounded up to their size class and returned buffers are reused.
+     */
+    @Test
+    public void testBorrowRelease() {
+        TusBufferPool pool = new TusBufferPool(1024 * 1024);
+        byte[] buffer = pool.borrow(3000);
+        assertEquals(4096, buffer.length);
+        assertEquals(1, pool.getOutstandingBuffers());
+
+        pool.release(buffer);
+        assertEquals(0, pool.getOutstandingBuffers());
+        assertEquals(4096, pool.getPooledBytes());
+        assertSame(buffer, pool.borrow(4096));
+        assertEquals(0, pool.getPooledBytes());
+
+        byte[] other = pool.borrow(4097);
+        assertEquals(8192, other.length);
+        pool.release(other);
+        pool.release(buffer);
+        assertSame(buffer, pool.borrow(100));
+        assertSame(other, pool.borrow(5000));
+
+        // Buffers larger than the largest size class are allocated with their exact size.
+        byte[] large = pool.borrow(64 * 1024 * 1024 + 1);
+        assertEquals(64 * 1024 * 1024 + 1, large.length);
+        pool.release(large);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    /**
+     * Tests if the pool holds no more than its maximum, including the buffers kept by threads.
+     */
+    @Test
+    public void testMaxPooledBytes() {
+        TusBufferPool pool = new TusBufferPool(12 * 1024);
+        byte[] first = pool.borrow(8192);
+        byte[] second = pool.borrow(8192);
+        byte[] third = pool.borrow(4096);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(12 * 1024, pool.getPooledBytes());
+
+        assertSame(first, pool.borrow(8192));
+        assertNotSame(second, pool.borrow(8192));
+
+        pool.clear();
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    /**
+     * Tests if buffers kept by other threads are taken once the shared buffers are used up and
+     * the buffers of terminated threads are dropped.
+     * @throws Exception
+     */
+    @Test
+    public void testThreads() throws Exception {
+        final TusBufferPool pool = new TusBufferPool(8192);
+        final byte[][] buffers = new byte[2][];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                buffers[0] = pool.borrow(4096);
+                buffers[1] = pool.borrow(4096);
+                pool.release(buffers[0]);
+                pool.release(buffers[1]);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(8192, pool.getPooledBytes());
+
+        // One buffer has been kept by the thread, the other one has been shared, and once the
+        // thread is gone, the pool makes room for new buffers.
+        byte[] shared = pool.borrow(4096);
+        assertTrue(shared == buffers[0] || shared == buffers[1]);
+        pool.release(pool.borrow(8192));
+        assertEquals(8192, pool.getPooledBytes());
+        pool.release(shared);
+        assertEquals(8192, pool.getPooledBytes());
+    }
+
+    /**
+     * Tests if the caches of terminated threads are pruned while new threads start using the
+     * pool, even if no thread runs out of buffers.
+     * @throws Exception
+     */
+    @Test
+    public void testShortLivedThreads() throws Exception {
+        final TusBufferPool pool = new TusBufferPool(1024 * 1024);
+        for (int i = 0; i < 200; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    pool.release(pool.borrow(4096));
+                }
+            });
+            thread.start();
+            thread.join();
+            assertTrue(pool.getThreadCacheCount() <= 16);
+        }
+        assertTrue(pool.getPooledBytes() <= 16 * 4096);
+        assertEquals(0, pool.getOutstandingBuffers());
+    }
+
+    /**
+     * Tests if direct buffers are pooled separately and cleared before being borrowed.
+     */
+    @Test
+    public void testDirect() {
+        TusBufferPool pool = new TusBufferPool(1024 * 1024);
+        ByteBuffer buffer = pool.borrowDirect(10000);
+        assertTrue(buffer.isDirect());
+        assertEquals(16384, buffer.capacity());
+        buffer.putInt(42).flip();
+        pool.release(buffer);
+
+        assertEquals(16384, pool.borrow(16384).length);
+        ByteBuffer reused = pool.borrowDirect(16384);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(16384, reused.limit());
+    }
+
+    /**
+     * Tests if leak detection reports where outstanding buffers have been borrowed and rejects
+     * buffers which are returned twice.
+     */
+    @Test
+    public void testLeakDetection() {
+        TusBufferPool pool = new TusBufferPool(1024 * 1024);
+        pool.setLeakDetection(true);
+        byte[] buffer = pool.borrow(4096);
+
+        try {
+            pool.checkLeaks();
+            fail("expected the outstanding buffer to be reported");
+        } catch (IllegalStateException e) {
+            assertNotNull(e.getCause());
+            boolean found = false;
+            for (StackTraceElement element : e.getCause().getStackTrace()) {
+                found |= element.getMethodName().equals("testLeakDetection");
+            }
+            assertTrue(found);
+        }
+
+        pool.release(buffer);
+        pool.checkLeaks();
+        try {
+            pool.release(buffer);
+            fail("expected the second release to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, pool.getOutstandingBuffers());
+        }
+    }
+
+    /**
+     * Tests if leak detection cannot be enabled while buffers are borrowed.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testLeakDetectionOutstanding() {
+        TusBufferPool pool = new TusBufferPool(1024 * 1024);
+        pool.borrow(4096);
+        pool.setLeakDetection(true);
+    }
+
+    /**
+     * Tests if uploaders return their buffers after finishing and failing, so retries reuse them.
+     * @throws Exception
+     */
+    @Test
+    public void testUploads() throws Exception {
+        byte[] content = new byte[300 * 1024];
+        new Random(0).nextBytes(content);
+
+        TusBufferPool pool = new TusBufferPool(1024 * 1024);
+        pool.setLeakDetection(true);
+        TusTestServer server = new TusTestServer();
+        try {
+            TusClient client = new TusClient();
+            client.setUploadCreationURL(server.getUploadCreationURL());
+            client.setBufferPool(pool);
+            assertSame(pool, client.getBufferPool());
+
+            TusUploader uploader = createUploader(client, content);
+            while (uploader.uploadChunk() > -1) {
+                assertEquals(1, pool.getOutstandingBuffers());
+            }
+            uploader.finish();
+            pool.checkLeaks();
+            assertEquals(64 * 1024, pool.getPooledBytes());
+            assertArrayEquals(content, server.getContent(uploader.getUploadURL()));
+
+            // The failed request returns the buffer without the uploader being finished.
+            server.dropConnections(1, 100 * 1024);
+            uploader = createUploader(client, content);
+            try {
+                while (uploader.uploadChunk() > -1) {
+                    assertEquals(1, pool.getOutstandingBuffers());
+                }
+                fail("expected the request to fail");
+            } catch (IOException e) {
+                pool.checkLeaks();
+            } catch (ProtocolException e) {
+                pool.checkLeaks();
+            }
+            assertEquals(64 * 1024, pool.getPooledBytes());
+        } finally {
+            server.close();
+        }
+    }
+
+    private TusUploader createUploader(TusClient client, byte[] content) throws Exception {
+        TusUpload upload = new TusUpload();
+        upload.setSize(content.length);
+        upload.setInputStream(new ByteArrayInputStream(content));
+        TusUploader uploader = client.createUpload(upload);
+        uploader.setChunkSize(64 * 1024);
+        uploader.setRequestPayloadSize(128 * 1024);
+        return uploader;
+    }
+}
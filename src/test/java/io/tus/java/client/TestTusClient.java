@@ -1,20 +1,32 @@
 package io.tus.java.client;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.Proxy.Type;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.mockserver.matchers.Times;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.VerificationTimes;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -552,4 +564,461 @@ public class TestTusClient extends MockServerProvider {
         assertNull(store.get("fingerprint"));
 
     }
+
+    /**
+     * Tests if {@link TusClient#uploadParallel(TusUpload, int)} uploads every range as a partial upload
+     * and concatenates them afterwards.
+     * @throws Exception
+     */
+    @Test
+    public void testUploadParallel() throws Exception {
+        byte[] content = "hello world".getBytes();
+        File file = File.createTempFile("tus-parallel-test", ".tmp");
+        OutputStream output = new FileOutputStream(file);
+        output.write(content);
+        output.close();
+
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Concat", "partial")
+                .withHeader("Upload-Length", "6"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/part1"));
+
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Concat", "partial")
+                .withHeader("Upload-Length", "5"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/part2"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/part1")
+                .withHeader("Upload-Offset", "0")
+                .withBody(Arrays.copyOfRange(content, 0, 6)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "6"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/part2")
+                .withHeader("Upload-Offset", "0")
+                .withBody(Arrays.copyOfRange(content, 6, 11)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "5"));
+
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Concat", "final;" + mockServerURL + "/part1 " + mockServerURL + "/part2"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/final"));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        TusURLStore store = new TusURLMemoryStore();
+        client.enableResuming(store);
+
+        TusUpload upload = new TusUpload(file);
+        URL finalURL = client.uploadParallel(upload, 2);
+
+        assertEquals(new URL(mockServerURL + "/final"), finalURL);
+        assertEquals(finalURL, store.get(upload.getFingerprint()));
+        assertEquals(new URL(mockServerURL + "/part2"), store.get(upload.getFingerprint() + "-partial-6-5"));
+    }
+
+    /**
+     * Tests if {@link TusClient#uploadParallel(TusUpload, int)} rejects uploads which are not backed by a file.
+     * @throws Exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUploadParallelRequiresFile() throws Exception {
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        TusUpload upload = new TusUpload();
+        upload.setSize(10);
+        upload.setInputStream(new ByteArrayInputStream(new byte[10]));
+
+        client.uploadParallel(upload, 2);
+    }
+
+    /**
+     * Tests if all requests of a client and its uploaders are sent using the configured transport.
+     * @throws Exception
+     */
+    @Test
+    public void testSetTransport() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Length", "3"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/transport"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/transport")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Offset", "0"))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "3"));
+
+        final List<String> methods = new ArrayList<String>();
+        TusClient client = new TusClient();
+        assertTrue(client.getTransport() instanceof TusURLConnectionTransport);
+        client.setTransport(new TusURLConnectionTransport() {
+            @Override
+            public TusExchange open(String method, URL url, Proxy proxy) throws IOException {
+                methods.add(method);
+                return super.open(method, url, proxy);
+            }
+        });
+        client.setUploadCreationURL(mockServerURL);
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(3);
+        upload.setInputStream(new ByteArrayInputStream(new byte[3]));
+        TusUploader uploader = client.createUpload(upload);
+        assertEquals(3, uploader.uploadChunk());
+        uploader.finish();
+
+        assertEquals(Arrays.asList("POST", "PATCH"), methods);
+    }
+
+    /**
+     * Tests if {@link TusClient#createUpload(TusUpload)} sends the entire upload in the creation request if the
+     * Creation With Upload extension is enabled, so no further request is needed.
+     * @throws Exception
+     */
+    @Test
+    public void testCreateUploadWithUpload() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Length", "11")
+                .withHeader("Content-Type", "application/offset+octet-stream")
+                .withBody("hello world".getBytes()))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/withupload")
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        assertFalse(client.creationWithUploadEnabled());
+        client.enableCreationWithUpload();
+        assertTrue(client.creationWithUploadEnabled());
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(11);
+        upload.setInputStream(new ByteArrayInputStream("hello world".getBytes()));
+        TusUploader uploader = client.createUpload(upload);
+
+        assertEquals(new URL(mockServerURL + "/withupload"), uploader.getUploadURL());
+        assertEquals(11, uploader.getOffset());
+        assertEquals(-1, uploader.uploadChunk());
+        uploader.finish();
+
+        mockServer.verify(new HttpRequest().withPath("/files/withupload"), VerificationTimes.exactly(0));
+    }
+
+    /**
+     * Tests if the uploader continues at the offset accepted by the server if only a part of the upload has been
+     * sent in the creation request.
+     * @throws Exception
+     */
+    @Test
+    public void testCreateUploadWithPartialUpload() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Upload-Length", "11")
+                .withBody("hello".getBytes()))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/withupload")
+                        .withHeader("Upload-Offset", "3"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/withupload")
+                .withHeader("Upload-Offset", "3")
+                .withBody("lo world".getBytes()))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        client.enableCreationWithUpload();
+        client.setCreationWithUploadPayloadSize(5);
+        assertEquals(5, client.getCreationWithUploadPayloadSize());
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(11);
+        upload.setInputStream(new ByteArrayInputStream("hello world".getBytes()));
+        TusUploader uploader = client.createUpload(upload);
+
+        assertEquals(3, uploader.getOffset());
+        assertEquals(8, uploader.uploadChunk());
+        assertEquals(-1, uploader.uploadChunk());
+        uploader.finish();
+        assertEquals(11, uploader.getOffset());
+    }
+
+    /**
+     * Tests if {@link TusClient#uploadAsync(TusUpload, java.util.concurrent.Executor)} creates and uploads a file
+     * and retries failed requests.
+     * @throws Exception
+     */
+    @Test
+    public void testUploadAsync() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Upload-Length", "11"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/async"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/async")
+                .withHeader("Upload-Offset", "0"), Times.once())
+                .respond(new HttpResponse()
+                        .withStatusCode(500));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/async")
+                .withHeader("Upload-Offset", "0")
+                .withBody("hello world".getBytes()))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(11);
+        upload.setInputStream(new ByteArrayInputStream("hello world".getBytes()));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            URL uploadURL = client.uploadAsync(upload, executor, new int[]{10}).get(10, TimeUnit.SECONDS);
+            assertEquals(new URL(mockServerURL + "/async"), uploadURL);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests if the future returned by {@link TusClient#uploadAsync(TusUpload, java.util.concurrent.Executor)}
+     * fails without retrying if the server responds with a status code which does not allow a retry.
+     * @throws Exception
+     */
+    @Test
+    public void testUploadAsyncFailure() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files"))
+                .respond(new HttpResponse()
+                        .withStatusCode(403));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(11);
+        upload.setInputStream(new ByteArrayInputStream("hello world".getBytes()));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            client.uploadAsync(upload, executor).get(10, TimeUnit.SECONDS);
+            fail("expected upload to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ProtocolException);
+            assertEquals(403, ((ProtocolException) e.getCause()).getCausingExchange().getResponseCode());
+        } finally {
+            executor.shutdownNow();
+        }
+        mockServer.verify(new HttpRequest().withPath("/files"), VerificationTimes.exactly(1));
+    }
+
+    /**
+     * Tests if the expiration announced by the server is passed to stores supporting it.
+     * @throws Exception
+     */
+    @Test
+    public void testCreateUploadWithExpiration() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/expiring")
+                        .withHeader("Upload-Expires", "Wed, 25 Jun 2014 16:00:00 GMT"));
+
+        final long[] expiresAt = new long[1];
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        client.enableResuming(new TusURLExpiringStore() {
+            @Override
+            public void set(String fingerprint, URL url, long expires) {
+                expiresAt[0] = expires;
+            }
+
+            @Override
+            public void set(String fingerprint, URL url) {
+                fail("expected expiration to be passed");
+            }
+
+            @Override
+            public URL get(String fingerprint) {
+                return null;
+            }
+
+            @Override
+            public void remove(String fingerprint) {
+            }
+        });
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(10);
+        upload.setInputStream(new ByteArrayInputStream(new byte[10]));
+        client.createUpload(upload);
+
+        assertEquals(1403712000000L, expiresAt[0]);
+        assertEquals(-1, TusClient.parseExpires("tomorrow"));
+        assertEquals(-1, TusClient.parseExpires(null));
+    }
+
+    /**
+     * Tests if the checksum algorithm is negotiated with the server before creating uploaders.
+     * @throws IOException if upload data cannot be read.
+     * @throws ProtocolException if the upload cannot be constructed.
+     */
+    @Test
+    public void testEnableChecksums() throws IOException, ProtocolException {
+        mockServer.when(new HttpRequest()
+                .withMethod("OPTIONS")
+                .withPath("/files"), Times.once())
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Tus-Extension", "creation,checksum")
+                        .withHeader("Tus-Checksum-Algorithm", "md5,sha1,crc32"));
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/foo"));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        assertFalse(client.checksumsEnabled());
+        client.enableChecksums();
+        assertTrue(client.checksumsEnabled());
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(10);
+        upload.setInputStream(new ByteArrayInputStream(new byte[10]));
+        assertEquals("crc32", client.createUpload(upload).getChecksumAlgorithm());
+        assertEquals("crc32", client.createUpload(upload).getChecksumAlgorithm());
+        mockServer.verify(new HttpRequest().withMethod("OPTIONS").withPath("/files"), VerificationTimes.once());
+
+        client.enableChecksums("sha256");
+        assertEquals("sha256", client.createUpload(upload).getChecksumAlgorithm());
+
+        client.disableChecksums();
+        assertEquals(null, client.createUpload(upload).getChecksumAlgorithm());
+    }
+
+    /**
+     * Tests if the event listener is notified about created uploads and the requests sent for them.
+     * @throws IOException if upload data cannot be read.
+     * @throws ProtocolException if the upload cannot be constructed.
+     */
+    @Test
+    public void testEventListener() throws IOException, ProtocolException {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/events"));
+        mockServer.when(new HttpRequest()
+                .withPath("/files/events")
+                .withHeader("Upload-Offset", "0"))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "8"));
+
+        final List<String> events = new ArrayList<String>();
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+        client.setEventListener(new TusEventListener() {
+            @Override
+            public void requestFinished(String method, URL url, int statusCode, long bytesSent,
+                                        long durationNanos) {
+                assertTrue(durationNanos >= 0);
+                events.add(method + " " + url.getPath() + " " + statusCode + " " + bytesSent);
+            }
+
+            @Override
+            public void uploadCreated(TusUpload upload, URL uploadURL, long offset) {
+                events.add("created " + uploadURL.getPath() + " " + offset);
+            }
+
+            @Override
+            public void offsetMismatch(URL uploadURL, long expectedOffset, long serverOffset) {
+                events.add("mismatch " + expectedOffset + " " + serverOffset);
+            }
+        });
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(10);
+        upload.setInputStream(new ByteArrayInputStream(new byte[10]));
+        TusUploader uploader = client.createUpload(upload);
+        assertEquals(10, uploader.uploadChunk());
+        try {
+            uploader.finish(false);
+            fail("expected the offset mismatch to be reported");
+        } catch (ProtocolException e) {
+            // The server accepted fewer bytes than the uploader sent.
+        }
+
+        assertEquals(Arrays.asList(
+                "POST /files 201 0",
+                "created /files/events 0",
+                "PATCH /files/events 204 10",
+                "mismatch 10 8"), events);
+    }
 }
@@ -0,0 +1,137 @@
+package io.tus.java.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test class for {@link TusContentFingerprinter}.
+ */
+public class TestTusContentFingerprinter {
+    /**
+     * Tests if files with the same content have the same fingerprint, regardless of their path.
+     * @throws IOException
+     */
+    @Test
+    public void testSameContent() throws IOException {
+        TusContentFingerprinter fingerprinter = new TusContentFingerprinter();
+        File first = createFile("hello world".getBytes());
+        File second = createFile("hello world".getBytes());
+        File other = createFile("hello wordl".getBytes());
+
+        assertEquals(fingerprinter.fingerprint(first), fingerprinter.fingerprint(second));
+        assertNotEquals(fingerprinter.fingerprint(first), fingerprinter.fingerprint(other));
+    }
+
+    /**
+     * Tests if fingerprints are cached until the file is modified.
+     * @throws IOException
+     */
+    @Test
+    public void testCache() throws IOException {
+        TusContentFingerprinter fingerprinter = new TusContentFingerprinter();
+        File file = createFile("hello world".getBytes());
+
+        String fingerprint = fingerprinter.fingerprint(file);
+        assertEquals(fingerprint, fingerprinter.fingerprint(file));
+        assertEquals(1, fingerprinter.getCacheMissCount());
+        assertEquals(1, fingerprinter.getCacheHitCount());
+
+        // Rewrite the file with different content of the same size.
+        OutputStream output = new FileOutputStream(file);
+        output.write("hello wordl".getBytes());
+        output.close();
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+        assertNotEquals(fingerprint, fingerprinter.fingerprint(file));
+        assertEquals(2, fingerprinter.getCacheMissCount());
+    }
+
+    /**
+     * Tests if hashing the segments of a large file in parallel results in the same fingerprint
+     * as hashing them in the calling thread only.
+     * @throws IOException
+     */
+    @Test
+    public void testParallelSegments() throws IOException {
+        byte[] content = new byte[TusContentFingerprinter.SEGMENT_SIZE * 2 + 1234];
+        new Random(42).nextBytes(content);
+        File file = createFile(content);
+
+        TusContentFingerprinter sequential = new TusContentFingerprinter();
+        sequential.setExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // Never run any task, so the calling thread has to hash all segments.
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            TusContentFingerprinter parallel = new TusContentFingerprinter();
+            parallel.setExecutor(executor);
+            assertEquals(sequential.fingerprint(file), parallel.fingerprint(file));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests if sampled fingerprints only depend on the sampled blocks and the file's size.
+     * @throws IOException
+     */
+    @Test
+    public void testSamples() throws IOException {
+        byte[] content = new byte[1000];
+        new Random(42).nextBytes(content);
+        File file = createFile(content);
+        TusContentFingerprinter fingerprinter = new TusContentFingerprinter(3, 10);
+        String fingerprint = fingerprinter.fingerprint(file);
+
+        // Blocks are sampled at 0, 495 and 990, so changing a byte in between is not noticed.
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(100);
+        raf.write(content[100] + 1);
+        assertEquals(fingerprint, new TusContentFingerprinter(3, 10).fingerprint(file));
+
+        raf.seek(999);
+        raf.write(content[999] + 1);
+        raf.close();
+        assertNotEquals(fingerprint, new TusContentFingerprinter(3, 10).fingerprint(file));
+    }
+
+    /**
+     * Tests if uploads use the supplied fingerprinter.
+     * @throws IOException
+     */
+    @Test
+    public void testTusUpload() throws IOException {
+        File file = createFile("hello world".getBytes());
+        TusContentFingerprinter fingerprinter = new TusContentFingerprinter();
+
+        TusUpload upload = new TusUpload(file, fingerprinter);
+        assertEquals(fingerprinter.fingerprint(file), upload.getFingerprint());
+        assertEquals(new TusPathFingerprinter().fingerprint(file), new TusUpload(file).getFingerprint());
+    }
+
+    private static File createFile(byte[] content) throws IOException {
+        File file = File.createTempFile("tus-fingerprint-test", ".tmp");
+        file.deleteOnExit();
+        OutputStream output = new FileOutputStream(file);
+        output.write(content);
+        output.close();
+        return file;
+    }
+}
@@ -143,6 +143,35 @@ public class TestTusExecutor {
         }
     }
 
+    /**
+     * Tests if the event listener is notified about each retry.
+     * @throws Exception
+     */
+    @Test
+    public void testEventListener() throws Exception {
+        CountingExecutor exec = new CountingExecutor() {
+            @Override
+            protected void makeAttempt() throws ProtocolException, IOException {
+                super.makeAttempt();
+                if (getCalls() < 3) {
+                    throw new IOException("something happened");
+                }
+            }
+        };
+
+        final StringBuilder events = new StringBuilder();
+        exec.setEventListener(new TusEventListener() {
+            @Override
+            public void retryScheduled(int attempt, long delayMillis, Exception cause) {
+                events.append(attempt).append(':').append(delayMillis).append(' ');
+            }
+        });
+
+        exec.setDelays(new int[]{1, 2, 3});
+        assertTrue(exec.makeAttempts());
+        assertEquals("1:1 2:2 ", events.toString());
+    }
+
     /**
      * A mocked HttpURLConnection which always returns the specified response code.
      */
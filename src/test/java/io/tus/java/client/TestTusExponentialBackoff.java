@@ -0,0 +1,227 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusExponentialBackoff}.
+ */
+public class TestTusExponentialBackoff {
+
+    /**
+     * Tests if the delays are jittered below an exponentially growing bound.
+     */
+    @Test
+    public void testBackoff() {
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(100);
+        policy.setMaxDelay(1000);
+        policy.setMaxRetries(6);
+        IOException cause = new IOException();
+
+        long[] bounds = {100, 200, 400, 800, 1000, 1000};
+        boolean jittered = false;
+        for (int i = 0; i < 100; i++) {
+            for (int attempt = 1; attempt <= bounds.length; attempt++) {
+                long delay = policy.getDelay("example.org", attempt, 0, cause);
+                assertTrue(delay >= 0 && delay <= bounds[attempt - 1]);
+                jittered |= delay != policy.getDelay("example.org", attempt, 0, cause);
+            }
+        }
+        assertTrue(jittered);
+        assertEquals(-1, policy.getDelay("example.org", 7, 0, cause));
+    }
+
+    /**
+     * Tests if no retries are made after the maximum elapsed time.
+     */
+    @Test
+    public void testMaxElapsedTime() {
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(0);
+        policy.setMaxElapsedTime(1000);
+
+        assertEquals(0, policy.getDelay(null, 1, 999, new IOException()));
+        assertEquals(-1, policy.getDelay(null, 2, 1001, new IOException()));
+    }
+
+    /**
+     * Tests if the Retry-After header is honored in both of its formats and allows retrying
+     * responses with status 429.
+     * @throws Exception
+     */
+    @Test
+    public void testRetryAfter() throws Exception {
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(0);
+
+        ProtocolException tooManyRequests = new ProtocolException("slow down", new MockHttpURLConnection(429, "3"));
+        assertFalse(tooManyRequests.shouldRetry());
+        assertTrue(policy.shouldRetry(tooManyRequests));
+        assertEquals(3000, policy.getDelay(null, 1, 0, tooManyRequests));
+
+        String date = ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        ProtocolException unavailable = new ProtocolException("unavailable", new MockHttpURLConnection(503, date));
+        long delay = policy.getDelay(null, 1, 0, unavailable);
+        assertTrue(delay > 55 * 1000 && delay <= 60 * 1000);
+
+        assertFalse(policy.shouldRetry(new ProtocolException("gone", new MockHttpURLConnection(429, null))));
+        assertFalse(policy.shouldRetry(new ProtocolException("not found", new MockHttpURLConnection(404, "1"))));
+    }
+
+    /**
+     * Tests if the retry budget stops retries once half of a host's tokens have been used and is
+     * refilled by successful attempts.
+     */
+    @Test
+    public void testRetryBudget() {
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(0);
+        policy.setRetryBudget(4, 0.5);
+        IOException cause = new IOException();
+
+        assertEquals(0, policy.getDelay("a.example.org", 1, 0, cause));
+        assertEquals(-1, policy.getDelay("a.example.org", 1, 0, cause));
+        assertEquals(0, policy.getDelay("b.example.org", 1, 0, cause));
+
+        policy.attemptSucceeded("a.example.org");
+        policy.attemptSucceeded("a.example.org");
+        policy.attemptSucceeded("a.example.org");
+        assertEquals(0, policy.getDelay("a.example.org", 1, 0, cause));
+    }
+
+    /**
+     * Tests if the circuit breaker defers retries after consecutive failures and closes again
+     * after a successful attempt.
+     */
+    @Test
+    public void testCircuitBreaker() {
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(10);
+        policy.setMaxElapsedTime(0);
+        policy.setCircuitBreaker(3, 5000);
+        IOException cause = new IOException();
+
+        assertTrue(policy.getDelay("example.org", 1, 0, cause) <= 10);
+        assertTrue(policy.getDelay("example.org", 2, 0, cause) <= 20);
+        assertFalse(policy.isCircuitOpen("example.org"));
+
+        long delay = policy.getDelay("example.org", 3, 0, cause);
+        assertTrue(policy.isCircuitOpen("example.org"));
+        assertTrue(delay > 4900 && delay <= 5010);
+        assertFalse(policy.isCircuitOpen("other.example.org"));
+
+        policy.attemptSucceeded("example.org");
+        assertFalse(policy.isCircuitOpen("example.org"));
+    }
+
+    /**
+     * Tests if the state of hosts is dropped after a successful attempt or once their failures
+     * are older than any delay.
+     * @throws Exception
+     */
+    @Test
+    public void testHostPruning() throws Exception {
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(0);
+        policy.setMaxDelay(10);
+        policy.setCircuitBreaker(3, 200);
+        IOException cause = new IOException();
+
+        policy.getDelay("example.org", 1, 0, cause);
+        assertEquals(1, policy.getHostCount());
+        policy.attemptSucceeded("example.org");
+        assertEquals(0, policy.getHostCount());
+
+        for (int i = 0; i < 100; i++) {
+            policy.getDelay("old-" + i + ".example.org", 1, 0, cause);
+        }
+        assertEquals(100, policy.getHostCount());
+        Thread.sleep(300);
+        for (int i = 0; i < 100; i++) {
+            policy.getDelay("new-" + i + ".example.org", 1, 0, cause);
+        }
+        assertTrue(policy.getHostCount() < 150);
+    }
+
+    /**
+     * Tests if an executor uses the policy and the host of the failed request.
+     * @throws Exception
+     */
+    @Test
+    public void testExecutor() throws Exception {
+        final int[] calls = new int[1];
+        TusExecutor exec = new TusExecutor() {
+            @Override
+            protected void makeAttempt() throws ProtocolException, IOException {
+                calls[0]++;
+                throw new ProtocolException("unavailable", new MockHttpURLConnection(503, null));
+            }
+        };
+
+        TusExponentialBackoff policy = new TusExponentialBackoff();
+        policy.setInitialDelay(1);
+        policy.setMaxRetries(20);
+        policy.setCircuitBreaker(2, 60 * 1000);
+        policy.setMaxElapsedTime(10 * 1000);
+        exec.setRetryPolicy(policy);
+        assertEquals(policy, exec.getRetryPolicy());
+
+        try {
+            exec.makeAttempts();
+        } catch (ProtocolException e) {
+            // The breaker opens for longer than the maximum elapsed time, so the executor gives up.
+            assertEquals(2, calls[0]);
+            assertTrue(policy.isCircuitOpen("localhost"));
+            return;
+        }
+        fail("expected the last exception to be thrown");
+    }
+
+    /**
+     * A mocked HttpURLConnection which returns the specified response code and Retry-After header.
+     */
+    private static class MockHttpURLConnection extends HttpURLConnection {
+        private final int statusCode;
+        private final String retryAfter;
+
+        MockHttpURLConnection(int statusCode, String retryAfter) throws MalformedURLException {
+            super(new URL("http://localhost/"));
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return "Retry-After".equalsIgnoreCase(name) ? retryAfter : null;
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public void disconnect() { }
+
+        @Override
+        public void connect() { }
+    }
+}
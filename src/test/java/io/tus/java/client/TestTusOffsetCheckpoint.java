@@ -0,0 +1,146 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for resuming uploads from a {@link TusOffsetCheckpoint}.
+ */
+public class TestTusOffsetCheckpoint extends TusTestServerProvider {
+    private TusURLMemoryStore store;
+    private byte[] content;
+
+    /**
+     * Starts the test server and creates the content to upload.
+     * @throws Exception
+     */
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        store = new TusURLMemoryStore();
+        content = new byte[200 * 1024];
+        new Random(0).nextBytes(content);
+    }
+
+    /**
+     * Tests if an upload is resumed from the checkpoint without sending a HEAD request.
+     * @throws Exception
+     */
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        URL uploadURL = uploadPart();
+        TusOffsetCheckpoint checkpoint = store.getCheckpoint("foo");
+        assertNotNull(checkpoint);
+        assertEquals(uploadURL, checkpoint.getUploadURL());
+        assertEquals(server.getOffset(uploadURL), checkpoint.getOffset());
+
+        TusUploader uploader = createClient().resumeUpload(TusTestServer.createUpload(content, "foo"));
+        assertEquals(checkpoint.getOffset(), uploader.getOffset());
+        uploadRemaining(uploader);
+
+        assertEquals(0, server.getRequestCount("HEAD"));
+        assertArrayEquals(content, server.getContent(uploadURL));
+        assertEquals(content.length, store.getCheckpoint("foo").getOffset());
+    }
+
+    /**
+     * Tests if the uploader asks the server for the offset once it rejects an outdated checkpoint.
+     * @throws Exception
+     */
+    @Test
+    public void testOutdatedCheckpoint() throws Exception {
+        URL uploadURL = uploadPart();
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(uploadURL, 1024, System.currentTimeMillis()));
+
+        TusUploader uploader = createClient().resumeUpload(TusTestServer.createUpload(content, "foo"));
+        assertEquals(1024, uploader.getOffset());
+        uploadRemaining(uploader);
+
+        assertEquals(1, server.getRequestCount("HEAD"));
+        assertArrayEquals(content, server.getContent(uploadURL));
+    }
+
+    /**
+     * Tests if the checkpoint is discarded if the first request fails, e.g. because the upload is
+     * gone, so the next attempt sends a HEAD request.
+     * @throws Exception
+     */
+    @Test
+    public void testUploadGone() throws Exception {
+        URL uploadURL = uploadPart();
+        HttpURLConnection connection = (HttpURLConnection) uploadURL.openConnection();
+        connection.setRequestMethod("DELETE");
+        connection.setRequestProperty("Tus-Resumable", TusClient.TUS_VERSION);
+        connection.getResponseCode();
+        connection.disconnect();
+
+        TusUploader uploader = createClient().resumeUpload(TusTestServer.createUpload(content, "foo"));
+        try {
+            uploadRemaining(uploader);
+            fail("expected the request to be rejected");
+        } catch (ProtocolException e) {
+            assertEquals(404, e.getCausingExchange().getResponseCode());
+        } catch (IOException e) {
+            // The server may close the connection before the entire body has been sent.
+        }
+        assertNull(store.getCheckpoint("foo"));
+        assertEquals(uploadURL, store.get("foo"));
+    }
+
+    /**
+     * Tests if checkpoints older than the maximum age are ignored.
+     * @throws Exception
+     */
+    @Test
+    public void testMaxCheckpointAge() throws Exception {
+        URL uploadURL = uploadPart();
+        long offset = server.getOffset(uploadURL);
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(uploadURL, offset, System.currentTimeMillis() - 60000));
+
+        TusClient resumingClient = createClient();
+        resumingClient.enableOptimisticResume(1, TimeUnit.SECONDS);
+        uploadRemaining(resumingClient.resumeUpload(TusTestServer.createUpload(content, "foo")));
+
+        assertEquals(1, server.getRequestCount("HEAD"));
+        assertArrayEquals(content, server.getContent(uploadURL));
+    }
+
+    private TusClient createClient() {
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(server.getUploadCreationURL());
+        client.enableResuming(store);
+        client.enableOptimisticResume();
+        return client;
+    }
+
+    private URL uploadPart() throws Exception {
+        TusUploader uploader = createClient().createUpload(TusTestServer.createUpload(content, "foo"));
+        uploader.setChunkSize(16 * 1024);
+        uploader.setRequestPayloadSize(64 * 1024);
+        uploader.uploadChunk();
+        uploader.finish();
+        return uploader.getUploadURL();
+    }
+
+    private void uploadRemaining(TusUploader uploader) throws Exception {
+        uploader.setChunkSize(16 * 1024);
+        while (uploader.uploadChunk() > -1) {
+            assertTrue(uploader.getOffset() > 0);
+        }
+        uploader.finish();
+    }
+}
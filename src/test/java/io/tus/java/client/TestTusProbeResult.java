@@ -0,0 +1,149 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for probing stored uploads using {@link TusClient#probeUploads(java.util.Collection, int)}.
+ */
+public class TestTusProbeResult extends TusTestServerProvider {
+    private TusURLMemoryStore store;
+    private byte[] content;
+
+    /**
+     * Starts the test server and creates the content to upload.
+     * @throws Exception
+     */
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        store = new TusURLMemoryStore();
+        client.enableResuming(store);
+        content = new byte[100 * 1024];
+        new Random(0).nextBytes(content);
+    }
+
+    /**
+     * Tests if uploads are classified according to their state on the server.
+     * @throws Exception
+     */
+    @Test
+    public void testProbeUploads() throws Exception {
+        TusUpload ready = TusTestServer.createUpload(content, "ready");
+        URL readyURL = uploadPart(ready, 32 * 1024);
+        TusUpload complete = TusTestServer.createUpload(content, "complete");
+        uploadPart(complete, content.length);
+        TusUpload deleted = TusTestServer.createUpload(content, "deleted");
+        URL deletedURL = uploadPart(deleted, 1024);
+        delete(deletedURL);
+        TusUpload unknown = TusTestServer.createUpload(content, "unknown");
+
+        // A closed server refuses the connection.
+        TusTestServer closed = new TusTestServer();
+        closed.close();
+        TusUpload unreachable = TusTestServer.createUpload(content, "unreachable");
+        store.set("unreachable", new URL(closed.getUploadCreationURL(), "/files/1"));
+
+        List<TusProbeResult> results = client.probeUploads(
+                Arrays.asList(ready, complete, deleted, unknown, unreachable), 4);
+        assertEquals(5, results.size());
+
+        assertEquals(TusProbeResult.Status.READY, results.get(0).getStatus());
+        assertEquals(readyURL, results.get(0).getUploadURL());
+        assertEquals(32 * 1024, results.get(0).getOffset());
+
+        assertEquals(TusProbeResult.Status.COMPLETE, results.get(1).getStatus());
+        assertEquals(content.length, results.get(1).getOffset());
+        assertNull(results.get(1).getUploader());
+
+        assertEquals(TusProbeResult.Status.GONE, results.get(2).getStatus());
+        assertEquals(deletedURL, results.get(2).getUploadURL());
+        assertNull(store.get("deleted"));
+
+        assertEquals(TusProbeResult.Status.GONE, results.get(3).getStatus());
+        assertNull(results.get(3).getUploadURL());
+
+        assertEquals(TusProbeResult.Status.FAILED, results.get(4).getStatus());
+        assertTrue(results.get(4).getException() instanceof IOException);
+        assertNotNull(store.get("unreachable"));
+
+        TusUploader uploader = results.get(0).getUploader();
+        assertEquals(32 * 1024, uploader.getOffset());
+        while (uploader.uploadChunk() > -1) {
+            assertTrue(uploader.getOffset() > 0);
+        }
+        uploader.finish();
+        assertArrayEquals(content, server.getContent(readyURL));
+    }
+
+    /**
+     * Tests if the uploads are probed concurrently.
+     * @throws Exception
+     */
+    @Test
+    public void testParallelism() throws Exception {
+        List<TusUpload> uploads = new ArrayList<TusUpload>();
+        for (int i = 0; i < 8; i++) {
+            TusUpload upload = TusTestServer.createUpload(content, "upload-" + i);
+            uploadPart(upload, 1024);
+            uploads.add(upload);
+        }
+
+        server.setLatency(250);
+        long start = System.nanoTime();
+        List<TusProbeResult> results = client.probeUploads(uploads, 8);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        for (TusProbeResult result : results) {
+            assertEquals(TusProbeResult.Status.READY, result.getStatus());
+        }
+        assertEquals(8, server.getRequestCount("HEAD"));
+        assertTrue("probing took " + elapsedMillis + "ms", elapsedMillis < 4 * 250);
+    }
+
+    /**
+     * Tests if probing requires resuming to be enabled.
+     * @throws Exception
+     */
+    @Test(expected = ResumingNotEnabledException.class)
+    public void testResumingNotEnabled() throws Exception {
+        client.disableResuming();
+        client.probeUploads(Arrays.asList(TusTestServer.createUpload(content, "foo")), 1);
+    }
+
+    private URL uploadPart(TusUpload upload, int length) throws Exception {
+        TusUploader uploader = client.createUpload(upload);
+        uploader.setRequestPayloadSize(length);
+        uploader.uploadChunk();
+        while (uploader.getOffset() < length) {
+            uploader.uploadChunk();
+        }
+        uploader.finish(false);
+        upload.setInputStream(new ByteArrayInputStream(content));
+        return uploader.getUploadURL();
+    }
+
+    private void delete(URL uploadURL) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uploadURL.openConnection();
+        connection.setRequestMethod("DELETE");
+        connection.setRequestProperty("Tus-Resumable", TusClient.TUS_VERSION);
+        connection.getResponseCode();
+        connection.disconnect();
+    }
+}
@@ -0,0 +1,130 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusSchedulingPolicy}, using the {@link TusUploadQueue} of an upload manager.
+ */
+public class TestTusSchedulingPolicy {
+
+    /**
+     * Tests if uploads are taken in the order of submission and never preempted by default.
+     * @throws Exception
+     */
+    @Test
+    public void testFifo() throws Exception {
+        TusUploadQueue queue = new TusUploadQueue(10);
+        TusScheduledUpload first = queue.put(upload(300), 0);
+        TusScheduledUpload second = queue.put(upload(100), 5);
+
+        assertEquals(first, poll(queue));
+        assertFalse(queue.preempt(first));
+        assertEquals(second, poll(queue));
+        assertNull(queue.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests if uploads with a higher priority are taken first and preempt running ones.
+     * @throws Exception
+     */
+    @Test
+    public void testPriority() throws Exception {
+        TusUploadQueue queue = new TusUploadQueue(10);
+        queue.setPolicy(TusSchedulingPolicy.priority());
+        TusScheduledUpload low = queue.put(upload(100), 0);
+        TusScheduledUpload high = queue.put(upload(100), 1);
+        TusScheduledUpload otherLow = queue.put(upload(100), 0);
+
+        assertEquals(high, poll(queue));
+        assertEquals(low, poll(queue));
+        assertFalse(queue.preempt(low));
+
+        TusScheduledUpload urgent = queue.put(upload(100), 2);
+        assertTrue(queue.preempt(low));
+        assertEquals(urgent, poll(queue));
+        assertEquals(low, poll(queue));
+        assertEquals(otherLow, poll(queue));
+    }
+
+    /**
+     * Tests if uploads with fewer remaining bytes are taken first, taking the offset of started
+     * uploads into account.
+     * @throws Exception
+     */
+    @Test
+    public void testShortestRemainingFirst() throws Exception {
+        TusUploadQueue queue = new TusUploadQueue(10);
+        queue.setPolicy(TusSchedulingPolicy.shortestRemainingFirst());
+        TusScheduledUpload large = queue.put(upload(300), 0);
+        TusScheduledUpload small = queue.put(upload(100), 0);
+        TusScheduledUpload medium = queue.put(upload(200), 0);
+
+        assertEquals(small, poll(queue));
+        assertEquals(medium, poll(queue));
+
+        // The large upload has only 50 bytes left once it has been started.
+        large.setUploader(new TusUploader(new TusClient(), large.getUpload(), null,
+                new TusInputStream(new ByteArrayInputStream(new byte[0])), 250));
+        assertEquals(50, large.getRemainingBytes());
+        assertTrue(queue.preempt(medium));
+        assertEquals(large, poll(queue));
+    }
+
+    /**
+     * Tests if the bandwidth is shared between priority classes according to their weights.
+     * @throws Exception
+     */
+    @Test
+    public void testWeightedFairShare() throws Exception {
+        Map<Integer, Integer> weights = new HashMap<Integer, Integer>();
+        weights.put(1, 3);
+        TusUploadQueue queue = new TusUploadQueue(20);
+        queue.setPolicy(TusSchedulingPolicy.weightedFairShare(weights));
+        for (int i = 0; i < 8; i++) {
+            queue.put(upload(100), 1);
+        }
+        for (int i = 0; i < 8; i++) {
+            queue.put(upload(100), 2);
+        }
+
+        int[] counts = new int[3];
+        for (int i = 0; i < 8; i++) {
+            TusScheduledUpload next = poll(queue);
+            counts[next.getPriority()]++;
+            queue.progressed(next, 100);
+            queue.finished(next);
+        }
+        assertEquals(6, counts[1]);
+        assertEquals(2, counts[2]);
+    }
+
+    /**
+     * Tests if invalid weights are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWeight() {
+        Map<Integer, Integer> weights = new HashMap<Integer, Integer>();
+        weights.put(1, 0);
+        TusSchedulingPolicy.weightedFairShare(weights);
+    }
+
+    private static TusUpload upload(long size) {
+        TusUpload upload = new TusUpload();
+        upload.setSize(size);
+        return upload;
+    }
+
+    private static TusScheduledUpload poll(TusUploadQueue queue) throws InterruptedException {
+        return queue.poll(0, TimeUnit.MILLISECONDS);
+    }
+}
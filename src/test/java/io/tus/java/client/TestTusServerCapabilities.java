@@ -0,0 +1,195 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusServerCapabilities} and their discovery by {@link TusClient}.
+ */
+public class TestTusServerCapabilities extends TusTestServerProvider {
+    /**
+     * Tests if the headers are parsed leniently.
+     * @throws Exception
+     */
+    @Test
+    public void testParse() throws Exception {
+        URL url = new URL("https://tusd.tusdemo.net/files/");
+        TusServerCapabilities capabilities = new TusServerCapabilities(url, "1.0.0, 0.2.2",
+                "creation,checksum, termination,,", " 1073741824", "md5,crc32", 1000);
+        assertEquals(url, capabilities.getEndpoint());
+        assertEquals(Arrays.asList("1.0.0", "0.2.2"), capabilities.getVersions());
+        assertTrue(capabilities.supportsVersion(TusClient.TUS_VERSION));
+        assertFalse(capabilities.supportsVersion("2.0.0"));
+        assertEquals(3, capabilities.getExtensions().size());
+        assertTrue(capabilities.supportsExtension(TusServerCapabilities.TERMINATION));
+        assertFalse(capabilities.supportsExtension(TusServerCapabilities.CONCATENATION));
+        assertEquals(1073741824, capabilities.getMaxSize());
+        assertEquals("crc32", capabilities.negotiateChecksumAlgorithm());
+        assertEquals(1000, capabilities.getDiscoveredAt());
+
+        capabilities = new TusServerCapabilities(url, null, "creation", "unlimited", "crc32", 1000);
+        assertTrue(capabilities.supportsVersion(TusClient.TUS_VERSION));
+        assertEquals(-1, capabilities.getMaxSize());
+        assertNull(capabilities.negotiateChecksumAlgorithm());
+    }
+
+    /**
+     * Tests if the capabilities are requested once per endpoint until they expire.
+     * @throws Exception
+     */
+    @Test
+    public void testCache() throws Exception {
+        server.setMaxSize(1024);
+        TusServerCapabilities capabilities = client.getServerCapabilities();
+        assertEquals(Arrays.asList(TusClient.TUS_VERSION), capabilities.getVersions());
+        assertTrue(capabilities.supportsExtension(TusServerCapabilities.CREATION_WITH_UPLOAD));
+        assertEquals(1024, capabilities.getMaxSize());
+        assertSame(capabilities, client.getServerCapabilities(server.getUploadCreationURL()));
+        assertEquals(1, server.getRequestCount("OPTIONS"));
+
+        URL other = new URL(server.getUploadCreationURL(), "/files/other");
+        client.getServerCapabilities(other);
+        assertEquals(2, server.getRequestCount("OPTIONS"));
+
+        client.invalidateServerCapabilities();
+        client.getServerCapabilities();
+        assertEquals(3, server.getRequestCount("OPTIONS"));
+
+        client.setCapabilitiesTTL(0, TimeUnit.MILLISECONDS);
+        client.getServerCapabilities();
+        client.getServerCapabilities();
+        assertEquals(5, server.getRequestCount("OPTIONS"));
+    }
+
+    /**
+     * Tests if concurrent lookups for the same endpoint share a request, while a server which
+     * does not respond does not block lookups for other endpoints.
+     * @throws Exception
+     */
+    @Test(timeout = 30000)
+    public void testConcurrentDiscovery() throws Exception {
+        final ServerSocket hung = new ServerSocket(0);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final URL hungURL = new URL("http://localhost:" + hung.getLocalPort() + "/files/");
+            Future<TusServerCapabilities> hungLookup = executor.submit(new Callable<TusServerCapabilities>() {
+                @Override
+                public TusServerCapabilities call() throws Exception {
+                    return client.getServerCapabilities(hungURL);
+                }
+            });
+            // Wait until the request to the hung server has been sent.
+            Socket socket = hung.accept();
+
+            server.setLatency(200);
+            Callable<TusServerCapabilities> lookup = new Callable<TusServerCapabilities>() {
+                @Override
+                public TusServerCapabilities call() throws Exception {
+                    return client.getServerCapabilities();
+                }
+            };
+            Future<TusServerCapabilities> first = executor.submit(lookup);
+            Future<TusServerCapabilities> second = executor.submit(lookup);
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, server.getRequestCount("OPTIONS"));
+            assertFalse(hungLookup.isDone());
+
+            // Once the hung server goes away, its lookup fails. HttpURLConnection retries the
+            // request once, so the listening socket has to be closed, too.
+            hung.close();
+            socket.close();
+            try {
+                hungLookup.get();
+                fail("expected the lookup to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            executor.shutdownNow();
+            hung.close();
+        }
+    }
+
+    /**
+     * Tests if uploads exceeding the maximum size are rejected before they are created and
+     * supported extensions are used.
+     * @throws Exception
+     */
+    @Test
+    public void testDiscovery() throws Exception {
+        server.setMaxSize(64 * 1024);
+        client.enableCapabilityDiscovery();
+        assertTrue(client.capabilityDiscoveryEnabled());
+
+        try {
+            client.createUpload(TusTestServer.createUpload(new byte[64 * 1024 + 1], null));
+            fail("expected the upload to be rejected");
+        } catch (ProtocolException e) {
+            assertNull(e.getCausingExchange());
+        }
+        assertEquals(0, server.getRequestCount("POST"));
+
+        // The data is sent while creating the upload, since the server supports it.
+        byte[] content = new byte[10 * 1024];
+        new Random(0).nextBytes(content);
+        TusUploader uploader = client.createUpload(TusTestServer.createUpload(content, null));
+        assertEquals(content.length, uploader.getOffset());
+        assertEquals(-1, uploader.uploadChunk());
+        uploader.finish();
+        assertEquals(0, server.getRequestCount("PATCH"));
+        assertArrayEquals(content, server.getContent(uploader.getUploadURL()));
+        assertEquals(1, server.getRequestCount("OPTIONS"));
+
+        client.disableCapabilityDiscovery();
+        uploader = client.createUpload(TusTestServer.createUpload(content, null));
+        assertEquals(0, uploader.getOffset());
+    }
+
+    /**
+     * Tests if a parallel upload falls back to a single upload if the server does not support
+     * concatenation.
+     * @throws Exception
+     */
+    @Test
+    public void testParallelWithoutConcatenation() throws Exception {
+        server.setExtensions("creation,termination");
+        byte[] content = new byte[100 * 1024];
+        new Random(0).nextBytes(content);
+        File file = File.createTempFile("tus-capabilities-test", ".tmp");
+        try {
+            OutputStream output = new FileOutputStream(file);
+            output.write(content);
+            output.close();
+
+            client.enableCapabilityDiscovery();
+            URL uploadURL = client.uploadParallel(new TusUpload(file), 4);
+            assertEquals(1, server.getRequestCount("POST"));
+            assertArrayEquals(content, server.getContent(uploadURL));
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusTestServer}, uploading real data using {@link TusClient}.
+ */
+public class TestTusTestServer extends TusTestServerProvider {
+    /**
+     * Tests if an upload is split into requests and stored completely.
+     * @throws Exception
+     */
+    @Test
+    public void testUpload() throws Exception {
+        byte[] content = randomContent(100 * 1024);
+        TusUpload upload = new TusUpload(createFile(content));
+
+        URL uploadURL = upload(upload, 32 * 1024);
+
+        assertArrayEquals(content, server.getContent(uploadURL));
+        assertEquals(1, server.getRequestCount("POST"));
+        assertEquals(4, server.getRequestCount("PATCH"));
+    }
+
+    /**
+     * Tests if an upload is resumed from the server's offset after connections have been dropped
+     * in the middle of a request.
+     * @throws Exception
+     */
+    @Test
+    public void testResumeAfterDroppedConnection() throws Exception {
+        byte[] content = randomContent(100 * 1024);
+        TusUpload upload = new TusUpload(createFile(content));
+        client.enableResuming(new TusURLMemoryStore());
+        server.dropConnections(2, 10000);
+
+        URL uploadURL = upload(upload, 64 * 1024);
+
+        assertArrayEquals(content, server.getContent(uploadURL));
+        assertEquals(2, server.getRequestCount("HEAD"));
+    }
+
+    /**
+     * Tests if partial uploads are concatenated.
+     * @throws Exception
+     */
+    @Test
+    public void testConcatenation() throws Exception {
+        byte[] content = randomContent(100 * 1024);
+        TusUpload upload = new TusUpload(createFile(content));
+
+        URL uploadURL = client.uploadParallel(upload, 3);
+
+        assertArrayEquals(content, server.getContent(uploadURL));
+        assertEquals(4, server.getRequestCount("POST"));
+    }
+
+    /**
+     * Tests if uploads can be terminated.
+     * @throws Exception
+     */
+    @Test
+    public void testTermination() throws Exception {
+        TusUpload upload = new TusUpload(createFile(randomContent(1024)));
+        URL uploadURL = upload(upload, 1024);
+        assertEquals(1024, server.getOffset(uploadURL));
+
+        HttpURLConnection connection = (HttpURLConnection) uploadURL.openConnection();
+        connection.setRequestMethod("DELETE");
+        connection.setRequestProperty("Tus-Resumable", TusClient.TUS_VERSION);
+        assertEquals(204, connection.getResponseCode());
+        connection.disconnect();
+
+        assertEquals(-1, server.getOffset(uploadURL));
+    }
+
+    /**
+     * Tests if a PATCH request is rejected if another one keeps writing to the same upload.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentPatch() throws Exception {
+        URL uploadURL = client.createUpload(TusTestServer.createUpload(new byte[10], null)).getUploadURL();
+
+        HttpURLConnection first = openPatch(uploadURL, 0, 10);
+        OutputStream output = first.getOutputStream();
+        output.write(new byte[5]);
+        output.flush();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getOffset(uploadURL) < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // The offset matches, but the first request does not finish while the second one waits.
+        HttpURLConnection second = openPatch(uploadURL, 5, 5);
+        second.getOutputStream().write(new byte[5]);
+        assertEquals(423, second.getResponseCode());
+        second.disconnect();
+
+        output.write(new byte[5]);
+        assertEquals(204, first.getResponseCode());
+        first.disconnect();
+        assertEquals(10, server.getOffset(uploadURL));
+    }
+
+    /**
+     * Tests if the bandwidth limit slows down uploads.
+     * @throws Exception
+     */
+    @Test
+    public void testBandwidthLimit() throws Exception {
+        TusUpload upload = new TusUpload(createFile(randomContent(100 * 1024)));
+        server.setBandwidthLimit(200 * 1024);
+
+        long start = System.nanoTime();
+        upload(upload, 1024 * 1024);
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("upload took only " + millis + "ms", millis >= 400);
+    }
+
+    /**
+     * Tests if the data can be stored in a directory.
+     * @throws Exception
+     */
+    @Test
+    public void testDirectory() throws Exception {
+        File directory = File.createTempFile("tus-test-server", "");
+        assertTrue(directory.delete() && directory.mkdir());
+        server.close();
+        server = new TusTestServer(directory);
+        client.setUploadCreationURL(server.getUploadCreationURL());
+
+        byte[] content = randomContent(10 * 1024);
+        URL uploadURL = upload(new TusUpload(createFile(content)), 4096);
+
+        assertArrayEquals(content, server.getContent(uploadURL));
+        assertEquals(1, directory.list().length);
+        server.close();
+        assertEquals(0, directory.list().length);
+        assertTrue(directory.delete());
+    }
+
+    private URL upload(final TusUpload upload, final int requestPayloadSize) throws Exception {
+        final URL[] uploadURL = new URL[1];
+        TusExecutor executor = new TusExecutor() {
+            @Override
+            protected void makeAttempt() throws ProtocolException, IOException {
+                TusUploader uploader = client.resumeOrCreateUpload(upload);
+                uploader.setRequestPayloadSize(requestPayloadSize);
+                uploader.setChunkSize(8 * 1024);
+                while (uploader.uploadChunk() > -1) {
+                    assertTrue(uploader.getOffset() <= upload.getSize());
+                }
+                uploader.finish();
+                uploadURL[0] = uploader.getUploadURL();
+            }
+        };
+        executor.setDelays(new int[]{10, 10, 10});
+        assertTrue(executor.makeAttempts());
+        return uploadURL[0];
+    }
+
+    private static HttpURLConnection openPatch(URL uploadURL, long offset, int length) throws IOException {
+        // HttpURLConnection does not support PATCH, so the method is overridden.
+        HttpURLConnection connection = (HttpURLConnection) uploadURL.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+        connection.setRequestProperty("Tus-Resumable", TusClient.TUS_VERSION);
+        connection.setRequestProperty("Upload-Offset", Long.toString(offset));
+        connection.setRequestProperty("Content-Type", "application/offset+octet-stream");
+        connection.setFixedLengthStreamingMode(length);
+        connection.setDoOutput(true);
+        return connection;
+    }
+
+    private static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+
+    private static File createFile(byte[] content) throws IOException {
+        File file = File.createTempFile("tus-test-server", ".bin");
+        file.deleteOnExit();
+        OutputStream output = new FileOutputStream(file);
+        output.write(content);
+        output.close();
+        return file;
+    }
+}
@@ -0,0 +1,198 @@
+package io.tus.java.client;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TusURLBoundedMemoryStore}.
+ */
+public class TestTusURLBoundedMemoryStore {
+
+    /**
+     * Tests if setting and deleting of an url works and is counted.
+     * @throws Exception
+     */
+    @Test
+    public void testSetGetRemove() throws Exception {
+        TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(100);
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set("foo", url);
+
+        assertEquals(url, store.get("foo"));
+        store.remove("foo");
+        assertNull(store.get("foo"));
+
+        assertEquals(1, store.getHitCount());
+        assertEquals(1, store.getMissCount());
+        assertEquals(0, store.getEvictionCount());
+    }
+
+    /**
+     * Tests if the least recently used entry is evicted once the store is full.
+     * @throws Exception
+     */
+    @Test
+    public void testEviction() throws Exception {
+        // A single entry per segment makes the eviction order predictable.
+        TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(1);
+        store.set("a", new URL("https://tusd.tusdemo.net/files/a"));
+        store.set("b", new URL("https://tusd.tusdemo.net/files/b"));
+
+        assertNull(store.get("a"));
+        assertEquals(new URL("https://tusd.tusdemo.net/files/b"), store.get("b"));
+        assertEquals(1, store.getEvictionCount());
+
+        store = new TusURLBoundedMemoryStore(1000);
+        for (int i = 0; i < 5000; i++) {
+            store.set("fingerprint-" + i, new URL("https://tusd.tusdemo.net/files/" + i));
+        }
+        assertTrue(store.size() <= 1000);
+        assertEquals(5000 - store.size(), store.getEvictionCount());
+        assertEquals(new URL("https://tusd.tusdemo.net/files/4999"), store.get("fingerprint-4999"));
+    }
+
+    /**
+     * Tests if expired entries are dropped before a live entry is evicted from a full segment.
+     * @throws Exception
+     */
+    @Test
+    public void testEvictionPrefersExpiredEntries() throws Exception {
+        // Each of the 16 segments holds two entries. Find three fingerprints in the same one.
+        TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(32);
+        List<String> fingerprints = new ArrayList<String>();
+        for (int i = 0; fingerprints.size() < 3; i++) {
+            if (store.segmentOf("fingerprint-" + i) == store.segmentOf("fingerprint-0")) {
+                fingerprints.add("fingerprint-" + i);
+            }
+        }
+
+        URL live = new URL("https://tusd.tusdemo.net/files/live");
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set(fingerprints.get(0), live);
+        store.set(fingerprints.get(1), url, System.currentTimeMillis() + 20);
+        Thread.sleep(50);
+
+        // The live entry is the least recently used one, but the expired one makes room.
+        store.set(fingerprints.get(2), url);
+        assertEquals(2, store.size());
+        assertEquals(1, store.getEvictionCount());
+        assertEquals(live, store.get(fingerprints.get(0)));
+        assertEquals(url, store.get(fingerprints.get(2)));
+    }
+
+    /**
+     * Tests if entries expire after the time to live or the time passed by the server.
+     * @throws Exception
+     */
+    @Test
+    public void testExpiration() throws Exception {
+        TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(100, 50, TimeUnit.MILLISECONDS);
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set("ttl", url);
+        store.set("expired", url, System.currentTimeMillis() - 1);
+        store.set("server", url, System.currentTimeMillis() + 10);
+
+        assertEquals(url, store.get("ttl"));
+        assertNull(store.get("expired"));
+        Thread.sleep(100);
+        assertNull(store.get("ttl"));
+        assertNull(store.get("server"));
+        assertEquals(2, store.getEvictionCount());
+    }
+
+    /**
+     * Tests if checkpoints are only stored for the current URL and expire with their entry.
+     * @throws Exception
+     */
+    @Test
+    public void testCheckpoint() throws Exception {
+        TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(100);
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set("foo", url, System.currentTimeMillis() + 50);
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 100, 1000));
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(new URL("https://tusd.tusdemo.net/files/other"), 200, 2000));
+        store.setCheckpoint("unknown", new TusOffsetCheckpoint(url, 100, 1000));
+
+        assertEquals(100, store.getCheckpoint("foo").getOffset());
+        assertNull(store.getCheckpoint("unknown"));
+        store.removeCheckpoint("foo");
+        assertNull(store.getCheckpoint("foo"));
+        assertEquals(url, store.get("foo"));
+
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 300, 3000));
+        Thread.sleep(100);
+        assertNull(store.getCheckpoint("foo"));
+    }
+
+    /**
+     * Tests if the store can be used from multiple threads at the same time.
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(10000);
+        final URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        String fingerprint = thread + "-" + i;
+                        store.set(fingerprint, url);
+                        assertEquals(url, store.get(fingerprint));
+                        if (i % 2 == 0) {
+                            store.remove(fingerprint);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2000, store.size());
+        assertEquals(4000, store.getHitCount());
+    }
+
+    /**
+     * Tests if the entries are listed with the time they have last been updated, skipping
+     * expired ones.
+     * @throws Exception
+     */
+    @Test
+    public void testGetEntries() throws Exception {
+        TusURLBoundedMemoryStore store = new TusURLBoundedMemoryStore(100);
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set("foo", url);
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 100, 1000));
+        store.set("bar", new URL("https://tusd.tusdemo.net/files/other"));
+        store.set("expiring", url, System.currentTimeMillis() + 50);
+
+        List<TusURLStoreEntry> entries = store.getEntries(2000);
+        assertEquals(1, entries.size());
+        assertEquals("foo", entries.get(0).getFingerprint());
+        assertEquals(1000, entries.get(0).getUpdatedAt());
+
+        // Removing the checkpoint does not count as an update.
+        store.removeCheckpoint("foo");
+        assertEquals(1, store.getEntries(2000).size());
+        assertEquals(3, store.getEntries(Long.MAX_VALUE).size());
+
+        Thread.sleep(100);
+        assertEquals(2, store.getEntries(Long.MAX_VALUE).size());
+    }
+}
@@ -0,0 +1,222 @@
+package io.tus.java.client;
+
+import org.junit.Test;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for {@link TusURLConnectionTransport}.
+ */
+public class TestTusURLConnectionTransport extends MockServerProvider {
+
+    /**
+     * Tests if the connections of all requests are released for reuse after their responses have been read.
+     * @throws Exception
+     */
+    @Test
+    public void testReleaseConnectionsForReuse() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files")
+                .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                .withHeader("Upload-Length", "6"))
+                .respond(new HttpResponse()
+                        .withStatusCode(201)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Location", mockServerURL + "/reuse"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/reuse")
+                .withHeader("Upload-Offset", "0"))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "3"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/reuse")
+                .withHeader("Upload-Offset", "3"))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "6"));
+
+        TusURLConnectionTransport transport = new TusURLConnectionTransport();
+        TusClient client = new TusClient();
+        client.setTransport(transport);
+        client.setUploadCreationURL(mockServerURL);
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(6);
+        upload.setInputStream(new ByteArrayInputStream(new byte[6]));
+        TusUploader uploader = client.createUpload(upload);
+        uploader.setRequestPayloadSize(3);
+        assertEquals(3, uploader.uploadChunk());
+        assertEquals(3, uploader.uploadChunk());
+        uploader.finish();
+
+        assertEquals(3, transport.getOpenedExchanges());
+        assertEquals(3, transport.getReleasedConnections());
+        assertEquals(0, transport.getDiscardedConnections());
+    }
+
+    /**
+     * Tests if opening an exchange blocks once the maximum number of connections to a host is reached.
+     * @throws Exception
+     */
+    @Test
+    public void testMaxConnectionsPerHost() throws Exception {
+        final TusURLConnectionTransport transport = new TusURLConnectionTransport();
+        transport.setMaxConnectionsPerHost(1);
+        assertEquals(1, transport.getMaxConnectionsPerHost());
+
+        TusExchange first = transport.open("HEAD", mockServerURL, null);
+
+        final AtomicReference<TusExchange> second = new AtomicReference<TusExchange>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    second.set(transport.open("HEAD", mockServerURL, null));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        thread.start();
+        thread.join(200);
+        assertTrue(thread.isAlive());
+
+        // Closing an exchange without sending it cannot reuse its connection.
+        first.close();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertNotNull(second.get());
+
+        second.get().close();
+        assertEquals(2, transport.getOpenedExchanges());
+        assertEquals(2, transport.getDiscardedConnections());
+    }
+
+    /**
+     * Tests if the connection slots of requests whose connection could not be established are
+     * returned, so later uploads do not block forever.
+     * @throws Exception
+     */
+    @Test(timeout = 30000)
+    public void testReleaseSlotsOfFailedConnects() throws Exception {
+        TusTestServer server = new TusTestServer();
+        try {
+            final TusURLConnectionTransport transport = new TusURLConnectionTransport();
+            transport.setMaxConnectionsPerHost(2);
+            final AtomicInteger failures = new AtomicInteger(3);
+            TusClient client = new TusClient();
+            client.setUploadCreationURL(server.getUploadCreationURL());
+            client.setTransport(new TusTransport() {
+                @Override
+                public TusExchange open(String method, URL url, Proxy proxy) throws IOException {
+                    TusExchange exchange = transport.open(method, url, proxy);
+                    if (method.equals("PATCH") && failures.getAndDecrement() > 0) {
+                        return new RefusingExchange(exchange);
+                    }
+                    return exchange;
+                }
+            });
+
+            byte[] content = new byte[64 * 1024];
+            new Random(0).nextBytes(content);
+            for (int i = 0; i < 3; i++) {
+                TusUploader uploader = client.createUpload(TusTestServer.createUpload(content, null));
+                try {
+                    uploader.uploadChunk();
+                    fail("expected the connection to be refused");
+                } catch (ConnectException e) {
+                    assertEquals("Connection refused", e.getMessage());
+                }
+            }
+
+            TusUploader uploader = client.createUpload(TusTestServer.createUpload(content, null));
+            while (uploader.uploadChunk() > -1) {
+                assertTrue(uploader.getOffset() > 0);
+            }
+            uploader.finish();
+            assertArrayEquals(content, server.getContent(uploader.getUploadURL()));
+            assertEquals(8, transport.getOpenedExchanges());
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * An exchange whose connection cannot be established.
+     */
+    private static final class RefusingExchange implements TusExchange {
+        private final TusExchange exchange;
+
+        RefusingExchange(TusExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public URL getURL() {
+            return exchange.getURL();
+        }
+
+        @Override
+        public void setRequestHeader(String name, String value) {
+            exchange.setRequestHeader(name, value);
+        }
+
+        @Override
+        public void addRequestHeader(String name, String value) {
+            exchange.addRequestHeader(name, value);
+        }
+
+        @Override
+        public void setConnectTimeout(int timeout) {
+            exchange.setConnectTimeout(timeout);
+        }
+
+        @Override
+        public void setFollowRedirects(boolean followRedirects) {
+            exchange.setFollowRedirects(followRedirects);
+        }
+
+        @Override
+        public OutputStream openBody(long contentLength) throws IOException {
+            throw new ConnectException("Connection refused");
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return exchange.getResponseCode();
+        }
+
+        @Override
+        public String getResponseHeader(String name) {
+            return exchange.getResponseHeader(name);
+        }
+
+        @Override
+        public void close() {
+            exchange.close();
+        }
+    }
+}
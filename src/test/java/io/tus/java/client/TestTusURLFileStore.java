@@ -0,0 +1,212 @@
+package io.tus.java.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TusURLFileStore}.
+ */
+public class TestTusURLFileStore {
+    private File file;
+
+    /**
+     * Creates a new file for the store.
+     * @throws IOException
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("tus-url-store", ".log");
+        assertTrue(file.delete());
+    }
+
+    /**
+     * Deletes the store's file.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Tests if entries are kept after reopening the store.
+     * @throws Exception
+     */
+    @Test
+    public void testPersistence() throws Exception {
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        TusURLFileStore store = new TusURLFileStore(file);
+        store.set("foo", url);
+        store.set("bar", new URL("https://tusd.tusdemo.net/files/bar"));
+        store.set("bar", new URL("https://tusd.tusdemo.net/files/world"));
+        store.set("removed", url);
+        store.remove("removed");
+        store.remove("unknown");
+        assertEquals(url, store.get("foo"));
+        assertNull(store.get("removed"));
+        store.close();
+
+        store = new TusURLFileStore(file);
+        assertEquals(2, store.size());
+        assertEquals(url, store.get("foo"));
+        assertEquals(new URL("https://tusd.tusdemo.net/files/world"), store.get("bar"));
+        assertNull(store.get("removed"));
+        store.close();
+    }
+
+    /**
+     * Tests if a record which has only been written partially before a crash is discarded.
+     * @throws Exception
+     */
+    @Test
+    public void testPartialRecord() throws Exception {
+        TusURLFileStore store = new TusURLFileStore(file, 0);
+        store.set("foo", new URL("https://tusd.tusdemo.net/files/foo"));
+        store.set("bar", new URL("https://tusd.tusdemo.net/files/bar"));
+        store.close();
+
+        // Cut off the end of the last record.
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 3);
+        raf.close();
+
+        store = new TusURLFileStore(file, 0);
+        assertEquals(new URL("https://tusd.tusdemo.net/files/foo"), store.get("foo"));
+        assertNull(store.get("bar"));
+
+        store.set("baz", new URL("https://tusd.tusdemo.net/files/baz"));
+        store.close();
+
+        store = new TusURLFileStore(file, 0);
+        assertEquals(2, store.size());
+        assertEquals(new URL("https://tusd.tusdemo.net/files/baz"), store.get("baz"));
+        store.close();
+    }
+
+    /**
+     * Tests if compaction removes obsolete records while keeping all live entries.
+     * @throws Exception
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        TusURLFileStore store = new TusURLFileStore(file);
+        for (int i = 0; i < 5000; i++) {
+            store.set("fingerprint-" + (i % 1000), new URL("https://tusd.tusdemo.net/files/" + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            store.remove("fingerprint-" + i);
+        }
+        long sizeBefore = file.length();
+
+        store.compact();
+
+        assertTrue(file.length() < sizeBefore / 5);
+        assertEquals(500, store.size());
+        assertNull(store.get("fingerprint-0"));
+        assertEquals(new URL("https://tusd.tusdemo.net/files/4999"), store.get("fingerprint-999"));
+
+        store.set("fingerprint-0", new URL("https://tusd.tusdemo.net/files/new"));
+        store.close();
+
+        store = new TusURLFileStore(file);
+        assertEquals(501, store.size());
+        assertEquals(new URL("https://tusd.tusdemo.net/files/new"), store.get("fingerprint-0"));
+        assertEquals(new URL("https://tusd.tusdemo.net/files/4500"), store.get("fingerprint-500"));
+        store.close();
+    }
+
+    /**
+     * Tests if checkpoints are kept after reopening and compacting the store and are only stored
+     * for the current URL.
+     * @throws Exception
+     */
+    @Test
+    public void testCheckpoint() throws Exception {
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        TusURLFileStore store = new TusURLFileStore(file);
+        store.set("foo", url);
+        assertNull(store.getCheckpoint("foo"));
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 100, 1000));
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 200, 2000));
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(new URL("https://tusd.tusdemo.net/files/other"), 300, 3000));
+        store.setCheckpoint("unknown", new TusOffsetCheckpoint(url, 100, 1000));
+        assertEquals(url, store.get("foo"));
+        assertNull(store.get("unknown"));
+        store.set("bar", url);
+        store.setCheckpoint("bar", new TusOffsetCheckpoint(url, 50, 500));
+        store.removeCheckpoint("bar");
+        store.close();
+
+        store = new TusURLFileStore(file);
+        store.compact();
+        assertEquals(2, store.size());
+        TusOffsetCheckpoint checkpoint = store.getCheckpoint("foo");
+        assertEquals(url, checkpoint.getUploadURL());
+        assertEquals(200, checkpoint.getOffset());
+        assertEquals(2000, checkpoint.getConfirmedAt());
+        assertEquals(url, store.get("bar"));
+        assertNull(store.getCheckpoint("bar"));
+
+        // Storing a new URL drops the checkpoint.
+        store.set("foo", url);
+        assertNull(store.getCheckpoint("foo"));
+        store.close();
+    }
+
+    /**
+     * Tests if a file which is not a store is rejected.
+     * @throws Exception
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidFile() throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.writeBytes("hello world");
+        raf.close();
+
+        new TusURLFileStore(file);
+    }
+
+    /**
+     * Tests if the entries are listed with the time they have last been updated, also after
+     * reopening and compacting the store.
+     * @throws Exception
+     */
+    @Test
+    public void testGetEntries() throws Exception {
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        TusURLFileStore store = new TusURLFileStore(file);
+        store.set("foo", url);
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 100, 1000));
+        store.set("bar", url);
+        store.setCheckpoint("bar", new TusOffsetCheckpoint(url, 50, 500));
+        store.removeCheckpoint("bar");
+        store.set("baz", new URL("https://tusd.tusdemo.net/files/other"));
+        store.remove("baz");
+        assertEquals(2, store.getEntries(2000).size());
+        store.close();
+
+        store = new TusURLFileStore(file);
+        assertEquals(2, store.getEntries(2000).size());
+        store.compact();
+        List<TusURLStoreEntry> entries = store.getEntries(800);
+        assertEquals(1, entries.size());
+        assertEquals("bar", entries.get(0).getFingerprint());
+        assertEquals(url, entries.get(0).getUploadURL());
+        assertEquals(500, entries.get(0).getUpdatedAt());
+        assertEquals(2, store.getEntries(Long.MAX_VALUE).size());
+
+        store.set("foo", url);
+        assertEquals(1, store.getEntries(2000).size());
+        store.close();
+    }
+}
@@ -2,10 +2,12 @@ package io.tus.java.client;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.List;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Test class for {@link TusURLMemoryStore}.
@@ -29,4 +31,47 @@ public class TestTusURLMemoryStore {
 
         assertEquals(store.get(fingerprint), null);
     }
+
+    /**
+     * Tests if checkpoints are dropped together with the URL they have been recorded for.
+     * @throws MalformedURLException
+     */
+    @Test
+    public void testCheckpoint() throws MalformedURLException {
+        TusURLMemoryStore store = new TusURLMemoryStore();
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set("foo", url);
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 100, 1000));
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(new URL("https://tusd.tusdemo.net/files/other"), 200, 2000));
+        assertEquals(100, store.getCheckpoint("foo").getOffset());
+
+        store.set("foo", new URL("https://tusd.tusdemo.net/files/other"));
+        assertNull(store.getCheckpoint("foo"));
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(new URL("https://tusd.tusdemo.net/files/other"), 200, 2000));
+        store.remove("foo");
+        assertNull(store.getCheckpoint("foo"));
+    }
+
+    /**
+     * Tests if the entries are listed with the time they have last been updated.
+     * @throws MalformedURLException
+     */
+    @Test
+    public void testGetEntries() throws MalformedURLException {
+        TusURLMemoryStore store = new TusURLMemoryStore();
+        URL url = new URL("https://tusd.tusdemo.net/files/hello");
+        store.set("foo", url);
+        store.setCheckpoint("foo", new TusOffsetCheckpoint(url, 100, 1000));
+        store.set("bar", new URL("https://tusd.tusdemo.net/files/other"));
+
+        List<TusURLStoreEntry> entries = store.getEntries(2000);
+        assertEquals(1, entries.size());
+        assertEquals("foo", entries.get(0).getFingerprint());
+        assertEquals(url, entries.get(0).getUploadURL());
+        assertEquals(1000, entries.get(0).getUpdatedAt());
+        assertEquals(2, store.getEntries(Long.MAX_VALUE).size());
+
+        store.remove("foo");
+        assertEquals(0, store.getEntries(2000).size());
+    }
 }
@@ -2,15 +2,24 @@ package io.tus.java.client;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * Test class for {@link TusUpload}.
@@ -50,4 +59,164 @@ public class TestTusUpload {
         assertEquals(upload.getInputStream().read(readContent), content.length());
         assertEquals(new String(readContent), content);
     }
+
+    /**
+     * Tests if uploads created from a file can seek to any position without marking it first.
+     * @throws IOException
+     */
+    @Test
+    public void testTusUploadFileIsSeekable() throws IOException {
+        File file = File.createTempFile("tus-upload-test", ".tmp");
+        OutputStream output = new FileOutputStream(file);
+        output.write("hello world".getBytes());
+        output.close();
+
+        TusUpload upload = new TusUpload(file);
+        TusInputStream input = upload.getTusInputStream();
+        assertTrue(input.isSeekable());
+
+        byte[] buffer = new byte[5];
+        input.seekTo(6);
+        assertEquals(5, input.read(buffer, 5));
+        assertEquals("world", new String(buffer));
+        assertEquals(-1, input.read(buffer, 5));
+
+        input.seekTo(0);
+        assertEquals(5, input.read(buffer, 5));
+        assertEquals("hello", new String(buffer));
+        input.close();
+    }
+
+    /**
+     * Tests if memory mapped uploads read across window boundaries and seek back into earlier windows.
+     * @throws IOException
+     */
+    @Test
+    public void testTusUploadFileMemoryMapped() throws IOException {
+        File file = File.createTempFile("tus-upload-test", ".tmp");
+        OutputStream output = new FileOutputStream(file);
+        output.write("hello world".getBytes());
+        output.close();
+
+        TusUpload upload = new TusUpload(file);
+        upload.enableMemoryMapping(4);
+        TusInputStream input = upload.getTusInputStream();
+        assertTrue(input.isSeekable());
+
+        byte[] buffer = new byte[11];
+        assertEquals(4, input.read(buffer, 11));
+        assertEquals(4, input.read(buffer, 11));
+        assertEquals("o wo", new String(buffer, 0, 4));
+        assertEquals(3, input.read(buffer, 11));
+        assertEquals("rld", new String(buffer, 0, 3));
+        assertEquals(-1, input.read(buffer, 11));
+
+        input.seekTo(2);
+        assertEquals(4, input.read(buffer, 11));
+        assertEquals("llo ", new String(buffer, 0, 4));
+        input.close();
+    }
+
+    /**
+     * Tests if an upload created from a file can be resumed after its thread has been interrupted
+     * while reading from the file, which closes the file's channel.
+     * @throws Exception
+     */
+    @Test
+    public void testResumeAfterInterrupt() throws Exception {
+        assertResumesAfterInterrupt(0);
+        assertResumesAfterInterrupt(32 * 1024);
+    }
+
+    private void assertResumesAfterInterrupt(int mappingWindowSize) throws Exception {
+        byte[] content = new byte[256 * 1024];
+        new Random(0).nextBytes(content);
+        File file = File.createTempFile("tus-upload-test", ".tmp");
+        TusTestServer server = new TusTestServer();
+        try {
+            OutputStream output = new FileOutputStream(file);
+            output.write(content);
+            output.close();
+
+            TusClient client = new TusClient();
+            client.setUploadCreationURL(server.getUploadCreationURL());
+            client.enableResuming(new TusURLMemoryStore());
+
+            TusUpload upload = new TusUpload(file);
+            if (mappingWindowSize > 0) {
+                upload.enableMemoryMapping(mappingWindowSize);
+            }
+            TusUploader uploader = client.createUpload(upload);
+            uploader.setChunkSize(16 * 1024);
+            uploader.uploadChunk();
+            uploader.uploadChunk();
+
+            // Reading in an interrupted thread closes the channel, like cancelling the upload does.
+            Thread.currentThread().interrupt();
+            try {
+                uploader.uploadChunk();
+                fail("expected the read to be interrupted");
+            } catch (ClosedByInterruptException e) {
+                assertTrue(Thread.interrupted());
+            }
+
+            uploader = client.resumeUpload(upload);
+            while (uploader.uploadChunk() > -1) {
+                assertTrue(uploader.getOffset() > 0);
+            }
+            uploader.finish();
+            assertArrayEquals(content, server.getContent(uploader.getUploadURL()));
+        } finally {
+            Thread.interrupted();
+            server.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests if metadata values are encoded as UTF-8, including characters outside of the BMP and
+     * unpaired surrogates, and if every length is padded correctly.
+     */
+    @Test
+    public void testEncodedMetadataUtf8() {
+        String[] values = {"", "a", "ab", "abc", "abcd", "\u00e4\u00f6\u00fc", "\u20ac 5", "\ud83d\ude00!",
+            "broken \ud83d", "\ude00 broken"};
+        for (String value : values) {
+            TusUpload upload = new TusUpload();
+            upload.setMetadata(Collections.singletonMap("key", value));
+            String expected = Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+            assertEquals("key " + expected, upload.getEncodedMetadata());
+            assertEquals(Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)),
+                    TusUpload.base64Encode(value.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Tests if the encoded metadata is cached until the map is replaced or modified.
+     */
+    @Test
+    public void testEncodedMetadataCache() {
+        TusUpload upload = new TusUpload();
+        assertEquals("", upload.getEncodedMetadata());
+
+        Map<String, String> metadata = new LinkedHashMap<String, String>();
+        metadata.put("foo", "hello");
+        upload.setMetadata(metadata);
+        String encoded = upload.getEncodedMetadata();
+        assertEquals("foo aGVsbG8=", encoded);
+        assertSame(encoded, upload.getEncodedMetadata());
+
+        metadata.put("bar", "world");
+        assertEquals("foo aGVsbG8=,bar d29ybGQ=", upload.getEncodedMetadata());
+
+        metadata.put("foo", "hallo");
+        assertEquals("foo aGFsbG8=,bar d29ybGQ=", upload.getEncodedMetadata());
+
+        upload.setMetadata(Collections.singletonMap("baz", "!"));
+        assertEquals("baz IQ==", upload.getEncodedMetadata());
+
+        metadata.clear();
+        upload.setMetadata(metadata);
+        assertEquals("", upload.getEncodedMetadata());
+    }
 }
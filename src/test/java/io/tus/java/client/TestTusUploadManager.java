@@ -0,0 +1,192 @@
+package io.tus.java.client;
+
+import org.junit.Test;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TusUploadManager}.
+ */
+public class TestTusUploadManager extends MockServerProvider {
+
+    /**
+     * Tests if all submitted uploads are run and reported to the listener.
+     * @throws Exception
+     */
+    @Test
+    public void testUploadManager() throws Exception {
+        List<TusUpload> uploads = new ArrayList<TusUpload>();
+        for (int i = 0; i < 5; i++) {
+            mockServer.when(new HttpRequest()
+                    .withMethod("POST")
+                    .withPath("/files")
+                    .withHeader("Upload-Metadata", "filename " + TusUpload.base64Encode(("file" + i).getBytes())))
+                    .respond(new HttpResponse()
+                            .withStatusCode(201)
+                            .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                            .withHeader("Location", mockServerURL + "/manager" + i));
+
+            mockServer.when(new HttpRequest()
+                    .withPath("/files/manager" + i)
+                    .withHeader("Upload-Offset", "0"))
+                    .respond(new HttpResponse()
+                            .withStatusCode(204)
+                            .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                            .withHeader("Upload-Offset", "11"));
+
+            TusUpload upload = new TusUpload();
+            upload.setSize(11);
+            upload.setInputStream(new ByteArrayInputStream("hello world".getBytes()));
+            upload.setMetadata(Collections.singletonMap("filename", "file" + i));
+            uploads.add(upload);
+        }
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+
+        final List<URL> finished = Collections.synchronizedList(new ArrayList<URL>());
+        final AtomicBoolean allFinished = new AtomicBoolean();
+        TusUploadManager manager = new TusUploadManager(client, 2, 1);
+        manager.setChunkSize(4);
+        manager.setListener(new TusUploadManagerListener() {
+            @Override
+            public void uploadFinished(TusUpload upload, URL uploadURL) {
+                finished.add(uploadURL);
+            }
+
+            @Override
+            public void allUploadsFinished() {
+                allFinished.set(true);
+            }
+        });
+
+        manager.submitAll(uploads.iterator());
+        manager.shutdown();
+        assertTrue(manager.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(allFinished.get());
+        assertEquals(5, finished.size());
+        assertEquals(5, manager.getFinishedUploads());
+        assertEquals(0, manager.getFailedUploads());
+        assertEquals(55, manager.getBytesUploaded());
+        assertTrue(finished.contains(new URL(mockServerURL + "/manager3")));
+    }
+
+    /**
+     * Tests if uploads which cannot be created are reported as failed.
+     * @throws Exception
+     */
+    @Test
+    public void testUploadManagerFailure() throws Exception {
+        mockServer.when(new HttpRequest()
+                .withMethod("POST")
+                .withPath("/files"))
+                .respond(new HttpResponse()
+                        .withStatusCode(403));
+
+        TusClient client = new TusClient();
+        client.setUploadCreationURL(mockServerURL);
+
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+        TusUploadManager manager = new TusUploadManager(client, 1, 1);
+        manager.setListener(new TusUploadManagerListener() {
+            @Override
+            public void uploadFailed(TusUpload upload, Exception exception) {
+                failures.add(exception);
+            }
+        });
+
+        TusUpload upload = new TusUpload();
+        upload.setSize(11);
+        upload.setInputStream(new ByteArrayInputStream("hello world".getBytes()));
+        manager.submit(upload);
+        manager.shutdown();
+        assertTrue(manager.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, manager.getFailedUploads());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof ProtocolException);
+    }
+
+    /**
+     * Tests if a running upload is preempted between requests by a more urgent one and continued
+     * afterwards without resuming it from the server.
+     * @throws Exception
+     */
+    @Test
+    public void testPreemption() throws Exception {
+        final byte[] largeContent = new byte[64 * 1024];
+        new Random(1).nextBytes(largeContent);
+        byte[] smallContent = "thumbnail".getBytes();
+
+        TusTestServer server = new TusTestServer();
+        try {
+            TusClient client = new TusClient();
+            client.setUploadCreationURL(server.getUploadCreationURL());
+
+            final TusUpload small = new TusUpload();
+            small.setSize(smallContent.length);
+            small.setInputStream(new ByteArrayInputStream(smallContent));
+
+            final List<TusUpload> finishedUploads = Collections.synchronizedList(new ArrayList<TusUpload>());
+            final List<URL> finishedURLs = Collections.synchronizedList(new ArrayList<URL>());
+            final TusUploadManager manager = new TusUploadManager(client, 1, 4);
+            manager.setSchedulingPolicy(TusSchedulingPolicy.priority());
+            manager.setChunkSize(4 * 1024);
+            manager.setRequestPayloadSize(16 * 1024);
+            final CountDownLatch submitted = new CountDownLatch(1);
+            manager.setListener(new TusUploadManagerListener() {
+                @Override
+                public void progress(long bytesUploaded, double bytesPerSecond) {
+                    // Submit the urgent upload while the large one is in its first request.
+                    if (submitted.getCount() > 0) {
+                        try {
+                            manager.submit(small, 1);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        submitted.countDown();
+                    }
+                }
+
+                @Override
+                public void uploadFinished(TusUpload upload, URL uploadURL) {
+                    finishedUploads.add(upload);
+                    finishedURLs.add(uploadURL);
+                }
+            });
+
+            TusUpload large = new TusUpload();
+            large.setSize(largeContent.length);
+            large.setInputStream(new ByteArrayInputStream(largeContent));
+            manager.submit(large);
+            assertTrue(submitted.await(10, TimeUnit.SECONDS));
+            manager.shutdown();
+            assertTrue(manager.awaitTermination(10, TimeUnit.SECONDS));
+
+            assertEquals(Arrays.asList(small, large), finishedUploads);
+            assertArrayEquals(smallContent, server.getContent(finishedURLs.get(0)));
+            assertArrayEquals(largeContent, server.getContent(finishedURLs.get(1)));
+            assertEquals(2, server.getRequestCount("POST"));
+            assertEquals(0, server.getRequestCount("HEAD"));
+            assertEquals(5, server.getRequestCount("PATCH"));
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.tus.java.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link TusUploadReaper} and {@link TusClient#terminateUpload(URL)}.
+ */
+public class TestTusUploadReaper extends TusTestServerProvider {
+    private static final long OLD = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+
+    private TusURLMemoryStore store;
+
+    /**
+     * Starts the test server and enables resuming.
+     * @throws Exception
+     */
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        store = new TusURLMemoryStore();
+        client.enableResuming(store);
+    }
+
+    /**
+     * Tests if uploads are terminated and removed from the store.
+     * @throws Exception
+     */
+    @Test
+    public void testTerminateUpload() throws Exception {
+        TusUpload upload = TusTestServer.createUpload(new byte[1024], "foo");
+        URL uploadURL = client.createUpload(upload).getUploadURL();
+        assertTrue(client.terminateUpload(upload));
+        assertNull(store.get("foo"));
+        assertFalse(client.terminateUpload(upload));
+        assertFalse(client.terminateUpload(uploadURL));
+        assertEquals(2, server.getRequestCount("DELETE"));
+    }
+
+    /**
+     * Tests if no request is sent if the server does not support the extension.
+     * @throws Exception
+     */
+    @Test
+    public void testTerminationNotSupported() throws Exception {
+        server.setExtensions("creation");
+        URL uploadURL = client.createUpload(TusTestServer.createUpload(new byte[1024], "foo")).getUploadURL();
+        client.enableCapabilityDiscovery();
+        try {
+            client.terminateUpload(uploadURL);
+            fail("expected the termination to be rejected");
+        } catch (ProtocolException e) {
+            assertNull(e.getCausingExchange());
+        }
+        assertEquals(0, server.getRequestCount("DELETE"));
+    }
+
+    /**
+     * Tests if only old uploads are reaped and failures keep their entries.
+     * @throws Exception
+     */
+    @Test
+    public void testReap() throws Exception {
+        URL abandoned = createAbandoned("abandoned");
+        URL gone = createAbandoned("gone");
+        assertTrue(client.terminateUpload(gone));
+        client.createUpload(TusTestServer.createUpload(new byte[1024], "fresh"));
+
+        // A closed server refuses the connection.
+        TusTestServer closed = new TusTestServer();
+        closed.close();
+        URL unreachable = new URL(closed.getUploadCreationURL(), "/files/1");
+        store.set("unreachable", unreachable);
+        store.setCheckpoint("unreachable", new TusOffsetCheckpoint(unreachable, 0, OLD));
+
+        TusUploadReaper reaper = new TusUploadReaper(client, store);
+        TusUploadReaper.Result result = reaper.reap(1, TimeUnit.DAYS);
+
+        assertEquals(1, result.getTerminated().size());
+        assertEquals(abandoned.toString(), result.getTerminated().get(0).getUploadURL().toString());
+        assertEquals(1, result.getGone().size());
+        assertEquals("gone", result.getGone().get(0).getFingerprint());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().values().iterator().next() instanceof IOException);
+
+        assertNull(store.get("abandoned"));
+        assertNull(store.get("gone"));
+        assertNotNull(store.get("unreachable"));
+        assertNotNull(store.get("fresh"));
+        assertEquals(3, server.getRequestCount("DELETE"));
+
+        store.remove("unreachable");
+        assertEquals(0, reaper.reap(1, TimeUnit.DAYS).getTerminated().size());
+    }
+
+    /**
+     * Tests if the request rate is limited.
+     * @throws Exception
+     */
+    @Test
+    public void testRequestRate() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            createAbandoned("upload-" + i);
+        }
+
+        TusUploadReaper reaper = new TusUploadReaper(client, store);
+        reaper.setParallelism(6);
+        reaper.setRequestRate(10);
+        assertEquals(10, reaper.getRequestRate());
+
+        long start = System.nanoTime();
+        TusUploadReaper.Result result = reaper.reap(1, TimeUnit.DAYS);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertEquals(6, result.getTerminated().size());
+        // The first request is sent immediately, every other one 100 ms after the previous one.
+        assertTrue("reaping took " + elapsedMillis + "ms", elapsedMillis >= 450);
+    }
+
+    private URL createAbandoned(String fingerprint) throws Exception {
+        URL uploadURL = client.createUpload(TusTestServer.createUpload(new byte[1024], fingerprint)).getUploadURL();
+        store.setCheckpoint(fingerprint, new TusOffsetCheckpoint(uploadURL, 0, OLD));
+        return uploadURL;
+    }
+}
@@ -8,6 +8,8 @@ import static org.mockito.Mockito.times;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
@@ -18,13 +20,18 @@ import java.net.Proxy.Type;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.zip.CRC32;
 
 import org.junit.Assume;
 import org.junit.Test;
+import org.mockserver.matchers.Times;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.socket.PortFactory;
+import org.mockserver.verify.VerificationTimes;
 
 /**
  * Test class for {@link TusUploader}.
@@ -397,4 +404,160 @@ public class TestTusUploader extends MockServerProvider {
             assertTrue(exceptionThrown);
         }
     }
+
+    /**
+     * Verifies, that the uploader continues from the server's offset if the server did not store all bytes of
+     * a request and the input is seekable.
+     * @throws Exception
+     */
+    @Test
+    public void testSeekToLowerServerOffset() throws Exception {
+        byte[] content = "hello world".getBytes();
+        File file = File.createTempFile("tus-uploader-test", ".tmp");
+        OutputStream output = new FileOutputStream(file);
+        output.write(content);
+        output.close();
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/seek")
+                .withHeader("Upload-Offset", "0")
+                .withBody(Arrays.copyOfRange(content, 0, 5)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "3"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/seek")
+                .withHeader("Upload-Offset", "3")
+                .withBody(Arrays.copyOfRange(content, 3, 8)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "8"));
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/seek")
+                .withHeader("Upload-Offset", "8")
+                .withBody(Arrays.copyOfRange(content, 8, 11)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        TusUpload upload = new TusUpload(file);
+        TusUploader uploader = new TusUploader(client, upload, new URL(mockServerURL + "/seek"),
+                upload.getTusInputStream(), 0);
+        uploader.setRequestPayloadSize(5);
+
+        assertEquals(5, uploader.uploadChunk());
+        assertEquals(3, uploader.getOffset());
+        assertEquals(5, uploader.uploadChunk());
+        assertEquals(3, uploader.uploadChunk());
+        assertEquals(-1, uploader.uploadChunk());
+        uploader.finish();
+        assertEquals(11, uploader.getOffset());
+    }
+
+    /**
+     * Tests if the {@link TusUploader} sends the checksum of each request's payload.
+     * @throws IOException
+     * @throws ProtocolException
+     */
+    @Test
+    public void testUploadChunkWithChecksum() throws IOException, ProtocolException {
+        byte[] content = "hello world".getBytes();
+
+        mockServer.when(new HttpRequest()
+                .withPath("/files/checksum")
+                .withHeader("Upload-Offset", "0")
+                .withHeader("Upload-Checksum", "crc32 " + crc32(content, 0, 6))
+                .withBody(Arrays.copyOfRange(content, 0, 6)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "6"));
+        mockServer.when(new HttpRequest()
+                .withPath("/files/checksum")
+                .withHeader("Upload-Offset", "6")
+                .withHeader("Upload-Checksum", "crc32 " + crc32(content, 6, 5))
+                .withBody(Arrays.copyOfRange(content, 6, 11)))
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        TusInputStream input = new TusInputStream(new ByteArrayInputStream(content));
+        TusUploader uploader = new TusUploader(client, new TusUpload(), new URL(mockServerURL + "/checksum"), input, 0);
+        uploader.setChecksumAlgorithm("crc32");
+        uploader.setChunkSize(4);
+        uploader.setRequestPayloadSize(6);
+
+        assertEquals("crc32", uploader.getChecksumAlgorithm());
+        assertEquals(4, uploader.uploadChunk());
+        assertEquals(2, uploader.uploadChunk());
+        assertEquals(4, uploader.uploadChunk());
+        assertEquals(1, uploader.uploadChunk());
+        assertEquals(-1, uploader.uploadChunk());
+        uploader.finish();
+        assertEquals(11, uploader.getOffset());
+    }
+
+    /**
+     * Tests if the {@link TusUploader} sends a request's payload again after the server reported
+     * a checksum mismatch.
+     * @throws IOException
+     * @throws ProtocolException
+     */
+    @Test
+    public void testUploadChunkWithChecksumMismatch() throws IOException, ProtocolException {
+        byte[] content = "hello world".getBytes();
+        HttpRequest request = new HttpRequest()
+                .withPath("/files/mismatch")
+                .withHeader("Upload-Offset", "0")
+                .withHeader("Upload-Checksum", "sha1 " + TusUpload.base64Encode(sha1(content)))
+                .withBody(content);
+
+        mockServer.when(request, Times.once())
+                .respond(new HttpResponse()
+                        .withStatusCode(460)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION));
+        mockServer.when(request)
+                .respond(new HttpResponse()
+                        .withStatusCode(204)
+                        .withHeader("Tus-Resumable", TusClient.TUS_VERSION)
+                        .withHeader("Upload-Offset", "11"));
+
+        TusClient client = new TusClient();
+        TusInputStream input = new TusInputStream(new ByteArrayInputStream(content));
+        TusUploader uploader = new TusUploader(client, new TusUpload(), new URL(mockServerURL + "/mismatch"), input, 0);
+        uploader.setChecksumAlgorithm("sha1");
+
+        assertEquals(11, uploader.uploadChunk());
+        assertEquals(0, uploader.getOffset());
+        assertEquals(11, uploader.uploadChunk());
+        assertEquals(11, uploader.getOffset());
+        assertEquals(-1, uploader.uploadChunk());
+        uploader.finish();
+
+        mockServer.verify(request, VerificationTimes.exactly(2));
+    }
+
+    private static String crc32(byte[] content, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(content, offset, length);
+        long value = crc.getValue();
+        return TusUpload.base64Encode(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16),
+                (byte) (value >>> 8), (byte) value});
+    }
+
+    private static byte[] sha1(byte[] content) throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
 }
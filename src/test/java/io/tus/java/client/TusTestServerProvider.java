@@ -0,0 +1,31 @@
+package io.tus.java.client;
+
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * This class provides a {@link TusTestServer} and a client using it.
+ */
+public class TusTestServerProvider {
+    protected TusTestServer server;
+    protected TusClient client;
+
+    /**
+     * Starts the test server and creates a client using it.
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = new TusTestServer();
+        client = new TusClient();
+        client.setUploadCreationURL(server.getUploadCreationURL());
+    }
+
+    /**
+     * Stops the test server.
+     */
+    @After
+    public void tearDown() {
+        server.close();
+    }
+}
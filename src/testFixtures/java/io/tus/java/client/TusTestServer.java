@@ -0,0 +1,621 @@
+package io.tus.java.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A tus server running in the same process on the loopback interface, for testing and
+ * benchmarking the client without an external server. It supports the core protocol and the
+ * Creation, Creation With Upload, Termination and Concatenation extensions, and stores the
+ * uploaded data in memory or in a directory.
+ * <br>
+ * Unlike mocked expectations, the server accepts any sequence of requests and keeps real upload
+ * state, so it can be used for uploads of any size. To test how the client copes with bad
+ * networks, it can delay responses ({@link #setLatency(long)}), limit the rate at which request
+ * bodies are read ({@link #setBandwidthLimit(long)}) and drop connections in the middle of a
+ * request ({@link #dropConnections(int, long)}). Like most servers, it keeps the data received
+ * before a connection was dropped, so the client must resume from the offset returned by a HEAD
+ * request. HEAD and PATCH requests for an upload which is still receiving a PATCH request wait
+ * for it for up to a second and are then rejected with <code>423 Locked</code>.
+ * <br>
+ * The server is started by the constructor and stopped by {@link #close()}.
+ */
+public final class TusTestServer implements Closeable {
+    private static final String EXTENSIONS = "creation,creation-with-upload,termination,concatenation";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long LOCK_TIMEOUT = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final File directory;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<String, Upload>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<String, AtomicInteger>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger connectionDrops = new AtomicInteger();
+
+    private volatile boolean storeData = true;
+    private volatile String extensions = EXTENSIONS;
+    private volatile long maxSize = -1;
+    private volatile long latency;
+    private volatile long bandwidthLimit;
+    private volatile long dropAfterBytes;
+
+    /**
+     * Start a new server on a free port which stores the uploaded data in memory.
+     *
+     * @throws IOException Thrown if the server cannot be started
+     */
+    public TusTestServer() throws IOException {
+        this(null);
+    }
+
+    /**
+     * Start a new server on a free port which stores the uploaded data in files in the supplied
+     * directory, or in memory if the directory is null.
+     *
+     * @param directory The directory for the uploads' files or null
+     * @throws IOException Thrown if the server cannot be started
+     */
+    public TusTestServer(File directory) throws IOException {
+        this.directory = directory;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/files", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    TusTestServer.this.handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+
+        executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "tus-test-server");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns the URL to use with {@link TusClient#setUploadCreationURL(URL)}.
+     *
+     * @return The upload creation URL
+     */
+    public URL getUploadCreationURL() {
+        try {
+            return new URL("http", "127.0.0.1", server.getAddress().getPort(), "/files");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Create an upload which reads the supplied content from memory.
+     *
+     * @param content The data to upload
+     * @param fingerprint The fingerprint under which the upload URL is stored or null
+     * @return The upload
+     */
+    public static TusUpload createUpload(byte[] content, String fingerprint) {
+        TusUpload upload = new TusUpload();
+        upload.setSize(content.length);
+        upload.setInputStream(new ByteArrayInputStream(content));
+        upload.setFingerprint(fingerprint);
+        return upload;
+    }
+
+    /**
+     * Set whether the uploaded data is stored. If disabled, the server only keeps track of the
+     * offsets and discards all data, which allows benchmarks to upload large amounts of data.
+     * Enabled by default.
+     *
+     * @param storeData Whether to store the uploaded data
+     */
+    public void setStoreData(boolean storeData) {
+        this.storeData = storeData;
+    }
+
+    /**
+     * Set the extensions announced in response to OPTIONS requests. This does not change which
+     * requests the server accepts.
+     *
+     * @param extensions Comma-separated names of the extensions
+     */
+    public void setExtensions(String extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * Set the maximum size of an upload. It is announced in response to OPTIONS requests and
+     * uploads exceeding it are rejected with 413 Request Entity Too Large.
+     *
+     * @param maxSize The maximum size in bytes or -1 for no limit
+     */
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Delay every response by the supplied time.
+     *
+     * @param millis The delay in milliseconds or 0 to respond immediately
+     */
+    public void setLatency(long millis) {
+        latency = millis;
+    }
+
+    /**
+     * Limit the rate at which the body of each request is read, which also limits the rate at which
+     * the client can send it once the socket buffers are full.
+     *
+     * @param bytesPerSecond The maximum rate in bytes per second or 0 for no limit
+     */
+    public void setBandwidthLimit(long bytesPerSecond) {
+        bandwidthLimit = bytesPerSecond;
+    }
+
+    /**
+     * Drop the connections of the next requests which upload data, after their first bytes have
+     * been received and stored, without sending a response.
+     *
+     * @param count Number of requests whose connection will be dropped
+     * @param afterBytes Number of bytes received before a connection is dropped
+     */
+    public void dropConnections(int count, long afterBytes) {
+        dropAfterBytes = afterBytes;
+        connectionDrops.set(count);
+    }
+
+    /**
+     * Returns the current offset of an upload.
+     *
+     * @param uploadURL The upload's URL
+     * @return The offset or -1 if the upload does not exist
+     */
+    public long getOffset(URL uploadURL) {
+        Upload upload = uploads.get(uploadId(uploadURL.getPath()));
+        if (upload == null) {
+            return -1;
+        }
+        synchronized (upload) {
+            return upload.offset;
+        }
+    }
+
+    /**
+     * Returns the data received for an upload so far.
+     *
+     * @param uploadURL The upload's URL
+     * @return The data or null if the upload does not exist or data is not stored
+     * @throws IOException Thrown if the upload's file cannot be read
+     */
+    public byte[] getContent(URL uploadURL) throws IOException {
+        Upload upload = uploads.get(uploadId(uploadURL.getPath()));
+        if (upload == null || !storeData) {
+            return null;
+        }
+        synchronized (upload) {
+            return upload.read();
+        }
+    }
+
+    /**
+     * Returns the number of requests received with the supplied method, taking the
+     * X-HTTP-Method-Override header into account.
+     *
+     * @param method The method, e.g. PATCH
+     * @return Number of requests
+     */
+    public int getRequestCount(String method) {
+        AtomicInteger count = requestCounts.get(method);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Stop the server and remove all uploads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        for (Upload upload : uploads.values()) {
+            upload.delete();
+        }
+        uploads.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Headers request = exchange.getRequestHeaders();
+        String method = request.getFirst("X-HTTP-Method-Override");
+        if (method == null) {
+            method = exchange.getRequestMethod();
+        }
+        countRequest(method);
+
+        long delay = latency;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        Headers response = exchange.getResponseHeaders();
+        response.set("Tus-Resumable", TusClient.TUS_VERSION);
+        response.set("Cache-Control", "no-store");
+        if (request.getFirst("Content-Length") == null && request.getFirst("Transfer-Encoding") == null) {
+            // HttpURLConnection sends requests without a body, e.g. OPTIONS, HEAD or POST requests
+            // for concatenation, without a length. The embedded server does not reliably reuse such
+            // connections, so the client must not either.
+            response.set("Connection", "close");
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        boolean collection = path.equals("/files") || path.equals("/files/");
+        if (method.equals("OPTIONS")) {
+            response.set("Tus-Version", TusClient.TUS_VERSION);
+            response.set("Tus-Extension", extensions);
+            if (maxSize >= 0) {
+                response.set("Tus-Max-Size", Long.toString(maxSize));
+            }
+            exchange.sendResponseHeaders(204, -1);
+        } else if (!TusClient.TUS_VERSION.equals(request.getFirst("Tus-Resumable"))) {
+            response.set("Tus-Version", TusClient.TUS_VERSION);
+            exchange.sendResponseHeaders(412, -1);
+        } else if (collection && method.equals("POST")) {
+            create(exchange);
+        } else if (collection) {
+            exchange.sendResponseHeaders(405, -1);
+        } else {
+            Upload upload = uploads.get(uploadId(path));
+            if (upload == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if (method.equals("HEAD")) {
+                synchronized (upload) {
+                    if (!awaitIdle(upload)) {
+                        exchange.sendResponseHeaders(423, -1);
+                        return;
+                    }
+                    response.set("Upload-Offset", Long.toString(upload.offset));
+                    response.set("Upload-Length", Long.toString(upload.length));
+                    if (upload.concat != null) {
+                        response.set("Upload-Concat", upload.concat);
+                    }
+                }
+                exchange.sendResponseHeaders(200, -1);
+            } else if (method.equals("PATCH")) {
+                patch(exchange, upload);
+            } else if (method.equals("DELETE")) {
+                uploads.remove(uploadId(path));
+                upload.delete();
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        Headers request = exchange.getRequestHeaders();
+        String concat = request.getFirst("Upload-Concat");
+        String id = Integer.toString(nextId.incrementAndGet());
+
+        Upload upload;
+        if (concat != null && concat.startsWith("final;")) {
+            upload = concatenate(id, concat);
+            if (upload == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+        } else {
+            long length = parseLong(request.getFirst("Upload-Length"));
+            if (length < 0) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            if (maxSize >= 0 && length > maxSize) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            upload = new Upload(id, length, "partial".equals(concat) ? concat : null);
+        }
+        uploads.put(id, upload);
+
+        Headers response = exchange.getResponseHeaders();
+        response.set("Location", "/files/" + id);
+        if ("application/offset+octet-stream".equals(request.getFirst("Content-Type"))) {
+            if (!receive(exchange, upload)) {
+                return;
+            }
+            synchronized (upload) {
+                response.set("Upload-Offset", Long.toString(upload.offset));
+            }
+        }
+        exchange.sendResponseHeaders(201, -1);
+    }
+
+    private Upload concatenate(String id, String concat) throws IOException {
+        String[] partialURLs = concat.substring("final;".length()).trim().split(" +");
+        Upload[] parts = new Upload[partialURLs.length];
+        long length = 0;
+        for (int i = 0; i < partialURLs.length; i++) {
+            parts[i] = uploads.get(uploadId(partialURLs[i]));
+            if (parts[i] == null || parts[i].concat == null || parts[i].offset != parts[i].length) {
+                return null;
+            }
+            length += parts[i].length;
+        }
+
+        Upload upload = new Upload(id, length, concat);
+        if (!storeData) {
+            upload.offset = length;
+            return upload;
+        }
+        for (Upload part : parts) {
+            synchronized (part) {
+                byte[] data = part.read();
+                upload.write(data, 0, data.length);
+            }
+        }
+        return upload;
+    }
+
+    private void patch(HttpExchange exchange, Upload upload) throws IOException {
+        Headers request = exchange.getRequestHeaders();
+        if (!"application/offset+octet-stream".equals(request.getFirst("Content-Type"))) {
+            exchange.sendResponseHeaders(415, -1);
+            return;
+        }
+
+        synchronized (upload) {
+            if (upload.concat != null && upload.concat.startsWith("final;")) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            if (!awaitIdle(upload)) {
+                exchange.sendResponseHeaders(423, -1);
+                return;
+            }
+            if (parseLong(request.getFirst("Upload-Offset")) != upload.offset) {
+                exchange.sendResponseHeaders(409, -1);
+                return;
+            }
+            upload.busy = true;
+        }
+
+        try {
+            if (!receive(exchange, upload)) {
+                return;
+            }
+            synchronized (upload) {
+                exchange.getResponseHeaders().set("Upload-Offset", Long.toString(upload.offset));
+            }
+        } finally {
+            synchronized (upload) {
+                upload.busy = false;
+                upload.notifyAll();
+            }
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    /**
+     * Wait until no PATCH request is writing to the upload. Like tusd, only one request may access
+     * an upload at a time. A request whose connection has been closed by the client takes a moment
+     * to notice it, so the next one waits for it before being rejected. Must be called while
+     * holding the upload's lock.
+     *
+     * @param upload The upload to wait for
+     * @return False if the upload is still busy after the timeout
+     * @throws IOException Thrown if the thread has been interrupted
+     */
+    private static boolean awaitIdle(Upload upload) throws IOException {
+        long deadline = System.currentTimeMillis() + LOCK_TIMEOUT;
+        while (upload.busy) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                upload.wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append the request's body to the upload, honoring the bandwidth limit and dropping the
+     * connection if requested.
+     *
+     * @param exchange The exchange whose body is read
+     * @param upload The upload to append to
+     * @return False if the connection has been dropped and no response must be sent
+     * @throws IOException Thrown if the body cannot be read or stored
+     */
+    private boolean receive(HttpExchange exchange, Upload upload) throws IOException {
+        boolean drop = takeConnectionDrop();
+        long remainingBeforeDrop = dropAfterBytes;
+
+        InputStream body = exchange.getRequestBody();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long start = System.nanoTime();
+        long received = 0;
+        while (true) {
+            int length = buffer.length;
+            if (drop) {
+                length = (int) Math.min(length, remainingBeforeDrop - received);
+            }
+            int read = length > 0 ? body.read(buffer, 0, length) : 0;
+            if (read == -1) {
+                return true;
+            }
+
+            synchronized (upload) {
+                if (upload.offset + read > upload.length) {
+                    exchange.sendResponseHeaders(413, -1);
+                    return false;
+                }
+                upload.write(buffer, 0, read);
+            }
+            received += read;
+
+            if (drop && received >= remainingBeforeDrop) {
+                // Closing the exchange before sending a response closes the connection.
+                return false;
+            }
+            throttle(received, start);
+        }
+    }
+
+    private boolean takeConnectionDrop() {
+        while (true) {
+            int drops = connectionDrops.get();
+            if (drops <= 0) {
+                return false;
+            }
+            if (connectionDrops.compareAndSet(drops, drops - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void throttle(long received, long start) throws IOException {
+        long limit = bandwidthLimit;
+        if (limit <= 0) {
+            return;
+        }
+
+        long expectedNanos = received * 1000000000L / limit;
+        long sleepMillis = (expectedNanos - (System.nanoTime() - start)) / 1000000L;
+        if (sleepMillis > 0) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private void countRequest(String method) {
+        AtomicInteger count = requestCounts.get(method);
+        if (count == null) {
+            AtomicInteger created = new AtomicInteger();
+            count = requestCounts.putIfAbsent(method, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private static String uploadId(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The state of a single upload. All methods must be called while holding its lock.
+     */
+    private final class Upload {
+        private final long length;
+        private final String concat;
+        private final File file;
+        private byte[] data;
+        private long offset;
+        private boolean busy;
+
+        Upload(String id, long length, String concat) {
+            this.length = length;
+            this.concat = concat;
+            file = directory != null ? new File(directory, id) : null;
+            data = file == null ? new byte[0] : null;
+        }
+
+        void write(byte[] buffer, int off, int len) throws IOException {
+            if (!storeData) {
+                offset += len;
+            } else if (file != null) {
+                RandomAccessFile output = new RandomAccessFile(file, "rw");
+                try {
+                    output.seek(offset);
+                    output.write(buffer, off, len);
+                } finally {
+                    output.close();
+                }
+                offset += len;
+            } else {
+                if (data.length < offset + len) {
+                    data = Arrays.copyOf(data, (int) Math.min(length, Math.max(offset + len, data.length * 2L)));
+                }
+                System.arraycopy(buffer, off, data, (int) offset, len);
+                offset += len;
+            }
+        }
+
+        byte[] read() throws IOException {
+            if (file == null) {
+                return Arrays.copyOf(data, (int) offset);
+            }
+
+            byte[] content = new byte[(int) offset];
+            if (offset > 0) {
+                RandomAccessFile input = new RandomAccessFile(file, "r");
+                try {
+                    input.readFully(content);
+                } finally {
+                    input.close();
+                }
+            }
+            return content;
+        }
+
+        void delete() {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+}
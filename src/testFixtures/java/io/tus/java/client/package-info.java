@@ -0,0 +1,4 @@
+/**
+ * This package contains the embedded tus server used by the tests and benchmarks.
+ **/
+package io.tus.java.client;